@@ -0,0 +1,130 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+/**
+ * Flight category of an observation, derived from the ceiling and the
+ * prevailing visibility. Categories are declared from best to worst.
+ *
+ *  VFR  - ceiling greater than 3000 feet and visibility greater than 5 miles
+ *  MVFR - ceiling 1000 to 3000 feet and/or visibility 3 to 5 miles
+ *  IFR  - ceiling 500 to below 1000 feet and/or visibility 1 to below 3 miles
+ *  LIFR - ceiling below 500 feet and/or visibility below 1 mile
+ */
+public enum FlightCategory {
+    /** Visual Flight Rules */
+    VFR,
+    /** Marginal Visual Flight Rules */
+    MVFR,
+    /** Instrument Flight Rules */
+    IFR,
+    /** Low Instrument Flight Rules */
+    LIFR;
+
+    private static final FlightCategory[] VALUES = values();
+
+    /**
+     * Determine the flight category from a ceiling and visibility. Either
+     * value may be null, in which case the category is determined by the
+     * other alone.
+     *
+     * @param ceiling    the height of the lowest broken, overcast or vertical
+     *                   visibility layer (in feet), or null if there is none
+     * @param visibility the prevailing visibility (in statute miles)
+     * @return the flight category, or null if neither value is known
+     */
+    public static FlightCategory of(Integer ceiling, Float visibility) {
+        if (visibility == null) {
+            return (ceiling == null) ? null : ofCeiling(ceiling);
+        }
+
+        FlightCategory byVisibility;
+        if (visibility < 1) {
+            byVisibility = LIFR;
+        } else if (visibility < 3) {
+            byVisibility = IFR;
+        } else if (visibility <= 5) {
+            byVisibility = MVFR;
+        } else {
+            byVisibility = VFR;
+        }
+
+        if (ceiling == null) {
+            return byVisibility;
+        }
+
+        // the more restrictive of the two wins
+        FlightCategory byCeiling = ofCeiling(ceiling);
+        return (byCeiling.ordinal() > byVisibility.ordinal())
+                ? byCeiling : byVisibility;
+    }
+
+    private static FlightCategory ofCeiling(int ceiling) {
+        if (ceiling < 500) {
+            return LIFR;
+        } else if (ceiling < 1000) {
+            return IFR;
+        } else if (ceiling <= 3000) {
+            return MVFR;
+        }
+        return VFR;
+    }
+
+    /**
+     * Look up a flight category by name, ignoring case.
+     *
+     * @return the matching flight category, or null if there is none
+     */
+    public static FlightCategory fromString(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (FlightCategory category : VALUES) {
+            if (category.name().equalsIgnoreCase(name.trim())) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Count observations by flight category. The category is computed when
+     * a report is parsed, so this is a single pass over the observations.
+     *
+     * @param metars the observations to count
+     * @return the number of observations in each category, indexed by
+     * {@link #ordinal()}; observations without a category are not counted
+     */
+    public static int[] count(Iterable<? extends Metar> metars) {
+        int[] counts = new int[VALUES.length];
+        for (Metar metar : metars) {
+            FlightCategory category = metar.getFlightCategoryType();
+            if (category != null) {
+                counts[category.ordinal()]++;
+            }
+        }
+        return counts;
+    }
+}
@@ -29,70 +29,240 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+/**
+ * A decoded METAR report. Metars returned by the parser are mutable so that
+ * they can be filled in place and recycled; call {@link #freeze()} to get an
+ * immutable snapshot that can be shared between threads without copying or
+ * locking.
+ */
 public class Metar {
 
     private static final String TAG = "WeatherMetar";
 
-    private Date date = null;
-    private String reportModifier = "";
-    private String stationID = "";
-    private Integer windDirection = null;
-    private Integer windDirectionMin = null;
-    private Integer windDirectionMax = null;
-    private boolean windDirectionIsVariable = false;
-    private Float windSpeed = null; // (in knots x 1.1508 = MPH)
-    private Float windGusts = null; // (in knots x 1.1508 = MPH)
-    private boolean isCavok = false;
-    private Float visibilityMiles = null; // in miles
-    private Float visibilityKilometers = null; // in kilometers
-    private Float visibilityMeters = null; // in meters
-    private boolean visibilityLessThan = false;
-    private Float pressure = null;
-    private Float temperature = null;
-    private Float temperaturePrecise = null;
-    private Float dewPoint;
-    private Float dewPointPrecise = null;
-    private final List<WeatherCondition> weatherConditions = new ArrayList<>();
-    private final List<SkyCondition> skyConditions = new ArrayList<>();
-    private final List<RunwayVisualRange> runwayVisualRanges = new ArrayList<>();
-    private final List<Obscuration> obscurations = new ArrayList<>();
-    private boolean isNoSignificantChange = false;
-    private String rawText = "";
-    private String rawDate = "";
-    private String flightCategory = "";
-    private float latitude;
-    private float longitude;
-    private URI uri;
+    /**
+     * The single values of a report. They are kept in their own object,
+     * which a frozen Metar holds through a final field: everything reachable
+     * from a final field is safely published when the constructor returns,
+     * while the mutable Metars filled by the parser still change their
+     * values in place.
+     */
+    private static final class Values {
+
+        // the values of a newly constructed Metar, never modified
+        static final Values EMPTY = new Values();
+
+        Date date = null;
+        String reportModifier = "";
+        String stationID = "";
+        Integer windDirection = null;
+        Integer windDirectionMin = null;
+        Integer windDirectionMax = null;
+        boolean windDirectionIsVariable = false;
+        Float windSpeed = null; // (in knots x 1.1508 = MPH)
+        Float windGusts = null; // (in knots x 1.1508 = MPH)
+        boolean isCavok = false;
+        Float visibilityMiles = null; // in miles
+        Float visibilityKilometers = null; // in kilometers
+        Float visibilityMeters = null; // in meters
+        boolean visibilityLessThan = false;
+        boolean visibilityGreaterThan = false;
+        Float pressure = null;
+        Float temperature = null;
+        Float temperaturePrecise = null;
+        Float dewPoint = null;
+        Float dewPointPrecise = null;
+        boolean isNoSignificantChange = false;
+        String rawText = "";
+        String rawDate = "";
+        String flightCategory = "";
+        FlightCategory flightCategoryType = null;
+        Integer ceiling = null;
+        float latitude = 0;
+        float longitude = 0;
+        URI uri = null;
+
+        void copy(Values source) {
+            date = source.date;
+            reportModifier = source.reportModifier;
+            stationID = source.stationID;
+            windDirection = source.windDirection;
+            windDirectionMin = source.windDirectionMin;
+            windDirectionMax = source.windDirectionMax;
+            windDirectionIsVariable = source.windDirectionIsVariable;
+            windSpeed = source.windSpeed;
+            windGusts = source.windGusts;
+            isCavok = source.isCavok;
+            visibilityMiles = source.visibilityMiles;
+            visibilityKilometers = source.visibilityKilometers;
+            visibilityMeters = source.visibilityMeters;
+            visibilityLessThan = source.visibilityLessThan;
+            visibilityGreaterThan = source.visibilityGreaterThan;
+            pressure = source.pressure;
+            temperature = source.temperature;
+            temperaturePrecise = source.temperaturePrecise;
+            dewPoint = source.dewPoint;
+            dewPointPrecise = source.dewPointPrecise;
+            isNoSignificantChange = source.isNoSignificantChange;
+            rawText = source.rawText;
+            rawDate = source.rawDate;
+            flightCategory = source.flightCategory;
+            flightCategoryType = source.flightCategoryType;
+            ceiling = source.ceiling;
+            latitude = source.latitude;
+            longitude = source.longitude;
+            uri = source.uri;
+        }
+    }
+
+    private final Values values = new Values();
+    private final List<WeatherCondition> weatherConditions;
+    private final List<SkyCondition> skyConditions;
+    private final List<RunwayVisualRange> runwayVisualRanges;
+    private final List<Obscuration> obscurations;
+
+    // offset of the remarks section in the raw text while its decoding is
+    // deferred, or -1 once the remarks have been decoded
+    private volatile int deferredRemarksOffset = -1;
+
+    // true for the immutable snapshots created by freeze()
+    private final boolean frozen;
+
+    public Metar() {
+        weatherConditions = new ArrayList<>();
+        skyConditions = new ArrayList<>();
+        runwayVisualRanges = new ArrayList<>();
+        obscurations = new ArrayList<>();
+        frozen = false;
+    }
+
+    /**
+     * Create a frozen copy of a Metar whose remarks have been decoded. All
+     * of its state is reached through final fields, and is never changed
+     * after this constructor returns.
+     *
+     * @param source the Metar to copy
+     */
+    private Metar(Metar source) {
+        values.copy(source.values);
+        if (values.date != null) {
+            values.date = new Date(values.date.getTime());
+        }
+        weatherConditions = List.copyOf(source.weatherConditions);
+        skyConditions = List.copyOf(source.skyConditions);
+        runwayVisualRanges = List.copyOf(source.runwayVisualRanges);
+        obscurations = List.copyOf(source.obscurations);
+        frozen = true;
+    }
+
+    /**
+     * Return an immutable snapshot of this Metar. Deferred remarks are
+     * decoded first, the condition lists are copied into compact
+     * unmodifiable lists, and every mutator of the snapshot throws
+     * UnsupportedOperationException. A snapshot never changes after it is
+     * constructed, so once it has been published through a volatile field or
+     * a concurrent collection any number of threads may read it without
+     * copying or synchronization. This Metar is left unchanged and may be
+     * reset and reused by the parser.
+     *
+     * @return a frozen copy of this Metar, or this Metar if it is already
+     * frozen
+     */
+    public Metar freeze() {
+        if (frozen) {
+            return this;
+        }
+        decodeDeferredRemarks();
+        return new Metar(this);
+    }
+
+    /**
+     * @return true if this Metar is an immutable snapshot created by
+     * {@link #freeze()}
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Metar is frozen");
+        }
+    }
 
 
     public void setRawDate(String rawDate) {
-        this.rawDate = rawDate;
+        checkMutable();
+        values.rawDate = rawDate;
     }
 
     public String getRawDate() {
-        return rawDate;
+        return values.rawDate;
     }
 
     public void setFlightCategory(String flightCategory) {
-        this.flightCategory = flightCategory;
+        checkMutable();
+        values.flightCategory = flightCategory;
+        values.flightCategoryType = FlightCategory.fromString(flightCategory);
+    }
+
+    /**
+     * @param flightCategory the flight category of this observation
+     */
+    void setFlightCategoryType(FlightCategory flightCategory) {
+        checkMutable();
+        values.flightCategoryType = flightCategory;
+        values.flightCategory =
+                (flightCategory == null) ? "" : flightCategory.name();
     }
 
     public String getFlightCategory() {
-        return flightCategory;
+        return values.flightCategory;
+    }
+
+    /**
+     * @return the flight category of this observation, or null if it could
+     * not be determined
+     * @see FlightCategory
+     */
+    public FlightCategory getFlightCategoryType() {
+        return values.flightCategoryType;
+    }
+
+    /**
+     * @param value the height of the lowest broken, overcast or vertical
+     *              visibility layer (in feet)
+     */
+    void setCeiling(Integer value) {
+        checkMutable();
+        values.ceiling = value;
+    }
+
+    /**
+     * @return the height of the lowest broken, overcast or vertical
+     * visibility layer (in feet), or null if there is no ceiling
+     */
+    public Integer getCeiling() {
+        return values.ceiling;
     }
 
     /**
      * @param value the date this METAR report was generated
      */
     protected void setDate(Date value) {
-        this.date = value;
+        checkMutable();
+        values.date = value;
     }
 
     /**
-     * @return the date this METAR report was generated
+     * @return the date this METAR report was generated; a frozen Metar
+     * returns a copy, since Date is mutable
      */
     public Date getDate() {
-        return date;
+        Date value = date();
+        if (frozen && value != null) {
+            return new Date(value.getTime());
+        }
+        return value;
     }
 
     /**
@@ -100,7 +270,8 @@ public class Metar {
      *              report was an automated report or was a corrected report
      */
     void setReportModifier(String value) {
-        this.reportModifier = value;
+        checkMutable();
+        values.reportModifier = value;
     }
 
     /**
@@ -108,21 +279,22 @@ public class Metar {
      * was an automated report or was a corrected report
      */
     public String getReportModifier() {
-        return reportModifier;
+        return values.reportModifier;
     }
 
     /**
      * @param rawText the data string that represents this WeatherMetar
      */
     void setRawText(String rawText) {
-        this.rawText = rawText;
+        checkMutable();
+        values.rawText = rawText;
     }
 
     /**
      * @return the data string that represents this MEtar
      */
     public String getRawText() {
-        return rawText;
+        return values.rawText;
     }
 
     /**
@@ -130,52 +302,57 @@ public class Metar {
      *              report
      */
     void setStationID(String value) {
-        this.stationID = value;
+        checkMutable();
+        values.stationID = value;
     }
 
     public void setUri(URI uri) {
-        this.uri = uri;
+        checkMutable();
+        values.uri = uri;
     }
 
     public URI getUri() {
-        return uri;
+        return values.uri;
     }
 
     public void setLatitude(float latitude) {
-        this.latitude = latitude;
+        checkMutable();
+        values.latitude = latitude;
     }
 
     public void setLongitude(float longitude) {
-        this.longitude = longitude;
+        checkMutable();
+        values.longitude = longitude;
     }
 
     public float getLatitude() {
-        return latitude;
+        return values.latitude;
     }
 
     public float getLongitude() {
-        return longitude;
+        return values.longitude;
     }
 
     /**
      * @return the station id of the station that generated this METAR report
      */
     public String getStationID() {
-        return stationID;
+        return values.stationID;
     }
 
     /**
      * @param value the direction the wind is blowing in (in degrees)
      */
     void setWindDirection(Integer value) {
-        this.windDirection = value;
+        checkMutable();
+        values.windDirection = value;
     }
 
     /**
      * @return the direction the wind is blowing in (in degrees)
      */
     public Integer getWindDirection() {
-        return windDirection;
+        return values.windDirection;
     }
 
     /**
@@ -183,7 +360,8 @@ public class Metar {
      *              directions
      */
     void setWindDirectionMin(Integer value) {
-        this.windDirectionMin = value;
+        checkMutable();
+        values.windDirectionMin = value;
     }
 
     /**
@@ -191,7 +369,7 @@ public class Metar {
      * directions
      */
     public Integer getWindDirectionMin() {
-        return windDirectionMin;
+        return values.windDirectionMin;
     }
 
     /**
@@ -199,7 +377,8 @@ public class Metar {
      *              directions
      */
     void setWindDirectionMax(Integer value) {
-        this.windDirectionMax = value;
+        checkMutable();
+        values.windDirectionMax = value;
     }
 
     /**
@@ -207,109 +386,96 @@ public class Metar {
      * directions
      */
     public Integer getWindDirectionMax() {
-        return windDirectionMax;
+        return values.windDirectionMax;
     }
 
     /**
      * @param value whether or not the wind direction is variable
      */
     protected void setWindDirectionIsVariable(boolean value) {
-        this.windDirectionIsVariable = value;
+        checkMutable();
+        values.windDirectionIsVariable = value;
     }
 
     /**
      * @return whether or not the wind direction is variable
      */
     public boolean getWindDirectionIsVariable() {
-        return windDirectionIsVariable;
+        return values.windDirectionIsVariable;
     }
 
     /**
      * @param value wind speed in knots
      */
     protected void setWindSpeed(Float value) {
-        this.windSpeed = value;
+        checkMutable();
+        values.windSpeed = value;
     }
 
     /**
      * @param value wind speed in meters per second
      */
     protected void setWindSpeedInMPS(Float value) {
-        this.windSpeed = value / 0.5148f;
+        checkMutable();
+        values.windSpeed = value / 0.5148f;
     }
 
     /**
      * @return wind speed in meters per second
      */
     public Float getWindSpeedInMPS() {
-        return this.windSpeed * 0.5148f;
+        return boxed(windSpeedInMPS());
     }
 
     /**
      * @return wind speed in knots
      */
     public Float getWindSpeedInKnots() {
-        return this.windSpeed;
+        return boxed(windSpeedInKnots());
     }
 
     /**
      * @return wind speed in MPH
      */
     public Float getWindSpeedInMPH() {
-        if (this.windSpeed == null) {
-            return null;
-        }
-
-        float f = this.windSpeed * 1.1508f;
-
-        // round to the nearest MPH
-        f = Math.round(f);
-
-        return f;
+        return boxed(windSpeedInMPH());
     }
 
     /**
      * @param value wind gust speed in knots
      */
     protected void setWindGusts(Float value) {
-        this.windGusts = value;
+        checkMutable();
+        values.windGusts = value;
     }
 
     /**
      * @param value wind gust speed in meters per second
      */
     protected void setWindGustsInMPS(Float value) {
-        this.windGusts = value / 0.5148f;
+        checkMutable();
+        values.windGusts = value / 0.5148f;
     }
 
     /**
      * @return wind gust speed in meters per second
      */
     public Float getWindGustsInMPS() {
-        return this.windGusts * 0.5148f;
+        return boxed(windGustsInMPS());
     }
 
     /**
      * @return wind gust speed in knots
      */
     public Float getWindGustsInKnots() {
-        return this.windGusts;
+        return boxed(windGustsInKnots());
     }
 
     /**
      * @return wind gust speed in MPH
      */
     public Float getWindGustsInMPH() {
-        if (this.windGusts == null) {
-            return null;
-        }
-
-        float f = this.windGusts * 1.1508f;
-
-        // round to the nearest MPH
-        f = Math.round(f);
-
-        return f;
+        return boxed(windGustsInMPH());
     }
 
     /**
@@ -319,7 +485,8 @@ public class Metar {
      * @param value boolean whether or not CAVOK was given
      */
     protected void setIsCavok(boolean value) {
-        this.isCavok = value;
+        checkMutable();
+        values.isCavok = value;
         // set visibility to 10
         setVisibilityInKilometers(10f);
     }
@@ -328,284 +495,251 @@ public class Metar {
      * @return value boolean whether or not CAVOK is true
      */
     public boolean getIsCavok() {
-        return this.isCavok;
+        return values.isCavok;
     }
 
     /**
      * @param value visibility in miles
      */
     protected void setVisibility(Float value) {
-        this.visibilityMiles = value;
-        this.visibilityKilometers = null;
-        this.visibilityMeters = null;
+        checkMutable();
+        values.visibilityMiles = value;
+        values.visibilityKilometers = null;
+        values.visibilityMeters = null;
     }
 
     /**
      * @param value visibility in kilometers
      */
     protected void setVisibilityInKilometers(Float value) {
-        this.visibilityKilometers = value;
-        this.visibilityMiles = null;
-        this.visibilityMeters = null;
+        checkMutable();
+        values.visibilityKilometers = value;
+        values.visibilityMiles = null;
+        values.visibilityMeters = null;
     }
 
     /**
      * @param value visibility in meters
      */
     protected void setVisibilityInMeters(Float value) {
-        this.visibilityMeters = value;
-        this.visibilityMiles = null;
-        this.visibilityKilometers = null;
+        checkMutable();
+        values.visibilityMeters = value;
+        values.visibilityMiles = null;
+        values.visibilityKilometers = null;
     }
 
     /**
      * @return visibility in miles
      */
     public Float getVisibility() {
-        if (visibilityMiles != null) {
-            return visibilityMiles;
-        } else if (visibilityKilometers != null) {
-            return visibilityKilometers / 1.609344f;
-        } else if (visibilityMeters != null) {
-            return visibilityMeters / 1609.344f;
-        }
-        return null;
+        return boxed(visibilityInMiles());
     }
 
     /**
      * @return visibility in kilometers
      */
     public Float getVisibilityInKilometers() {
-        if (visibilityKilometers != null) {
-            return visibilityKilometers;
-        } else if (visibilityMeters != null) {
-            return visibilityMeters / 1000;
-        } else if (visibilityMiles != null) {
-            return visibilityMiles * 1.609344f;
-        }
-        return null;
+        return boxed(visibilityInKilometers());
     }
 
     /**
      * @return visibility in meters
      */
     public Float getVisibilityInMeters() {
-        if (visibilityMeters != null) {
-            return visibilityMeters;
-        } else if (visibilityKilometers != null) {
-            return visibilityKilometers * 1000;
-        }
-        return null;
+        return boxed(visibilityInMeters());
     }
 
     /**
      * @param value visibility less than
      */
     protected void setVisibilityLessThan(boolean value) {
-        this.visibilityLessThan = value;
+        checkMutable();
+        values.visibilityLessThan = value;
     }
 
     /**
      * @return visibility less than
      */
     public boolean getVisibilityLessThan() {
-        return visibilityLessThan;
+        return values.visibilityLessThan;
+    }
+
+    /**
+     * @param value visibility greater than
+     */
+    protected void setVisibilityGreaterThan(boolean value) {
+        checkMutable();
+        values.visibilityGreaterThan = value;
+    }
+
+    /**
+     * @return visibility greater than, as in the P6SM of a forecast
+     */
+    public boolean getVisibilityGreaterThan() {
+        return values.visibilityGreaterThan;
     }
 
     /**
      * @param value pressure in inches Hg
      */
     protected void setPressure(Float value) {
-        this.pressure = value;
+        checkMutable();
+        values.pressure = value;
     }
 
     /**
      * @return pressure in inches Hg
      */
     public Float getPressure() {
-        return pressure;
+        return boxed(pressureInInches());
     }
 
     /**
      * @param value temperature in celsius
      */
     protected void setTemperature(Float value) {
-        this.temperature = value;
+        checkMutable();
+        values.temperature = value;
     }
 
     /**
      * @return temperature in celsius
      */
     public Float getTemperatureInCelsius() {
-        return this.temperature;
+        return values.temperature;
     }
 
     /**
      * @return temperature in fahrenheit
      */
     public Float getTemperatureInFahrenheit() {
-        if (this.temperature == null) {
+        if (values.temperature == null) {
             return null;
         }
 
-        // round to the nearest 1/10th
-
-        return (float) Math
-                .round((this.temperature * 9 / 5 + 32) * 10) / 10;
+        return toFahrenheit(values.temperature);
     }
 
     /**
      * @param value precise temperature in celsius
      */
     protected void setTemperaturePrecise(Float value) {
-        this.temperaturePrecise = value;
+        checkMutable();
+        values.temperaturePrecise = value;
     }
 
     /**
      * @return precise temperature in celsius (nearest 1/10th degree)
      */
     public Float getTemperaturePreciseInCelsius() {
-        return this.temperaturePrecise;
+        decodeDeferredRemarks();
+
+        return values.temperaturePrecise;
     }
 
     /**
      * @return precise temperature in fahrenheit (nearest 1/10th degree)
      */
     public Float getTemperaturePreciseInFahrenheit() {
-        if (this.temperaturePrecise == null) {
+        decodeDeferredRemarks();
+
+        if (values.temperaturePrecise == null) {
             return null;
         }
 
-        // round to the nearest 1/10th
-        return (float) Math
-                .round((this.temperaturePrecise * 9 / 5 + 32) * 10)
-                / 10;
+        return toFahrenheit(values.temperaturePrecise);
     }
 
     /**
      * @return most precise temperature in celsius (nearest 1/10th degree)
      */
     public Float getTemperatureMostPreciseInCelsius() {
-        if (this.temperaturePrecise != null) {
-            return this.temperaturePrecise;
-        } else {
-            return this.temperature;
-        }
+        return boxed(temperatureMostPreciseInCelsius());
     }
 
     /**
      * @return most precise temperature in fahrenheit (nearest 1/10th degree)
      */
     public Float getTemperatureMostPreciseInFahrenheit() {
-        if (this.temperaturePrecise != null) {
-            // round to the nearest 1/10th
-
-            return (float) Math.round(
-                    (this.temperaturePrecise * 9 / 5 + 32) * 10)
-                    / 10;
-        } else if (this.temperature != null) {
-            // round to the nearest 1/10th
-
-            return (float) Math
-                    .round((this.temperature * 9 / 5 + 32) * 10)
-                    / 10;
-        } else {
-            return null;
-        }
+        return boxed(temperatureMostPreciseInFahrenheit());
     }
 
     /**
      * @param value dew point in celsius
      */
     protected void setDewPoint(Float value) {
-        this.dewPoint = value;
+        checkMutable();
+        values.dewPoint = value;
     }
 
     /**
      * @return dew point in celsius
      */
     public Float getDewPointInCelsius() {
-        return this.dewPoint;
+        return values.dewPoint;
     }
 
     /**
      * @return dew point in fahrenheit
      */
     public Float getDewPointInFahrenheit() {
-        if (this.dewPoint == null) {
+        if (values.dewPoint == null) {
             return null;
         }
 
-        // round to the nearest 1/10th
-
-        return (float) Math
-                .round((this.dewPoint * 9 / 5 + 32) * 10) / 10;
+        return toFahrenheit(values.dewPoint);
     }
 
     /**
      * @param value precise dew point in celsius
      */
     protected void setDewPointPrecise(Float value) {
-        this.dewPointPrecise = value;
+        checkMutable();
+        values.dewPointPrecise = value;
     }
 
     /**
      * @return dew point in celsius (nearest 1/10th degree)
      */
     public Float getDewPointPreciseInCelsius() {
-        return this.dewPointPrecise;
+        decodeDeferredRemarks();
+
+        return values.dewPointPrecise;
     }
 
     /**
      * @return dew point in fahrenheit (nearest 1/10th degree)
      */
     public Float getDewPointPreciseInFahrenheit() {
-        if (this.dewPointPrecise == null) {
+        decodeDeferredRemarks();
+
+        if (values.dewPointPrecise == null) {
             return null;
         }
 
-        // round to the nearest 1/10th
-
-        return (float) Math
-                .round((this.dewPointPrecise * 9 / 5 + 32) * 10)
-                / 10;
+        return toFahrenheit(values.dewPointPrecise);
     }
 
     /**
      * @return most precise dew point in celsius (nearest 1/10th degree)
      */
     public Float getDewPointMostPreciseInCelsius() {
-        if (this.dewPointPrecise != null) {
-            return this.dewPointPrecise;
-        } else {
-            return this.dewPoint;
-        }
+        return boxed(dewPointMostPreciseInCelsius());
     }
 
     /**
      * @return most precise dew point in fahrenheit (nearest 1/10th degree)
      */
     public Float getDewPointMostPreciseInFahrenheit() {
-        if (this.dewPointPrecise != null) {
-            // round to the nearest 1/10th
-
-            return (float) Math.round(
-                    (this.dewPointPrecise * 9 / 5 + 32) * 10) / 10;
-        } else if (this.dewPoint != null) {
-            // round to the nearest 1/10th
-
-            return (float) Math
-                    .round((this.dewPoint * 9 / 5 + 32) * 10) / 10;
-        } else {
-            return null;
-        }
+        return boxed(dewPointMostPreciseInFahrenheit());
     }
 
     /**
      * @param value whether or not the weather has changed significantly
      */
     protected void setIsNoSignificantChange(boolean value) {
-        this.isNoSignificantChange = value;
+        checkMutable();
+        values.isNoSignificantChange = value;
     }
 
     /**
@@ -613,7 +747,9 @@ public class Metar {
      * weather
      */
     public boolean getIsNoSignificantChange() {
-        return isNoSignificantChange;
+        decodeDeferredRemarks();
+
+        return values.isNoSignificantChange;
     }
 
     /**
@@ -621,6 +757,7 @@ public class Metar {
      * @see WeatherCondition
      */
     public void addWeatherCondition(WeatherCondition wc) {
+        checkMutable();
         weatherConditions.add(wc);
     }
 
@@ -637,7 +774,8 @@ public class Metar {
     }
 
     /**
-     * @return an ArrayList of WeatherCondition objects
+     * @return a List of WeatherCondition objects, which is unmodifiable if this
+     * Metar is frozen
      * @see WeatherCondition
      */
     public List<WeatherCondition> getWeatherConditions() {
@@ -649,6 +787,7 @@ public class Metar {
      * @see SkyCondition
      */
     public void addSkyCondition(SkyCondition sc) {
+        checkMutable();
         skyConditions.add(sc);
     }
 
@@ -665,7 +804,8 @@ public class Metar {
     }
 
     /**
-     * @return an ArrayList of SkyCondition objects
+     * @return a List of SkyCondition objects, which is unmodifiable if this
+     * Metar is frozen
      * @see SkyCondition
      */
     public List<SkyCondition> getSkyConditions() {
@@ -677,6 +817,7 @@ public class Metar {
      * @see RunwayVisualRange
      */
     public void addRunwayVisualRange(RunwayVisualRange rvr) {
+        checkMutable();
         runwayVisualRanges.add(rvr);
     }
 
@@ -693,7 +834,8 @@ public class Metar {
     }
 
     /**
-     * @return an ArrayList of RunwayVisualRange objects
+     * @return a List of RunwayVisualRange objects, which is unmodifiable if this
+     * Metar is frozen
      * @see RunwayVisualRange
      */
     public List<RunwayVisualRange> getRunwayVisualRanges() {
@@ -705,6 +847,7 @@ public class Metar {
      * @see Obscuration
      */
     public void addObscuration(Obscuration o) {
+        checkMutable();
         obscurations.add(o);
     }
 
@@ -713,6 +856,8 @@ public class Metar {
      * @see Obscuration
      */
     public Obscuration getObscuration(int i) {
+        decodeDeferredRemarks();
+
         if (obscurations.size() >= i) {
             return obscurations.get(i);
         } else {
@@ -721,10 +866,182 @@ public class Metar {
     }
 
     /**
-     * @return an ArrayList of Obscuration objects
+     * @return a List of Obscuration objects, which is unmodifiable if this
+     * Metar is frozen
      * @see Obscuration
      */
     public List<Obscuration> getObscurations() {
+        decodeDeferredRemarks();
+
         return obscurations;
     }
+
+    // Primitive forms of the getters, for the writers and renderers that
+    // format values without boxing them. Each returns NaN where the getter
+    // returns null, and the getters are written in terms of them.
+
+    // the date itself, which getDate() copies for a frozen Metar; callers
+    // must not modify it
+    Date date() {
+        return values.date;
+    }
+
+    float windSpeedInKnots() {
+        return values.windSpeed == null ? Float.NaN : values.windSpeed;
+    }
+
+    float windSpeedInMPS() {
+        return values.windSpeed == null ? Float.NaN
+                : values.windSpeed * 0.5148f;
+    }
+
+    float windSpeedInMPH() {
+        return values.windSpeed == null ? Float.NaN : toMPH(values.windSpeed);
+    }
+
+    float windGustsInKnots() {
+        return values.windGusts == null ? Float.NaN : values.windGusts;
+    }
+
+    float windGustsInMPS() {
+        return values.windGusts == null ? Float.NaN
+                : values.windGusts * 0.5148f;
+    }
+
+    float windGustsInMPH() {
+        return values.windGusts == null ? Float.NaN : toMPH(values.windGusts);
+    }
+
+    float visibilityInMiles() {
+        if (values.visibilityMiles != null) {
+            return values.visibilityMiles;
+        } else if (values.visibilityKilometers != null) {
+            return values.visibilityKilometers / 1.609344f;
+        } else if (values.visibilityMeters != null) {
+            return values.visibilityMeters / 1609.344f;
+        }
+        return Float.NaN;
+    }
+
+    float visibilityInKilometers() {
+        if (values.visibilityKilometers != null) {
+            return values.visibilityKilometers;
+        } else if (values.visibilityMeters != null) {
+            return values.visibilityMeters / 1000;
+        } else if (values.visibilityMiles != null) {
+            return values.visibilityMiles * 1.609344f;
+        }
+        return Float.NaN;
+    }
+
+    float visibilityInMeters() {
+        if (values.visibilityMeters != null) {
+            return values.visibilityMeters;
+        } else if (values.visibilityKilometers != null) {
+            return values.visibilityKilometers * 1000;
+        }
+        return Float.NaN;
+    }
+
+    float pressureInInches() {
+        return values.pressure == null ? Float.NaN : values.pressure;
+    }
+
+    float temperatureMostPreciseInCelsius() {
+        decodeDeferredRemarks();
+
+        Float value = values.temperaturePrecise != null
+                ? values.temperaturePrecise : values.temperature;
+        return value == null ? Float.NaN : value;
+    }
+
+    float temperatureMostPreciseInFahrenheit() {
+        float celsius = temperatureMostPreciseInCelsius();
+        return Float.isNaN(celsius) ? Float.NaN : toFahrenheit(celsius);
+    }
+
+    float dewPointMostPreciseInCelsius() {
+        decodeDeferredRemarks();
+
+        Float value = values.dewPointPrecise != null
+                ? values.dewPointPrecise : values.dewPoint;
+        return value == null ? Float.NaN : value;
+    }
+
+    float dewPointMostPreciseInFahrenheit() {
+        float celsius = dewPointMostPreciseInCelsius();
+        return Float.isNaN(celsius) ? Float.NaN : toFahrenheit(celsius);
+    }
+
+    private static Float boxed(float value) {
+        return Float.isNaN(value) ? null : value;
+    }
+
+    /**
+     * @param celsius a temperature in degrees Celsius
+     * @return the temperature in degrees Fahrenheit, rounded to the nearest
+     * 1/10th
+     */
+    static float toFahrenheit(float celsius) {
+        return (float) Math.round((celsius * 9 / 5 + 32) * 10) / 10;
+    }
+
+    /**
+     * @param knots a speed in knots
+     * @return the speed in miles per hour, rounded to the nearest MPH
+     */
+    static float toMPH(float knots) {
+        return Math.round(knots * 1.1508f);
+    }
+
+    /**
+     * Return every field to the value it has in a newly constructed Metar,
+     * so that the object can be filled again by the parser. Must not be
+     * called while other threads are reading this Metar, and a frozen
+     * Metar cannot be reset.
+     */
+    void reset() {
+        checkMutable();
+        values.copy(Values.EMPTY);
+        weatherConditions.clear();
+        skyConditions.clear();
+        runwayVisualRanges.clear();
+        obscurations.clear();
+        deferredRemarksOffset = -1;
+    }
+
+    /**
+     * @param offset the offset of the remarks section in the raw text, which
+     *               will be decoded the first time a value from the remarks
+     *               is requested
+     */
+    void setDeferredRemarks(int offset) {
+        checkMutable();
+        this.deferredRemarksOffset = offset;
+    }
+
+    /**
+     * @return true if the remarks section is waiting to be decoded
+     */
+    boolean hasDeferredRemarks() {
+        return deferredRemarksOffset >= 0;
+    }
+
+    /**
+     * Decode the remarks section if its decoding was deferred by the parser.
+     */
+    private void decodeDeferredRemarks() {
+        if (deferredRemarksOffset < 0) {
+            return;
+        }
+
+        synchronized (this) {
+            int offset = deferredRemarksOffset;
+            if (offset >= 0) {
+                MetarParser.parseDeferredRemarks(this,
+                        values.rawText.substring(offset));
+                deferredRemarksOffset = -1;
+            }
+        }
+    }
 }
@@ -0,0 +1,71 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a batch of reports parsed together by one
+ * of the bulk parsing APIs. The event duration covers the whole batch.
+ */
+@Name("com.partech.jweather.MetarBatch")
+@Label("METAR Batch")
+@Description("A batch of METAR reports parsed together")
+@Category({"JWeather", "Parsing"})
+@StackTrace(false)
+class MetarBatchEvent extends jdk.jfr.Event {
+
+    @Label("Reports")
+    int reportCount;
+
+    @Label("Failures")
+    int failureCount;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * End the event and commit it if the recording wants it.
+     *
+     * @param reportCount  the number of reports in the batch
+     * @param failureCount the number of reports that could not be parsed
+     * @param bytes        the size of the raw reports
+     */
+    void complete(int reportCount, int failureCount, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.reportCount = reportCount;
+            this.failureCount = failureCount;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * The {@link MetarHandler} the parser uses to fill a {@link Metar}, so that
+ * Metars and the handler callbacks come from the same decoding.
+ */
+final class MetarBuilder implements MetarHandler {
+
+    private static final TimeZone gmtZone = TimeZone.getTimeZone("GMT");
+
+    private Metar metar = null;
+
+    /**
+     * @param metar the Metar the following callbacks fill
+     */
+    void start(Metar metar) {
+        this.metar = metar;
+    }
+
+    @Override
+    public void onStation(String stationID) {
+        metar.setStationID(stationID);
+    }
+
+    @Override
+    public void onTime(int day, int hour, int minute) {
+        // steal year and month from date string
+        Calendar calendar = Calendar.getInstance(gmtZone);
+
+        // case where the month may have rolled. In this case, the
+        // calendar should be rolled back one day
+        if (day > calendar.get(Calendar.DAY_OF_MONTH)) {
+            calendar.roll(Calendar.DAY_OF_MONTH, false);
+        }
+
+        calendar.set(Calendar.DAY_OF_MONTH, day);
+        calendar.set(Calendar.HOUR_OF_DAY, hour);
+        calendar.set(Calendar.MINUTE, minute);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+
+        metar.setDate(calendar.getTime());
+    }
+
+    @Override
+    public void onModifier(String modifier) {
+        metar.setReportModifier(modifier);
+    }
+
+    @Override
+    public void onWind(int direction, float speed, float gusts,
+                       boolean variable) {
+        if (variable) {
+            metar.setWindDirectionIsVariable(true);
+        } else {
+            metar.setWindDirection(direction);
+        }
+        metar.setWindSpeed(speed);
+        if (!Float.isNaN(gusts)) {
+            metar.setWindGusts(gusts);
+        }
+    }
+
+    @Override
+    public void onWindVariation(int minimum, int maximum) {
+        metar.setWindDirectionIsVariable(true);
+        metar.setWindDirectionMin(minimum);
+        metar.setWindDirectionMax(maximum);
+    }
+
+    @Override
+    public void onCavok() {
+        metar.setIsCavok(true);
+    }
+
+    @Override
+    public void onVisibility(float distance, DistanceUnit unit,
+                             boolean lessThan, boolean greaterThan) {
+        if (!Float.isNaN(distance)) {
+            switch (unit) {
+                case STATUTE_MILES:
+                    metar.setVisibility(distance);
+                    break;
+                case KILOMETERS:
+                    metar.setVisibilityInKilometers(distance);
+                    break;
+                case METERS:
+                    metar.setVisibilityInMeters(distance);
+                    break;
+            }
+        }
+        metar.setVisibilityLessThan(lessThan);
+        metar.setVisibilityGreaterThan(greaterThan);
+    }
+
+    @Override
+    public void onRunwayVisualRange(int runway, char approach, char modifier,
+                                    int lowest, int highest) {
+        RunwayVisualRange runwayVisualRange = new RunwayVisualRange();
+        runwayVisualRange.setRunwayNumber(runway);
+        if (approach != 0) {
+            runwayVisualRange.setApproachDirection(approach);
+        }
+        if (modifier != 0) {
+            runwayVisualRange.setReportableModifier(modifier);
+        }
+        runwayVisualRange.setLowestReportable(lowest);
+        if (highest != -1) {
+            runwayVisualRange.setHighestReportable(highest);
+        }
+        metar.addRunwayVisualRange(runwayVisualRange);
+    }
+
+    @Override
+    public void onWeather(char intensity, String descriptor,
+                          String phenomenon) {
+        WeatherCondition weatherCondition = new WeatherCondition();
+        if (intensity == '-') {
+            weatherCondition.setIntensity(MetarConstants.METAR_LIGHT);
+        } else if (intensity == '+') {
+            weatherCondition.setIntensity(MetarConstants.METAR_HEAVY);
+        }
+        if (descriptor != null) {
+            weatherCondition.setDescriptor(descriptor);
+        }
+        weatherCondition.setPhenomena(phenomenon);
+        metar.addWeatherCondition(weatherCondition);
+    }
+
+    @Override
+    public void onSky(String cover, int height, String modifier) {
+        SkyCondition skyCondition = new SkyCondition();
+        skyCondition.setContraction(cover);
+
+        int skyCover = MetarCodeTable.skyCover(cover);
+        if (MetarCodeTable.isLayer(skyCover)
+                || skyCover == MetarCodeTable.SKY_VERTICAL_VISIBILITY) {
+            skyCondition.setHeight(height / 100);
+        }
+        if (modifier != null) {
+            skyCondition.setModifier(modifier);
+        }
+
+        metar.addSkyCondition(skyCondition);
+
+        // the ceiling is the lowest broken, overcast or obscured layer
+        if (skyCondition.isBrokenClouds() || skyCondition.isOvercast()
+                || skyCondition.isVerticalVisibility()) {
+            if (metar.getCeiling() == null
+                    || skyCondition.getHeight() < metar.getCeiling()) {
+                metar.setCeiling(skyCondition.getHeight());
+            }
+        }
+    }
+
+    @Override
+    public void onTemperature(float temperature, float dewPoint) {
+        metar.setTemperature(temperature);
+        metar.setDewPoint(dewPoint);
+    }
+
+    @Override
+    public void onAltimeter(float pressure) {
+        metar.setPressure(pressure);
+    }
+
+    @Override
+    public void onPreciseTemperature(float temperature, float dewPoint) {
+        metar.setTemperaturePrecise(temperature);
+        metar.setDewPointPrecise(dewPoint);
+    }
+
+    @Override
+    public void onObscuration(String phenomenon, String amount, int height) {
+        Obscuration obscuration = new Obscuration();
+        obscuration.setPhenomena(phenomenon);
+        obscuration.setContraction(amount);
+        obscuration.setHeight(height / 100);
+        metar.addObscuration(obscuration);
+    }
+
+    @Override
+    public void onNoSignificantChange() {
+        metar.setIsNoSignificantChange(true);
+    }
+}
@@ -0,0 +1,411 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.nio.ByteBuffer;
+
+/*
+ * example:
+ *  <SOH>
+ *  123
+ *  SAUS70 KWBC 061200
+ *  METAR
+ *  KCNO 060653Z 32004KT 10SM BKN043 13/11 A2993 RMK AO2 SLP133
+ *       T01280106=
+ *  KRAL 060653Z 27006KT 10SM CLR 14/09 A2992=
+ *  SPECI KONT 060701Z 00000KT 2SM BR OVC004 12/12 A2993=
+ *  <ETX>
+ *
+ * Bulletin layout:
+ *  (1)  Optional start of heading (SOH) and channel sequence number
+ *  (2)  Abbreviated heading - TTAAii CCCC YYGGgg (BBB)
+ *  (3)  Optional report type line - METAR or SPECI
+ *  (4)  Reports, each ended by '=', which may continue over several lines
+ *       and may start with their own METAR or SPECI keyword
+ *  (5)  Optional end of text (ETX)
+ */
+
+/**
+ * Splits WMO bulletins holding any number of reports into single reports,
+ * reading the bulletins from a ByteBuffer of ASCII text.
+ *
+ * The splitter works like a cursor: each successful call to {@link #next()}
+ * makes the next report available from {@link #getReport()}, a view of the
+ * input buffer that is reused for every report, so splitting copies and
+ * allocates nothing. The bulletin heading, report type keywords and the
+ * '=' terminators are not part of the report, and a report that continues
+ * over several lines is returned with its line breaks in place, which the
+ * parser treats as whitespace. {@link #getReportText()} returns the report
+ * as a single line ready for {@link MetarParser}.
+ *
+ * Bulletins can be split as they are read from a stream. Read into the
+ * buffer, flip it, pass it to {@link #setInput(ByteBuffer, boolean)} and
+ * call {@link #next()} until it returns false, then compact the buffer and
+ * read more. The position of the buffer is advanced past each report, so
+ * anything left in the buffer after next() returns false is an incomplete
+ * report that will be completed by the following read.
+ *
+ * A MetarBulletinSplitter must not be used by more than one thread at a
+ * time.
+ */
+public class MetarBulletinSplitter {
+
+    private static final String METAR = "METAR";
+    private static final String SPECI = "SPECI";
+
+    private static final byte END_OF_REPORT = '=';
+    private static final byte END_OF_TEXT = 0x03;
+
+    private ByteBuffer input = null;
+    private ByteBuffer report = null;
+    private boolean endOfInput = true;
+
+    // from the bulletin being split
+    private String heading = null;
+    private String bulletinType = null;
+
+    // from the current report
+    private String reportType = null;
+
+    /**
+     * Create a splitter with no input; call
+     * {@link #setInput(ByteBuffer, boolean)} before {@link #next()}.
+     */
+    public MetarBulletinSplitter() {
+    }
+
+    /**
+     * Create a splitter over a buffer that holds whole bulletins.
+     *
+     * @param input the bulletins, from the position to the limit
+     */
+    public MetarBulletinSplitter(ByteBuffer input) {
+        setInput(input, true);
+    }
+
+    /**
+     * Set the buffer to split. The heading and report type of the bulletin
+     * being split are kept, so a bulletin may be spread over several
+     * buffers.
+     *
+     * @param input      the bulletins, from the position to the limit
+     * @param endOfInput true if no more data follows the buffer, so that a
+     *                   final report without a terminator is returned
+     */
+    public void setInput(ByteBuffer input, boolean endOfInput) {
+        if (this.input != input) {
+            this.input = input;
+            this.report = input.duplicate();
+        }
+        this.endOfInput = endOfInput;
+    }
+
+    /**
+     * Move to the next report.
+     *
+     * @return true if a report is available, or false if the input holds no
+     * further complete report
+     */
+    public boolean next() {
+        if (input == null) {
+            throw new IllegalStateException("no input");
+        }
+
+        int limit = input.limit();
+        int pos = input.position();
+
+        while (pos < limit) {
+            int lineEnd = indexOf((byte) '\n', pos, limit);
+            if (lineEnd < 0 && !endOfInput) {
+                // wait for the rest of the line
+                input.position(pos);
+                return false;
+            }
+            int end = lineEnd < 0 ? limit : lineEnd;
+            int nextLine = lineEnd < 0 ? limit : lineEnd + 1;
+
+            int start = skipBlank(pos, end);
+            int trimmedEnd = trimBlank(start, end);
+
+            if (start == trimmedEnd) {
+                pos = nextLine;
+            } else if (isHeading(start, trimmedEnd)) {
+                heading = ascii(start, trimmedEnd);
+                bulletinType = null;
+                pos = nextLine;
+            } else if (isDigits(start, trimmedEnd)) {
+                // channel sequence number
+                pos = nextLine;
+            } else if (matches(METAR, start, trimmedEnd)
+                    || matches(SPECI, start, trimmedEnd)) {
+                bulletinType = ascii(start, trimmedEnd);
+                pos = nextLine;
+            } else {
+                int found = findReport(pos, start, limit);
+                if (found == 0) {
+                    // an incomplete report; wait for more input
+                    input.position(pos);
+                    return false;
+                }
+                if (found > 0) {
+                    return true;
+                }
+                // an empty report, such as a stray '='
+                pos = input.position();
+            }
+        }
+
+        input.position(pos);
+        return false;
+    }
+
+    /**
+     * Find the end of the report starting at the given position.
+     *
+     * @param lineStart the start of the first line of the report
+     * @param start     the first character of the report
+     * @param limit     the end of the input
+     * @return 1 if a report was found, -1 if the report was empty, or 0 if
+     * the report is incomplete
+     */
+    private int findReport(int lineStart, int start, int limit) {
+        reportType = bulletinType;
+        if (startsWithKeyword(METAR, start, limit)) {
+            reportType = METAR;
+            start = skipBlank(start + METAR.length(), limit);
+        } else if (startsWithKeyword(SPECI, start, limit)) {
+            reportType = SPECI;
+            start = skipBlank(start + SPECI.length(), limit);
+        }
+
+        int pos = start;
+        int lastLineEnd = start;
+        boolean firstLine = true;
+
+        while (pos < limit) {
+            int lineEnd = indexOf((byte) '\n', pos, limit);
+            int end = lineEnd < 0 ? limit : lineEnd;
+            int lineContent = skipBlank(pos, end);
+
+            if (!firstLine && (lineEnd >= 0 || endOfInput)) {
+                // a blank line, or the heading of the next bulletin, ends a
+                // report whose terminator is missing
+                int trimmedEnd = trimBlank(lineContent, end);
+                if (lineContent == trimmedEnd
+                        || isHeading(lineContent, trimmedEnd)) {
+                    return emit(start, lastLineEnd, pos);
+                }
+            }
+
+            for (int i = lineContent; i < end; i++) {
+                byte b = input.get(i);
+                if (b == END_OF_REPORT || b == END_OF_TEXT) {
+                    return emit(start, i, i + 1);
+                }
+            }
+
+            if (lineEnd < 0) {
+                break;
+            }
+            lastLineEnd = end;
+            pos = lineEnd + 1;
+            firstLine = false;
+        }
+
+        if (!endOfInput) {
+            return 0;
+        }
+        return emit(start, limit, limit);
+    }
+
+    /**
+     * Make the report between the positions current and move the input past
+     * it.
+     */
+    private int emit(int start, int end, int resume) {
+        input.position(resume);
+        end = trimBlank(start, end);
+        if (start == end) {
+            return -1;
+        }
+
+        report.clear();
+        report.position(start);
+        report.limit(end);
+        return 1;
+    }
+
+    /**
+     * @return the current report, a view of the input buffer that is only
+     * valid until the next call to {@link #next()} and must not be modified
+     */
+    public ByteBuffer getReport() {
+        return report;
+    }
+
+    /**
+     * @return the current report with each run of whitespace, including
+     * line breaks, replaced by a single space
+     */
+    public String getReportText() {
+        int start = report.position();
+        int end = report.limit();
+        char[] chars = new char[end - start];
+        int length = 0;
+        boolean blank = false;
+
+        for (int i = start; i < end; i++) {
+            byte b = report.get(i);
+            if (isBlank(b)) {
+                blank = true;
+            } else {
+                if (blank && length > 0) {
+                    chars[length++] = ' ';
+                }
+                blank = false;
+                chars[length++] = (char) (b & 0xff);
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * @return the type of the current report, METAR or SPECI, from its own
+     * keyword or from the type line of its bulletin, or null if neither was
+     * present
+     */
+    public String getReportType() {
+        return reportType;
+    }
+
+    /**
+     * @return the abbreviated heading of the bulletin holding the current
+     * report, such as "SAUS70 KWBC 061200", or null if none was seen
+     */
+    public String getHeading() {
+        return heading;
+    }
+
+    private int indexOf(byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (input.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int skipBlank(int from, int to) {
+        while (from < to && isBlank(input.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private int trimBlank(int from, int to) {
+        while (to > from && isBlank(input.get(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    private static boolean isBlank(byte b) {
+        // spaces, line breaks and control characters such as SOH
+        return b >= 0 && b <= ' ' && b != END_OF_TEXT;
+    }
+
+    private boolean isDigits(int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = input.get(i);
+            if (b < '0' || b > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(String text, int from, int to) {
+        return to - from == text.length() && regionMatches(text, from);
+    }
+
+    private boolean startsWithKeyword(String keyword, int from, int to) {
+        int end = from + keyword.length();
+        return end < to && regionMatches(keyword, from)
+                && isBlank(input.get(end));
+    }
+
+    private boolean regionMatches(String text, int from) {
+        for (int i = 0; i < text.length(); i++) {
+            if (input.get(from + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the line is an abbreviated heading: TTAAii CCCC YYGGgg,
+     * optionally followed by a three letter BBB indicator such as RRA or CCA
+     */
+    private boolean isHeading(int from, int to) {
+        int length = to - from;
+        if (length != 18 && length != 22) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = input.get(from + i);
+            boolean ok;
+            if (i < 4) {
+                ok = isLetter(b);
+            } else if (i < 6) {
+                ok = b >= '0' && b <= '9';
+            } else if (i == 6 || i == 11 || i == 18) {
+                ok = b == ' ';
+            } else if (i < 11) {
+                ok = isLetter(b) || (b >= '0' && b <= '9');
+            } else if (i < 18) {
+                ok = b >= '0' && b <= '9';
+            } else {
+                ok = isLetter(b);
+            }
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLetter(byte b) {
+        return b >= 'A' && b <= 'Z';
+    }
+
+    private String ascii(int from, int to) {
+        char[] chars = new char[to - from];
+        for (int i = from; i < to; i++) {
+            chars[i - from] = (char) (input.get(i) & 0xff);
+        }
+        return new String(chars);
+    }
+}
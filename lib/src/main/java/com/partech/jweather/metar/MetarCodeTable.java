@@ -0,0 +1,226 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+/**
+ * Lookup tables used by the parser to classify weather and sky condition
+ * tokens. Every weather code is two characters long, so two ASCII
+ * characters are packed into a 14 bit index into a table of flags, which
+ * replaces a chain of startsWith calls with a single array read. Sky cover
+ * codes are looked up by their first two characters and their third
+ * character, if any, is then checked.
+ *
+ * The tables are built from {@link MetarConstants}.
+ */
+final class MetarCodeTable {
+
+    /** The in the vicinity qualifier, VC */
+    static final int VICINITY = 1;
+    /** A descriptor, such as SH or FZ */
+    static final int DESCRIPTOR = 1 << 1;
+    /** A precipitation, obscuration or other phenomenon, such as RA or FG */
+    static final int PHENOMENON = 1 << 2;
+    /** A phenomenon that can also be reported as an obscuration, such as FG */
+    static final int OBSCURATION = 1 << 3;
+
+    static final int SKY_NONE = 0;
+    static final int SKY_VERTICAL_VISIBILITY = 1;
+    static final int SKY_SKY_CLEAR = 2;
+    static final int SKY_CLEAR = 3;
+    static final int SKY_FEW = 4;
+    static final int SKY_SCATTERED = 5;
+    static final int SKY_BROKEN = 6;
+    static final int SKY_OVERCAST = 7;
+    static final int SKY_NO_SIGNIFICANT_CLOUDS = 8;
+
+    private static final int TABLE_SIZE = 1 << 14;
+
+    private static final byte[] WEATHER = new byte[TABLE_SIZE];
+    // the MetarConstants string of each weather code, so that decoded codes
+    // can be passed on without taking a substring of the token
+    private static final String[] WEATHER_CODES = new String[TABLE_SIZE];
+    private static final byte[] SKY = new byte[TABLE_SIZE];
+    // the MetarConstants string of each sky cover, indexed by sky cover
+    private static final String[] SKY_CODES =
+            new String[SKY_NO_SIGNIFICANT_CLOUDS + 1];
+    // the third character of each sky cover code, or 0 for two character
+    // codes, indexed by sky cover
+    private static final char[] SKY_THIRD = new char[SKY_NO_SIGNIFICANT_CLOUDS + 1];
+
+    static {
+        weather(MetarConstants.METAR_IN_THE_VICINITY, VICINITY);
+
+        weather(MetarConstants.METAR_SHALLOW, DESCRIPTOR);
+        weather(MetarConstants.METAR_PARTIAL, DESCRIPTOR);
+        weather(MetarConstants.METAR_PATCHES, DESCRIPTOR);
+        weather(MetarConstants.METAR_LOW_DRIFTING, DESCRIPTOR);
+        weather(MetarConstants.METAR_BLOWING, DESCRIPTOR);
+        weather(MetarConstants.METAR_SHOWERS, DESCRIPTOR);
+        weather(MetarConstants.METAR_THUNDERSTORMS, DESCRIPTOR);
+        weather(MetarConstants.METAR_FREEZING, DESCRIPTOR);
+
+        weather(MetarConstants.METAR_DRIZZLE, PHENOMENON);
+        weather(MetarConstants.METAR_RAIN, PHENOMENON);
+        weather(MetarConstants.METAR_SNOW, PHENOMENON);
+        weather(MetarConstants.METAR_SNOW_GRAINS, PHENOMENON);
+        weather(MetarConstants.METAR_ICE_CRYSTALS, PHENOMENON);
+        weather(MetarConstants.METAR_ICE_PELLETS, PHENOMENON);
+        weather(MetarConstants.METAR_HAIL, PHENOMENON);
+        weather(MetarConstants.METAR_SMALL_HAIL, PHENOMENON);
+        weather(MetarConstants.METAR_UNKNOWN_PRECIPITATION, PHENOMENON);
+        weather(MetarConstants.METAR_MIST, PHENOMENON | OBSCURATION);
+        weather(MetarConstants.METAR_FOG, PHENOMENON | OBSCURATION);
+        weather(MetarConstants.METAR_SMOKE, PHENOMENON | OBSCURATION);
+        weather(MetarConstants.METAR_VOLCANIC_ASH, PHENOMENON | OBSCURATION);
+        weather(MetarConstants.METAR_WIDESPREAD_DUST, PHENOMENON | OBSCURATION);
+        weather(MetarConstants.METAR_SAND, PHENOMENON | OBSCURATION);
+        weather(MetarConstants.METAR_HAZE, PHENOMENON | OBSCURATION);
+        weather(MetarConstants.METAR_SPRAY, PHENOMENON | OBSCURATION);
+        weather(MetarConstants.METAR_DUST_SAND_WHIRLS, PHENOMENON);
+        weather(MetarConstants.METAR_SQUALLS, PHENOMENON);
+        weather(MetarConstants.METAR_FUNNEL_CLOUD, PHENOMENON);
+        weather(MetarConstants.METAR_SAND_STORM, PHENOMENON);
+        weather(MetarConstants.METAR_DUST_STORM, PHENOMENON);
+
+        sky(MetarConstants.METAR_VERTICAL_VISIBILITY, SKY_VERTICAL_VISIBILITY);
+        sky(MetarConstants.METAR_SKY_CLEAR, SKY_SKY_CLEAR);
+        sky(MetarConstants.METAR_CLEAR, SKY_CLEAR);
+        sky(MetarConstants.METAR_FEW, SKY_FEW);
+        sky(MetarConstants.METAR_SCATTERED, SKY_SCATTERED);
+        sky(MetarConstants.METAR_BROKEN, SKY_BROKEN);
+        sky(MetarConstants.METAR_OVERCAST, SKY_OVERCAST);
+        sky(MetarConstants.METAR_NO_SIGNIFICANT_CLOUDS, SKY_NO_SIGNIFICANT_CLOUDS);
+    }
+
+    private MetarCodeTable() {
+    }
+
+    private static void weather(String code, int flags) {
+        int key = pack(code.charAt(0), code.charAt(1));
+        WEATHER[key] = (byte) (WEATHER[key] | flags);
+        WEATHER_CODES[key] = code;
+    }
+
+    private static void sky(String code, int cover) {
+        int key = pack(code.charAt(0), code.charAt(1));
+        if (SKY[key] != SKY_NONE) {
+            throw new IllegalStateException(
+                    "sky cover codes share a prefix: " + code);
+        }
+        SKY[key] = (byte) cover;
+        SKY_CODES[cover] = code;
+        SKY_THIRD[cover] = code.length() > 2 ? code.charAt(2) : 0;
+    }
+
+    /**
+     * @return the table index of two characters, or -1 if either is not
+     * ASCII
+     */
+    private static int pack(char first, char second) {
+        if ((first | second) >= 0x80) {
+            return -1;
+        }
+        return first << 7 | second;
+    }
+
+    /**
+     * @param first  the first character of a two character weather code
+     * @param second the second character
+     * @return the {@link #VICINITY}, {@link #DESCRIPTOR}, {@link #PHENOMENON}
+     * and {@link #OBSCURATION} flags of the code, or 0 if it is not a
+     * weather code
+     */
+    static int weatherClass(char first, char second) {
+        int key = pack(first, second);
+        return key < 0 ? 0 : WEATHER[key];
+    }
+
+    /**
+     * @param token a token from a report
+     * @param pos   the position of a weather code in the token
+     * @return the flags of the weather code at the position, or 0 if there
+     * is none or the token is too short
+     */
+    static int weatherClass(String token, int pos) {
+        if (pos < 0 || pos + 2 > token.length()) {
+            return 0;
+        }
+        return weatherClass(token.charAt(pos), token.charAt(pos + 1));
+    }
+
+    /**
+     * @param token a token from a report
+     * @param pos   the position of a weather code in the token
+     * @return the weather code at the position (e.g. "RA"), or null if
+     * there is none or the token is too short
+     */
+    static String weatherCode(String token, int pos) {
+        if (pos < 0 || pos + 2 > token.length()) {
+            return null;
+        }
+        int key = pack(token.charAt(pos), token.charAt(pos + 1));
+        return key < 0 ? null : WEATHER_CODES[key];
+    }
+
+    /**
+     * @param token a token from a report
+     * @return the sky cover code the token starts with, such as
+     * {@link #SKY_BROKEN}, or {@link #SKY_NONE}
+     */
+    static int skyCover(String token) {
+        if (token.length() < 2) {
+            return SKY_NONE;
+        }
+        int key = pack(token.charAt(0), token.charAt(1));
+        if (key < 0) {
+            return SKY_NONE;
+        }
+
+        int cover = SKY[key];
+        char third = SKY_THIRD[cover];
+        if (third != 0 && (token.length() < 3 || token.charAt(2) != third)) {
+            return SKY_NONE;
+        }
+        return cover;
+    }
+
+    /**
+     * @param cover a sky cover code
+     * @return the contraction of the sky cover (e.g. "BKN"), or null for
+     * {@link #SKY_NONE}
+     */
+    static String skyCode(int cover) {
+        return SKY_CODES[cover];
+    }
+
+    /**
+     * @param cover a sky cover code
+     * @return true for the layer amounts FEW, SCT, BKN and OVC, which are
+     * followed by a height
+     */
+    static boolean isLayer(int cover) {
+        return cover >= SKY_FEW && cover <= SKY_OVERCAST;
+    }
+}
@@ -0,0 +1,611 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Writes selected fields of parsed reports as CSV, one row per report.
+ *
+ * The columns are chosen once, when the writer is created, and each row is
+ * formatted straight into a reusable character buffer that is handed to the
+ * underlying {@link Writer} only when it fills up. Numbers are written with
+ * a fixed number of decimals (see {@link Column#getDecimals()}) by
+ * {@link MetarNumberFormat}, without boxing converted values or going
+ * through {@link Float#toString(float)}, and the dates of consecutive
+ * reports from the same hour and minute share one formatted value, so a row
+ * costs no more than the getters it calls.
+ *
+ * Missing values are written as empty cells. Text cells are quoted only
+ * when they contain a separator, a quote or a line break, and rows end with
+ * '\n'.
+ *
+ * A writer is not safe for use by multiple threads.
+ */
+public class MetarCsvWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The fields that can be written, with the name used in the header row
+     * and the number of decimals written for numeric fields.
+     */
+    public enum Column {
+        /** The station identifier */
+        STATION_ID("station_id"),
+        /** The observation time, as UTC ISO 8601 (yyyy-MM-ddTHH:mmZ) */
+        DATE("date"),
+        /** AUTO, COR or empty */
+        REPORT_MODIFIER("report_modifier"),
+        /** The wind direction in degrees */
+        WIND_DIRECTION("wind_direction"),
+        /** The lower bound of a variable wind direction, in degrees */
+        WIND_DIRECTION_MIN("wind_direction_min"),
+        /** The upper bound of a variable wind direction, in degrees */
+        WIND_DIRECTION_MAX("wind_direction_max"),
+        /** Whether the wind direction is variable (VRB) */
+        WIND_DIRECTION_VARIABLE("wind_direction_variable"),
+        /** The wind speed in knots */
+        WIND_SPEED_KNOTS("wind_speed_kt", 1),
+        /** The wind speed in meters per second */
+        WIND_SPEED_MPS("wind_speed_mps", 1),
+        /** The wind speed in miles per hour, rounded as by Metar */
+        WIND_SPEED_MPH("wind_speed_mph", 0),
+        /** The wind gust speed in knots */
+        WIND_GUSTS_KNOTS("wind_gusts_kt", 1),
+        /** The wind gust speed in meters per second */
+        WIND_GUSTS_MPS("wind_gusts_mps", 1),
+        /** The wind gust speed in miles per hour, rounded as by Metar */
+        WIND_GUSTS_MPH("wind_gusts_mph", 0),
+        /** The visibility in statute miles */
+        VISIBILITY_MILES("visibility_sm", 2),
+        /** The visibility in kilometers */
+        VISIBILITY_KILOMETERS("visibility_km", 2),
+        /** The visibility in meters, when reported in metric units */
+        VISIBILITY_METERS("visibility_m", 0),
+        /** Whether the visibility is less than the value (M prefix) */
+        VISIBILITY_LESS_THAN("visibility_less_than"),
+        /** Whether the visibility is greater than the value (P prefix) */
+        VISIBILITY_GREATER_THAN("visibility_greater_than"),
+        /** Whether CAVOK was reported */
+        CAVOK("cavok"),
+        /** The height of the lowest ceiling layer, in feet */
+        CEILING("ceiling_ft"),
+        /** The most precise temperature reported, in degrees Celsius */
+        TEMPERATURE_CELSIUS("temperature_c", 1),
+        /** The most precise temperature reported, in degrees Fahrenheit */
+        TEMPERATURE_FAHRENHEIT("temperature_f", 1),
+        /** The most precise dew point reported, in degrees Celsius */
+        DEW_POINT_CELSIUS("dew_point_c", 1),
+        /** The most precise dew point reported, in degrees Fahrenheit */
+        DEW_POINT_FAHRENHEIT("dew_point_f", 1),
+        /** The altimeter setting in inches of mercury */
+        PRESSURE("pressure_inhg", 2),
+        /** VFR, MVFR, IFR or LIFR */
+        FLIGHT_CATEGORY("flight_category"),
+        /** The weather groups, e.g. "-SHRA BR" */
+        WEATHER("weather"),
+        /** The sky condition groups, e.g. "FEW020 BKN035CB" */
+        SKY("sky"),
+        /** Whether NOSIG was reported */
+        NO_SIGNIFICANT_CHANGE("nosig"),
+        /** The raw report */
+        RAW_TEXT("raw_text");
+
+        private final String header;
+        private final int decimals;
+
+        Column(String header) {
+            this(header, 0);
+        }
+
+        Column(String header, int decimals) {
+            this.header = header;
+            this.decimals = decimals;
+        }
+
+        /**
+         * @return the name of the column in the header row
+         */
+        public String getHeader() {
+            return header;
+        }
+
+        /**
+         * @return the number of decimals written for this column, 0 for
+         * integer and text columns
+         */
+        public int getDecimals() {
+            return decimals;
+        }
+    }
+
+    private final Writer out;
+    private final Column[] columns;
+    private final char separator;
+
+    private final char[] buffer;
+    private int position = 0;
+
+    // the last date written, and its formatted value
+    private long lastMinute = Long.MIN_VALUE;
+    private final char[] lastDate = new char[17];
+
+    private boolean closed = false;
+
+    /**
+     * @param out     receives the CSV text
+     * @param columns the columns to write, in order
+     */
+    public MetarCsvWriter(Writer out, Column... columns) {
+        this(out, ',', columns);
+    }
+
+    /**
+     * @param out     receives the CSV text
+     * @param columns the columns to write, in order
+     */
+    public MetarCsvWriter(Writer out, List<Column> columns) {
+        this(out, ',', columns.toArray(new Column[0]));
+    }
+
+    /**
+     * @param out       receives the CSV text
+     * @param separator the character written between cells
+     * @param columns   the columns to write, in order
+     */
+    public MetarCsvWriter(Writer out, char separator, Column... columns) {
+        if (out == null) {
+            throw new IllegalArgumentException("out must not be null");
+        }
+        if (columns == null || columns.length == 0) {
+            throw new IllegalArgumentException("no columns selected");
+        }
+        if (separator == '"' || separator == '\r' || separator == '\n') {
+            throw new IllegalArgumentException(
+                    "invalid separator '" + separator + "'");
+        }
+
+        this.out = out;
+        this.columns = columns.clone();
+        this.separator = separator;
+        this.buffer = new char[BUFFER_SIZE];
+
+        for (Column column : this.columns) {
+            if (column == null) {
+                throw new IllegalArgumentException("null column");
+            }
+        }
+    }
+
+    /**
+     * @return the columns written by this writer, in order
+     */
+    public Column[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * Write the header row, naming each column.
+     *
+     * @throws IOException if the underlying writer fails
+     */
+    public void writeHeader() throws IOException {
+        ensureOpen();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                put(separator);
+            }
+            putText(columns[i].header);
+        }
+        put('\n');
+    }
+
+    /**
+     * Write one report as a row.
+     *
+     * @param metar the report
+     * @throws IOException if the underlying writer fails
+     */
+    public void write(Metar metar) throws IOException {
+        ensureOpen();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                put(separator);
+            }
+            writeCell(columns[i], metar);
+        }
+        put('\n');
+    }
+
+    /**
+     * Write each report as a row.
+     *
+     * @param metars the reports
+     * @throws IOException if the underlying writer fails
+     */
+    public void writeAll(Iterable<? extends Metar> metars)
+            throws IOException {
+        for (Metar metar : metars) {
+            write(metar);
+        }
+    }
+
+    /**
+     * Pass the buffered rows to the underlying writer and flush it.
+     *
+     * @throws IOException if the underlying writer fails
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Pass the buffered rows to the underlying writer and close it.
+     *
+     * @throws IOException if the underlying writer fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        try {
+            drain();
+        } finally {
+            closed = true;
+            out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("writer is closed");
+        }
+    }
+
+    private void writeCell(Column column, Metar metar) throws IOException {
+        switch (column) {
+            case STATION_ID:
+                putText(metar.getStationID());
+                break;
+            case DATE:
+                putDate(metar.date());
+                break;
+            case REPORT_MODIFIER:
+                putText(metar.getReportModifier());
+                break;
+            case WIND_DIRECTION:
+                putInteger(metar.getWindDirection());
+                break;
+            case WIND_DIRECTION_MIN:
+                putInteger(metar.getWindDirectionMin());
+                break;
+            case WIND_DIRECTION_MAX:
+                putInteger(metar.getWindDirectionMax());
+                break;
+            case WIND_DIRECTION_VARIABLE:
+                putBoolean(metar.getWindDirectionIsVariable());
+                break;
+            case WIND_SPEED_KNOTS:
+                putFloat(metar.windSpeedInKnots(), column.decimals);
+                break;
+            case WIND_SPEED_MPS:
+                putFloat(metar.windSpeedInMPS(), column.decimals);
+                break;
+            case WIND_SPEED_MPH:
+                putFloat(metar.windSpeedInMPH(), column.decimals);
+                break;
+            case WIND_GUSTS_KNOTS:
+                putFloat(metar.windGustsInKnots(), column.decimals);
+                break;
+            case WIND_GUSTS_MPS:
+                putFloat(metar.windGustsInMPS(), column.decimals);
+                break;
+            case WIND_GUSTS_MPH:
+                putFloat(metar.windGustsInMPH(), column.decimals);
+                break;
+            case VISIBILITY_MILES:
+                putFloat(metar.visibilityInMiles(), column.decimals);
+                break;
+            case VISIBILITY_KILOMETERS:
+                putFloat(metar.visibilityInKilometers(), column.decimals);
+                break;
+            case VISIBILITY_METERS:
+                putFloat(metar.visibilityInMeters(), column.decimals);
+                break;
+            case VISIBILITY_LESS_THAN:
+                putBoolean(metar.getVisibilityLessThan());
+                break;
+            case VISIBILITY_GREATER_THAN:
+                putBoolean(metar.getVisibilityGreaterThan());
+                break;
+            case CAVOK:
+                putBoolean(metar.getIsCavok());
+                break;
+            case CEILING:
+                putInteger(metar.getCeiling());
+                break;
+            case TEMPERATURE_CELSIUS:
+                putFloat(metar.temperatureMostPreciseInCelsius(),
+                        column.decimals);
+                break;
+            case TEMPERATURE_FAHRENHEIT:
+                putFloat(metar.temperatureMostPreciseInFahrenheit(),
+                        column.decimals);
+                break;
+            case DEW_POINT_CELSIUS:
+                putFloat(metar.dewPointMostPreciseInCelsius(),
+                        column.decimals);
+                break;
+            case DEW_POINT_FAHRENHEIT:
+                putFloat(metar.dewPointMostPreciseInFahrenheit(),
+                        column.decimals);
+                break;
+            case PRESSURE:
+                putFloat(metar.pressureInInches(), column.decimals);
+                break;
+            case FLIGHT_CATEGORY:
+                FlightCategory category = metar.getFlightCategoryType();
+                if (category != null) {
+                    putText(category.name());
+                }
+                break;
+            case WEATHER:
+                putWeather(metar.getWeatherConditions());
+                break;
+            case SKY:
+                putSky(metar.getSkyConditions());
+                break;
+            case NO_SIGNIFICANT_CHANGE:
+                putBoolean(metar.getIsNoSignificantChange());
+                break;
+            case RAW_TEXT:
+                putText(metar.getRawText());
+                break;
+        }
+    }
+
+    private void putWeather(List<WeatherCondition> conditions)
+            throws IOException {
+        for (int i = 0; i < conditions.size(); i++) {
+            WeatherCondition wc = conditions.get(i);
+            if (i > 0) {
+                put(' ');
+            }
+
+            char intensity = wc.getIntensityCode();
+            if (intensity != 0) {
+                put(intensity);
+            }
+            putCode(wc.getDescriptorCode());
+            putCode(wc.getPhenomenonCode());
+        }
+    }
+
+    private void putSky(List<SkyCondition> conditions) throws IOException {
+        // the modifier is the rest of the report token, so it is the only
+        // part of a group that may need quoting
+        boolean quote = false;
+        for (int i = 0; i < conditions.size() && !quote; i++) {
+            quote = needsQuote(conditions.get(i).getModifier());
+        }
+        if (quote) {
+            put('"');
+        }
+
+        for (int i = 0; i < conditions.size(); i++) {
+            SkyCondition sc = conditions.get(i);
+            if (i > 0) {
+                put(' ');
+            }
+
+            putCode(sc.getContraction());
+            if (sc.isVerticalVisibility() || sc.isFewClouds()
+                    || sc.isScatteredClouds() || sc.isBrokenClouds()
+                    || sc.isOvercast()) {
+                int hundreds = sc.getHeight() / 100;
+                ensure(MetarNumberFormat.MAX_LENGTH + 2);
+                if (hundreds < 100) {
+                    buffer[position++] = '0';
+                }
+                if (hundreds < 10) {
+                    buffer[position++] = '0';
+                }
+                position = MetarNumberFormat.format(hundreds, buffer,
+                        position);
+            }
+
+            String modifier = sc.getModifier();
+            if (quote) {
+                for (int j = 0; j < modifier.length(); j++) {
+                    char c = modifier.charAt(j);
+                    if (c == '"') {
+                        put('"');
+                    }
+                    put(c);
+                }
+            } else {
+                putCode(modifier);
+            }
+        }
+
+        if (quote) {
+            put('"');
+        }
+    }
+
+    private boolean needsQuote(String value) {
+        // indexOf is vectorized by the JIT, which makes four scans of a
+        // long report cheaper than one loop over its characters
+        return value != null && (value.indexOf(separator) >= 0
+                || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0);
+    }
+
+    // codes are the fixed contractions of the report groups, which never
+    // need quoting
+    private void putCode(String code) throws IOException {
+        if (code != null && !code.isEmpty()) {
+            ensure(code.length());
+            code.getChars(0, code.length(), buffer, position);
+            position += code.length();
+        }
+    }
+
+    private void putText(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        int length = value.length();
+        if (!needsQuote(value)) {
+            if (length > buffer.length) {
+                drain();
+                out.write(value);
+                return;
+            }
+            ensure(length);
+            value.getChars(0, length, buffer, position);
+            position += length;
+            return;
+        }
+
+        put('"');
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                put('"');
+            }
+            put(c);
+        }
+        put('"');
+    }
+
+    private void putBoolean(boolean value) throws IOException {
+        putCode(value ? "true" : "false");
+    }
+
+    private void putInteger(Integer value) throws IOException {
+        if (value != null) {
+            ensure(MetarNumberFormat.MAX_LENGTH);
+            position = MetarNumberFormat.format(value, buffer, position);
+        }
+    }
+
+    /**
+     * Write a value with a fixed number of decimals. NaN, for a missing
+     * value, is left empty.
+     */
+    private void putFloat(float value, int decimals) throws IOException {
+        ensure(MetarNumberFormat.MAX_LENGTH);
+        position = MetarNumberFormat.format(value, decimals, buffer,
+                position);
+    }
+
+    private void putDate(Date date) throws IOException {
+        if (date == null) {
+            return;
+        }
+
+        long minute = Math.floorDiv(date.getTime(), 60_000L);
+        if (minute != lastMinute) {
+            formatDate(minute, lastDate);
+            lastMinute = minute;
+        }
+
+        ensure(lastDate.length);
+        System.arraycopy(lastDate, 0, buffer, position, lastDate.length);
+        position += lastDate.length;
+    }
+
+    /**
+     * Format minutes since the epoch as yyyy-MM-ddTHH:mmZ, using the civil
+     * calendar algorithm from Howard Hinnant's "chrono-Compatible Low-Level
+     * Date Algorithms".
+     */
+    static void formatDate(long minute, char[] to) {
+        long days = Math.floorDiv(minute, 1440L);
+        int minuteOfDay = (int) Math.floorMod(minute, 1440L);
+
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524
+                - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4
+                - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        twoDigits(to, 0, year / 100 % 100);
+        twoDigits(to, 2, year % 100);
+        to[4] = '-';
+        twoDigits(to, 5, month);
+        to[7] = '-';
+        twoDigits(to, 8, day);
+        to[10] = 'T';
+        twoDigits(to, 11, minuteOfDay / 60);
+        to[13] = ':';
+        twoDigits(to, 14, minuteOfDay % 60);
+        to[16] = 'Z';
+    }
+
+    private static void twoDigits(char[] to, int at, int value) {
+        to[at] = (char) ('0' + value / 10);
+        to[at + 1] = (char) ('0' + value % 10);
+    }
+
+    private void put(char c) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = c;
+    }
+
+    private void ensure(int length) throws IOException {
+        if (position + length > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,647 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command line tool that decodes archives of raw METAR reports, one report
+ * per line, and writes the decoded values as CSV, JSON lines, a binary
+ * columnar file or normalized METAR text (see {@link MetarEncoder}). It is
+ * the Main-Class of the shaded jar:
+ *
+ * <pre>
+ * java -jar par-jweather.jar [options] [file ...]
+ *
+ *   -t, --threads N   number of parser threads (default: one per CPU)
+ *   -f, --format F    csv, json, binary or metar (default: csv)
+ *   -o, --output FILE write to FILE instead of standard output
+ *   -q, --quiet       do not report progress or the summary
+ * </pre>
+ *
+ * Reports are read from the named files in order, or from standard input
+ * if there are none or a file is named "-". Blank lines are skipped. Lines
+ * are read in batches which are parsed on a pool of threads, each with its
+ * own parser; the output keeps the order of the input. Reports that cannot
+ * be parsed are counted and left out of the output.
+ *
+ * Progress and a throughput summary (reports/s, MB/s and the number of
+ * failures) are written to standard error, so the tool also serves as an
+ * end-to-end benchmark of the library.
+ *
+ * The binary format is big-endian and made of blocks of up to
+ * {@link #BATCH_SIZE} reports. The file starts with the magic bytes "JWMC"
+ * and an int version (1), each block starts with an int row count
+ * followed by the columns in {@link #COLUMNS} order, one value per row,
+ * and the file ends with a row count of zero. Strings are written in
+ * modified UTF-8 with an empty string for missing values; the time is a
+ * long in milliseconds since the epoch, missing ints are
+ * {@link Integer#MIN_VALUE}, missing times {@link Long#MIN_VALUE} and
+ * missing floats NaN, and the flight category is a byte holding the
+ * {@link FlightCategory} ordinal or -1.
+ */
+public final class MetarDecodeTool {
+
+    /** The number of reports parsed together by one thread */
+    public static final int BATCH_SIZE = 1024;
+
+    /**
+     * The output columns, in order. JSON lines use the column headers as
+     * their keys.
+     */
+    public static final MetarCsvWriter.Column[] COLUMNS = {
+            MetarCsvWriter.Column.STATION_ID,
+            MetarCsvWriter.Column.DATE,
+            MetarCsvWriter.Column.REPORT_MODIFIER,
+            MetarCsvWriter.Column.WIND_DIRECTION,
+            MetarCsvWriter.Column.WIND_SPEED_KNOTS,
+            MetarCsvWriter.Column.WIND_GUSTS_KNOTS,
+            MetarCsvWriter.Column.VISIBILITY_MILES,
+            MetarCsvWriter.Column.CEILING,
+            MetarCsvWriter.Column.TEMPERATURE_CELSIUS,
+            MetarCsvWriter.Column.DEW_POINT_CELSIUS,
+            MetarCsvWriter.Column.PRESSURE,
+            MetarCsvWriter.Column.FLIGHT_CATEGORY,
+            MetarCsvWriter.Column.RAW_TEXT
+    };
+
+    private static final byte[] MAGIC = {'J', 'W', 'M', 'C'};
+    private static final int VERSION = 1;
+
+    private static final long PROGRESS_INTERVAL = 5_000_000_000L;
+
+    /** The output formats */
+    enum Format {
+        CSV, JSON, BINARY, METAR
+    }
+
+    /** The encoded output of one batch */
+    private static final class Chunk {
+        final byte[] data;
+        final int reports;
+        final int failures;
+        final long bytes;
+
+        Chunk(byte[] data, int reports, int failures, long bytes) {
+            this.data = data;
+            this.reports = reports;
+            this.failures = failures;
+            this.bytes = bytes;
+        }
+    }
+
+    /** The parser and buffers owned by one worker thread */
+    private static final class Worker {
+        final MetarParser parser = new MetarParser();
+        final Metar[] metars = new Metar[BATCH_SIZE];
+        final ParseError[] errors = new ParseError[BATCH_SIZE];
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final MetarCsvWriter csv = new MetarCsvWriter(
+                new OutputStreamWriter(buffer, StandardCharsets.UTF_8),
+                COLUMNS);
+        final StringBuilder text = new StringBuilder();
+        final char[] date = new char[17];
+        final MetarEncoder encoder = new MetarEncoder();
+    }
+
+    private static final ThreadLocal<Worker> workers =
+            ThreadLocal.withInitial(Worker::new);
+
+    private final Format format;
+    private final int threads;
+    private final boolean quiet;
+    private final PrintStream log;
+
+    private long reports = 0;
+    private long failures = 0;
+    private long bytes = 0;
+
+    private MetarDecodeTool(Format format, int threads, boolean quiet,
+                            PrintStream log) {
+        this.format = format;
+        this.threads = threads;
+        this.quiet = quiet;
+        this.log = log;
+    }
+
+    public static void main(String[] args) {
+        int status;
+        try {
+            status = run(args, System.in, System.out, System.err);
+        } catch (IOException e) {
+            System.err.println("metar: " + e.getMessage());
+            status = 1;
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Run the tool.
+     *
+     * @param args   the command line arguments
+     * @param stdin  the standard input
+     * @param stdout the standard output
+     * @param stderr receives progress, the summary and usage errors
+     * @return the exit status: 0 on success, 2 for bad arguments
+     * @throws IOException if an input or the output could not be used
+     */
+    static int run(String[] args, InputStream stdin, OutputStream stdout,
+                   PrintStream stderr) throws IOException {
+        Format format = Format.CSV;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean quiet = false;
+        String output = null;
+        List<String> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "-t":
+                    case "--threads":
+                        threads = Integer.parseInt(value(args, ++i, arg));
+                        if (threads < 1) {
+                            throw new IllegalArgumentException(
+                                    "thread count must be at least 1");
+                        }
+                        break;
+                    case "-f":
+                    case "--format":
+                        format = format(value(args, ++i, arg));
+                        break;
+                    case "-o":
+                    case "--output":
+                        output = value(args, ++i, arg);
+                        break;
+                    case "-q":
+                    case "--quiet":
+                        quiet = true;
+                        break;
+                    case "-h":
+                    case "--help":
+                        usage(stderr);
+                        return 0;
+                    default:
+                        if (arg.length() > 1 && arg.startsWith("-")) {
+                            throw new IllegalArgumentException(
+                                    "unknown option " + arg);
+                        }
+                        inputs.add(arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // includes NumberFormatException for a bad thread count
+            stderr.println("metar: " + e.getMessage());
+            usage(stderr);
+            return 2;
+        }
+
+        if (inputs.isEmpty()) {
+            inputs.add("-");
+        }
+
+        MetarDecodeTool tool = new MetarDecodeTool(format, threads, quiet,
+                stderr);
+        OutputStream out = (output == null) ? stdout
+                : new FileOutputStream(output);
+        try (OutputStream buffered = new BufferedOutputStream(out, 1 << 16)) {
+            tool.decode(inputs, stdin, buffered);
+        }
+        return 0;
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return args[i];
+    }
+
+    private static Format format(String name) {
+        for (Format format : Format.values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("unknown format " + name);
+    }
+
+    private static void usage(PrintStream stderr) {
+        stderr.println("usage: metar [-t threads]"
+                + " [-f csv|json|binary|metar] [-o output] [-q] [file ...]");
+    }
+
+    private void decode(List<String> inputs, InputStream stdin,
+                        OutputStream out) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                r -> {
+                    Thread t = new Thread(r, "metar-decode");
+                    t.setDaemon(true);
+                    return t;
+                });
+        // enough batches in flight to keep every thread busy while the
+        // oldest one is written out
+        int maxPending = threads * 2;
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>(maxPending);
+
+        long start = System.nanoTime();
+        long lastProgress = start;
+        try {
+            writeHeader(out);
+
+            String[] batch = new String[BATCH_SIZE];
+            int count = 0;
+            for (String input : inputs) {
+                InputStream in = input.equals("-") ? stdin
+                        : new FileInputStream(input);
+                // the reports are ASCII; ISO-8859-1 keeps a character per
+                // byte so the throughput figures stay honest
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(in, StandardCharsets.ISO_8859_1),
+                        1 << 16);
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) {
+                            continue;
+                        }
+
+                        batch[count++] = line;
+                        if (count == BATCH_SIZE) {
+                            if (pending.size() == maxPending) {
+                                write(pending.poll(), out);
+                            }
+                            pending.add(submit(executor, batch, count));
+                            batch = new String[BATCH_SIZE];
+                            count = 0;
+
+                            long now = System.nanoTime();
+                            if (!quiet && now - lastProgress
+                                    >= PROGRESS_INTERVAL) {
+                                lastProgress = now;
+                                log.println(summary(now - start));
+                            }
+                        }
+                    }
+                } finally {
+                    if (in != stdin) {
+                        reader.close();
+                    }
+                }
+            }
+
+            if (count > 0) {
+                pending.add(submit(executor, batch, count));
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), out);
+            }
+
+            writeTrailer(out);
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (!quiet) {
+            log.println(summary(System.nanoTime() - start));
+        }
+    }
+
+    private String summary(long elapsed) {
+        double seconds = elapsed / 1e9;
+        return String.format(Locale.ROOT,
+                "decoded %d reports (%d failed) in %.3f s: "
+                        + "%.0f reports/s, %.2f MB/s",
+                reports, failures, seconds,
+                (reports + failures) / seconds,
+                bytes / seconds / (1024 * 1024));
+    }
+
+    private Future<Chunk> submit(ExecutorService executor, String[] batch,
+                                 int count) {
+        return executor.submit(() -> encode(batch, count));
+    }
+
+    private void write(Future<Chunk> future, OutputStream out)
+            throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+
+        out.write(chunk.data);
+        reports += chunk.reports;
+        failures += chunk.failures;
+        bytes += chunk.bytes;
+    }
+
+    private void writeHeader(OutputStream out) throws IOException {
+        switch (format) {
+            case CSV:
+                // not closed, which would close the output
+                MetarCsvWriter header = new MetarCsvWriter(
+                        new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                        COLUMNS);
+                header.writeHeader();
+                header.flush();
+                break;
+            case BINARY:
+                DataOutputStream data = new DataOutputStream(out);
+                data.write(MAGIC);
+                data.writeInt(VERSION);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void writeTrailer(OutputStream out) throws IOException {
+        if (format == Format.BINARY) {
+            new DataOutputStream(out).writeInt(0);
+        }
+    }
+
+    /**
+     * Parse a batch of reports and encode the ones that parsed. Called on
+     * the worker threads.
+     */
+    private Chunk encode(String[] batch, int count) throws IOException {
+        Worker worker = workers.get();
+        int parsed = worker.parser.parseBatch(batch, 0, count,
+                worker.metars, worker.errors);
+
+        long size = 0;
+        for (int i = 0; i < count; i++) {
+            size += batch[i].length() + 1;
+        }
+
+        worker.buffer.reset();
+        switch (format) {
+            case CSV:
+                for (int i = 0; i < count; i++) {
+                    if (worker.errors[i] == null) {
+                        worker.csv.write(worker.metars[i]);
+                    }
+                }
+                worker.csv.flush();
+                break;
+            case JSON:
+                StringBuilder text = worker.text;
+                text.setLength(0);
+                for (int i = 0; i < count; i++) {
+                    if (worker.errors[i] == null) {
+                        appendJson(text, worker.metars[i], worker.date);
+                    }
+                }
+                worker.buffer.write(text.toString()
+                        .getBytes(StandardCharsets.UTF_8));
+                break;
+            case BINARY:
+                writeBlock(new DataOutputStream(worker.buffer), worker.metars,
+                        worker.errors, count, parsed);
+                break;
+            case METAR:
+                StringBuilder lines = worker.text;
+                lines.setLength(0);
+                for (int i = 0; i < count; i++) {
+                    if (worker.errors[i] == null) {
+                        worker.encoder.encode(worker.metars[i], lines)
+                                .append('\n');
+                    }
+                }
+                worker.buffer.write(lines.toString()
+                        .getBytes(StandardCharsets.UTF_8));
+                break;
+        }
+
+        return new Chunk(worker.buffer.toByteArray(), parsed, count - parsed,
+                size);
+    }
+
+    private static void appendJson(StringBuilder sb, Metar metar,
+                                   char[] date) {
+        sb.append("{\"station_id\":");
+        appendJsonString(sb, metar.getStationID());
+        sb.append(",\"date\":");
+        Date time = metar.date();
+        if (time == null) {
+            sb.append("null");
+        } else {
+            MetarCsvWriter.formatDate(
+                    Math.floorDiv(time.getTime(), 60_000L), date);
+            sb.append('"').append(date).append('"');
+        }
+        sb.append(",\"report_modifier\":");
+        appendJsonString(sb, metar.getReportModifier());
+        sb.append(",\"wind_direction\":");
+        appendJsonValue(sb, metar.getWindDirection());
+        sb.append(",\"wind_speed_kt\":");
+        appendJsonValue(sb, metar.windSpeedInKnots(),
+                MetarCsvWriter.Column.WIND_SPEED_KNOTS);
+        sb.append(",\"wind_gusts_kt\":");
+        appendJsonValue(sb, metar.windGustsInKnots(),
+                MetarCsvWriter.Column.WIND_GUSTS_KNOTS);
+        sb.append(",\"visibility_sm\":");
+        appendJsonValue(sb, metar.visibilityInMiles(),
+                MetarCsvWriter.Column.VISIBILITY_MILES);
+        sb.append(",\"ceiling_ft\":");
+        appendJsonValue(sb, metar.getCeiling());
+        sb.append(",\"temperature_c\":");
+        appendJsonValue(sb, metar.temperatureMostPreciseInCelsius(),
+                MetarCsvWriter.Column.TEMPERATURE_CELSIUS);
+        sb.append(",\"dew_point_c\":");
+        appendJsonValue(sb, metar.dewPointMostPreciseInCelsius(),
+                MetarCsvWriter.Column.DEW_POINT_CELSIUS);
+        sb.append(",\"pressure_inhg\":");
+        appendJsonValue(sb, metar.pressureInInches(),
+                MetarCsvWriter.Column.PRESSURE);
+        sb.append(",\"flight_category\":");
+        appendJsonString(sb, category(metar));
+        sb.append(",\"raw_text\":");
+        appendJsonString(sb, metar.getRawText());
+        sb.append("}\n");
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static void appendJsonValue(StringBuilder sb, Integer value) {
+        if (value == null) {
+            sb.append("null");
+        } else {
+            MetarNumberFormat.append(sb, value.intValue());
+        }
+    }
+
+    /**
+     * Append a value with the decimals of its CSV column, or null for NaN.
+     */
+    private static void appendJsonValue(StringBuilder sb, float value,
+                                        MetarCsvWriter.Column column) {
+        if (Float.isNaN(value)) {
+            sb.append("null");
+        } else {
+            MetarNumberFormat.append(sb, value, column.getDecimals());
+        }
+    }
+
+    private static void writeBlock(DataOutputStream data, Metar[] metars,
+                                   ParseError[] errors, int count, int rows)
+            throws IOException {
+        data.writeInt(rows);
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                String station = metars[i].getStationID();
+                data.writeUTF(station == null ? "" : station);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                Date date = metars[i].date();
+                data.writeLong(date == null ? Long.MIN_VALUE
+                        : date.getTime());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                String modifier = metars[i].getReportModifier();
+                data.writeUTF(modifier == null ? "" : modifier);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                writeInt(data, metars[i].getWindDirection());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                data.writeFloat(metars[i].windSpeedInKnots());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                data.writeFloat(metars[i].windGustsInKnots());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                data.writeFloat(metars[i].visibilityInMiles());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                writeInt(data, metars[i].getCeiling());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                data.writeFloat(metars[i].temperatureMostPreciseInCelsius());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                data.writeFloat(metars[i].dewPointMostPreciseInCelsius());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                data.writeFloat(metars[i].pressureInInches());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                FlightCategory category = metars[i].getFlightCategoryType();
+                data.writeByte(category == null ? -1 : category.ordinal());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                String raw = metars[i].getRawText();
+                data.writeUTF(raw == null ? "" : raw);
+            }
+        }
+    }
+
+    private static void writeInt(DataOutputStream data, Integer value)
+            throws IOException {
+        data.writeInt(value == null ? Integer.MIN_VALUE : value);
+    }
+
+    private static String category(Metar metar) {
+        FlightCategory category = metar.getFlightCategoryType();
+        return category == null ? null : category.name();
+    }
+}
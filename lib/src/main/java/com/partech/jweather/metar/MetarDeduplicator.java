@@ -0,0 +1,348 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * An ingest stage that drops duplicate reports and applies corrections.
+ *
+ * Reports are compared on their canonical form: leading and trailing
+ * whitespace and the trailing '=' terminator are ignored, and runs of
+ * whitespace compare equal to a single space. A report whose canonical text
+ * has already been accepted within the window is dropped without being
+ * parsed.
+ *
+ * A corrected report (report modifier COR) for a station and observation
+ * time that has already been delivered replaces the earlier observation and
+ * is handed to {@link Listener#onCorrection}. Any other report for a station
+ * and observation time already seen within the window is dropped, so each
+ * observation reaches the listener once.
+ *
+ * Reports are remembered for the window measured from the time they were
+ * received. Times are expected to be non-decreasing; a report received
+ * earlier than one already accepted is treated as received at the later
+ * time, so that reports are always forgotten in the order they arrived.
+ *
+ * This class is safe for use by multiple threads. The listener is called
+ * while holding the deduplicator's lock.
+ */
+public class MetarDeduplicator {
+
+    /**
+     * Receives the observations that survive deduplication.
+     */
+    public interface Listener {
+
+        /**
+         * @param metar an observation that has not been seen before
+         */
+        void onObservation(Metar metar);
+
+        /**
+         * @param original the previously delivered observation
+         * @param correction the corrected report that replaces it
+         */
+        void onCorrection(Metar original, Metar correction);
+    }
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long windowMillis;
+    private final Listener listener;
+
+    // canonical text hash -> report first received, in arrival order
+    private final LinkedHashMap<Long, SeenReport> seenReports =
+            new LinkedHashMap<>();
+    // station and observation time -> latest delivered observation
+    private final LinkedHashMap<String, Observation> observations =
+            new LinkedHashMap<>();
+
+    private long duplicateCount = 0;
+    private long correctionCount = 0;
+    private long latestMillis = Long.MIN_VALUE;
+
+    /**
+     * @param windowMillis how long (in milliseconds) a report is remembered
+     *                     for duplicate detection and correction
+     * @param listener     the receiver of deduplicated observations
+     */
+    public MetarDeduplicator(long windowMillis, Listener listener) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "window must be positive: " + windowMillis);
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+
+        this.windowMillis = windowMillis;
+        this.listener = listener;
+    }
+
+    /**
+     * Offer a raw report received now.
+     *
+     * @see #accept(CharSequence, long)
+     */
+    public boolean accept(CharSequence rawText) throws MetarParseException {
+        return accept(rawText, System.currentTimeMillis());
+    }
+
+    /**
+     * Offer a raw report to the ingest stage.
+     *
+     * @param rawText        the raw report, possibly with extra whitespace or
+     *                       a trailing '='
+     * @param receivedMillis the time the report was received; if earlier
+     *                       than the time of a report already offered, the
+     *                       later time is used
+     * @return true if the report was delivered to the listener, false if it
+     * was dropped as a duplicate
+     * @throws MetarParseException if a new report could not be parsed
+     */
+    public synchronized boolean accept(CharSequence rawText,
+                                       long receivedMillis)
+            throws MetarParseException {
+        if (rawText == null) {
+            throw new MetarParseException("empty metar data");
+        }
+
+        // keep the reports in the order they expire
+        if (receivedMillis < latestMillis) {
+            receivedMillis = latestMillis;
+        }
+        latestMillis = receivedMillis;
+        expire(receivedMillis);
+
+        Long hash = canonicalHash(rawText);
+        SeenReport seen = seenReports.get(hash);
+        if (seen != null && canonicalEquals(rawText, seen.canonicalText)) {
+            duplicateCount++;
+            return false;
+        }
+
+        String canonicalText = canonicalize(rawText);
+        Metar metar = MetarParser.parse(canonicalText);
+        if (seen != null) {
+            // a different report with the same hash; it replaces the one
+            // remembered, whose repeats are still caught by station and
+            // observation time below
+            seenReports.remove(hash);
+        }
+        seenReports.put(hash, new SeenReport(canonicalText, receivedMillis));
+
+        Date date = metar.getDate();
+        if (date == null) {
+            // without an observation time there is nothing to supersede
+            listener.onObservation(metar);
+            return true;
+        }
+
+        String key = metar.getStationID() + '@' + date.getTime();
+        Observation previous = observations.get(key);
+        boolean isCorrection = MetarConstants.METAR_CORRECTED.equals(
+                metar.getReportModifier());
+
+        if (previous == null) {
+            observations.put(key, new Observation(metar, receivedMillis));
+            listener.onObservation(metar);
+            return true;
+        }
+
+        if (!isCorrection) {
+            // same station and time, but not a correction
+            duplicateCount++;
+            return false;
+        }
+
+        Metar original = previous.metar;
+        previous.metar = metar;
+        correctionCount++;
+        listener.onCorrection(original, metar);
+        return true;
+    }
+
+    /**
+     * @return the number of reports dropped as duplicates
+     */
+    public synchronized long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * @return the number of corrections that replaced an earlier observation
+     */
+    public synchronized long getCorrectionCount() {
+        return correctionCount;
+    }
+
+    /**
+     * Forget reports received more than the window before the given time.
+     */
+    private void expire(long nowMillis) {
+        long cutoff = nowMillis - windowMillis;
+
+        Iterator<SeenReport> reports = seenReports.values().iterator();
+        while (reports.hasNext()) {
+            if (reports.next().receivedMillis >= cutoff) {
+                break;
+            }
+            reports.remove();
+        }
+
+        Iterator<Observation> obs = observations.values().iterator();
+        while (obs.hasNext()) {
+            if (obs.next().receivedMillis >= cutoff) {
+                break;
+            }
+            obs.remove();
+        }
+    }
+
+    /**
+     * Compute a 64-bit FNV-1a hash of the canonical form of a report without
+     * building the canonical string.
+     */
+    static long canonicalHash(CharSequence rawText) {
+        int end = canonicalEnd(rawText);
+        long hash = FNV_OFFSET_BASIS;
+        boolean pendingSpace = false;
+        boolean started = false;
+
+        for (int i = 0; i < end; i++) {
+            char c = rawText.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                hash = (hash ^ ' ') * FNV_PRIME;
+                pendingSpace = false;
+            }
+            hash = (hash ^ c) * FNV_PRIME;
+            started = true;
+        }
+
+        return hash;
+    }
+
+    /**
+     * @return the canonical form of a report, as hashed by
+     * {@link #canonicalHash}
+     */
+    static String canonicalize(CharSequence rawText) {
+        int end = canonicalEnd(rawText);
+        StringBuilder sb = new StringBuilder(end);
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < end; i++) {
+            char c = rawText.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(c);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * @return true if the canonical form of a report is the given text,
+     * compared without building the canonical string
+     */
+    static boolean canonicalEquals(CharSequence rawText,
+                                   String canonicalText) {
+        int end = canonicalEnd(rawText);
+        int length = canonicalText.length();
+        int j = 0;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < end; i++) {
+            char c = rawText.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = j > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                if (j == length || canonicalText.charAt(j) != ' ') {
+                    return false;
+                }
+                j++;
+                pendingSpace = false;
+            }
+            if (j == length || canonicalText.charAt(j) != c) {
+                return false;
+            }
+            j++;
+        }
+
+        return j == length;
+    }
+
+    /**
+     * @return the end of the report with trailing whitespace and '='
+     * terminators removed
+     */
+    private static int canonicalEnd(CharSequence rawText) {
+        int end = rawText.length();
+        while (end > 0) {
+            char c = rawText.charAt(end - 1);
+            if (c != '=' && !Character.isWhitespace(c)) {
+                break;
+            }
+            end--;
+        }
+        return end;
+    }
+
+    private static class SeenReport {
+        private final String canonicalText;
+        private final long receivedMillis;
+
+        SeenReport(String canonicalText, long receivedMillis) {
+            this.canonicalText = canonicalText;
+            this.receivedMillis = receivedMillis;
+        }
+    }
+
+    private static class Observation {
+        private final long receivedMillis;
+        private Metar metar;
+
+        Observation(Metar metar, long receivedMillis) {
+            this.metar = metar;
+            this.receivedMillis = receivedMillis;
+        }
+    }
+}
@@ -0,0 +1,462 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Writes a report back as METAR text, in the canonical order of the groups
+ * and holding only the groups the parser decodes, for example:
+ *
+ * <pre>
+ * KSFO 121756Z AUTO 27010G20KT 240V300 1 1/2SM R28L/2600FT -SHRA BKN010CB
+ * 13/11 A2992 RMK T01280106 FG FEW010
+ * </pre>
+ *
+ * (as a single line). Tokens the parser did not recognize, and remarks
+ * other than the precise temperature and obscurations, are left out, so
+ * the text is a compact and normalized form of the report which
+ * {@link MetarParser} decodes to the same values.
+ *
+ * The text is built in a character array owned by the encoder and reused
+ * for every report, and copied from there into the destination, so
+ * encoding builds no intermediate Strings and allocates nothing once the
+ * array has grown to fit the longest report.
+ *
+ * An encoder is not safe for use by multiple threads; use one per thread.
+ */
+public class MetarEncoder {
+
+    private char[] buffer = new char[256];
+    private int position;
+    private CharBuffer view = CharBuffer.wrap(buffer);
+    private final char[] date = new char[17];
+
+    /**
+     * Encode a report into the buffer of this encoder.
+     *
+     * @param metar the report
+     * @return the METAR text, which is only valid until the next call
+     */
+    public CharSequence encode(Metar metar) {
+        write(metar);
+        view.clear();
+        view.limit(position);
+        return view;
+    }
+
+    /**
+     * Append the METAR text of a report.
+     *
+     * @param metar the report
+     * @param sb    the builder to append to
+     * @return the builder
+     */
+    public StringBuilder encode(Metar metar, StringBuilder sb) {
+        write(metar);
+        return sb.append(buffer, 0, position);
+    }
+
+    /**
+     * Put the METAR text of a report into a char buffer.
+     *
+     * @param metar the report
+     * @param to    the buffer to put the text into, at its position
+     * @return the buffer
+     * @throws BufferOverflowException if the text does not fit in the
+     *                                 remaining space of the buffer, in
+     *                                 which case nothing is put
+     */
+    public CharBuffer encode(Metar metar, CharBuffer to) {
+        write(metar);
+        if (to.remaining() < position) {
+            throw new BufferOverflowException();
+        }
+        return to.put(buffer, 0, position);
+    }
+
+    /**
+     * Put the METAR text of a report into a byte buffer as ASCII.
+     * Characters outside of ASCII are put as '?'.
+     *
+     * @param metar the report
+     * @param to    the buffer to put the text into, at its position
+     * @return the buffer
+     * @throws BufferOverflowException if the text does not fit in the
+     *                                 remaining space of the buffer, in
+     *                                 which case nothing is put
+     */
+    public ByteBuffer encode(Metar metar, ByteBuffer to) {
+        write(metar);
+        if (to.remaining() < position) {
+            throw new BufferOverflowException();
+        }
+        for (int i = 0; i < position; i++) {
+            char c = buffer[i];
+            to.put(c < 0x80 ? (byte) c : (byte) '?');
+        }
+        return to;
+    }
+
+    private void write(Metar metar) {
+        position = 0;
+
+        putText(metar.getStationID());
+
+        Date time = metar.date();
+        if (time != null) {
+            // day, hour and minute of yyyy-MM-ddTHH:mmZ
+            MetarCsvWriter.formatDate(
+                    Math.floorDiv(time.getTime(), 60_000L), date);
+            ensure(8);
+            buffer[position++] = ' ';
+            buffer[position++] = date[8];
+            buffer[position++] = date[9];
+            buffer[position++] = date[11];
+            buffer[position++] = date[12];
+            buffer[position++] = date[14];
+            buffer[position++] = date[15];
+            buffer[position++] = 'Z';
+        }
+
+        String modifier = metar.getReportModifier();
+        if (modifier != null && !modifier.isEmpty()) {
+            putToken(modifier);
+        }
+
+        putWind(metar);
+        putVisibility(metar);
+        putRunwayVisualRanges(metar.getRunwayVisualRanges());
+        putWeather(metar.getWeatherConditions());
+        putSky(metar.getSkyConditions());
+
+        // the parser reads NOSIG as a trend only after a sky, temperature
+        // or altimeter group; right after the weather it is taken for (and
+        // dropped as) a weather group, so it is then put in the remarks
+        boolean trendDecoded = !metar.getSkyConditions().isEmpty();
+
+        Float temperature = metar.getTemperatureInCelsius();
+        Float dewPoint = metar.getDewPointInCelsius();
+        if (temperature != null && dewPoint != null) {
+            put(' ');
+            putTemperature(temperature);
+            put('/');
+            putTemperature(dewPoint);
+            trendDecoded = true;
+        }
+
+        float pressure = metar.pressureInInches();
+        if (!Float.isNaN(pressure)) {
+            put(' ');
+            put('A');
+            putDigits(Math.round(pressure * 100), 4);
+            trendDecoded = true;
+        }
+
+        boolean noSignificantChange = metar.getIsNoSignificantChange();
+        if (noSignificantChange && trendDecoded) {
+            putToken(MetarConstants.METAR_NO_SIGNIFICANT_CHANGE);
+        }
+
+        putRemarks(metar, noSignificantChange && !trendDecoded);
+    }
+
+    private void putWind(Metar metar) {
+        float knots = metar.windSpeedInKnots();
+        if (Float.isNaN(knots)) {
+            return;
+        }
+
+        // the parser keeps speeds in knots, so a speed that was reported
+        // in meters per second is whole only in meters per second
+        boolean inMPS = !isWhole(knots) && isWhole(metar.windSpeedInMPS());
+        float speed = inMPS ? metar.windSpeedInMPS() : knots;
+        float gusts = inMPS ? metar.windGustsInMPS()
+                : metar.windGustsInKnots();
+
+        put(' ');
+        Integer direction = metar.getWindDirection();
+        if (direction == null) {
+            putText("VRB");
+        } else {
+            putDigits(direction, 3);
+        }
+        putDigits(Math.round(speed), 2);
+        if (!Float.isNaN(gusts)) {
+            put('G');
+            putDigits(Math.round(gusts), 2);
+        }
+        putText(inMPS ? "MPS" : "KT");
+
+        Integer min = metar.getWindDirectionMin();
+        Integer max = metar.getWindDirectionMax();
+        if (min != null && max != null) {
+            put(' ');
+            putDigits(min, 3);
+            put('V');
+            putDigits(max, 3);
+        }
+    }
+
+    private void putVisibility(Metar metar) {
+        if (metar.getIsCavok()) {
+            putToken(MetarConstants.METAR_CAVOK);
+            return;
+        }
+
+        float miles = metar.visibilityInMiles();
+        if (Float.isNaN(miles)) {
+            return;
+        }
+
+        boolean lessThan = metar.getVisibilityLessThan();
+        boolean greaterThan = metar.getVisibilityGreaterThan();
+        float meters = metar.visibilityInMeters();
+        if (Float.isNaN(meters)) {
+            put(' ');
+            putPrefix(lessThan, greaterThan);
+            putMiles(miles);
+            putText("SM");
+        } else if (meters == 10_000 && !lessThan && !greaterThan) {
+            putToken("9999");
+        } else if (meters < 10_000 && isWhole(meters) && !greaterThan) {
+            put(' ');
+            putPrefix(lessThan, false);
+            putDigits(Math.round(meters), 4);
+        } else {
+            put(' ');
+            putPrefix(lessThan, greaterThan);
+            putAmount(metar.visibilityInKilometers(), 3);
+            putText("KM");
+        }
+    }
+
+    /**
+     * Put a visibility in statute miles, as a whole number and a fraction
+     * in halves to sixteenths (e.g. "1 1/2") where it is one.
+     */
+    private void putMiles(float miles) {
+        float sixteenths = miles * 16;
+        if (!isWhole(sixteenths)) {
+            putAmount(miles, 3);
+            return;
+        }
+
+        int value = Math.round(sixteenths);
+        int whole = value / 16;
+        int numerator = value % 16;
+        int denominator = 16;
+        if (numerator == 0) {
+            putDigits(whole, 1);
+            return;
+        }
+
+        while (numerator % 2 == 0) {
+            numerator /= 2;
+            denominator /= 2;
+        }
+        if (whole > 0) {
+            putDigits(whole, 1);
+            put(' ');
+        }
+        putDigits(numerator, 1);
+        put('/');
+        putDigits(denominator, 1);
+    }
+
+    private void putRunwayVisualRanges(List<RunwayVisualRange> list) {
+        for (int i = 0; i < list.size(); i++) {
+            RunwayVisualRange rvr = list.get(i);
+            put(' ');
+            put('R');
+            putDigits(rvr.getRunwayNumber(), 2);
+            if (rvr.getApproachDirection() != ' ') {
+                put(rvr.getApproachDirection());
+            }
+            put('/');
+            if (rvr.getReportableModifier() != ' ') {
+                put(rvr.getReportableModifier());
+            }
+            putDigits(rvr.getLowestReportable(), 4);
+            if (rvr.getHighestReportable() > 0) {
+                put('V');
+                putDigits(rvr.getHighestReportable(), 4);
+            }
+            putText("FT");
+        }
+    }
+
+    private void putWeather(List<WeatherCondition> list) {
+        for (int i = 0; i < list.size(); i++) {
+            WeatherCondition wc = list.get(i);
+            put(' ');
+            char intensity = wc.getIntensityCode();
+            if (intensity != 0) {
+                put(intensity);
+            }
+            putText(wc.getDescriptorCode());
+            putText(wc.getPhenomenonCode());
+        }
+    }
+
+    private void putSky(List<SkyCondition> list) {
+        for (int i = 0; i < list.size(); i++) {
+            SkyCondition sc = list.get(i);
+            put(' ');
+            putText(sc.getContraction());
+
+            int cover = sc.getCover();
+            if (MetarCodeTable.isLayer(cover)
+                    || cover == MetarCodeTable.SKY_VERTICAL_VISIBILITY) {
+                putDigits(sc.getHeight() / 100, 3);
+                putText(sc.getModifier());
+            }
+        }
+    }
+
+    private void putRemarks(Metar metar, boolean noSignificantChange) {
+        Float temperature = metar.getTemperaturePreciseInCelsius();
+        Float dewPoint = metar.getDewPointPreciseInCelsius();
+        boolean precise = temperature != null && dewPoint != null;
+        List<Obscuration> obscurations = metar.getObscurations();
+        if (!precise && obscurations.isEmpty() && !noSignificantChange) {
+            return;
+        }
+
+        putToken(MetarConstants.METAR_REMARKS);
+        if (noSignificantChange) {
+            putToken(MetarConstants.METAR_NO_SIGNIFICANT_CHANGE);
+        }
+
+        if (precise) {
+            put(' ');
+            put('T');
+            putPreciseTemperature(temperature);
+            putPreciseTemperature(dewPoint);
+        }
+
+        for (int i = 0; i < obscurations.size(); i++) {
+            Obscuration obscuration = obscurations.get(i);
+            putToken(obscuration.getPhenomenonCode());
+            putToken(obscuration.getAmountCode());
+            putDigits(obscuration.getHeight() / 100, 3);
+        }
+    }
+
+    /**
+     * Put a whole degree temperature, Mnn below zero.
+     */
+    private void putTemperature(float celsius) {
+        if (celsius < 0) {
+            put('M');
+        }
+        putDigits(Math.round(Math.abs(celsius)), 2);
+    }
+
+    /**
+     * Put a temperature in tenths of a degree, snnn with a sign of 1 below
+     * zero.
+     */
+    private void putPreciseTemperature(float celsius) {
+        put(celsius < 0 ? '1' : '0');
+        putDigits(Math.round(Math.abs(celsius) * 10), 3);
+    }
+
+    private void putPrefix(boolean lessThan, boolean greaterThan) {
+        if (lessThan) {
+            put('M');
+        } else if (greaterThan) {
+            put('P');
+        }
+    }
+
+    /**
+     * Put a value with at most the given number of decimals, leaving out
+     * trailing zeros.
+     */
+    private void putAmount(float value, int decimals) {
+        ensure(MetarNumberFormat.MAX_LENGTH);
+        int start = position;
+        position = MetarNumberFormat.format(value, decimals, buffer,
+                position);
+        while (position > start && buffer[position - 1] == '0') {
+            position--;
+        }
+        if (position > start && buffer[position - 1] == '.') {
+            position--;
+        }
+    }
+
+    /**
+     * Put a non-negative integer with leading zeros to the given width.
+     */
+    private void putDigits(int value, int width) {
+        ensure(MetarNumberFormat.MAX_LENGTH + width);
+        for (int digits = 10, n = 1; n < width; digits *= 10, n++) {
+            if (value < digits) {
+                buffer[position++] = '0';
+            }
+        }
+        position = MetarNumberFormat.format(value, buffer, position);
+    }
+
+    private void putToken(String token) {
+        put(' ');
+        putText(token);
+    }
+
+    // nothing is put for a missing code
+    private void putText(String text) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        ensure(length);
+        text.getChars(0, length, buffer, position);
+        position += length;
+    }
+
+    private void put(char c) {
+        ensure(1);
+        buffer[position++] = c;
+    }
+
+    private void ensure(int room) {
+        if (position + room > buffer.length) {
+            buffer = Arrays.copyOf(buffer,
+                    Math.max(buffer.length * 2, position + room));
+            view = CharBuffer.wrap(buffer);
+        }
+    }
+
+    private static boolean isWhole(float value) {
+        return Math.abs(value - Math.round(value)) < 1e-3f;
+    }
+}
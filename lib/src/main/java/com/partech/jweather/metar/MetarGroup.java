@@ -0,0 +1,49 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+/**
+ * The groups of a METAR report that can be selected for decoding.
+ *
+ * @see MetarParser#setProjection(java.util.Set)
+ */
+public enum MetarGroup {
+    /** wind direction, speed, gusts and variable direction */
+    WIND,
+    /** prevailing visibility, including CAVOK */
+    VISIBILITY,
+    /** runway visual range */
+    RUNWAY_VISUAL_RANGE,
+    /** present weather */
+    WEATHER,
+    /** sky condition (and the ceiling derived from it) */
+    SKY,
+    /** temperature and dew point */
+    TEMPERATURE,
+    /** altimeter setting */
+    ALTIMETER,
+    /** remarks and any trailing groups following the body of the report */
+    REMARKS
+}
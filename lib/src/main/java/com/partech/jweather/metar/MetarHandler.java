@@ -0,0 +1,216 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+/**
+ * Receives the groups of a METAR report as they are decoded, for consumers
+ * that only count or forward a few values and have no use for a
+ * {@link Metar}. Values are passed as primitives and as the codes that
+ * appear in the report, so decoding a report with a handler allocates no
+ * Metar or condition objects.
+ *
+ * Callbacks are made in the order the groups appear in the report, and
+ * only for groups in the parser's projection. All methods have empty
+ * default implementations, so implementations only override the callbacks
+ * they are interested in. Strings passed to a handler are either tokens of
+ * the report or shared constants, so they may be kept without copying.
+ *
+ * @see MetarParser#parseEvents(String, MetarHandler)
+ */
+public interface MetarHandler {
+
+    /**
+     * The units a visibility is reported in.
+     */
+    enum DistanceUnit {
+        /** statute miles (SM) */
+        STATUTE_MILES,
+        /** kilometers (KM, and the 9999 group) */
+        KILOMETERS,
+        /** meters (four digit groups) */
+        METERS
+    }
+
+    /**
+     * Called before the first group of each report.
+     *
+     * @param metarData the raw report
+     */
+    default void onReportStart(String metarData) {
+    }
+
+    /**
+     * @param stationID the station identifier (e.g. "KJFK")
+     */
+    default void onStation(String stationID) {
+    }
+
+    /**
+     * @param day    the day of the month
+     * @param hour   the hour (UTC)
+     * @param minute the minute
+     */
+    default void onTime(int day, int hour, int minute) {
+    }
+
+    /**
+     * @param modifier the report modifier, "AUTO" or "COR"
+     */
+    default void onModifier(String modifier) {
+    }
+
+    /**
+     * @param direction the direction the wind is blowing from (in degrees),
+     *                  or -1 if it is variable
+     * @param speed     the wind speed (in knots)
+     * @param gusts     the speed of gusts (in knots), or NaN if none were
+     *                  reported
+     * @param variable  true if the direction is reported as variable (VRB)
+     */
+    default void onWind(int direction, float speed, float gusts,
+                        boolean variable) {
+    }
+
+    /**
+     * Called for a variable wind direction group, dddVddd.
+     *
+     * @param minimum the first direction of the range (in degrees)
+     * @param maximum the last direction of the range (in degrees)
+     */
+    default void onWindVariation(int minimum, int maximum) {
+    }
+
+    /**
+     * Called for the CAVOK group, which stands in for the visibility,
+     * weather and sky condition groups.
+     */
+    default void onCavok() {
+    }
+
+    /**
+     * @param distance    the prevailing visibility, or NaN if the group
+     *                    could not be read
+     * @param unit        the units of the distance
+     * @param lessThan    true if the visibility is less than the distance
+     * @param greaterThan true if the visibility is greater than the
+     *                    distance
+     */
+    default void onVisibility(float distance, DistanceUnit unit,
+                              boolean lessThan, boolean greaterThan) {
+    }
+
+    /**
+     * @param runway   the runway number
+     * @param approach the approach direction ('L', 'R' or 'C'), or 0 if
+     *                 none was reported
+     * @param modifier 'M' if the range is below the lowest reportable
+     *                 value, 'P' if it is above the highest, or 0
+     * @param lowest   the (lowest) visual range (in feet)
+     * @param highest  the highest visual range (in feet), or -1 if the
+     *                 range does not vary
+     */
+    default void onRunwayVisualRange(int runway, char approach,
+                                     char modifier, int lowest,
+                                     int highest) {
+    }
+
+    /**
+     * @param intensity  '-' for light, '+' for heavy, or 0 for moderate
+     * @param descriptor the descriptor code (e.g. "SH"), or null if there
+     *                   is none
+     * @param phenomenon the phenomenon code (e.g. "RA")
+     */
+    default void onWeather(char intensity, String descriptor,
+                           String phenomenon) {
+    }
+
+    /**
+     * @param cover    the sky cover code ("FEW", "SCT", "BKN", "OVC",
+     *                 "VV", "SKC", "CLR" or "NSC")
+     * @param height   the height of the layer (in feet), or 0 for a clear
+     *                 sky
+     * @param modifier the cloud type following the layer (e.g. "CB"), or
+     *                 null if there is none
+     */
+    default void onSky(String cover, int height, String modifier) {
+    }
+
+    /**
+     * @param temperature the temperature (in degrees Celsius)
+     * @param dewPoint    the dew point (in degrees Celsius)
+     */
+    default void onTemperature(float temperature, float dewPoint) {
+    }
+
+    /**
+     * @param pressure the altimeter setting (in inches of mercury)
+     */
+    default void onAltimeter(float pressure) {
+    }
+
+    /**
+     * Called for the hourly temperature and dew point remark,
+     * Tsnnnsnnn.
+     *
+     * @param temperature the temperature (in degrees Celsius, to 1/10th)
+     * @param dewPoint    the dew point (in degrees Celsius, to 1/10th)
+     */
+    default void onPreciseTemperature(float temperature, float dewPoint) {
+    }
+
+    /**
+     * Called for an obscuration remark and the layer that follows it.
+     *
+     * @param phenomenon the obscuring phenomenon (e.g. "FG")
+     * @param amount     the amount of sky it covers ("FEW", "SCT", "BKN"
+     *                   or "OVC")
+     * @param height     the height of the layer (in feet)
+     */
+    default void onObscuration(String phenomenon, String amount,
+                               int height) {
+    }
+
+    /**
+     * Called for a NOSIG trend following the body of the report.
+     */
+    default void onNoSignificantChange() {
+    }
+
+    /**
+     * Called for each other token following the body of the report, such
+     * as "AO2" or "SLP127". The RMK token itself is not passed.
+     *
+     * @param token the token
+     */
+    default void onRemark(String token) {
+    }
+
+    /**
+     * Called after the last group of a report that was decoded without
+     * error.
+     */
+    default void onReportEnd() {
+    }
+}
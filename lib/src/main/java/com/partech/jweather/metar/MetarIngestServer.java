@@ -0,0 +1,395 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small TCP server that accepts raw METAR lines from any number of
+ * connections, parses each line and hands the result to a {@link Sink}.
+ *
+ * Each connection is served by its own task on the server's executor,
+ * using blocking NIO reads. By default the executor creates one virtual
+ * thread per task when the runtime supports them (Java 21 and later), so
+ * thousands of idle station connections cost little more than their
+ * buffers; on older runtimes a cached thread pool is used instead.
+ *
+ * An open connection keeps only a small direct read buffer and the part of
+ * a line received so far, which starts small and grows only for long
+ * lines. Read buffers are pooled across connections, and parsers are
+ * pooled and taken only while a complete line is being parsed, so ten
+ * thousand idle connections hold a few megabytes between them.
+ *
+ * Lines are terminated by '\n' (an optional preceding '\r' is ignored) and
+ * are expected to be ASCII. Blank lines are skipped, and lines longer than
+ * {@link #MAX_LINE_LENGTH} characters are discarded as failures.
+ */
+public class MetarIngestServer implements Closeable {
+
+    /** The longest line accepted from a connection */
+    public static final int MAX_LINE_LENGTH = 4096;
+
+    // a direct read buffer stays with its connection for as long as the
+    // connection is open, so it is sized for a few reports, not for bulk
+    private static final int BUFFER_SIZE = 512;
+    private static final int MAX_POOLED_BUFFERS = 16384;
+    private static final int INITIAL_LINE_LENGTH = 256;
+
+    /**
+     * Receives the reports read by the server. Sinks are called from many
+     * connection threads at once and must be safe for use by multiple
+     * threads.
+     */
+    public interface Sink {
+
+        /**
+         * @param metar a report received and parsed by the server
+         */
+        void accept(Metar metar);
+
+        /**
+         * Called for each line that could not be parsed.
+         *
+         * @param line  the line, or null if it was too long to keep
+         * @param cause the reason the line was rejected
+         */
+        default void onFailure(String line, Exception cause) {
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Sink sink;
+
+    private final ConcurrentLinkedQueue<ByteBuffer> bufferPool =
+            new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledBuffers = new AtomicInteger();
+    private final ConcurrentLinkedQueue<MetarParser> parserPool =
+            new ConcurrentLinkedQueue<>();
+    private final Set<SocketChannel> connections =
+            ConcurrentHashMap.newKeySet();
+
+    private final LongAdder reportCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder connectionCount = new LongAdder();
+
+    private volatile ServerSocketChannel serverChannel;
+    private volatile boolean closed = false;
+
+    /**
+     * Create a server that serves each connection on a virtual thread when
+     * the runtime supports them.
+     *
+     * @param address the address to listen on
+     * @param sink    the receiver of parsed reports
+     */
+    public MetarIngestServer(InetSocketAddress address, Sink sink) {
+        this(address, newConnectionExecutor(), true, sink);
+    }
+
+    /**
+     * @param address  the address to listen on
+     * @param executor the executor each connection is served on; it is not
+     *                 shut down when the server is closed
+     * @param sink     the receiver of parsed reports
+     */
+    public MetarIngestServer(InetSocketAddress address,
+                             ExecutorService executor, Sink sink) {
+        this(address, executor, false, sink);
+    }
+
+    private MetarIngestServer(InetSocketAddress address,
+                              ExecutorService executor, boolean ownsExecutor,
+                              Sink sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException("sink must not be null");
+        }
+
+        this.address = address;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.sink = sink;
+    }
+
+    /**
+     * @return an executor that starts a new virtual thread for each task if
+     * the runtime supports virtual threads, or a cached thread pool if not
+     */
+    static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "metar-ingest-connection");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Bind to the server address and start accepting connections.
+     *
+     * @throws IOException if the server could not be bound
+     */
+    public synchronized void start() throws IOException {
+        if (serverChannel != null) {
+            throw new IllegalStateException("server already started");
+        }
+        if (closed) {
+            throw new IllegalStateException("server has been closed");
+        }
+
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(address, 1024);
+        serverChannel = channel;
+
+        Thread acceptor = new Thread(this::acceptConnections,
+                "metar-ingest-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return the address the server is listening on, which has the actual
+     * port if the server was bound to port 0
+     * @throws IOException if the address could not be determined
+     */
+    public InetSocketAddress getLocalAddress() throws IOException {
+        ServerSocketChannel channel = serverChannel;
+        if (channel == null) {
+            throw new IllegalStateException("server not started");
+        }
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    /**
+     * @return the number of reports parsed and handed to the sink
+     */
+    public long getReportCount() {
+        return reportCount.sum();
+    }
+
+    /**
+     * @return the number of lines that could not be parsed
+     */
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * @return the number of connections accepted since the server started
+     */
+    public long getConnectionCount() {
+        return connectionCount.sum();
+    }
+
+    /**
+     * @return the number of connections currently open
+     */
+    public int getOpenConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Stop accepting connections and close all open connections.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (serverChannel != null) {
+            serverChannel.close();
+        }
+        for (SocketChannel connection : connections) {
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+
+            }
+        }
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            SocketChannel connection;
+            try {
+                connection = serverChannel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // a failure to accept one connection should not stop the server
+                continue;
+            }
+
+            connectionCount.increment();
+            connections.add(connection);
+            try {
+                executor.execute(() -> serve(connection));
+            } catch (RejectedExecutionException e) {
+                connections.remove(connection);
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        ByteBuffer buffer = acquireBuffer();
+        char[] line = new char[INITIAL_LINE_LENGTH];
+        int length = 0;
+        boolean overflow = false;
+
+        try {
+            while (connection.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    char c = (char) (buffer.get() & 0xff);
+                    if (c == '\n') {
+                        if (overflow) {
+                            failureCount.increment();
+                            sink.onFailure(null, new MetarParseException(
+                                    "line longer than " + MAX_LINE_LENGTH
+                                            + " characters"));
+                        } else {
+                            handleLine(line, length);
+                        }
+                        length = 0;
+                        overflow = false;
+                        if (line.length > INITIAL_LINE_LENGTH) {
+                            // do not keep a long line's storage while idle
+                            line = new char[INITIAL_LINE_LENGTH];
+                        }
+                    } else if (overflow) {
+                        // discard the rest of an over-long line
+                    } else if (length < line.length) {
+                        line[length++] = c;
+                    } else if (line.length < MAX_LINE_LENGTH) {
+                        line = Arrays.copyOf(line,
+                                Math.min(line.length * 2, MAX_LINE_LENGTH));
+                        line[length++] = c;
+                    } else {
+                        overflow = true;
+                    }
+                }
+                buffer.clear();
+            }
+
+            // a final line without a terminator
+            if (!overflow) {
+                handleLine(line, length);
+            }
+        } catch (IOException e) {
+            // the connection was reset or the server closed it
+        } finally {
+            releaseBuffer(buffer);
+            connections.remove(connection);
+            closeQuietly(connection);
+        }
+    }
+
+    private void handleLine(char[] line, int length) {
+        int start = 0;
+        while (start < length && line[start] <= ' ') {
+            start++;
+        }
+        while (length > start && line[length - 1] <= ' ') {
+            length--;
+        }
+        if (start == length) {
+            return;
+        }
+
+        String text = new String(line, start, length - start);
+        MetarParser parser = parserPool.poll();
+        if (parser == null) {
+            parser = new MetarParser();
+        }
+        Metar metar;
+        try {
+            metar = parser.parseData(text);
+        } catch (MetarParseException | RuntimeException e) {
+            failureCount.increment();
+            sink.onFailure(text, e);
+            return;
+        } finally {
+            // a parser only holds state while it is parsing, so there are
+            // never more pooled parsers than lines parsed at once
+            parserPool.offer(parser);
+        }
+
+        reportCount.increment();
+        sink.accept(metar);
+    }
+
+    private ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = bufferPool.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        pooledBuffers.decrementAndGet();
+        return buffer;
+    }
+
+    private void releaseBuffer(ByteBuffer buffer) {
+        if (pooledBuffers.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            buffer.clear();
+            bufferPool.offer(buffer);
+        } else {
+            pooledBuffers.decrementAndGet();
+        }
+    }
+
+    private static void closeQuietly(SocketChannel connection) {
+        try {
+            connection.close();
+        } catch (IOException ignored) {
+
+        }
+    }
+}
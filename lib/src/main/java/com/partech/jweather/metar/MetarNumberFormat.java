@@ -0,0 +1,438 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+
+/**
+ * Writes numbers as decimal text straight into a {@link StringBuilder},
+ * {@link CharBuffer}, char array or (ASCII) byte array (and integers into
+ * any {@link Appendable}), without boxing the
+ * value or building an intermediate String.
+ *
+ * Floating point values are written with a fixed number of decimals,
+ * rounded half up from the exact value of the float (so 2.675f, which is
+ * slightly less than 2.675, is written as "2.67" with two decimals), and
+ * without an exponent, however large. NaN and infinite values, which the
+ * renderers use for missing values, are written as nothing at all.
+ * Negative values that round to zero are written without a sign.
+ *
+ * Values too large to scale into a long (a billion and more) are whole
+ * numbers, as a float has only 24 bits of precision; they are the one
+ * case that allocates, to write out their exact digits.
+ */
+public final class MetarNumberFormat {
+
+    /**
+     * The most characters written for a single value: a sign, the 39
+     * digits of the largest float, a point and {@link #MAX_DECIMALS}
+     * decimals
+     */
+    public static final int MAX_LENGTH = 50;
+
+    /** The most decimals that can be written */
+    public static final int MAX_DECIMALS = 9;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+            10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    // the largest scaled value that is formatted as a long, above which
+    // the value is written by largeValue
+    private static final double MAX_SCALED = 1e18;
+
+    private MetarNumberFormat() {
+    }
+
+    /**
+     * Append a value with a fixed number of decimals.
+     *
+     * @param sb       the builder to append to
+     * @param value    the value; nothing is appended for NaN or infinity
+     * @param decimals the number of decimals, from 0 to
+     *                 {@link #MAX_DECIMALS}
+     * @return the builder
+     */
+    public static StringBuilder append(StringBuilder sb, float value,
+                                       int decimals) {
+        long scale = scale(decimals);
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return sb;
+        }
+
+        double scaled = Math.abs((double) value) * scale;
+        if (scaled >= MAX_SCALED) {
+            return sb.append(largeValue(value, decimals));
+        }
+
+        long units = Math.round(scaled);
+        if (value < 0 && units != 0) {
+            sb.append('-');
+        }
+        append(sb, units / scale);
+        if (decimals > 0) {
+            sb.append('.');
+            appendFraction(sb, units % scale, scale);
+        }
+        return sb;
+    }
+
+    /**
+     * Append an integer value.
+     *
+     * @param sb    the builder to append to
+     * @param value the value
+     * @return the builder
+     */
+    public static StringBuilder append(StringBuilder sb, long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return sb.append(value);
+            }
+            sb.append('-');
+            value = -value;
+        }
+
+        int start = sb.length();
+        int end = start + digits(value);
+        sb.setLength(end);
+        for (int i = end - 1; i >= start; i--) {
+            sb.setCharAt(i, (char) ('0' + value % 10));
+            value /= 10;
+        }
+        return sb;
+    }
+
+    /**
+     * Append an integer value to any destination, one character at a time.
+     *
+     * @param out   the destination
+     * @param value the value
+     * @return the destination
+     * @throws IOException if the destination fails
+     */
+    public static Appendable append(Appendable out, long value)
+            throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return out.append(Long.toString(value));
+            }
+            out.append('-');
+            value = -value;
+        }
+
+        long p = 1;
+        while (p <= value / 10) {
+            p *= 10;
+        }
+        for (; p > 0; p /= 10) {
+            out.append((char) ('0' + value / p % 10));
+        }
+        return out;
+    }
+
+    /**
+     * Write a value with a fixed number of decimals into a char array.
+     *
+     * @param value    the value; nothing is written for NaN or infinity
+     * @param decimals the number of decimals, from 0 to
+     *                 {@link #MAX_DECIMALS}
+     * @param to       the array to write to, with at least
+     *                 {@link #MAX_LENGTH} characters of room at the offset
+     * @param offset   where to write the first character
+     * @return the offset after the last character written
+     */
+    public static int format(float value, int decimals, char[] to,
+                             int offset) {
+        long scale = scale(decimals);
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return offset;
+        }
+
+        double scaled = Math.abs((double) value) * scale;
+        if (scaled >= MAX_SCALED) {
+            String text = largeValue(value, decimals);
+            text.getChars(0, text.length(), to, offset);
+            return offset + text.length();
+        }
+
+        long units = Math.round(scaled);
+        if (value < 0 && units != 0) {
+            to[offset++] = '-';
+        }
+        offset = format(units / scale, to, offset);
+        if (decimals > 0) {
+            to[offset++] = '.';
+            long fraction = units % scale;
+            for (long p = scale / 10; p > 0; p /= 10) {
+                to[offset++] = (char) ('0' + fraction / p % 10);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Write an integer value into a char array.
+     *
+     * @param value  the value
+     * @param to     the array to write to, with at least
+     *               {@link #MAX_LENGTH} characters of room at the offset
+     * @param offset where to write the first character
+     * @return the offset after the last character written
+     */
+    public static int format(long value, char[] to, int offset) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                String text = Long.toString(value);
+                text.getChars(0, text.length(), to, offset);
+                return offset + text.length();
+            }
+            to[offset++] = '-';
+            value = -value;
+        }
+
+        int end = offset + digits(value);
+        for (int i = end - 1; i >= offset; i--) {
+            to[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Write a value with a fixed number of decimals into a byte array as
+     * ASCII.
+     *
+     * @param value    the value; nothing is written for NaN or infinity
+     * @param decimals the number of decimals, from 0 to
+     *                 {@link #MAX_DECIMALS}
+     * @param to       the array to write to, with at least
+     *                 {@link #MAX_LENGTH} bytes of room at the offset
+     * @param offset   where to write the first byte
+     * @return the offset after the last byte written
+     */
+    public static int format(float value, int decimals, byte[] to,
+                             int offset) {
+        long scale = scale(decimals);
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return offset;
+        }
+
+        double scaled = Math.abs((double) value) * scale;
+        if (scaled >= MAX_SCALED) {
+            return ascii(largeValue(value, decimals), to, offset);
+        }
+
+        long units = Math.round(scaled);
+        if (value < 0 && units != 0) {
+            to[offset++] = '-';
+        }
+        offset = format(units / scale, to, offset);
+        if (decimals > 0) {
+            to[offset++] = '.';
+            long fraction = units % scale;
+            for (long p = scale / 10; p > 0; p /= 10) {
+                to[offset++] = (byte) ('0' + fraction / p % 10);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Write an integer value into a byte array as ASCII.
+     *
+     * @param value  the value
+     * @param to     the array to write to, with at least
+     *               {@link #MAX_LENGTH} bytes of room at the offset
+     * @param offset where to write the first byte
+     * @return the offset after the last byte written
+     */
+    public static int format(long value, byte[] to, int offset) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return ascii(Long.toString(value), to, offset);
+            }
+            to[offset++] = '-';
+            value = -value;
+        }
+
+        int end = offset + digits(value);
+        for (int i = end - 1; i >= offset; i--) {
+            to[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Write a value with a fixed number of decimals at the position of a
+     * buffer, and advance the position past it.
+     *
+     * @param to       the buffer, with at least {@link #MAX_LENGTH}
+     *                 characters remaining
+     * @param value    the value; nothing is written for NaN or infinity
+     * @param decimals the number of decimals, from 0 to
+     *                 {@link #MAX_DECIMALS}
+     * @return the buffer
+     * @throws BufferOverflowException if fewer than {@link #MAX_LENGTH}
+     *                                 characters remain; nothing is written
+     */
+    public static CharBuffer put(CharBuffer to, float value, int decimals) {
+        if (to.remaining() < MAX_LENGTH) {
+            throw new BufferOverflowException();
+        }
+        if (to.hasArray()) {
+            int start = to.arrayOffset() + to.position();
+            int end = format(value, decimals, to.array(), start);
+            to.position(to.position() + end - start);
+            return to;
+        }
+
+        long scale = scale(decimals);
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return to;
+        }
+
+        double scaled = Math.abs((double) value) * scale;
+        if (scaled >= MAX_SCALED) {
+            return to.put(largeValue(value, decimals));
+        }
+
+        long units = Math.round(scaled);
+        if (value < 0 && units != 0) {
+            to.put('-');
+        }
+        putDigits(to, units / scale);
+        if (decimals > 0) {
+            to.put('.');
+            long fraction = units % scale;
+            for (long p = scale / 10; p > 0; p /= 10) {
+                to.put((char) ('0' + fraction / p % 10));
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Write an integer value at the position of a buffer, and advance the
+     * position past it.
+     *
+     * @param to    the buffer, with at least {@link #MAX_LENGTH} characters
+     *              remaining
+     * @param value the value
+     * @return the buffer
+     * @throws BufferOverflowException if fewer than {@link #MAX_LENGTH}
+     *                                 characters remain; nothing is written
+     */
+    public static CharBuffer put(CharBuffer to, long value) {
+        if (to.remaining() < MAX_LENGTH) {
+            throw new BufferOverflowException();
+        }
+        if (to.hasArray()) {
+            int start = to.arrayOffset() + to.position();
+            int end = format(value, to.array(), start);
+            to.position(to.position() + end - start);
+            return to;
+        }
+
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return to.put(Long.toString(value));
+            }
+            to.put('-');
+            value = -value;
+        }
+        putDigits(to, value);
+        return to;
+    }
+
+    private static long scale(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException(
+                    "decimals must be from 0 to " + MAX_DECIMALS);
+        }
+        return POWERS_OF_TEN[decimals];
+    }
+
+    /**
+     * @return the exact digits of a value too large to scale, which is a
+     * whole number, followed by zero decimals
+     */
+    private static String largeValue(float value, int decimals) {
+        StringBuilder sb = new StringBuilder(MAX_LENGTH);
+        sb.append(new BigDecimal(value).toPlainString());
+        if (decimals > 0) {
+            sb.append('.');
+            for (int i = 0; i < decimals; i++) {
+                sb.append('0');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendFraction(StringBuilder sb, long fraction,
+                                       long scale) {
+        for (long p = scale / 10; p > 0; p /= 10) {
+            sb.append((char) ('0' + fraction / p % 10));
+        }
+    }
+
+    /**
+     * Write a non-negative value most significant digit first, for buffers
+     * without an accessible array.
+     */
+    private static void putDigits(CharBuffer to, long value) {
+        long p = 1;
+        while (p <= value / 10) {
+            p *= 10;
+        }
+        for (; p > 0; p /= 10) {
+            to.put((char) ('0' + value / p % 10));
+        }
+    }
+
+    /**
+     * @return the number of digits in a non-negative value
+     */
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static int ascii(String text, byte[] to, int offset) {
+        for (int i = 0; i < text.length(); i++) {
+            to[offset++] = (byte) text.charAt(i);
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache in front of {@link MetarParser#parse}.
+ *
+ * Feeds frequently re-deliver identical reports, so results are keyed on the
+ * raw report text and a repeated report costs a hash lookup instead of a full
+ * parse. Cached Metar objects are frozen snapshots (see {@link Metar#freeze})
+ * shared between all callers that ask for the same text.
+ *
+ * This class is safe for use by multiple threads. Parsing is done outside of
+ * the cache lock, so concurrent misses on different reports do not serialize.
+ */
+public class MetarParseCache {
+
+    private final int maximumSize;
+    private final LinkedHashMap<String, Metar> entries;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * @param maximumSize the maximum number of parsed reports to retain
+     */
+    public MetarParseCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException(
+                    "maximum size must be positive: " + maximumSize);
+        }
+
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<String, Metar>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Metar> eldest) {
+                if (size() > MetarParseCache.this.maximumSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Parse a report, returning a previously parsed result if the same raw
+     * text has been seen recently.
+     *
+     * @param metarData the raw METAR report
+     * @return the parsed (and possibly shared) frozen Metar
+     * @throws MetarParseException if the report could not be parsed
+     */
+    public Metar parse(String metarData) throws MetarParseException {
+        if (metarData == null) {
+            throw new MetarParseException("empty metar data");
+        }
+
+        synchronized (entries) {
+            Metar metar = entries.get(metarData);
+            if (metar != null) {
+                hitCount++;
+                return metar;
+            }
+            missCount++;
+        }
+
+        Metar metar = MetarParser.parse(metarData).freeze();
+
+        synchronized (entries) {
+            // another thread may have parsed the same text in the meantime;
+            // keep the first result so callers share a single instance
+            Metar existing = entries.get(metarData);
+            if (existing != null) {
+                return existing;
+            }
+            entries.put(metarData, metar);
+        }
+
+        return metar;
+    }
+
+    /**
+     * @return the cached result for the given raw text, or null if the text
+     * has not been parsed or has since been evicted
+     */
+    public Metar getIfPresent(String metarData) {
+        synchronized (entries) {
+            return entries.get(metarData);
+        }
+    }
+
+    /**
+     * Remove all cached results. Hit and miss counters are not reset.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return the number of reports currently cached
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the maximum number of reports this cache will retain
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return the number of parse requests answered from the cache
+     */
+    public long getHitCount() {
+        synchronized (entries) {
+            return hitCount;
+        }
+    }
+
+    /**
+     * @return the number of parse requests that required a full parse
+     */
+    public long getMissCount() {
+        synchronized (entries) {
+            return missCount;
+        }
+    }
+
+    /**
+     * @return the number of results removed to stay within the maximum size
+     */
+    public long getEvictionCount() {
+        synchronized (entries) {
+            return evictionCount;
+        }
+    }
+}
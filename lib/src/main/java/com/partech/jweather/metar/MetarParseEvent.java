@@ -0,0 +1,78 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a single report parsed by
+ * {@link MetarParser}.
+ *
+ * The event is disabled by default since it is emitted for every report.
+ * Enable it in a recording with
+ * {@code com.partech.jweather.MetarParse#enabled=true}, and add a threshold
+ * (e.g. {@code com.partech.jweather.MetarParse#threshold=1 ms}) to record
+ * only the slow parses.
+ */
+@Name("com.partech.jweather.MetarParse")
+@Label("METAR Parse")
+@Description("A single METAR report parsed by MetarParser")
+@Category({"JWeather", "Parsing"})
+@Enabled(false)
+@StackTrace(false)
+class MetarParseEvent extends jdk.jfr.Event {
+
+    @Label("Station")
+    String stationID;
+
+    @Label("Report Length")
+    @DataAmount
+    int length;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * End the event and commit it if the recording wants it.
+     *
+     * @param metarData the raw report
+     * @param metar     the parsed report, or null if parsing failed
+     */
+    void complete(String metarData, Metar metar) {
+        end();
+        if (shouldCommit()) {
+            length = (metarData == null) ? 0 : metarData.length();
+            succeeded = metar != null;
+            stationID = (metar == null) ? null : metar.getStationID();
+            commit();
+        }
+    }
+}
@@ -24,7 +24,7 @@ This work has been modified by PAR Government (https://pargovernment.net/) as of
 
 package com.partech.jweather.metar;
 
-class MetarParseException extends Exception {
+public class MetarParseException extends Exception {
 
     /**
      * Default constructor
@@ -0,0 +1,115 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+/**
+ * Receives notifications about the reports parsed by a {@link MetarParser}.
+ *
+ * All methods have empty default implementations, so implementations only
+ * override the notifications they are interested in. Methods are called on
+ * the parsing thread and should return quickly; a listener shared between
+ * parsers must be safe for use by multiple threads.
+ *
+ * @see MetarParser#setParseListener(MetarParseListener)
+ */
+public interface MetarParseListener {
+
+    /**
+     * Called for each group found in the body of a report, and once for a
+     * report that has a remarks section.
+     *
+     * @param group the type of group found
+     */
+    default void onGroup(MetarGroup group) {
+    }
+
+    /**
+     * Called for each token following the body of a report that the parser
+     * does not decode. Tokens in deferred remarks are not reported.
+     *
+     * @param token the token that was skipped
+     */
+    default void onUnrecognizedToken(String token) {
+    }
+
+    /**
+     * Called when a report has been parsed.
+     *
+     * @param metar        the parsed report
+     * @param elapsedNanos the time taken to parse it (in nanoseconds)
+     */
+    default void onParseCompleted(Metar metar, long elapsedNanos) {
+    }
+
+    /**
+     * Called when a report could not be parsed.
+     *
+     * @param metarData    the raw report
+     * @param group        the group being decoded when parsing failed, or
+     *                     null if it failed before the first group
+     * @param cause        the reason parsing failed
+     * @param elapsedNanos the time spent before parsing failed (in
+     *                     nanoseconds)
+     */
+    default void onParseFailed(String metarData, MetarGroup group,
+                               Exception cause, long elapsedNanos) {
+    }
+
+    /**
+     * Combine two listeners so both can be registered with one parser.
+     *
+     * @return a listener that forwards every notification to first and then
+     * to second
+     */
+    static MetarParseListener compose(MetarParseListener first,
+                                      MetarParseListener second) {
+        return new MetarParseListener() {
+            @Override
+            public void onGroup(MetarGroup group) {
+                first.onGroup(group);
+                second.onGroup(group);
+            }
+
+            @Override
+            public void onUnrecognizedToken(String token) {
+                first.onUnrecognizedToken(token);
+                second.onUnrecognizedToken(token);
+            }
+
+            @Override
+            public void onParseCompleted(Metar metar, long elapsedNanos) {
+                first.onParseCompleted(metar, elapsedNanos);
+                second.onParseCompleted(metar, elapsedNanos);
+            }
+
+            @Override
+            public void onParseFailed(String metarData, MetarGroup group,
+                                      Exception cause, long elapsedNanos) {
+                first.onParseFailed(metarData, group, cause, elapsedNanos);
+                second.onParseFailed(metarData, group, cause, elapsedNanos);
+            }
+        };
+    }
+}
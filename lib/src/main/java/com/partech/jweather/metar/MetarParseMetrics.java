@@ -0,0 +1,275 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MetarParseListener} that collects parse statistics: a latency
+ * histogram, counts of each group type found, failures by group and the
+ * number of unrecognized tokens.
+ *
+ * Recording is lock-free, so a single instance can be shared by parsers on
+ * any number of threads. Latencies are kept in a log-linear histogram with
+ * eight sub-buckets per power of two, so reported percentiles are within
+ * 12.5% of the recorded value.
+ */
+public class MetarParseMetrics implements MetarParseListener {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS =
+            (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final MetarGroup[] GROUPS = MetarGroup.values();
+
+    private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray groups = new AtomicLongArray(GROUPS.length);
+    // the last slot counts failures outside of any group
+    private final AtomicLongArray failures =
+            new AtomicLongArray(GROUPS.length + 1);
+    private final LongAdder parsed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder unrecognized = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    @Override
+    public void onGroup(MetarGroup group) {
+        groups.incrementAndGet(group.ordinal());
+    }
+
+    @Override
+    public void onUnrecognizedToken(String token) {
+        unrecognized.increment();
+    }
+
+    @Override
+    public void onParseCompleted(Metar metar, long elapsedNanos) {
+        parsed.increment();
+        record(elapsedNanos);
+    }
+
+    @Override
+    public void onParseFailed(String metarData, MetarGroup group,
+                              Exception cause, long elapsedNanos) {
+        failed.increment();
+        failures.incrementAndGet(
+                (group == null) ? GROUPS.length : group.ordinal());
+        record(elapsedNanos);
+    }
+
+    private void record(long elapsedNanos) {
+        long value = Math.max(0, elapsedNanos);
+        latencies.incrementAndGet(bucketIndex(value));
+        totalNanos.add(value);
+    }
+
+    /**
+     * Take a copy of the statistics collected so far. Counters keep running
+     * while the snapshot is taken, so values recorded concurrently may or may
+     * not be included.
+     *
+     * @return a snapshot of the current statistics
+     */
+    public Snapshot snapshot() {
+        long[] latencyCounts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            latencyCounts[i] = latencies.get(i);
+        }
+        long[] groupCounts = new long[GROUPS.length];
+        for (int i = 0; i < groupCounts.length; i++) {
+            groupCounts[i] = groups.get(i);
+        }
+        long[] failureCounts = new long[GROUPS.length + 1];
+        for (int i = 0; i < failureCounts.length; i++) {
+            failureCounts[i] = failures.get(i);
+        }
+        return new Snapshot(parsed.sum(), failed.sum(), unrecognized.sum(),
+                totalNanos.sum(), latencyCounts, groupCounts, failureCounts);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS))
+                & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the highest value that is recorded in the given bucket
+     */
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + subBucket * width + width - 1;
+    }
+
+    /**
+     * An immutable copy of the statistics held by a MetarParseMetrics.
+     */
+    public static class Snapshot {
+        private final long parseCount;
+        private final long failureCount;
+        private final long unrecognizedTokenCount;
+        private final long totalNanos;
+        private final long[] latencyCounts;
+        private final long[] groupCounts;
+        private final long[] failureCounts;
+
+        Snapshot(long parseCount, long failureCount,
+                 long unrecognizedTokenCount, long totalNanos,
+                 long[] latencyCounts, long[] groupCounts,
+                 long[] failureCounts) {
+            this.parseCount = parseCount;
+            this.failureCount = failureCount;
+            this.unrecognizedTokenCount = unrecognizedTokenCount;
+            this.totalNanos = totalNanos;
+            this.latencyCounts = latencyCounts;
+            this.groupCounts = groupCounts;
+            this.failureCounts = failureCounts;
+        }
+
+        /**
+         * @return the number of reports parsed successfully
+         */
+        public long getParseCount() {
+            return parseCount;
+        }
+
+        /**
+         * @return the number of reports that could not be parsed
+         */
+        public long getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * @return the number of failures that occurred while decoding the
+         * given group
+         */
+        public long getFailureCount(MetarGroup group) {
+            return failureCounts[group.ordinal()];
+        }
+
+        /**
+         * @return the number of failures that occurred before the first
+         * group (in the station identifier or date)
+         */
+        public long getHeaderFailureCount() {
+            return failureCounts[GROUPS.length];
+        }
+
+        /**
+         * @return the number of times the given group was found
+         */
+        public long getGroupCount(MetarGroup group) {
+            return groupCounts[group.ordinal()];
+        }
+
+        /**
+         * @return the number of tokens skipped by the parser
+         */
+        public long getUnrecognizedTokenCount() {
+            return unrecognizedTokenCount;
+        }
+
+        /**
+         * @return the mean time taken per report (in nanoseconds), including
+         * failed reports
+         */
+        public double getMeanLatencyNanos() {
+            long count = parseCount + failureCount;
+            return (count == 0) ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * @param percentile the percentile to report, from 0 to 100
+         * @return the time (in nanoseconds) within which the given
+         * percentage of reports were parsed
+         */
+        public long getLatencyPercentileNanos(double percentile) {
+            long count = 0;
+            for (long c : latencyCounts) {
+                count += c;
+            }
+            if (count == 0) {
+                return 0;
+            }
+
+            long target = (long) Math.ceil(
+                    count * Math.min(100, Math.max(0, percentile)) / 100);
+            target = Math.max(1, target);
+
+            long seen = 0;
+            for (int i = 0; i < latencyCounts.length; i++) {
+                seen += latencyCounts[i];
+                if (seen >= target) {
+                    return bucketUpperBound(i);
+                }
+            }
+            return bucketUpperBound(latencyCounts.length - 1);
+        }
+
+        /**
+         * @return the longest time taken to parse a report (in nanoseconds)
+         */
+        public long getMaxLatencyNanos() {
+            for (int i = latencyCounts.length - 1; i >= 0; i--) {
+                if (latencyCounts[i] != 0) {
+                    return bucketUpperBound(i);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("parsed=").append(parseCount);
+            sb.append(" failed=").append(failureCount);
+            sb.append(" unrecognized=").append(unrecognizedTokenCount);
+            sb.append(" mean=").append((long) getMeanLatencyNanos())
+                    .append("ns");
+            sb.append(" p50=").append(getLatencyPercentileNanos(50))
+                    .append("ns");
+            sb.append(" p99=").append(getLatencyPercentileNanos(99))
+                    .append("ns");
+            sb.append(" max=").append(getMaxLatencyNanos()).append("ns");
+            for (MetarGroup group : GROUPS) {
+                sb.append(' ').append(group.name().toLowerCase())
+                        .append('=').append(groupCounts[group.ordinal()]);
+            }
+            return sb.toString();
+        }
+    }
+}
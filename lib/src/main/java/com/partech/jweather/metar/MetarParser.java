@@ -24,17 +24,10 @@ This work has been modified by PAR Government (https://pargovernment.net/) as of
 
 package com.partech.jweather.metar;
 
-import org.apache.oro.text.perl.MalformedPerl5PatternException;
-import org.apache.oro.text.perl.Perl5Util;
-import org.apache.oro.text.regex.MalformedPatternException;
-import org.apache.oro.text.regex.Perl5Compiler;
-import org.apache.oro.text.regex.Perl5Matcher;
-
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Locale;
-import java.util.TimeZone;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 /*
  * examples:
@@ -92,42 +85,333 @@ import java.util.TimeZone;
 
 public class MetarParser {
 
-    private static final Perl5Util utility = new Perl5Util();
-    private static final Perl5Matcher matcher = new Perl5Matcher();
-
     private final ArrayList<String> tokens = new ArrayList<>();
 
-    private static final SimpleDateFormat sdf = new SimpleDateFormat(
-            "yyyy/MM/dd HH:mm", Locale.US);
-    private static final TimeZone gmtZone = TimeZone.getTimeZone("GMT");
+    private static final String END_OF_GROUPS = "=";
 
-    private WeatherCondition weatherCondition = null;
-    private SkyCondition skyCondition = null;
-    private RunwayVisualRange runwayVisualRange = null;
-    private Obscuration obscuration = null;
+    // fills a Metar from the decoded groups
+    private final MetarBuilder builder = new MetarBuilder();
+    // receives the decoded groups: the builder, or the caller's handler
+    private MetarHandler handler = null;
 
     private int index = 0;
     private int numTokens = 0;
     private String temp = null;
 
-    static {
-        sdf.setTimeZone(gmtZone);
-    }
+    private boolean lazyRemarks = false;
+    private Set<MetarGroup> projection = EnumSet.allOf(MetarGroup.class);
+    private MetarParseListener listener = null;
+
+    // the group being decoded, reported to the listener on failure
+    private MetarGroup currentGroup = null;
+    // set when the parser could not move past the last token
+    private boolean exhausted = false;
 
     public static Metar parse(String metarData) throws MetarParseException {
         MetarParser mp = new MetarParser();
         return mp.parseData(metarData);
     }
 
-    private Metar parseData(String metarData) throws MetarParseException {
+    /**
+     * When enabled, the remarks section is not decoded during the parse.
+     * Its position is recorded instead, and the values found in the remarks
+     * (precise temperature and dew point, obscurations and NOSIG) are decoded
+     * the first time one of them is requested from the Metar.
+     *
+     * @param lazyRemarks whether to defer decoding of the remarks section
+     */
+    public void setLazyRemarks(boolean lazyRemarks) {
+        this.lazyRemarks = lazyRemarks;
+    }
+
+    /**
+     * @return whether decoding of the remarks section is deferred
+     */
+    public boolean getLazyRemarks() {
+        return lazyRemarks;
+    }
+
+    /**
+     * Restrict decoding to the given groups. Groups outside the projection
+     * are still recognized so that the parser advances through the report
+     * correctly, but their values are not decoded and no objects are
+     * allocated for them. The station identifier, date and report modifier
+     * are always decoded. The flight category is only computed when both
+     * {@link MetarGroup#VISIBILITY} and {@link MetarGroup#SKY} are decoded.
+     *
+     * @param groups the groups to decode, or null to decode all of them
+     */
+    public void setProjection(Set<MetarGroup> groups) {
+        if (groups == null) {
+            projection = EnumSet.allOf(MetarGroup.class);
+        } else if (groups.isEmpty()) {
+            projection = EnumSet.noneOf(MetarGroup.class);
+        } else {
+            projection = EnumSet.copyOf(groups);
+        }
+    }
+
+    /**
+     * @return the groups this parser decodes
+     */
+    public Set<MetarGroup> getProjection() {
+        return EnumSet.copyOf(projection);
+    }
+
+    private boolean isProjected(MetarGroup group) {
+        return projection.contains(group);
+    }
+
+    /**
+     * Register a listener that is told about each report parsed by this
+     * parser. When no listener is set (the default) the parser does no
+     * timing or bookkeeping at all.
+     *
+     * @param listener the listener, or null to remove it
+     * @see MetarParseMetrics
+     */
+    public void setParseListener(MetarParseListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the listener registered with this parser, or null
+     */
+    public MetarParseListener getParseListener() {
+        return listener;
+    }
+
+    /**
+     * Parse a single report using this parser's settings. A MetarParser may
+     * be reused for any number of reports, but must not be used by more than
+     * one thread at a time.
+     *
+     * @param metarData the raw METAR report
+     * @return the parsed Metar
+     * @throws MetarParseException if the report could not be parsed
+     */
+    public Metar parseData(String metarData) throws MetarParseException {
+        return parseData(metarData, null);
+    }
+
+    /**
+     * Parse a single report into an existing Metar instead of allocating a
+     * new one. The target is reset before it is filled, and is left
+     * partially filled if the report cannot be parsed. This is meant for
+     * callers that recycle Metar objects, such as {@link MetarRingBuffer};
+     * a recycled Metar must not be handed to anything that keeps a
+     * reference to it, like a {@link MetarParseCache}.
+     *
+     * @param metarData the raw METAR report
+     * @param target    the Metar to fill, or null to allocate a new one; a
+     *                  frozen target is never modified, and a new Metar is
+     *                  allocated in its place
+     * @return the parsed Metar, which is the target if one was given and
+     * is not frozen
+     * @throws MetarParseException if the report could not be parsed
+     */
+    public Metar parseData(String metarData, Metar target)
+            throws MetarParseException {
+        MetarParseEvent event = null;
+        if (isRecorderInitialized()) {
+            event = new MetarParseEvent();
+            if (!event.isEnabled()) {
+                event = null;
+            }
+        }
+        if (listener == null && event == null) {
+            return decode(metarData, target);
+        }
+
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        Metar metar;
+        try {
+            metar = decode(metarData, target);
+        } catch (MetarParseException | RuntimeException e) {
+            long elapsed = System.nanoTime() - start;
+            if (event != null) {
+                event.complete(metarData, null);
+            }
+            if (listener != null) {
+                listener.onParseFailed(metarData, currentGroup, e, elapsed);
+            }
+            throw e;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        if (event != null) {
+            event.complete(metarData, metar);
+        }
+        if (listener != null) {
+            listener.onParseCompleted(metar, elapsed);
+        }
+        return metar;
+    }
+
+    /**
+     * Decode a single report, passing each group to a handler instead of
+     * building a Metar. The groups are decoded exactly as they are by
+     * {@link #parseData(String)}, including the projection, but remarks are
+     * never deferred and no flight category is derived. The parse listener
+     * is told about groups and unrecognized tokens, but not about completed
+     * or failed reports, which are reported to the handler and by the
+     * exception respectively.
+     *
+     * @param metarData the raw METAR report
+     * @param handler   receives the decoded groups
+     * @throws MetarParseException if the report could not be parsed; the
+     *                             handler has then seen the groups decoded
+     *                             before the failure
+     */
+    public void parseEvents(String metarData, MetarHandler handler)
+            throws MetarParseException {
+        if (handler == null) {
+            throw new IllegalArgumentException("handler must not be null");
+        }
+
+        currentGroup = null;
+        if (metarData == null) {
+            throw new MetarParseException("empty metar data");
+        }
+
+        this.handler = handler;
+        handler.onReportStart(metarData);
+        decodeBody(metarData);
+        decodeTrailer();
+        currentGroup = MetarGroup.REMARKS;
+        if (isProjected(MetarGroup.REMARKS)) {
+            parseRemarks();
+        }
+        handler.onReportEnd();
+    }
+
+    /**
+     * Parse a range of reports in one call. The report at {@code in[i]} is
+     * parsed into {@code out[i]}: an existing Metar there is reset and
+     * reused, and a new one is allocated only if the slot is null. When a
+     * report cannot be parsed, {@code errors[i]} describes the failure and
+     * the contents of {@code out[i]} are undefined; for reports that parse,
+     * {@code errors[i]} is set to null.
+     *
+     * @param in     the raw reports
+     * @param from   the index of the first report to parse
+     * @param to     the index after the last report to parse
+     * @param out    receives the parsed reports; must be at least as long as
+     *               {@code to}
+     * @param errors receives the failures, or null to ignore them; must be
+     *               at least as long as {@code to}
+     * @return the number of reports parsed successfully
+     */
+    public int parseBatch(CharSequence[] in, int from, int to, Metar[] out,
+                          ParseError[] errors) {
+        if (from < 0 || from > to || to > in.length) {
+            throw new IndexOutOfBoundsException(
+                    "range " + from + ".." + to + " of " + in.length);
+        }
+        if (to > out.length || (errors != null && to > errors.length)) {
+            throw new IndexOutOfBoundsException(
+                    "output arrays are shorter than " + to);
+        }
+
+        MetarBatchEvent event = null;
+        if (isRecorderInitialized()) {
+            event = new MetarBatchEvent();
+            event.begin();
+        }
+        int parsed = 0;
+        long bytes = 0;
+
+        for (int i = from; i < to; i++) {
+            CharSequence item = in[i];
+            String metarData = item == null ? null : item.toString();
+            if (metarData != null) {
+                bytes += metarData.length();
+            }
+
+            try {
+                out[i] = parseData(metarData, out[i]);
+                parsed++;
+                if (errors != null) {
+                    errors[i] = null;
+                }
+            } catch (MetarParseException | RuntimeException e) {
+                if (errors != null) {
+                    errors[i] = new ParseError(i, metarData, currentGroup, e);
+                }
+            }
+        }
+
+        if (event != null) {
+            event.complete(to - from, to - from - parsed, bytes);
+        }
+        return parsed;
+    }
+
+    /**
+     * Check whether Flight Recorder is running in this JVM. The first
+     * instance of a JFR event class initializes the recorder, which costs
+     * a few hundred milliseconds, so events are only created once a
+     * recording has already started it.
+     *
+     * @return true if Flight Recorder has been initialized
+     */
+    static boolean isRecorderInitialized() {
+        return jdk.jfr.FlightRecorder.isInitialized();
+    }
+
+    private Metar decode(String metarData, Metar target)
+            throws MetarParseException {
 
+        currentGroup = null;
         if (metarData == null) {
             throw new MetarParseException("empty metar data");
         }
 
-        Metar metar = new Metar();
+        Metar metar;
+        if (target == null || target.isFrozen()) {
+            metar = new Metar();
+        } else {
+            target.reset();
+            metar = target;
+        }
         metar.setRawText(metarData);
 
+        builder.start(metar);
+        handler = builder;
+
+        decodeBody(metarData);
+        decodeFlightCategory(metar);
+        decodeTrailer();
+
+        currentGroup = MetarGroup.REMARKS;
+
+        if (!isProjected(MetarGroup.REMARKS)) {
+            // remarks were not requested
+        } else if (lazyRemarks) {
+            // decode the remarks when first asked for
+            if (index < numTokens) {
+                metar.setDeferredRemarks(tokenOffset(metarData, index));
+            }
+        } else {
+            parseRemarks();
+        }
+
+        return metar;
+    }
+
+    /**
+     * Decode the station, date, report modifier, wind, visibility, runway
+     * visual range, present weather and sky condition groups of a report,
+     * passing them to the handler.
+     */
+    private void decodeBody(String metarData) throws MetarParseException {
+        tokens.clear();
+        index = 0;
+        exhausted = false;
+
         // test data
         //metarData += "KCNO 070353Z AUTO 29009KT 1 1/2SM R01L/0800V1600FT CLR 13/11 A2991 RMK AO2 SLP127 T01280106\n";
 
@@ -135,13 +419,7 @@ public class MetarParser {
 
         // split the second line, the METAR data, on whitespace into tokens for
         // processing
-        try {
-            utility.split(tokens, metarData);
-        } catch (MalformedPerl5PatternException e) {
-
-            throw new MetarParseException(
-                    "error spliting weatherMetar data on whitespace: " + e);
-        }
+        split(tokens, metarData);
 
         // the number of tokens we have
         numTokens = tokens.size();
@@ -151,7 +429,7 @@ public class MetarParser {
         // station id will always be present in
         // format: CCCC
         //     CCCC - alphabetic characters only [a-zA-Z]
-        metar.setStationID(tokens.get(index++));
+        handler.onStation(tokens.get(index++));
 
         // date and time of the report
         // format: YYGGggZ
@@ -160,45 +438,27 @@ public class MetarParser {
         //     gg - minutes
         //     Z  - Zulu (UTC)
         if (tokens.get(index).endsWith("Z")) {
-            // steal year and month from date string
-            Calendar calendar = Calendar.getInstance(gmtZone);
+            String token = tokens.get(index);
+            if (token.length() < 6) {
+                throw new MetarParseException(
+                        "date/time group too short: " + token);
+            }
 
             int dayInt, hourInt, minuteInt;
             try {
-                String day = tokens.get(index).substring(0, 2);
-
-                String hour = tokens.get(index).substring(2, 4);
-
-                String minute = tokens.get(index).substring(4, 6);
-
-                dayInt = Integer.parseInt(day);
-                hourInt = Integer.parseInt(hour);
-                minuteInt = Integer.parseInt(minute);
-
-                // case where the month may have rolled. In this case, the
-                // calendar should be rolled back one day
-                if (dayInt > calendar.get(Calendar.DAY_OF_MONTH)) {
-                    calendar.roll(Calendar.DAY_OF_MONTH, false);
-                }
-
-                calendar.set(Calendar.DAY_OF_MONTH, dayInt);
-                calendar.set(Calendar.HOUR_OF_DAY, hourInt);
-                calendar.set(Calendar.MINUTE, minuteInt);
+                dayInt = parseInt(token, 0, 2);
+                hourInt = parseInt(token, 2, 4);
+                minuteInt = parseInt(token, 4, 6);
             } catch (NumberFormatException nfe) {
 
                 throw new MetarParseException(
                         "unable to parse WeatherMetar date value: " + nfe);
             }
 
-            calendar.set(Calendar.SECOND, 0);
-            calendar.set(Calendar.MILLISECOND, 0);
-
-            metar.setDate(calendar.getTime());
+            handler.onTime(dayInt, hourInt, minuteInt);
 
             // on to the next token
-            if (index < numTokens - 1) {
-                index++;
-            }
+            advance();
 
         } else {
 
@@ -213,16 +473,159 @@ public class MetarParser {
                 ||
                 tokens.get(index)
                         .equals(MetarConstants.METAR_CORRECTED)) {
-            metar.setReportModifier(tokens.get(index));
+            handler.onModifier(tokens.get(index));
             // on to the next token
-            if (index < numTokens - 1) {
-                index++;
+            advance();
+
+        } else {
+
+        }
+
+        decodeWind();
+        decodeVisibility();
+        decodeRunwayVisualRange();
+        decodeWeather();
+        decodeSky();
+    }
+
+    /**
+     * Decode the temperature and altimeter groups that end the body of a
+     * report, and step over the RMK token if there is one.
+     */
+    private void decodeTrailer() throws MetarParseException {
+        currentGroup = MetarGroup.TEMPERATURE;
+
+        // temperature / dew point
+        // format: (M)T'T'/(M)T' T'
+        //                d  d
+        //     (M)    - sub-zero temperature
+        //     T'T'   - temerature (in celsius)
+        //     T' T'  - dew point (in celsius)
+        //       d  d
+        //
+        // TF = ( 9 / 5 ) x TC + 32 (conversion from celsius to fahrenheit)
+        //
+        // once the tokens are exhausted the current token belongs to an
+        // earlier group, such as a last runway visual range, and is not
+        // decoded again
+        if (!exhausted && tokens.get(index).contains("/")) {
+
+            if (isProjected(MetarGroup.TEMPERATURE)) {
+                String token = tokens.get(index);
+
+                // the group is split on '/', and empty fields at the end
+                // are dropped, so that "13/" has no dew point
+                int end = token.length();
+                while (end > 0 && token.charAt(end - 1) == '/') {
+                    end--;
+                }
+                if (end == 0) {
+                    throw new MetarParseException(
+                            "temperature group has no temperature: " + token);
+                }
+                int slash = token.indexOf('/');
+
+                float temperature = parseTemperature(token, 0, slash);
+
+                if (slash >= end) {
+                    throw new MetarParseException(
+                            "temperature group missing dew point: " + token);
+                }
+                int next = token.indexOf('/', slash + 1);
+                float dewPoint = parseTemperature(token, slash + 1,
+                        next < 0 ? end : next);
+
+                handler.onTemperature(temperature, dewPoint);
             }
 
+            found(MetarGroup.TEMPERATURE);
+
+            // on to the next token
+            advance();
+        }
+
+        currentGroup = MetarGroup.ALTIMETER;
+
+        // altimeter
+        // get pressure, which is reported in hundreths
+        //
+        // format: AP P P P
+        //           h h h h
+        //     A        - altimeter in inches of mercury
+        //     P P P P  - tens, units, tenths and hundreths inches mercury
+        //      h h h h   (no decimal point coded)
+        if (!exhausted && tokens.get(index).startsWith("A")) {
+            if (isProjected(MetarGroup.ALTIMETER)) {
+                float pressure = parseFloat(tokens.get(index), 1, 5);
+                // correct for no decimal point
+                pressure = pressure / 100;
+                handler.onAltimeter(pressure);
+            }
+
+            found(MetarGroup.ALTIMETER);
+
+            // on to the next token
+            advance();
         } else {
 
         }
 
+        // remarks
+        if (!tokens.get(index)
+                .equals(MetarConstants.METAR_REMARKS)) {
+            // we have no remarks
+
+        } else {
+            found(MetarGroup.REMARKS);
+
+            index++;
+        }
+    }
+
+    /**
+     * Decode the wind, visibility, runway visual range, present weather and
+     * sky condition groups of one forecast period. Used by {@link TafParser},
+     * whose forecast periods share this grammar with the body of a METAR.
+     * Decoding stops at the first token that does not fit the next group.
+     *
+     * @param groupTokens the tokens of the forecast period
+     * @param metar       receives the decoded conditions
+     * @return the index in groupTokens of the first token not decoded
+     * @throws MetarParseException if a group could not be decoded
+     */
+    int decodeConditions(List<String> groupTokens, Metar metar)
+            throws MetarParseException {
+        tokens.clear();
+        tokens.addAll(groupTokens);
+        // a token that matches no group, so that the last group of the
+        // period is never mistaken for the start of the next one
+        tokens.add(END_OF_GROUPS);
+
+        index = 0;
+        numTokens = tokens.size();
+        currentGroup = null;
+        exhausted = false;
+
+        builder.start(metar);
+        handler = builder;
+
+        decodeWind();
+        decodeVisibility();
+        decodeRunwayVisualRange();
+        decodeWeather();
+        decodeSky();
+
+        decodeFlightCategory(metar);
+
+        return Math.min(index, groupTokens.size());
+    }
+
+    /**
+     * Decode the wind group and the variable wind direction that may follow it.
+     */
+    private void decodeWind() {
+        currentGroup = MetarGroup.WIND;
+
         // wind group (speed and direction)
         // format: dddff(f)Gf f (f )KT_d d d Vd d d
         //                   m m  m     n n n  x x x
@@ -236,179 +639,146 @@ public class MetarParser {
 
         temp = tokens.get(index);
         if (temp.endsWith("KT") || temp.endsWith("MPS")) {
-            int pos = 0;
-            boolean windInKnots = false;
+            if (isProjected(MetarGroup.WIND)) {
+                String token = tokens.get(index);
+                int pos = 0;
+                boolean windInKnots = false;
 
-            if (temp.endsWith("KT")) {
+                if (temp.endsWith("KT")) {
 
-                windInKnots = true;
-            } else {
+                    windInKnots = true;
+                } else {
 
-            }
+                }
 
-            if (!tokens.get(index).startsWith("VRB")) {
-                // we have gusts
-                Integer windDirection = Integer.valueOf(
-                        tokens.get(index).substring(0, 3));
-                metar.setWindDirection(windDirection);
-            } else {
-                metar.setWindDirectionIsVariable(true);
-            }
+                int windDirection = -1;
+                boolean isVariable = false;
+                if (!token.startsWith("VRB")) {
+                    // we have gusts
+                    windDirection = parseInt(token, 0, 3);
+                } else {
+                    isVariable = true;
+                }
 
-            temp = tokens.get(index).substring(5, 5);
-            try {
-                if (matcher.matches(temp, new Perl5Compiler().compile("\\d"))) {
+                float windSpeed;
+                temp = token.substring(5, 5);
+                if (isDigit(temp)) {
                     // have three-digit wind speed
 
-                    if (windInKnots) {
-                        metar.setWindSpeed(Float.valueOf(
-                                tokens.get(index).substring(3, 6)));
-                    } else {
-                        metar.setWindSpeedInMPS(Float.valueOf(
-                                tokens.get(index).substring(3, 6)));
-                    }
+                    windSpeed = parseFloat(token, 3, 6);
                     pos = 6;
                 } else {
                     // have two-digit wind speed
 
-                    if (windInKnots) {
-                        metar.setWindSpeed(Float.valueOf(
-                                tokens.get(index).substring(3, 5)));
-                    } else {
-                        metar.setWindSpeedInMPS(Float.valueOf(
-                                tokens.get(index).substring(3, 5)));
-                    }
+                    windSpeed = parseFloat(token, 3, 5);
                     pos = 5;
                 }
-            } catch (MalformedPatternException ignored) {
-
-            }
 
-            if (tokens.get(index).charAt(pos) == 'G') {
-                // we have wind gusts
+                float windGusts = Float.NaN;
+                if (token.charAt(pos) == 'G') {
+                    // we have wind gusts
 
-                pos++;
+                    pos++;
 
-                temp = tokens.get(index).substring(pos + 2, pos + 2);
-                //if (((String)tokens.get(index)).substring(pos+2,pos+2).matches("\\d")) {
-                try {
-                    if (matcher.matches(temp,
-                            new Perl5Compiler().compile("\\d"))) {
+                    temp = token.substring(pos + 2, pos + 2);
+                    //if (((String)tokens.get(index)).substring(pos+2,pos+2).matches("\\d")) {
+                    if (isDigit(temp)) {
                         // have three-digit wind speed
 
-                        if (windInKnots) {
-                            metar.setWindGusts(
-                                    Float.valueOf(tokens.get(index)
-                                            .substring(pos, pos + 3)));
-                        } else {
-                            metar.setWindGustsInMPS(
-                                    Float.valueOf(tokens.get(index)
-                                            .substring(pos, pos + 3)));
-                        }
+                        windGusts = parseFloat(token, pos, pos + 3);
                     } else {
                         // have two-digit wind speed
 
-                        if (windInKnots) {
-                            metar.setWindGusts(
-                                    Float.valueOf(tokens.get(index)
-                                            .substring(pos, pos + 2)));
-                        } else {
-                            metar.setWindGustsInMPS(
-                                    Float.valueOf(tokens.get(index)
-                                            .substring(pos, pos + 2)));
-                        }
+                        windGusts = parseFloat(token, pos, pos + 2);
                     }
-                } catch (MalformedPatternException ignored) {
-
                 }
-            }
 
-            if (windInKnots) {
+                if (windInKnots) {
 
-            } else {
+                } else {
+                    // meters per second to knots
+                    windSpeed = windSpeed / 0.5148f;
+                    windGusts = windGusts / 0.5148f;
+                }
 
+                handler.onWind(windDirection, windSpeed, windGusts,
+                        isVariable);
             }
+            found(MetarGroup.WIND);
 
             // on to the next token
-            if (index < numTokens - 1) {
-                index++;
-            }
+            advance();
 
             // if we have variable wind direction
             temp = tokens.get(index);
-            try {
-                if (matcher.matches(temp,
-                        new Perl5Compiler().compile(".*\\d\\d\\dV\\d\\d\\d"))) {
-                    metar.setWindDirectionIsVariable(true);
-
-                    metar.setWindDirectionMin(Integer.valueOf(
-                            tokens.get(index).substring(0, 3)));
-                    metar.setWindDirectionMax(Integer.valueOf(
-                            tokens.get(index).substring(4, 7)));
-
-                    // on to the next token
-                    if (index < numTokens - 1) {
-                        index++;
-                    }
+            if (isVariableWindDirection(temp)) {
+                if (isProjected(MetarGroup.WIND)) {
+                    handler.onWindVariation(parseInt(temp, 0, 3),
+                            parseInt(temp, 4, 7));
                 }
-            } catch (MalformedPatternException ignored) {
 
+                // on to the next token
+                advance();
             }
         } else {
             // unexpected token...should have been wind speed
 
         }
+    }
 
-        try {
-            // CAVOK
-            //
-            // Visibility greater than 10Km, no cloud below 5000 ft or minimum
-            // sector altitude, whichever is the lowest and no CB (Cumulonimbus) or
-            // over development and no significant weather.
-            if (tokens.get(index)
-                    .equals(MetarConstants.METAR_CAVOK)) {
-                metar.setIsCavok(true);
+    /**
+     * Decode the prevailing visibility, which may span two tokens.
+     */
+    private void decodeVisibility() throws MetarParseException {
+        currentGroup = MetarGroup.VISIBILITY;
 
-                // on to the next token
-                if (index < numTokens - 1) {
-                    index++;
-                }
-                // Horizontal visibility in meters
-            } else if (matcher.matches(tokens.get(index),
-                    new Perl5Compiler().compile("/^(\\d+)$/"))) {
-                int tmp = Integer.parseInt(matcher.getMatch().toString());
-                metar.setVisibilityInMeters((float) tmp);
+        // CAVOK
+        //
+        // Visibility greater than 10Km, no cloud below 5000 ft or minimum
+        // sector altitude, whichever is the lowest and no CB (Cumulonimbus) or
+        // over development and no significant weather.
+        if (tokens.get(index)
+                .equals(MetarConstants.METAR_CAVOK)) {
+            if (isProjected(MetarGroup.VISIBILITY)) {
+                handler.onCavok();
+            }
 
-                // on to the next token
-                if (index < numTokens - 1) {
-                    index++;
-                }
-                // Horizontal visibility of 10Km and above
-            } else if (tokens.get(index).equals("9999")) {
-                metar.setVisibilityInKilometers(10f);
+            found(MetarGroup.VISIBILITY);
 
-                // on to the next token
-                if (index < numTokens - 1) {
-                    index++;
-                }
+            // on to the next token
+            advance();
+            // Horizontal visibility of 10Km and above
+        } else if (tokens.get(index).equals("9999")) {
+            if (isProjected(MetarGroup.VISIBILITY)) {
+                handler.onVisibility(10f,
+                        MetarHandler.DistanceUnit.KILOMETERS, false, false);
+            }
 
-                // get visibility
-                // format: (M)VVVVVSM
-                //     (M)   - used to indicate less than
-                //     VVVVV - miles (00001SM)
-                //     SM    - statute miles
-            } else if (tokens.get(index).endsWith("SM") ||
-                    ((index + 1 < numTokens)
-                            && tokens.get(index + 1).endsWith("SM"))
-                    ||
-                    tokens.get(index).endsWith("KM") ||
-                    ((index + 1 < numTokens) && tokens.get(index + 1)
-                            .endsWith("KM"))) {
-
-                String whole, fraction = "";
+            found(MetarGroup.VISIBILITY);
+
+            // on to the next token
+            advance();
+
+            // get visibility
+            // format: (M)VVVVVSM
+            //     (M)   - used to indicate less than
+            //     VVVVV - miles (00001SM)
+            //     SM    - statute miles
+        } else if (tokens.get(index).endsWith("SM") ||
+                ((index + 1 < numTokens)
+                        && tokens.get(index + 1).endsWith("SM"))
+                ||
+                tokens.get(index).endsWith("KM") ||
+                ((index + 1 < numTokens) && tokens.get(index + 1)
+                        .endsWith("KM"))) {
+
+            if (isProjected(MetarGroup.VISIBILITY)) {
                 float visibility;
                 boolean isLessThan = false;
+                boolean isGreaterThan = false;
                 String token = tokens.get(index);
+                // the start of the distance, after any M or P prefix
+                int start = 0;
                 boolean visibilityInStatuteMiles = false;
 
                 if (tokens.get(index).endsWith("SM") ||
@@ -421,86 +791,92 @@ public class MetarParser {
                 if (token.startsWith("M")) {
 
                     isLessThan = true;
-                    token = token.substring(1);
+                    start = 1;
+                } else if (token.startsWith("P")) {
+                    // forecasts report visibility above 6SM as P6SM
+                    isGreaterThan = true;
+                    start = 1;
                 }
 
                 if (token.endsWith("SM") || token.endsWith("KM")) {
                     if (token.indexOf('/') == -1) {
                         // no fractions to deal with
-                        whole = token.substring(0, token.length() - 2);
+                        visibility = parseFloat(token, start,
+                                token.length() - 2);
                     } else {
-                        whole = "0";
-                        fraction = token.substring(0, token.length() - 2);
+                        // a fraction with no whole number
+                        visibility = 0;
+                        visibility = visibility + parseFraction(token,
+                                start, token.length() - 2);
                     }
                 } else {
-                    whole = token;
+                    visibility = parseFloat(token, start, token.length());
                     // next token is the fraction part
                     index++;
-                    fraction = tokens.get(index).substring(0,
-                            tokens.get(index).length() - 2);
-                }
-
-                visibility = Float.parseFloat(whole);
-
-                if (!fraction.equals("")) {
-                    // we have a fraction to convert
-                    ArrayList<String> frac = new ArrayList<>();
-                    try {
-                        utility.split(frac, "/\\//", fraction);
-                    } catch (MalformedPerl5PatternException e) {
-
-                        throw new MetarParseException(
-                                "error spliting fraction on /: " + e);
+                    String fraction = tokens.get(index);
+                    if (fraction.length() > 2) {
+                        visibility = visibility + parseFraction(fraction,
+                                0, fraction.length() - 2);
                     }
-
-                    visibility = visibility
-                            + Float.parseFloat(frac.get(0))
-                            / Float.parseFloat(frac.get(1));
                 }
 
-                if (visibilityInStatuteMiles) {
-                    metar.setVisibility(visibility);
-                } else {
-                    metar.setVisibilityInKilometers(visibility);
-                }
-                metar.setVisibilityLessThan(isLessThan);
+                handler.onVisibility(visibility, visibilityInStatuteMiles
+                                ? MetarHandler.DistanceUnit.STATUTE_MILES
+                                : MetarHandler.DistanceUnit.KILOMETERS,
+                        isLessThan, isGreaterThan);
+            } else if (!tokens.get(index).endsWith("SM")
+                    && !tokens.get(index).endsWith("KM")) {
+                // skip the whole number of a two token visibility
+                index++;
+            }
 
-                // on to the next token
-                if (index < numTokens - 1) {
-                    index++;
-                }
+            found(MetarGroup.VISIBILITY);
 
-            } else {
-                String token = tokens.get(index);
-                boolean isLessThan = false;
+            // on to the next token
+            advance();
 
-                if (utility.match("/M?\\d+/", token)) {
+        } else {
+            String token = tokens.get(index);
+            boolean isLessThan = false;
+
+            if (containsDigit(token)) {
 
+                if (isProjected(MetarGroup.VISIBILITY)) {
+                    int start = 0;
                     if (token.startsWith("M")) {
 
                         isLessThan = true;
-                        token = token.substring(1);
+                        start = 1;
                     }
 
+                    float visibility;
                     try {
-                        metar.setVisibilityInMeters(Float.valueOf(token));
+                        visibility = parseFloat(token, start,
+                                token.length());
                     } catch (Exception ignored) {
-
+                        visibility = Float.NaN;
                     }
-                    metar.setVisibilityLessThan(isLessThan);
+                    handler.onVisibility(visibility,
+                            MetarHandler.DistanceUnit.METERS, isLessThan,
+                            false);
+                }
 
-                    // on to the next token
-                    if (index < numTokens - 1) {
-                        index++;
-                    }
-                } else {
-                    // unexpected token...should have been visibility
+                found(MetarGroup.VISIBILITY);
 
-                }
-            }
-        } catch (MalformedPatternException ignored) {
+                // on to the next token
+                advance();
+            } else {
+                // unexpected token...should have been visibility
 
+            }
         }
+    }
+
+    /**
+     * Decode any runway visual range groups.
+     */
+    private void decodeRunwayVisualRange() {
+        currentGroup = MetarGroup.RUNWAY_VISUAL_RANGE;
 
         // see if we have a Runaway Visual Range Group token
         // format: RD D /V V V V FT  or  RD D /V V V V VV V V V FT
@@ -526,51 +902,62 @@ public class MetarParser {
                 break;
             }
 
-            // we have a runway visual range
-            runwayVisualRange = new RunwayVisualRange();
+            if (isProjected(MetarGroup.RUNWAY_VISUAL_RANGE)) {
+                // we have a runway visual range
+                String token = tokens.get(index);
 
-            // get our runway number
-            runwayVisualRange.setRunwayNumber(Integer
-                    .parseInt(tokens.get(index).substring(1, 3)));
+                // get our runway number
+                int runwayNumber = parseInt(token, 1, 3);
 
-            int pos = 3;
-            if (tokens.get(index).charAt(pos) != '/') {
-                runwayVisualRange.setApproachDirection(
-                        tokens.get(index).charAt(pos));
+                int pos = 3;
+                char approachDirection = 0;
+                if (token.charAt(pos) != '/') {
+                    approachDirection = token.charAt(pos);
 
-                pos += 2; // increment past the '/'
-            } else {
-                pos++;
-            }
+                    pos += 2; // increment past the '/'
+                } else {
+                    pos++;
+                }
 
-            // determine if we have a modifier for above 6000ft or below 600ft
-            switch (tokens.get(index).charAt(pos)) {
-                case 'P': // below 600ft
-                case 'M': // above 6000ft
-                    runwayVisualRange.setReportableModifier(
-                            tokens.get(index).charAt(pos));
+                // determine if we have a modifier for above 6000ft or below 600ft
+                char reportableModifier = 0;
+                switch (token.charAt(pos)) {
+                    case 'P': // below 600ft
+                    case 'M': // above 6000ft
+                        reportableModifier = token.charAt(pos);
 
-                    pos++;
-            }
-            runwayVisualRange.setLowestReportable(Integer.parseInt(
-                    tokens.get(index).substring(pos, pos + 4)));
+                        pos++;
+                }
+                int lowestReportable = parseInt(token, pos, pos + 4);
 
-            pos += 4;
-            // if we are using the format with highest reportable
-            if (tokens.get(index).charAt(pos) == 'V') {
-                pos++; // increment past V
-                runwayVisualRange.setHighestReportable(Integer.parseInt(
-                        tokens.get(index).substring(pos, pos + 4)));
+                pos += 4;
+                // if we are using the format with highest reportable
+                int highestReportable = -1;
+                if (token.charAt(pos) == 'V') {
+                    pos++; // increment past V
+                    highestReportable = parseInt(token, pos, pos + 4);
 
+                }
+
+                handler.onRunwayVisualRange(runwayNumber, approachDirection,
+                        reportableModifier, lowestReportable,
+                        highestReportable);
             }
 
+            found(MetarGroup.RUNWAY_VISUAL_RANGE);
+
             // on to the next token
-            if (index < numTokens - 1) {
-                index++;
+            if (!advance()) {
+                break;
             }
-
-            metar.addRunwayVisualRange(runwayVisualRange);
         }
+    }
+
+    /**
+     * Decode any present weather groups.
+     */
+    private void decodeWeather() {
+        currentGroup = MetarGroup.WEATHER;
 
         // weather groups
         // format: (+/-)ddpp
@@ -594,237 +981,67 @@ public class MetarParser {
         // |            |               | UP Unknown       |               | DS Duststorm  |
         // |            |               |    Precipitation |               |               |
         // +------------+---------------+------------------+---------------+---------------+
-        while (tokens.get(index)
-                .startsWith(MetarConstants.METAR_HEAVY) ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_LIGHT)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_IN_THE_VICINITY)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SHALLOW)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_PARTIAL)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_PATCHES)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_LOW_DRIFTING)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_BLOWING)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SHOWERS)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_THUNDERSTORMS)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_FREEZING)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_DRIZZLE)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_RAIN)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SNOW)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SNOW_GRAINS)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_ICE_CRYSTALS)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_ICE_PELLETS)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_HAIL)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SMALL_HAIL)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_UNKNOWN_PRECIPITATION)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_MIST)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_FOG)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SMOKE)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_VOLCANIC_ASH)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_WIDESPREAD_DUST)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SAND)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_HAZE)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SPRAY)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_DUST_SAND_WHIRLS)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SQUALLS)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_FUNNEL_CLOUD)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SAND_STORM)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_DUST_STORM)
-                ||
-                tokens.get(index).startsWith(
-                        MetarConstants.METAR_NO_SIGNIFICANT_CHANGE)) {
+        while (isWeatherToken(tokens.get(index))) {
 
-            int pos = 0;
+            if (isProjected(MetarGroup.WEATHER)) {
+                int pos = 0;
 
-            // we have a weather condition
-            weatherCondition = new WeatherCondition();
+                // we have a weather condition
+                char intensity = 0;
+                String descriptor = null;
 
-            if (tokens.get(index)
-                    .startsWith(MetarConstants.METAR_HEAVY) ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_LIGHT) ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_IN_THE_VICINITY))
-            {
-                weatherCondition.setIntensity(
-                        String.valueOf(tokens.get(index).charAt(0)));
+                String token = tokens.get(index);
 
-                pos++;
-            } else {
+                if (token.startsWith(MetarConstants.METAR_HEAVY) ||
+                        token.startsWith(MetarConstants.METAR_LIGHT) ||
+                        (MetarCodeTable.weatherClass(token, 0)
+                                & MetarCodeTable.VICINITY) != 0) {
+                    if (!token.startsWith(
+                            MetarConstants.METAR_IN_THE_VICINITY)) {
+                        intensity = token.charAt(0);
+                    }
 
-            }
+                    pos++;
+                } else {
 
-            // if we have a descriptor
-            if (tokens.get(index).substring(pos, pos + 2)
-                    .startsWith(MetarConstants.METAR_SHALLOW) ||
-                    tokens.get(index).substring(pos, pos + 2)
-                            .startsWith(MetarConstants.METAR_PARTIAL)
-                    ||
-                    tokens.get(index).substring(pos, pos + 2)
-                            .startsWith(MetarConstants.METAR_PATCHES)
-                    ||
-                    tokens.get(index).substring(pos, pos + 2)
-                            .startsWith(MetarConstants.METAR_LOW_DRIFTING)
-                    ||
-                    tokens.get(index).substring(pos, pos + 2)
-                            .startsWith(MetarConstants.METAR_BLOWING)
-                    ||
-                    tokens.get(index).substring(pos, pos + 2)
-                            .startsWith(MetarConstants.METAR_SHOWERS)
-                    ||
-                    tokens.get(index).substring(pos, pos + 2)
-                            .startsWith(MetarConstants.METAR_THUNDERSTORMS)
-                    ||
-                    tokens.get(index).substring(pos, pos + 2)
-                            .startsWith(MetarConstants.METAR_FREEZING)) {
-                weatherCondition.setDescriptor(
-                        tokens.get(index).substring(pos, pos + 2));
-
-                pos += 2;
-            } else {
+                }
 
-            }
+                // if we have a descriptor
+                if ((MetarCodeTable.weatherClass(token.charAt(pos),
+                        token.charAt(pos + 1))
+                        & MetarCodeTable.DESCRIPTOR) != 0) {
+                    descriptor = MetarCodeTable.weatherCode(token, pos);
 
-            // if we have phenomena (we should always!)
-            if (tokens.get(index)
-                    .startsWith(MetarConstants.METAR_DRIZZLE, pos) ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_RAIN, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_SNOW, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_SNOW_GRAINS, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_ICE_CRYSTALS, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_ICE_PELLETS, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_HAIL, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_SMALL_HAIL, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_UNKNOWN_PRECIPITATION, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_MIST, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_FOG, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_SMOKE, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_VOLCANIC_ASH, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_WIDESPREAD_DUST, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_SAND, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_HAZE, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_SPRAY, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_DUST_SAND_WHIRLS, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_SQUALLS, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_FUNNEL_CLOUD, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_SAND_STORM, pos)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_DUST_STORM, pos)) {
-                weatherCondition.setPhenomena(
-                        tokens.get(index).substring(pos, pos + 2));
-
-                metar.addWeatherCondition(weatherCondition);
+                    pos += 2;
+                } else {
 
-            } else {
+                }
+
+                // if we have phenomena (we should always!)
+                if ((MetarCodeTable.weatherClass(token, pos)
+                        & MetarCodeTable.PHENOMENON) != 0) {
+                    handler.onWeather(intensity, descriptor,
+                            MetarCodeTable.weatherCode(token, pos));
 
+                } else {
+
+                }
             }
 
+            found(MetarGroup.WEATHER);
+
             // on to the next token
-            if (index < numTokens - 1) {
-                index++;
+            if (!advance()) {
+                break;
             }
         }
+    }
+
+    /**
+     * Decode any sky condition groups.
+     */
+    private void decodeSky() {
+        currentGroup = MetarGroup.SKY;
 
         // sky condition
         // format: NNNhhh or VVhhh or CLR/SKC
@@ -833,176 +1050,309 @@ public class MetarParser {
         //     VV  - vertical visibility, indefinite ceiling
         //     SKC - clear skies (reported by manual station)
         //     CLR - clear skies (reported by automated station)
-        while (tokens.get(index)
-                .startsWith(MetarConstants.METAR_VERTICAL_VISIBILITY) ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SKY_CLEAR)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_CLEAR)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_FEW)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_SCATTERED)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_BROKEN)
-                ||
-                tokens.get(index)
-                        .startsWith(MetarConstants.METAR_OVERCAST)
-                ||
-                tokens.get(index).startsWith(
-                        MetarConstants.METAR_NO_SIGNIFICANT_CLOUDS)) {
-
-            // we have a sky condition
-            skyCondition = new SkyCondition();
-
-            if (tokens.get(index)
-                    .startsWith(MetarConstants.METAR_FEW) ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_SCATTERED)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_BROKEN)
-                    ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_OVERCAST)) {
-                skyCondition.setContraction(
-                        tokens.get(index).substring(0, 3));
-
-                skyCondition.setHeight(Integer.parseInt(
-                        tokens.get(index).substring(3, 6)));
-
-                if (tokens.get(index).length() > 6) {
-                    // we have a modifier
-                    skyCondition.setModifier(
-                            tokens.get(index).substring(6
-                            ));
+        int skyCover;
+        while ((skyCover = MetarCodeTable.skyCover(tokens.get(index)))
+                != MetarCodeTable.SKY_NONE) {
 
-                }
-            } else if (tokens.get(index)
-                    .startsWith(MetarConstants.METAR_SKY_CLEAR) ||
-                    tokens.get(index)
-                            .startsWith(MetarConstants.METAR_CLEAR)) {
-                skyCondition.setContraction(
-                        tokens.get(index).substring(0, 3));
+            if (isProjected(MetarGroup.SKY)) {
+                // we have a sky condition
+                String token = tokens.get(index);
+                int height = 0;
+                String modifier = null;
 
-            } else if (tokens.get(index)
-                    .startsWith(MetarConstants.METAR_VERTICAL_VISIBILITY)) {
-                skyCondition.setContraction(
-                        tokens.get(index).substring(0, 2));
+                if (MetarCodeTable.isLayer(skyCover)) {
+                    height = parseInt(token, 3, 6) * 100;
 
-                skyCondition.setHeight(Integer.parseInt(
-                        tokens.get(index).substring(2, 5)));
+                    if (token.length() > 6) {
+                        // we have a modifier
+                        modifier = cloudType(token);
 
-            } else if (tokens.get(index)
-                    .startsWith(MetarConstants.METAR_NO_SIGNIFICANT_CLOUDS)) {
-                skyCondition.setContraction(
-                        tokens.get(index).substring(0, 3));
+                    }
+                } else if (skyCover
+                        == MetarCodeTable.SKY_VERTICAL_VISIBILITY) {
+                    height = parseInt(token, 2, 5) * 100;
 
-            } else {
+                } else {
+                    // SKC, CLR and NSC have no height
+                }
 
+                handler.onSky(MetarCodeTable.skyCode(skyCover), height,
+                        modifier);
             }
 
-            metar.addSkyCondition(skyCondition);
+            found(MetarGroup.SKY);
 
             // on to the next token
-            if (index < numTokens - 1) {
-                index++;
+            if (!advance()) {
+                break;
             }
         }
+    }
 
-        // temperature / dew point
-        // format: (M)T'T'/(M)T' T'
-        //                d  d
-        //     (M)    - sub-zero temperature
-        //     T'T'   - temerature (in celsius)
-        //     T' T'  - dew point (in celsius)
-        //       d  d
-        //
-        // TF = ( 9 / 5 ) x TC + 32 (conversion from celsius to fahrenheit)
-        if (tokens.get(index).contains("/")) {
+    /**
+     * Set the flight category from the ceiling and visibility decoded by
+     * {@link #decodeVisibility} and {@link #decodeSky}.
+     */
+    private void decodeFlightCategory(Metar metar) {
+        if (isProjected(MetarGroup.VISIBILITY)
+                && isProjected(MetarGroup.SKY)) {
+            metar.setFlightCategoryType(FlightCategory.of(
+                    metar.getCeiling(), metar.getVisibility()));
+        }
+    }
 
-            ArrayList<String> temps = new ArrayList<>();
+    /**
+     * Move on to the next token, staying on the last token at the end of
+     * the report.
+     *
+     * @return false if there was no next token to move to
+     */
+    private boolean advance() {
+        if (index < numTokens - 1) {
+            index++;
+            return true;
+        }
+        exhausted = true;
+        return false;
+    }
 
-            try {
-                utility.split(temps, "/\\//", tokens.get(index));
-            } catch (MalformedPerl5PatternException e) {
+    /**
+     * Tell the listener a group was found in the report.
+     */
+    private void found(MetarGroup group) {
+        if (listener != null) {
+            listener.onGroup(group);
+        }
+    }
 
-                throw new MetarParseException(
-                        "error spliting temperature on /: " + e);
-            }
+    /**
+     * Decode the remarks section of a report whose remarks were deferred.
+     *
+     * @param metar   the Metar to populate
+     * @param remarks the raw text of the remarks section
+     */
+    static void parseDeferredRemarks(Metar metar, String remarks) {
+        MetarParser mp = new MetarParser();
+        split(mp.tokens, remarks);
+        mp.numTokens = mp.tokens.size();
+        mp.builder.start(metar);
+        mp.handler = mp.builder;
+        mp.parseRemarks();
+    }
 
-            // we have a sub-zero temperature
-            float temperature;
-            if (temps.get(0).startsWith("M")) {
-                temperature = Float.parseFloat(temps.get(0).substring(1, 3));
-                temperature = temperature
-                        - temperature * 2; // negate
-                metar.setTemperature(temperature);
-            } else {
-                temperature = Float.parseFloat(temps.get(0));
-                metar.setTemperature(temperature);
+    /**
+     * Split text into the tokens separated by runs of whitespace, ignoring
+     * whitespace at the start and end.
+     */
+    static void split(List<String> results, String text) {
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i < length; i++) {
+            if (isWhitespace(text.charAt(i))) {
+                if (start >= 0) {
+                    results.add(text.substring(start, i));
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
             }
+        }
+        if (start >= 0) {
+            results.add(text.substring(start));
+        }
+    }
 
-            // we have a sub-zero temperature
-            Float dewPoint;
-            if (temps.get(1).startsWith("M")) {
-                dewPoint = Float.valueOf(temps.get(1).substring(1, 3));
-                dewPoint = dewPoint - dewPoint * 2; // negate
-                metar.setDewPoint(dewPoint);
-            } else {
-                dewPoint = Float.valueOf(temps.get(1));
-                metar.setDewPoint(dewPoint);
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r'
+                || c == '\f' || c == '\u000B';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return true if the text is a single digit
+     */
+    private static boolean isDigit(String text) {
+        return text.length() == 1 && isDigit(text.charAt(0));
+    }
+
+    private static boolean containsDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (isDigit(text.charAt(i))) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            //temperature = new Float(((String)tokens.get(index)).substring(1,5)).floatValue();
-            //dewPoint = new Float(((String)tokens.get(index)).substring(5,9)).floatValue();
+    /**
+     * Parse part of a token as Integer.parseInt would parse the substring,
+     * without creating the substring when the part is all digits.
+     */
+    private static int parseInt(String token, int begin, int end) {
+        if (begin >= 0 && end <= token.length() && begin < end
+                && end - begin <= 9) {
+            int value = 0;
+            int i = begin;
+            while (i < end && isDigit(token.charAt(i))) {
+                value = value * 10 + token.charAt(i) - '0';
+                i++;
+            }
+            if (i == end) {
+                return value;
+            }
+        }
+        return Integer.parseInt(token.substring(begin, end));
+    }
 
-            // on to the next token
-            if (index < numTokens - 1) {
-                index++;
+    /**
+     * Parse part of a token as Float.parseFloat would parse the substring,
+     * without creating the substring when the part is all digits. Up to
+     * seven digits are exact in a float, so both give the same value.
+     */
+    private static float parseFloat(String token, int begin, int end) {
+        if (begin >= 0 && end <= token.length() && begin < end
+                && end - begin <= 7) {
+            int value = 0;
+            int i = begin;
+            while (i < end && isDigit(token.charAt(i))) {
+                value = value * 10 + token.charAt(i) - '0';
+                i++;
             }
-        } else {
+            if (i == end) {
+                return value;
+            }
+        }
+        return Float.parseFloat(token.substring(begin, end));
+    }
 
-            metar.setTemperature(null);
-            metar.setDewPoint(null);
+    /**
+     * Parse a fraction such as "3/4" from part of a token. The part is split
+     * on '/' with empty fields at the end dropped, as the temperature group
+     * is, so that "1/" fails for want of a denominator.
+     *
+     * @return the numerator divided by the denominator
+     */
+    private static float parseFraction(String token, int begin, int end)
+            throws MetarParseException {
+        int last = end;
+        while (last > begin && token.charAt(last - 1) == '/') {
+            last--;
+        }
+        if (last == begin) {
+            throw new MetarParseException(
+                    "visibility fraction is empty: " + token);
+        }
+        int slash = token.indexOf('/', begin);
+        if (slash >= last) {
+            slash = -1;
         }
 
-        // altimeter
-        // get pressure, which is reported in hundreths
-        //
-        // format: AP P P P
-        //           h h h h
-        //     A        - altimeter in inches of mercury
-        //     P P P P  - tens, units, tenths and hundreths inches mercury
-        //      h h h h   (no decimal point coded)
-        if (tokens.get(index).startsWith("A")) {
-            float pressure = Float.parseFloat(tokens.get(index).substring(1, 5));
-            // correct for no decimal point
-            pressure = pressure / 100;
-            metar.setPressure(pressure);
+        float numerator = parseFloat(token, begin, slash < 0 ? last : slash);
+        if (slash < 0) {
+            throw new MetarParseException(
+                    "visibility fraction missing denominator: " + token);
+        }
+        int next = token.indexOf('/', slash + 1);
+        float denominator = parseFloat(token, slash + 1,
+                next < 0 || next > last ? last : next);
+        return numerator / denominator;
+    }
 
-            // on to the next token
-            if (index < numTokens - 1) {
-                index++;
+    /**
+     * Parse one field of the temperature group, (M)T'T', from part of a
+     * token.
+     */
+    private static float parseTemperature(String token, int begin, int end)
+            throws MetarParseException {
+        if (begin < end && token.charAt(begin) == 'M') {
+            // we have a sub-zero temperature
+            if (end - begin < 3) {
+                throw new MetarParseException(
+                        "sub-zero temperature too short: " + token);
             }
-        } else {
+            float temperature = parseFloat(token, begin + 1, begin + 3);
+            return temperature - temperature * 2; // negate
+        }
+        return parseFloat(token, begin, end);
+    }
 
+    /**
+     * @return the cloud type following the height of a sky condition layer,
+     * which is one of the constants for the common CB and TCU
+     */
+    private static String cloudType(String token) {
+        if (token.length() == 8 && token.startsWith(
+                MetarConstants.METAR_CUMULONIMBUS, 6)) {
+            return MetarConstants.METAR_CUMULONIMBUS;
+        } else if (token.length() == 9 && token.startsWith(
+                MetarConstants.METAR_TOWERING_CUMULUS, 6)) {
+            return MetarConstants.METAR_TOWERING_CUMULUS;
         }
+        return token.substring(6);
+    }
 
-        // remarks
-        if (!tokens.get(index)
-                .equals(MetarConstants.METAR_REMARKS)) {
-            // we have no remarks
+    /**
+     * @return true if the token ends with a variable wind direction,
+     * dddVddd
+     */
+    private static boolean isVariableWindDirection(String token) {
+        int start = token.length() - 7;
+        if (start < 0 || token.charAt(start + 3) != 'V') {
+            return false;
+        }
+        for (int i = start; i < token.length(); i++) {
+            if (i != start + 3 && !isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        } else {
+    /**
+     * @return true if the token is a precise temperature and dew point
+     * remark, Tsnnnsnnn
+     */
+    private static boolean isPreciseTemperature(String token) {
+        if (token.length() != 9 || token.charAt(0) != 'T') {
+            return false;
+        }
+        for (int i = 1; i < 9; i++) {
+            if (!isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            index++;
+    /**
+     * @return true if the token is a present weather group, or NOSIG
+     */
+    private static boolean isWeatherToken(String token) {
+        return token.startsWith(MetarConstants.METAR_HEAVY) ||
+                token.startsWith(MetarConstants.METAR_LIGHT) ||
+                MetarCodeTable.weatherClass(token, 0) != 0 ||
+                token.startsWith(MetarConstants.METAR_NO_SIGNIFICANT_CHANGE);
+    }
+
+    /**
+     * @return the character offset in the raw text of the given token
+     */
+    private int tokenOffset(String metarData, int tokenIndex) {
+        int offset = 0;
+        for (int i = 0; i < tokenIndex; i++) {
+            String token = tokens.get(i);
+            offset = metarData.indexOf(token, offset) + token.length();
         }
+        return metarData.indexOf(tokens.get(tokenIndex), offset);
+    }
 
+    /**
+     * Decode the remarks section, starting from the current token.
+     */
+    private void parseRemarks() {
         // remarks
         // -------
         // volcanic eruptions
@@ -1051,94 +1401,70 @@ public class MetarParser {
         //       d  d  d
         //
         // see if we have hourly temperature
+        int first = index;
         while (index < numTokens) {
 
             // if we have temperature
             temp = tokens.get(index);
             //if (((String)tokens.get(index)).matches("T\\d{8}")) {
-            try {
-                if (matcher.matches(temp,
-                        new Perl5Compiler().compile("T\\d{8}"))) {
-
-                    // we have a sub-zero temperature
-                    float temperaturePrecise = Float.parseFloat(tokens.get(index).substring(2, 5));
-                    if (tokens.get(index).charAt(1) == '1') {
-                        temperaturePrecise = temperaturePrecise
-                                - temperaturePrecise * 2; // negate
-                    }
-                    // it is in tenths
-                    temperaturePrecise = temperaturePrecise / 10;
-                    metar.setTemperaturePrecise(temperaturePrecise);
-
-                    // we have a sub-zero dew point
-                    float dewPointPrecise = Float.parseFloat(tokens.get(index).substring(6, 9));
-                    if (tokens.get(index).charAt(5) == '1') {
-                        dewPointPrecise = dewPointPrecise
-                                - dewPointPrecise * 2; // negate
-                    }
-                    // it is in tenths
-                    dewPointPrecise = dewPointPrecise / 10;
-                    metar.setDewPointPrecise(dewPointPrecise);
-
-                    // if we have an obscuration
-                } else if (tokens.get(index)
-                        .equals(MetarConstants.METAR_MIST) ||
-                        tokens.get(index)
-                                .equals(MetarConstants.METAR_FOG)
-                        ||
-                        tokens.get(index)
-                                .equals(MetarConstants.METAR_SMOKE)
-                        ||
-                        tokens.get(index)
-                                .equals(MetarConstants.METAR_VOLCANIC_ASH)
-                        ||
-                        tokens.get(index)
-                                .equals(MetarConstants.METAR_WIDESPREAD_DUST)
-                        ||
-                        tokens.get(index)
-                                .equals(MetarConstants.METAR_SAND)
-                        ||
-                        tokens.get(index)
-                                .equals(MetarConstants.METAR_HAZE)
-                        ||
-                        tokens.get(index)
-                                .equals(MetarConstants.METAR_SPRAY)) {
-                    // we have an obscuration
-                    obscuration = new Obscuration();
-                    obscuration.setPhenomena(tokens.get(index));
+            if (isPreciseTemperature(temp)) {
 
+                // we have a sub-zero temperature
+                float temperaturePrecise = parseFloat(temp, 2, 5);
+                if (temp.charAt(1) == '1') {
+                    temperaturePrecise = temperaturePrecise
+                            - temperaturePrecise * 2; // negate
+                }
+                // it is in tenths
+                temperaturePrecise = temperaturePrecise / 10;
+
+                // we have a sub-zero dew point
+                float dewPointPrecise = parseFloat(temp, 6, 9);
+                if (temp.charAt(5) == '1') {
+                    dewPointPrecise = dewPointPrecise
+                            - dewPointPrecise * 2; // negate
+                }
+                // it is in tenths
+                dewPointPrecise = dewPointPrecise / 10;
+                handler.onPreciseTemperature(temperaturePrecise,
+                        dewPointPrecise);
+
+                // if we have an obscuration
+            } else if (tokens.get(index).length() == 2
+                    && (MetarCodeTable.weatherClass(tokens.get(index), 0)
+                    & MetarCodeTable.OBSCURATION) != 0) {
+                // we have an obscuration
+                String phenomenon = MetarCodeTable.weatherCode(temp, 0);
+
+                // we have a quantity and height too; the token after them
+                // is decoded on the next pass of the loop
+                if (index + 1 < numTokens
+                        && tokens.get(index + 1).length() >= 6
+                        && MetarCodeTable.isLayer(MetarCodeTable.skyCover(
+                        tokens.get(index + 1)))) {
                     // move to quantity and height token
                     index++;
 
-                    // we have a quantity and height too
-                    if (tokens.get(index)
-                            .startsWith(MetarConstants.METAR_FEW) ||
-                            tokens.get(index)
-                                    .startsWith(MetarConstants.METAR_SCATTERED)
-                            ||
-                            tokens.get(index)
-                                    .startsWith(MetarConstants.METAR_BROKEN)
-                            ||
-                            tokens.get(index).startsWith(
-                                    MetarConstants.METAR_OVERCAST)) {
-                        obscuration.setContraction(
-                                tokens.get(index).substring(0, 3));
-                        obscuration.setHeight(Integer.parseInt(
-                                tokens.get(index).substring(3, 6)));
-
-                        metar.addObscuration(obscuration);
-
-                    }
+                    String layer = tokens.get(index);
+                    handler.onObscuration(phenomenon,
+                            MetarCodeTable.skyCode(
+                                    MetarCodeTable.skyCover(layer)),
+                            parseInt(layer, 3, 6) * 100);
 
-                    index++;
-                    // there has been no significant change in weather
-                } else if (tokens.get(index)
-                        .equals(MetarConstants.METAR_NO_SIGNIFICANT_CHANGE)) {
-                    // have no significant change
-                    metar.setIsNoSignificantChange(true);
                 }
-            } catch (MalformedPatternException ignored) {
 
+                // there has been no significant change in weather
+            } else if (tokens.get(index)
+                    .equals(MetarConstants.METAR_NO_SIGNIFICANT_CHANGE)) {
+                // have no significant change
+                handler.onNoSignificantChange();
+            } else if (!(index == first && exhausted)) {
+                // the last token of the body is visited again here
+                // when the body consumed it, so it is not reported
+                handler.onRemark(temp);
+                if (listener != null) {
+                    listener.onUnrecognizedToken(temp);
+                }
             }
 
             index++;
@@ -1148,8 +1474,5 @@ public class MetarParser {
         // 6-hourly minimum temperature
         // 24-hour maximum and minimum temperature
         // 3-hourly pressure tendency
-
-        return metar;
     }
 }
-
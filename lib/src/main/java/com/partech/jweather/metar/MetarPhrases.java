@@ -0,0 +1,471 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.EnumMap;
+import java.util.Locale;
+
+/**
+ * The words of the plain language renderings for one language, compiled
+ * into arrays indexed by the codes of the decoded groups so that a phrase is
+ * found with an array read instead of being assembled or translated.
+ *
+ * Every combination of weather intensity, descriptor and phenomena is
+ * built into a complete phrase when the tables are created, so a localized
+ * weather phrase costs the same as an English one. English, French and
+ * Spanish are provided; other languages fall back to English.
+ */
+final class MetarPhrases {
+
+    /** The words and fragments used to build a briefing */
+    enum Word {
+        AUTOMATED, CORRECTED,
+        WIND_CALM, WIND_VARIABLE, WIND_FROM, DEGREES, AT, KNOTS, GUSTING_TO,
+        VARYING_BETWEEN, AND,
+        CAVOK, VISIBILITY, LESS_THAN, GREATER_THAN, STATUTE_MILES, METERS,
+        KILOMETERS,
+        RUNWAY_VISUAL_RANGE, RUNWAY, FEET, TO,
+        WEATHER, OBSCURATIONS, SKY, LIST_SEPARATOR,
+        VERTICAL_VISIBILITY, CLEAR_SKIES, CUMULONIMBUS, TOWERING_CUMULUS,
+        GROUND_LEVEL,
+        CEILING, TEMPERATURE, DEW_POINT, DEW_POINT_ONLY, ALTIMETER,
+        FLIGHT_CATEGORY, NO_SIGNIFICANT_CHANGE
+    }
+
+    private static final class French {
+        static final MetarPhrases PHRASES = french();
+    }
+
+    private static final class Spanish {
+        static final MetarPhrases PHRASES = spanish();
+    }
+
+    private static final int DESCRIPTORS =
+            WeatherCondition.DESCRIPTOR_CODES.length + 1;
+    private static final int PHENOMENA =
+            WeatherCondition.PHENOMENON_CODES.length + 1;
+
+    // the table sizes above must be set before the tables are built
+
+    /** English, the language of getNaturalLanguageString */
+    static final MetarPhrases ENGLISH = english();
+
+    private final Locale locale;
+    private final char decimalSeparator;
+    private final String[] words;
+    private final String[] weather;
+    private final String[] skyCovers;
+    private final String[] obscurationAmounts;
+    private final String[] obscurationPhenomena;
+    private final boolean phenomenonFirst;
+
+    /**
+     * @param locale               the language of the phrases
+     * @param decimalSeparator     the character between the integer and
+     *                             fraction of a number
+     * @param words                the briefing words, one for every
+     *                             {@link Word}
+     * @param intensities          light, moderate and heavy
+     * @param descriptors          the descriptors qualifying a phenomena,
+     *                             in {@link WeatherCondition#DESCRIPTOR_CODES}
+     *                             order
+     * @param standaloneDescriptors the descriptors used without a phenomena
+     * @param phenomena            the phenomena, in
+     *                             {@link WeatherCondition#PHENOMENON_CODES}
+     *                             order
+     * @param phenomenonFirst      true to write the phenomena before its
+     *                             descriptor and intensity, false to write
+     *                             it after them
+     * @param skyCovers            the sky covers, indexed by the
+     *                             {@link MetarCodeTable} sky cover codes
+     * @param obscurationAmounts   slight, moderate, heavy and severe
+     * @param obscurationPhenomena mist, fog, smoke, volcanic ash, dust,
+     *                             sand, haze and spray
+     */
+    private MetarPhrases(Locale locale, char decimalSeparator,
+                         EnumMap<Word, String> words, String[] intensities,
+                         String[] descriptors, String[] standaloneDescriptors,
+                         String[] phenomena, boolean phenomenonFirst,
+                         String[] skyCovers, String[] obscurationAmounts,
+                         String[] obscurationPhenomena) {
+        if (words.size() != Word.values().length) {
+            throw new IllegalStateException("missing words for " + locale);
+        }
+
+        this.locale = locale;
+        this.decimalSeparator = decimalSeparator;
+        this.words = words.values().toArray(new String[0]);
+        this.phenomenonFirst = phenomenonFirst;
+        this.skyCovers = skyCovers;
+        this.obscurationAmounts = obscurationAmounts;
+        this.obscurationPhenomena = obscurationPhenomena;
+
+        weather = new String[3 * DESCRIPTORS * PHENOMENA];
+        StringBuilder sb = new StringBuilder(64);
+        for (int i = 0; i < 3; i++) {
+            for (int d = -1; d < DESCRIPTORS - 1; d++) {
+                for (int p = -1; p < PHENOMENA - 1; p++) {
+                    sb.setLength(0);
+                    if (!phenomenonFirst) {
+                        sb.append(intensities[i]);
+                        if (d >= 0) {
+                            sb.append(' ').append(descriptors[d]);
+                        }
+                        if (p >= 0) {
+                            sb.append(' ').append(phenomena[p]);
+                        }
+                    } else if (p >= 0) {
+                        sb.append(phenomena[p]);
+                        if (d >= 0) {
+                            sb.append(' ').append(descriptors[d]);
+                        }
+                        sb.append(' ').append(intensities[i]);
+                    } else if (d >= 0) {
+                        sb.append(standaloneDescriptors[d]).append(' ')
+                                .append(intensities[i]);
+                    } else {
+                        sb.append(intensities[i]);
+                    }
+
+                    sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+                    weather[key(i, d, p)] = sb.toString();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param locale the language wanted
+     * @return the phrases for the language of the locale, or English if it
+     * is not supported
+     */
+    static MetarPhrases forLocale(Locale locale) {
+        switch (locale.getLanguage()) {
+            case "fr":
+                return French.PHRASES;
+            case "es":
+                return Spanish.PHRASES;
+            default:
+                return ENGLISH;
+        }
+    }
+
+    /**
+     * @return the locale of the language of these phrases
+     */
+    Locale getLocale() {
+        return locale;
+    }
+
+    char getDecimalSeparator() {
+        return decimalSeparator;
+    }
+
+    String word(Word word) {
+        return words[word.ordinal()];
+    }
+
+    /**
+     * @param intensity  the intensity index of the weather condition
+     * @param descriptor the descriptor index, or -1
+     * @param phenomenon the phenomena index, or -1
+     * @return the phrase for the weather condition
+     * @see WeatherCondition#getIntensityIndex()
+     */
+    String weather(int intensity, int descriptor, int phenomenon) {
+        return weather[key(intensity, descriptor, phenomenon)];
+    }
+
+    /**
+     * @param cover a {@link MetarCodeTable} sky cover code
+     * @return the name of the sky cover, or null for SKY_NONE
+     */
+    String skyCover(int cover) {
+        return skyCovers[cover];
+    }
+
+    /**
+     * @param amount the amount index of an obscuration, or -1
+     * @return the amount, or null if there is none
+     */
+    String obscurationAmount(int amount) {
+        return amount < 0 ? null : obscurationAmounts[amount];
+    }
+
+    /**
+     * @param phenomenon the phenomena index of an obscuration, or -1
+     * @return the phenomena, or null if there is none
+     */
+    String obscurationPhenomenon(int phenomenon) {
+        return phenomenon < 0 ? null : obscurationPhenomena[phenomenon];
+    }
+
+    /**
+     * @return true if the phenomena of a phrase comes before its amount
+     */
+    boolean isPhenomenonFirst() {
+        return phenomenonFirst;
+    }
+
+    private static int key(int intensity, int descriptor, int phenomenon) {
+        return (intensity * DESCRIPTORS + descriptor + 1) * PHENOMENA
+                + phenomenon + 1;
+    }
+
+    private static MetarPhrases english() {
+        EnumMap<Word, String> w = new EnumMap<>(Word.class);
+        w.put(Word.AUTOMATED, " (automated)");
+        w.put(Word.CORRECTED, " (corrected)");
+        w.put(Word.WIND_CALM, "Wind calm");
+        w.put(Word.WIND_VARIABLE, "Wind variable");
+        w.put(Word.WIND_FROM, "Wind from ");
+        w.put(Word.DEGREES, " degrees");
+        w.put(Word.AT, " at ");
+        w.put(Word.KNOTS, " knots");
+        w.put(Word.GUSTING_TO, ", gusting to ");
+        w.put(Word.VARYING_BETWEEN, ", varying between ");
+        w.put(Word.AND, " and ");
+        w.put(Word.CAVOK, "Ceiling and visibility OK");
+        w.put(Word.VISIBILITY, "Visibility ");
+        w.put(Word.LESS_THAN, "less than ");
+        w.put(Word.GREATER_THAN, "greater than ");
+        w.put(Word.STATUTE_MILES, " statute miles");
+        w.put(Word.METERS, " meters");
+        w.put(Word.KILOMETERS, " kilometers");
+        w.put(Word.RUNWAY_VISUAL_RANGE, "Runway visual range: ");
+        w.put(Word.RUNWAY, "runway ");
+        w.put(Word.FEET, " feet");
+        w.put(Word.TO, " to ");
+        w.put(Word.WEATHER, "Weather: ");
+        w.put(Word.OBSCURATIONS, "Obscurations: ");
+        w.put(Word.SKY, "Sky: ");
+        w.put(Word.LIST_SEPARATOR, "; ");
+        w.put(Word.VERTICAL_VISIBILITY, "Vertical Visibility of ");
+        w.put(Word.CLEAR_SKIES, "Clear skies");
+        w.put(Word.CUMULONIMBUS, " (cumulonimbus)");
+        w.put(Word.TOWERING_CUMULUS, " (towering cumulus)");
+        w.put(Word.GROUND_LEVEL, " at ground level");
+        w.put(Word.CEILING, "Ceiling ");
+        w.put(Word.TEMPERATURE, "Temperature ");
+        w.put(Word.DEW_POINT, ", dew point ");
+        w.put(Word.DEW_POINT_ONLY, "Dew point ");
+        w.put(Word.ALTIMETER, "Altimeter ");
+        w.put(Word.FLIGHT_CATEGORY, "Flight category ");
+        w.put(Word.NO_SIGNIFICANT_CHANGE, "No significant change expected");
+
+        String[] descriptors = {
+                "Shallow", "Partial", "Patches", "Low Drifting", "Blowing",
+                "Showers", "Thunderstorms", "Freezing"
+        };
+        return new MetarPhrases(Locale.ENGLISH, '.', w,
+                new String[]{"Light", "Moderate", "Heavy"},
+                descriptors, descriptors,
+                new String[]{
+                        "Drizzle", "Rain", "Snow", "Snow Grains",
+                        "Ice Crystals", "Ice Pellets", "Hail", "Small Hail",
+                        "Unknown Precipitation", "Mist", "Fog", "Smoke",
+                        "Volcanic Ash", "Widespread Dust", "Sand", "Haze",
+                        "Spray", "Well-developed Dust/Sand Whirls", "Squalls",
+                        "Funnel Cloud/Tornado/Waterspout", "Sandstorm",
+                        "Duststorm"
+                },
+                false,
+                new String[]{
+                        null, null, null, null, "Few clouds",
+                        "Scattered clouds", "Broken clouds", "Overcast",
+                        "No Significant Clouds"
+                },
+                new String[]{"Slight", "Moderate", "Heavy", "Severe"},
+                new String[]{
+                        "Mist", "Fog", "Smoke", "Volcanic Ash", "Dust", "Sand",
+                        "Haze", "Spray"
+                });
+    }
+
+    private static MetarPhrases french() {
+        EnumMap<Word, String> w = new EnumMap<>(Word.class);
+        w.put(Word.AUTOMATED, " (automatique)");
+        w.put(Word.CORRECTED, " (corrig\u00e9)");
+        w.put(Word.WIND_CALM, "Vent calme");
+        w.put(Word.WIND_VARIABLE, "Vent variable");
+        w.put(Word.WIND_FROM, "Vent du ");
+        w.put(Word.DEGREES, " degr\u00e9s");
+        w.put(Word.AT, " \u00e0 ");
+        w.put(Word.KNOTS, " n\u0153uds");
+        w.put(Word.GUSTING_TO, ", rafales \u00e0 ");
+        w.put(Word.VARYING_BETWEEN, ", variant entre ");
+        w.put(Word.AND, " et ");
+        w.put(Word.CAVOK, "Plafond et visibilit\u00e9 OK");
+        w.put(Word.VISIBILITY, "Visibilit\u00e9 ");
+        w.put(Word.LESS_THAN, "inf\u00e9rieure \u00e0 ");
+        w.put(Word.GREATER_THAN, "sup\u00e9rieure \u00e0 ");
+        w.put(Word.STATUTE_MILES, " milles terrestres");
+        w.put(Word.METERS, " m\u00e8tres");
+        w.put(Word.KILOMETERS, " kilom\u00e8tres");
+        w.put(Word.RUNWAY_VISUAL_RANGE, "Port\u00e9e visuelle de piste : ");
+        w.put(Word.RUNWAY, "piste ");
+        w.put(Word.FEET, " pieds");
+        w.put(Word.TO, " \u00e0 ");
+        w.put(Word.WEATHER, "Temps pr\u00e9sent : ");
+        w.put(Word.OBSCURATIONS, "Obscurcissements : ");
+        w.put(Word.SKY, "Ciel : ");
+        w.put(Word.LIST_SEPARATOR, " ; ");
+        w.put(Word.VERTICAL_VISIBILITY, "Visibilit\u00e9 verticale de ");
+        w.put(Word.CLEAR_SKIES, "Ciel clair");
+        w.put(Word.CUMULONIMBUS, " (cumulonimbus)");
+        w.put(Word.TOWERING_CUMULUS, " (cumulus bourgeonnants)");
+        w.put(Word.GROUND_LEVEL, " au niveau du sol");
+        w.put(Word.CEILING, "Plafond ");
+        w.put(Word.TEMPERATURE, "Temp\u00e9rature ");
+        w.put(Word.DEW_POINT, ", point de ros\u00e9e ");
+        w.put(Word.DEW_POINT_ONLY, "Point de ros\u00e9e ");
+        w.put(Word.ALTIMETER, "Calage altim\u00e9trique ");
+        w.put(Word.FLIGHT_CATEGORY, "Cat\u00e9gorie de vol ");
+        w.put(Word.NO_SIGNIFICANT_CHANGE,
+                "Pas de changement significatif pr\u00e9vu");
+
+        return new MetarPhrases(Locale.FRENCH, ',', w,
+                new String[]{
+                        "d'intensit\u00e9 faible", "d'intensit\u00e9 mod\u00e9r\u00e9e",
+                        "de forte intensit\u00e9"
+                },
+                new String[]{
+                        "mince", "partiel", "en bancs", "en chasse basse",
+                        "en chasse haute", "en averses", "avec orage",
+                        "se congelant"
+                },
+                new String[]{
+                        "mince", "partiel", "bancs", "chasse basse",
+                        "chasse haute", "averses", "orage", "cong\u00e9lation"
+                },
+                new String[]{
+                        "bruine", "pluie", "neige", "neige en grains",
+                        "cristaux de glace", "granules de glace", "gr\u00eale",
+                        "gr\u00e9sil", "pr\u00e9cipitations inconnues", "brume",
+                        "brouillard", "fum\u00e9e", "cendres volcaniques",
+                        "poussi\u00e8re g\u00e9n\u00e9ralis\u00e9e", "sable", "brume s\u00e8che",
+                        "embruns", "tourbillons de poussi\u00e8re/sable", "grains",
+                        "nuage en entonnoir/tornade/trombe",
+                        "temp\u00eate de sable", "temp\u00eate de poussi\u00e8re"
+                },
+                true,
+                new String[]{
+                        null, null, null, null, "Quelques nuages",
+                        "Nuages \u00e9pars", "Nuages fragment\u00e9s", "Couvert",
+                        "Pas de nuages significatifs"
+                },
+                new String[]{
+                        "d'\u00e9tendue faible", "d'\u00e9tendue mod\u00e9r\u00e9e",
+                        "d'\u00e9tendue importante", "d'\u00e9tendue tr\u00e8s importante"
+                },
+                new String[]{
+                        "Brume", "Brouillard", "Fum\u00e9e", "Cendres volcaniques",
+                        "Poussi\u00e8re", "Sable", "Brume s\u00e8che", "Embruns"
+                });
+    }
+
+    private static MetarPhrases spanish() {
+        EnumMap<Word, String> w = new EnumMap<>(Word.class);
+        w.put(Word.AUTOMATED, " (autom\u00e1tico)");
+        w.put(Word.CORRECTED, " (corregido)");
+        w.put(Word.WIND_CALM, "Viento en calma");
+        w.put(Word.WIND_VARIABLE, "Viento variable");
+        w.put(Word.WIND_FROM, "Viento de los ");
+        w.put(Word.DEGREES, " grados");
+        w.put(Word.AT, " a ");
+        w.put(Word.KNOTS, " nudos");
+        w.put(Word.GUSTING_TO, ", rachas de ");
+        w.put(Word.VARYING_BETWEEN, ", variando entre ");
+        w.put(Word.AND, " y ");
+        w.put(Word.CAVOK, "Techo y visibilidad OK");
+        w.put(Word.VISIBILITY, "Visibilidad ");
+        w.put(Word.LESS_THAN, "inferior a ");
+        w.put(Word.GREATER_THAN, "superior a ");
+        w.put(Word.STATUTE_MILES, " millas terrestres");
+        w.put(Word.METERS, " metros");
+        w.put(Word.KILOMETERS, " kil\u00f3metros");
+        w.put(Word.RUNWAY_VISUAL_RANGE, "Alcance visual en pista: ");
+        w.put(Word.RUNWAY, "pista ");
+        w.put(Word.FEET, " pies");
+        w.put(Word.TO, " a ");
+        w.put(Word.WEATHER, "Tiempo presente: ");
+        w.put(Word.OBSCURATIONS, "Oscurecimientos: ");
+        w.put(Word.SKY, "Cielo: ");
+        w.put(Word.LIST_SEPARATOR, "; ");
+        w.put(Word.VERTICAL_VISIBILITY, "Visibilidad vertical de ");
+        w.put(Word.CLEAR_SKIES, "Cielo despejado");
+        w.put(Word.CUMULONIMBUS, " (cumulonimbos)");
+        w.put(Word.TOWERING_CUMULUS, " (c\u00famulos en torre)");
+        w.put(Word.GROUND_LEVEL, " a nivel del suelo");
+        w.put(Word.CEILING, "Techo ");
+        w.put(Word.TEMPERATURE, "Temperatura ");
+        w.put(Word.DEW_POINT, ", punto de roc\u00edo ");
+        w.put(Word.DEW_POINT_ONLY, "Punto de roc\u00edo ");
+        w.put(Word.ALTIMETER, "Alt\u00edmetro ");
+        w.put(Word.FLIGHT_CATEGORY, "Categor\u00eda de vuelo ");
+        w.put(Word.NO_SIGNIFICANT_CHANGE,
+                "Sin cambios significativos previstos");
+
+        return new MetarPhrases(new Locale("es"), ',', w,
+                new String[]{
+                        "de intensidad d\u00e9bil", "de intensidad moderada",
+                        "de intensidad fuerte"
+                },
+                new String[]{
+                        "baja", "parcial", "en bancos", "con ventisca baja",
+                        "con ventisca alta", "en chubascos", "con tormenta",
+                        "engelante"
+                },
+                new String[]{
+                        "baja", "parcial", "bancos", "ventisca baja",
+                        "ventisca alta", "chubascos", "tormenta",
+                        "engelamiento"
+                },
+                new String[]{
+                        "llovizna", "lluvia", "nieve", "cinarra",
+                        "cristales de hielo", "hielo granulado", "granizo",
+                        "granizo peque\u00f1o", "precipitaci\u00f3n desconocida",
+                        "neblina", "niebla", "humo", "ceniza volc\u00e1nica",
+                        "polvo extendido", "arena", "calima", "rociones",
+                        "remolinos de polvo/arena", "turbonadas",
+                        "nube embudo/tornado/tromba", "tempestad de arena",
+                        "tempestad de polvo"
+                },
+                true,
+                new String[]{
+                        null, null, null, null, "Pocas nubes",
+                        "Nubes dispersas", "Nubes fragmentadas", "Cubierto",
+                        "Sin nubes significativas"
+                },
+                new String[]{
+                        "de extensi\u00f3n leve", "de extensi\u00f3n moderada",
+                        "de extensi\u00f3n importante", "de extensi\u00f3n severa"
+                },
+                new String[]{
+                        "Neblina", "Niebla", "Humo", "Ceniza volc\u00e1nica",
+                        "Polvo", "Arena", "Calima", "Rociones"
+                });
+    }
+}
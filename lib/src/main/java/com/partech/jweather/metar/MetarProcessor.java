@@ -0,0 +1,353 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link Flow.Processor} that parses raw reports into Metar objects.
+ *
+ * Reports are parsed on the given executor and published to subscribers
+ * with the non-blocking {@link SubmissionPublisher#offer}, so parsing never
+ * waits on delivery and a single-threaded executor can do both. The
+ * processor counts the reports buffered for each subscriber and only
+ * requests as many reports from upstream as every subscriber has room for,
+ * so a slow subscriber slows the feed instead of causing data to be
+ * dropped. Until a subscriber arrives nothing is requested from upstream,
+ * and reports already received are held until there is someone to
+ * deliver them to.
+ *
+ * A report that cannot be parsed does not terminate the stream. It is
+ * passed to the failure handler and the processor moves on to the next
+ * report.
+ */
+public class MetarProcessor extends SubmissionPublisher<Metar>
+        implements Flow.Processor<CharSequence, Metar> {
+
+    private final Executor executor;
+    private final int batchSize;
+    private final int replenishThreshold;
+    private final BiConsumer<? super CharSequence, ? super Exception>
+            failureHandler;
+
+    private final ConcurrentLinkedQueue<CharSequence> pending =
+            new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Tracker> arriving =
+            new ConcurrentLinkedQueue<>();
+    private final CopyOnWriteArrayList<Tracker> trackers =
+            new CopyOnWriteArrayList<>();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // only used from the drain loop, which never runs concurrently
+    private final MetarParser parser = new MetarParser();
+    private long requested = 0;
+    private long taken = 0;
+
+    private volatile Flow.Subscription subscription;
+    private volatile boolean done = false;
+    private volatile Throwable error = null;
+
+    /**
+     * Create a processor that parses on the common fork/join pool.
+     *
+     * @param failureHandler receives each report that could not be parsed
+     *                       and the reason why
+     */
+    public MetarProcessor(
+            BiConsumer<? super CharSequence, ? super Exception> failureHandler) {
+        this(ForkJoinPool.commonPool(), Flow.defaultBufferSize(),
+                failureHandler);
+    }
+
+    /**
+     * @param executor       the executor reports are parsed and delivered
+     *                       on, which may be single-threaded
+     * @param batchSize      the maximum number of reports requested from
+     *                       upstream at a time, which is also the number of
+     *                       parsed reports buffered for each subscriber
+     * @param failureHandler receives each report that could not be parsed
+     *                       and the reason why
+     */
+    public MetarProcessor(Executor executor, int batchSize,
+            BiConsumer<? super CharSequence, ? super Exception> failureHandler) {
+        super(executor, batchSize);
+
+        if (failureHandler == null) {
+            throw new IllegalArgumentException(
+                    "failure handler must not be null");
+        }
+
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.replenishThreshold = Math.max(1, batchSize / 2);
+        this.failureHandler = failureHandler;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        schedule();
+    }
+
+    @Override
+    public void onNext(CharSequence item) {
+        pending.offer(item);
+        schedule();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done = true;
+        schedule();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        schedule();
+    }
+
+    /**
+     * Subscribe to the parsed reports. The subscriber is registered from
+     * the drain loop, so that the count of reports buffered for it starts
+     * in step with the reports offered to it.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Metar> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException();
+        }
+        arriving.offer(new Tracker(subscriber));
+        if (isClosed()) {
+            // the drain loop has finished, so complete it here
+            subscribeArrivals();
+        } else {
+            schedule();
+        }
+    }
+
+    @Override
+    public List<Flow.Subscriber<? super Metar>> getSubscribers() {
+        List<Flow.Subscriber<? super Metar>> subscribers =
+                new ArrayList<>();
+        for (Flow.Subscriber<? super Metar> s : super.getSubscribers()) {
+            subscribers.add((s instanceof Tracker)
+                    ? ((Tracker) s).subscriber : s);
+        }
+        return subscribers;
+    }
+
+    @Override
+    public boolean isSubscribed(Flow.Subscriber<? super Metar> subscriber) {
+        for (Tracker tracker : trackers) {
+            if (tracker.subscriber == subscriber && tracker.live) {
+                return super.isSubscribed(tracker);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of reports received but not yet parsed
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void schedule() {
+        if (wip.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * @return the number of parsed reports every live subscriber has room
+     * for, or zero if there are no subscribers
+     */
+    private int space() {
+        int space = Integer.MAX_VALUE;
+        for (Tracker tracker : trackers) {
+            if (tracker.live) {
+                space = Math.min(space, batchSize - tracker.buffered.get());
+            }
+        }
+        return (space == Integer.MAX_VALUE) ? 0 : Math.max(0, space);
+    }
+
+    private void subscribeArrivals() {
+        Tracker arrived;
+        while ((arrived = arriving.poll()) != null) {
+            trackers.add(arrived);
+            super.subscribe(arrived);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+
+        for (;;) {
+            subscribeArrivals();
+            trackers.removeIf(tracker -> !tracker.live);
+
+            MetarBatchEvent event = null;
+            if (MetarParser.isRecorderInitialized()) {
+                event = new MetarBatchEvent();
+                event.begin();
+            }
+            int count = 0;
+            int failures = 0;
+            long bytes = 0;
+
+            int space = space();
+            CharSequence item;
+            while (space > 0 && (item = pending.poll()) != null) {
+                taken++;
+                count++;
+                bytes += item.length();
+
+                try {
+                    Metar metar = parser.parseData(item.toString());
+                    for (Tracker tracker : trackers) {
+                        tracker.buffered.incrementAndGet();
+                    }
+                    offer(metar, null);
+                    space--;
+                } catch (MetarParseException | RuntimeException e) {
+                    failures++;
+                    failureHandler.accept(item, e);
+                }
+            }
+
+            if (event != null && count > 0) {
+                event.complete(count, failures, bytes);
+            }
+
+            // ask for as many reports as the subscribers have room for,
+            // less those already asked for and not yet parsed
+            Flow.Subscription upstream = subscription;
+            if (upstream != null && !done) {
+                long outstanding = requested - taken;
+                long credit = space() - outstanding;
+                if (credit >= replenishThreshold
+                        || (credit > 0 && outstanding == 0)) {
+                    requested += credit;
+                    upstream.request(credit);
+                }
+            }
+
+            if (done && pending.isEmpty()) {
+                Throwable e = error;
+                if (e != null) {
+                    closeExceptionally(e);
+                } else {
+                    close();
+                }
+                // late subscribers are told the stream has ended
+                subscribeArrivals();
+                return;
+            }
+
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Wraps a subscriber to count the parsed reports buffered for it. Each
+     * delivery frees a place in its buffer, so the drain loop is scheduled
+     * to replenish upstream demand once enough places have been freed or
+     * the buffer has emptied.
+     */
+    private final class Tracker implements Flow.Subscriber<Metar> {
+        private final Flow.Subscriber<? super Metar> subscriber;
+        private final AtomicInteger buffered = new AtomicInteger();
+        private volatile boolean live = true;
+        // only used from onNext, which is never called concurrently
+        private int delivered = 0;
+
+        Tracker(Flow.Subscriber<? super Metar> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                    release();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(Metar item) {
+            int remaining = buffered.decrementAndGet();
+            if (++delivered >= replenishThreshold || remaining == 0) {
+                delivered = 0;
+                schedule();
+            }
+            subscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            release();
+            subscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            release();
+            subscriber.onComplete();
+        }
+
+        private void release() {
+            live = false;
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,475 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import com.partech.jweather.metar.MetarPhrases.Word;
+
+/**
+ * Renders a whole report as a plain language briefing, one line per group
+ * that was reported, for example:
+ *
+ * <pre>
+ * KSFO, 2020-06-12 17:56 UTC (automated)
+ * Wind from 270 degrees at 10 knots, gusting to 20 knots
+ * Visibility 1.5 statute miles
+ * Weather: Light Showers Rain; Moderate Mist
+ * Sky: Few clouds at 500 feet; Broken clouds at 1000 feet (cumulonimbus)
+ * Ceiling 1000 feet
+ * Temperature 13.0 C (55.4 F), dew point 11.0 C (51.8 F)
+ * Altimeter 29.92 inHg
+ * Flight category IFR
+ * </pre>
+ *
+ * The briefing is written into a buffer owned by the renderer and reused
+ * for every report, so rendering allocates nothing once the buffer has
+ * grown to fit the longest briefing. Numbers are written by
+ * {@link MetarNumberFormat}.
+ *
+ * Briefings can be rendered in English, French or Spanish. The words of
+ * each language are compiled into tables indexed by the decoded codes when
+ * the language is first used, so a localized briefing costs the same as an
+ * English one. Units, station identifiers and flight categories are
+ * written as reported in every language.
+ *
+ * A renderer is not safe for use by multiple threads; use one per thread.
+ */
+public class MetarRenderer {
+
+    private final MetarPhrases phrases;
+    private final StringBuilder buffer = new StringBuilder(512);
+    private final char[] date = new char[17];
+
+    /**
+     * Create a renderer writing English briefings.
+     */
+    public MetarRenderer() {
+        this.phrases = MetarPhrases.ENGLISH;
+    }
+
+    /**
+     * Create a renderer writing briefings in the language of a locale.
+     *
+     * @param locale the locale; languages other than English, French and
+     *               Spanish are rendered in English
+     */
+    public MetarRenderer(Locale locale) {
+        if (locale == null) {
+            throw new IllegalArgumentException("locale is null");
+        }
+        this.phrases = MetarPhrases.forLocale(locale);
+    }
+
+    /**
+     * @return the locale of the language the briefings are written in
+     */
+    public Locale getLocale() {
+        return phrases.getLocale();
+    }
+
+    /**
+     * Render a report into the buffer of this renderer.
+     *
+     * @param metar the report
+     * @return the briefing, which is only valid until the next call
+     */
+    public CharSequence render(Metar metar) {
+        buffer.setLength(0);
+        return render(metar, buffer);
+    }
+
+    /**
+     * Render a report to any destination, by way of the buffer of this
+     * renderer.
+     *
+     * @param metar the report
+     * @param out   the destination
+     * @return the destination
+     * @throws IOException if the destination fails
+     */
+    public Appendable render(Metar metar, Appendable out) throws IOException {
+        return out.append(render(metar));
+    }
+
+    /**
+     * Append the briefing for a report.
+     *
+     * @param metar the report
+     * @param sb    the builder to append to
+     * @return the builder
+     */
+    public StringBuilder render(Metar metar, StringBuilder sb) {
+        appendHeading(sb, metar);
+        appendWind(sb, metar);
+        appendVisibility(sb, metar);
+        appendRunwayVisualRanges(sb, metar.getRunwayVisualRanges());
+        appendWeather(sb, metar.getWeatherConditions());
+        appendObscurations(sb, metar.getObscurations());
+        appendSky(sb, metar.getSkyConditions());
+
+        Integer ceiling = metar.getCeiling();
+        if (ceiling != null) {
+            sb.append(phrases.word(Word.CEILING));
+            MetarNumberFormat.append(sb, ceiling);
+            sb.append(phrases.word(Word.FEET)).append('\n');
+        }
+
+        appendTemperature(sb, metar);
+
+        float pressure = metar.pressureInInches();
+        if (!Float.isNaN(pressure)) {
+            sb.append(phrases.word(Word.ALTIMETER));
+            appendDecimal(sb, pressure, 2);
+            sb.append(" inHg\n");
+        }
+
+        FlightCategory category = metar.getFlightCategoryType();
+        if (category != null) {
+            sb.append(phrases.word(Word.FLIGHT_CATEGORY))
+                    .append(category.name()).append('\n');
+        }
+
+        if (metar.getIsNoSignificantChange()) {
+            sb.append(phrases.word(Word.NO_SIGNIFICANT_CHANGE)).append('\n');
+        }
+
+        return sb;
+    }
+
+    private void appendHeading(StringBuilder sb, Metar metar) {
+        sb.append(metar.getStationID());
+
+        Date time = metar.date();
+        if (time != null) {
+            MetarCsvWriter.formatDate(
+                    Math.floorDiv(time.getTime(), 60_000L), date);
+            sb.append(", ").append(date, 0, 10).append(' ')
+                    .append(date, 11, 5).append(" UTC");
+        }
+
+        String modifier = metar.getReportModifier();
+        if (MetarConstants.METAR_AUTOMATED.equals(modifier)) {
+            sb.append(phrases.word(Word.AUTOMATED));
+        } else if (MetarConstants.METAR_CORRECTED.equals(modifier)) {
+            sb.append(phrases.word(Word.CORRECTED));
+        }
+        sb.append('\n');
+    }
+
+    private void appendWind(StringBuilder sb, Metar metar) {
+        float speed = metar.windSpeedInKnots();
+        if (Float.isNaN(speed)) {
+            return;
+        }
+
+        float gusts = metar.windGustsInKnots();
+        if (speed == 0 && Float.isNaN(gusts)) {
+            sb.append(phrases.word(Word.WIND_CALM)).append('\n');
+            return;
+        }
+
+        Integer direction = metar.getWindDirection();
+        if (metar.getWindDirectionIsVariable() || direction == null) {
+            sb.append(phrases.word(Word.WIND_VARIABLE));
+        } else {
+            sb.append(phrases.word(Word.WIND_FROM));
+            MetarNumberFormat.append(sb, direction);
+            sb.append(phrases.word(Word.DEGREES));
+        }
+
+        sb.append(phrases.word(Word.AT));
+        appendAmount(sb, speed, 1);
+        sb.append(phrases.word(Word.KNOTS));
+
+        if (!Float.isNaN(gusts)) {
+            sb.append(phrases.word(Word.GUSTING_TO));
+            appendAmount(sb, gusts, 1);
+            sb.append(phrases.word(Word.KNOTS));
+        }
+
+        Integer min = metar.getWindDirectionMin();
+        Integer max = metar.getWindDirectionMax();
+        if (min != null && max != null) {
+            sb.append(phrases.word(Word.VARYING_BETWEEN));
+            MetarNumberFormat.append(sb, min);
+            sb.append(phrases.word(Word.AND));
+            MetarNumberFormat.append(sb, max);
+            sb.append(phrases.word(Word.DEGREES));
+        }
+        sb.append('\n');
+    }
+
+    private void appendVisibility(StringBuilder sb, Metar metar) {
+        if (metar.getIsCavok()) {
+            sb.append(phrases.word(Word.CAVOK)).append('\n');
+            return;
+        }
+
+        float miles = metar.visibilityInMiles();
+        if (Float.isNaN(miles)) {
+            return;
+        }
+
+        sb.append(phrases.word(Word.VISIBILITY));
+        if (metar.getVisibilityLessThan()) {
+            sb.append(phrases.word(Word.LESS_THAN));
+        } else if (metar.getVisibilityGreaterThan()) {
+            sb.append(phrases.word(Word.GREATER_THAN));
+        }
+
+        // reports that give the visibility in metric units are rendered in
+        // the same units
+        float meters = metar.visibilityInMeters();
+        if (Float.isNaN(meters)) {
+            appendAmount(sb, miles, 2);
+            sb.append(phrases.word(Word.STATUTE_MILES));
+        } else if (meters < 5000) {
+            appendAmount(sb, meters, 0);
+            sb.append(phrases.word(Word.METERS));
+        } else {
+            appendAmount(sb, metar.visibilityInKilometers(), 1);
+            sb.append(phrases.word(Word.KILOMETERS));
+        }
+        sb.append('\n');
+    }
+
+    private void appendRunwayVisualRanges(StringBuilder sb,
+                                          List<RunwayVisualRange> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+
+        sb.append(phrases.word(Word.RUNWAY_VISUAL_RANGE));
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) {
+                sb.append(phrases.word(Word.LIST_SEPARATOR));
+            }
+            RunwayVisualRange rvr = list.get(i);
+            sb.append(phrases.word(Word.RUNWAY));
+            MetarNumberFormat.append(sb, rvr.getRunwayNumber());
+            if (rvr.getApproachDirection() != ' ') {
+                sb.append(rvr.getApproachDirection());
+            }
+
+            sb.append(' ');
+            if (rvr.getReportableModifier() == 'M') {
+                sb.append(phrases.word(Word.LESS_THAN));
+            } else if (rvr.getReportableModifier() == 'P') {
+                sb.append(phrases.word(Word.GREATER_THAN));
+            }
+
+            MetarNumberFormat.append(sb, rvr.getLowestReportable());
+            if (rvr.getHighestReportable() > 0) {
+                sb.append(phrases.word(Word.TO));
+                MetarNumberFormat.append(sb, rvr.getHighestReportable());
+            }
+            sb.append(phrases.word(Word.FEET));
+        }
+        sb.append('\n');
+    }
+
+    private void appendWeather(StringBuilder sb, List<WeatherCondition> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+
+        sb.append(phrases.word(Word.WEATHER));
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) {
+                sb.append(phrases.word(Word.LIST_SEPARATOR));
+            }
+            WeatherCondition weather = list.get(i);
+            sb.append(phrases.weather(weather.getIntensityIndex(),
+                    weather.getDescriptorIndex(),
+                    weather.getPhenomenonIndex()));
+        }
+        sb.append('\n');
+    }
+
+    private void appendObscurations(StringBuilder sb, List<Obscuration> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+
+        sb.append(phrases.word(Word.OBSCURATIONS));
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) {
+                sb.append(phrases.word(Word.LIST_SEPARATOR));
+            }
+            Obscuration obscuration = list.get(i);
+            String amount =
+                    phrases.obscurationAmount(obscuration.getAmountIndex());
+            String phenomenon = phrases.obscurationPhenomenon(
+                    obscuration.getPhenomenonIndex());
+            String first = phrases.isPhenomenonFirst() ? phenomenon : amount;
+            String second = phrases.isPhenomenonFirst() ? amount : phenomenon;
+            if (first != null) {
+                sb.append(first);
+            }
+            if (second != null) {
+                if (first != null) {
+                    sb.append(' ');
+                }
+                sb.append(second);
+            }
+
+            if (obscuration.getHeight() != 0) {
+                sb.append(phrases.word(Word.AT));
+                MetarNumberFormat.append(sb, obscuration.getHeight());
+                sb.append(phrases.word(Word.FEET));
+            } else {
+                sb.append(phrases.word(Word.GROUND_LEVEL));
+            }
+        }
+        sb.append('\n');
+    }
+
+    private void appendSky(StringBuilder sb, List<SkyCondition> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+
+        sb.append(phrases.word(Word.SKY));
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) {
+                sb.append(phrases.word(Word.LIST_SEPARATOR));
+            }
+            appendSky(sb, list.get(i));
+        }
+        sb.append('\n');
+    }
+
+    private void appendSky(StringBuilder sb, SkyCondition sky) {
+        int cover = sky.getCover();
+        switch (cover) {
+            case MetarCodeTable.SKY_VERTICAL_VISIBILITY:
+                sb.append(phrases.word(Word.VERTICAL_VISIBILITY));
+                MetarNumberFormat.append(sb, sky.getHeight());
+                sb.append(phrases.word(Word.FEET));
+                return;
+            case MetarCodeTable.SKY_SKY_CLEAR:
+            case MetarCodeTable.SKY_CLEAR:
+                sb.append(phrases.word(Word.CLEAR_SKIES));
+                return;
+            case MetarCodeTable.SKY_NO_SIGNIFICANT_CLOUDS:
+                // reported without a height
+                sb.append(phrases.skyCover(cover));
+                return;
+            case MetarCodeTable.SKY_NONE:
+                sb.append(sky.getContraction());
+                break;
+            default:
+                sb.append(phrases.skyCover(cover));
+                break;
+        }
+
+        sb.append(phrases.word(Word.AT));
+        MetarNumberFormat.append(sb, sky.getHeight());
+        sb.append(phrases.word(Word.FEET));
+
+        if (sky.isCumulonimbus()) {
+            sb.append(phrases.word(Word.CUMULONIMBUS));
+        } else if (sky.isToweringCumulus()) {
+            sb.append(phrases.word(Word.TOWERING_CUMULUS));
+        } else if (sky.getModifier() != null && !sky.getModifier().isEmpty()) {
+            sb.append(" (").append(sky.getModifier()).append(')');
+        }
+    }
+
+    private void appendTemperature(StringBuilder sb, Metar metar) {
+        float temperature = metar.temperatureMostPreciseInCelsius();
+        float dewPoint = metar.dewPointMostPreciseInCelsius();
+        if (Float.isNaN(temperature) && Float.isNaN(dewPoint)) {
+            return;
+        }
+
+        if (!Float.isNaN(temperature)) {
+            sb.append(phrases.word(Word.TEMPERATURE));
+            appendDecimal(sb, temperature, 1);
+            sb.append(" C (");
+            appendDecimal(sb, metar.temperatureMostPreciseInFahrenheit(), 1);
+            sb.append(" F)");
+        }
+        if (!Float.isNaN(dewPoint)) {
+            sb.append(phrases.word(Float.isNaN(temperature)
+                    ? Word.DEW_POINT_ONLY : Word.DEW_POINT));
+            appendDecimal(sb, dewPoint, 1);
+            sb.append(" C (");
+            appendDecimal(sb, metar.dewPointMostPreciseInFahrenheit(), 1);
+            sb.append(" F)");
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * Append a value with the given number of decimals, using the decimal
+     * separator of the language.
+     */
+    private void appendDecimal(StringBuilder sb, float value, int decimals) {
+        int start = sb.length();
+        MetarNumberFormat.append(sb, value, decimals);
+        localizeDecimalSeparator(sb, start, sb.length());
+    }
+
+    /**
+     * Append a value with at most the given number of decimals, leaving out
+     * trailing zeros.
+     */
+    private void appendAmount(StringBuilder sb, float value, int decimals) {
+        int start = sb.length();
+        MetarNumberFormat.append(sb, value, decimals);
+        if (decimals == 0) {
+            return;
+        }
+
+        int end = sb.length();
+        while (end > start && sb.charAt(end - 1) == '0') {
+            end--;
+        }
+        if (end > start && sb.charAt(end - 1) == '.') {
+            end--;
+        }
+        sb.setLength(end);
+        localizeDecimalSeparator(sb, start, end);
+    }
+
+    private void localizeDecimalSeparator(StringBuilder sb, int start,
+                                          int end) {
+        char separator = phrases.getDecimalSeparator();
+        if (separator == '.') {
+            return;
+        }
+        for (int i = end - 1; i >= start; i--) {
+            if (sb.charAt(i) == '.') {
+                sb.setCharAt(i, separator);
+                return;
+            }
+        }
+    }
+}
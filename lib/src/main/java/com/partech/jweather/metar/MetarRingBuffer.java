@@ -0,0 +1,439 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A pre-allocated ring of Metar objects connecting one producer to several
+ * consumer stages, in the style of the LMAX Disruptor.
+ *
+ * The producer parses each report directly into the next free slot with
+ * {@link #publish(MetarParser, String)}, and every stage then reads the
+ * same Metar in order on its own thread, without copying and without
+ * locks. A stage may be set to run after other stages, so that an
+ * archiving stage only sees a report once the storing stage is done with
+ * it. The producer only reuses a slot once every stage has moved past it.
+ *
+ * <pre>
+ * MetarRingBuffer ring = new MetarRingBuffer(1024, MetarWaitStrategy.yielding());
+ * MetarRingBuffer.Stage store = ring.addStage(storeHandler);
+ * ring.addStage(alertHandler);
+ * ring.addStage(archiveHandler, store);
+ * ring.start();
+ *
+ * MetarParser parser = new MetarParser();
+ * for (String line : lines) {
+ *     ring.publish(parser, line);
+ * }
+ * ring.drainAndHalt();
+ * </pre>
+ *
+ * Slots are recycled, so handlers must copy any values they need to keep
+ * and must not hand the Metar itself to anything that holds on to it; use
+ * {@link Metar#freeze()} to keep a whole report. Only one thread may
+ * publish.
+ */
+public class MetarRingBuffer {
+
+    /**
+     * Consumes the reports of one stage. Each handler is called from a
+     * single thread.
+     */
+    public interface Handler {
+
+        /**
+         * @param metar      the report; only valid until this method returns
+         * @param sequence   the position of the report in the ring
+         * @param endOfBatch true if no further report is available yet,
+         *                   which is a good moment to flush buffered output
+         */
+        void onMetar(Metar metar, long sequence, boolean endOfBatch);
+
+        /**
+         * Called when {@link #onMetar} throws. The stage then moves on to the
+         * next report. By default the exception is ignored.
+         *
+         * @param metar    the report being handled
+         * @param sequence the position of the report in the ring
+         * @param e        the exception thrown by the handler
+         */
+        default void onException(Metar metar, long sequence,
+                                 RuntimeException e) {
+        }
+    }
+
+    /**
+     * A sequence number padded to its own cache line, so that the producer
+     * and the stages do not slow each other down by writing to neighbouring
+     * memory.
+     */
+    public static final class Sequence {
+
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(
+                        Sequence.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @SuppressWarnings("unused")
+        private long p1, p2, p3, p4, p5, p6, p7;
+        private volatile long value;
+        @SuppressWarnings("unused")
+        private long p9, p10, p11, p12, p13, p14, p15;
+
+        Sequence(long initial) {
+            value = initial;
+        }
+
+        /**
+         * @return the current value
+         */
+        public long get() {
+            return value;
+        }
+
+        void set(long newValue) {
+            VALUE.setRelease(this, newValue);
+        }
+    }
+
+    /**
+     * What a stage waits on: the producer cursor and the sequences of the
+     * stages it runs after.
+     */
+    public static final class SequenceBarrier {
+
+        private final Sequence cursor;
+        private final Sequence[] dependencies;
+        private volatile boolean alerted = false;
+
+        SequenceBarrier(Sequence cursor, Sequence[] dependencies) {
+            this.cursor = cursor;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * @return the highest sequence published by the producer
+         */
+        public long getCursor() {
+            return cursor.get();
+        }
+
+        /**
+         * @return the highest sequence this stage may read, which is the
+         * producer cursor if the stage runs after no other stage, or else
+         * the lowest sequence of the stages it runs after
+         */
+        public long getAvailable() {
+            if (dependencies.length == 0) {
+                return cursor.get();
+            }
+            return minimumSequence(dependencies, Long.MAX_VALUE);
+        }
+
+        /**
+         * @return true once the ring has been halted
+         */
+        public boolean isAlerted() {
+            return alerted;
+        }
+
+        void alert() {
+            alerted = true;
+        }
+    }
+
+    /**
+     * A consumer stage, which runs its handler on its own thread once the
+     * ring is started.
+     */
+    public final class Stage implements Runnable {
+
+        private final Handler handler;
+        private final SequenceBarrier barrier;
+        private final Sequence sequence = new Sequence(INITIAL_SEQUENCE);
+
+        private Stage(Handler handler, SequenceBarrier barrier) {
+            this.handler = handler;
+            this.barrier = barrier;
+        }
+
+        /**
+         * @return the sequence of the last report this stage has handled
+         */
+        public Sequence getSequence() {
+            return sequence;
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            try {
+                while (true) {
+                    long available = waitStrategy.waitFor(next, barrier);
+                    if (available < next) {
+                        // alerted with nothing left to handle
+                        return;
+                    }
+
+                    while (next <= available) {
+                        Metar metar = slots[(int) (next & mask)];
+                        try {
+                            handler.onMetar(metar, next, next == available);
+                        } catch (RuntimeException e) {
+                            handler.onException(metar, next, e);
+                        }
+                        next++;
+                    }
+                    sequence.set(available);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final long INITIAL_SEQUENCE = -1;
+
+    private final Metar[] slots;
+    private final int mask;
+    private final MetarWaitStrategy waitStrategy;
+    private final Sequence cursor = new Sequence(INITIAL_SEQUENCE);
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    // producer state, only touched by the publishing thread
+    private Sequence[] gatingSequences = new Sequence[0];
+    private long cachedGatingSequence = INITIAL_SEQUENCE;
+
+    private volatile boolean started = false;
+
+    /**
+     * @param size         the number of slots, which must be a power of two
+     * @param waitStrategy how stages wait for reports to be published
+     */
+    public MetarRingBuffer(int size, MetarWaitStrategy waitStrategy) {
+        if (size < 1 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException(
+                    "size must be a power of two: " + size);
+        }
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException(
+                    "waitStrategy must not be null");
+        }
+
+        this.slots = new Metar[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Metar();
+        }
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Add a stage that handles each report as soon as it is published.
+     *
+     * @param handler the handler of the stage
+     * @return the new stage
+     */
+    public Stage addStage(Handler handler) {
+        return addStage(handler, new Stage[0]);
+    }
+
+    /**
+     * Add a stage that handles each report once all of the given stages
+     * have handled it.
+     *
+     * @param handler the handler of the stage
+     * @param after   the stages that must handle each report first
+     * @return the new stage
+     */
+    public synchronized Stage addStage(Handler handler, Stage... after) {
+        if (started) {
+            throw new IllegalStateException("ring already started");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("handler must not be null");
+        }
+
+        Sequence[] dependencies = new Sequence[after.length];
+        for (int i = 0; i < after.length; i++) {
+            if (!stages.contains(after[i])) {
+                throw new IllegalArgumentException(
+                        "stage does not belong to this ring");
+            }
+            dependencies[i] = after[i].sequence;
+        }
+
+        Stage stage = new Stage(handler, new SequenceBarrier(cursor,
+                dependencies));
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Start a daemon thread for each stage.
+     */
+    public void start() {
+        start(r -> {
+            Thread t = new Thread(r, "metar-ring-stage");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Start a thread for each stage.
+     *
+     * @param threadFactory creates the stage threads
+     */
+    public synchronized void start(ThreadFactory threadFactory) {
+        if (started) {
+            throw new IllegalStateException("ring already started");
+        }
+        if (stages.isEmpty()) {
+            throw new IllegalStateException("ring has no stages");
+        }
+
+        // the producer waits for every stage; stages that others run after
+        // are never behind those, so including them costs little
+        gatingSequences = new Sequence[stages.size()];
+        for (int i = 0; i < gatingSequences.length; i++) {
+            gatingSequences[i] = stages.get(i).sequence;
+        }
+
+        for (Stage stage : stages) {
+            Thread thread = threadFactory.newThread(stage);
+            threads.add(thread);
+        }
+        started = true;
+        for (Thread thread : threads) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Parse a report into the next free slot and publish it to the stages.
+     * Waits for the slowest stage if the ring is full. If the report cannot
+     * be parsed nothing is published and the slot is reused for the next
+     * report.
+     *
+     * @param parser    the parser to use, owned by the publishing thread
+     * @param metarData the raw METAR report
+     * @return the sequence the report was published at
+     * @throws MetarParseException if the report could not be parsed
+     */
+    public long publish(MetarParser parser, String metarData)
+            throws MetarParseException {
+        if (!started) {
+            throw new IllegalStateException("ring not started");
+        }
+
+        long next = cursor.get() + 1;
+        long wrapPoint = next - slots.length;
+        if (wrapPoint > cachedGatingSequence) {
+            long minimum;
+            while (wrapPoint > (minimum = minimumSequence(gatingSequences,
+                    next - 1))) {
+                LockSupport.parkNanos(1);
+            }
+            cachedGatingSequence = minimum;
+        }
+
+        parser.parseData(metarData, slots[(int) (next & mask)]);
+
+        cursor.set(next);
+        waitStrategy.signalAllWhenBlocking();
+        return next;
+    }
+
+    /**
+     * @return the sequence of the last report published
+     */
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    /**
+     * @return the number of slots in the ring
+     */
+    public int getSize() {
+        return slots.length;
+    }
+
+    /**
+     * Wait until every stage has handled every published report, then stop
+     * the stages.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void drainAndHalt() throws InterruptedException {
+        long published = cursor.get();
+        while (minimumSequence(gatingSequences, published) < published) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            Thread.yield();
+        }
+        halt();
+    }
+
+    /**
+     * Stop the stages after the reports they are currently handling, and
+     * wait for their threads to finish.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void halt() throws InterruptedException {
+        for (Stage stage : stages) {
+            stage.barrier.alert();
+        }
+        waitStrategy.signalAllWhenBlocking();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static long minimumSequence(Sequence[] sequences, long minimum) {
+        for (Sequence sequence : sequences) {
+            long value = sequence.get();
+            if (value < minimum) {
+                minimum = value;
+            }
+        }
+        return minimum;
+    }
+}
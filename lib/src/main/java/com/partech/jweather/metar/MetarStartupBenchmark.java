@@ -0,0 +1,111 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Measures what the first parse costs a fresh process, the case that
+ * matters for command line tools and serverless functions:
+ *
+ * <pre>
+ * java -cp par-jweather.jar com.partech.jweather.metar.MetarStartupBenchmark [report]
+ *
+ * KJFK VFR
+ * first parse       95.59 ms
+ * second parse      0.22 ms
+ * since start       636 ms
+ * classes loaded    151 by the first parse, 854 in total
+ * </pre>
+ *
+ * "first parse" is the time taken to construct a parser and parse one
+ * report, including loading and initializing the library's classes;
+ * "since start" is the time from the start of the process until the first
+ * parse was done, as reported by the operating system. The class counts
+ * come from the JVM's {@link ClassLoadingMXBean}, which is looked up
+ * before the first parse so that the management classes are not counted
+ * against it. A native image has no class loading at run time, so it
+ * reports no class counts.
+ *
+ * Run it as a new process each time; repeating it within one process
+ * measures a warm parser.
+ */
+public final class MetarStartupBenchmark {
+
+    /** The report parsed when none is given on the command line */
+    static final String REPORT = "KJFK 181751Z 31015G25KT 10SM -SHRA "
+            + "FEW045 SCT250 22/09 A2992 RMK AO2 SLP132 T02220094";
+
+    private MetarStartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws MetarParseException {
+        String report = (args.length > 0) ? String.join(" ", args) : REPORT;
+        ClassLoadingMXBean classLoading = isNativeImage()
+                ? null : ManagementFactory.getClassLoadingMXBean();
+        long classesBefore = (classLoading == null)
+                ? 0 : classLoading.getTotalLoadedClassCount();
+
+        long start = System.nanoTime();
+        Metar metar = new MetarParser().parseData(report);
+        FlightCategory category = metar.getFlightCategoryType();
+        long first = System.nanoTime() - start;
+        Instant firstDone = Instant.now();
+        long classesAfter = (classLoading == null)
+                ? 0 : classLoading.getTotalLoadedClassCount();
+
+        start = System.nanoTime();
+        new MetarParser().parseData(report).getFlightCategoryType();
+        long second = System.nanoTime() - start;
+
+        System.out.println(metar.getStationID() + " " + category);
+        System.out.printf(Locale.ROOT, "first parse       %.2f ms%n",
+                first / 1e6);
+        System.out.printf(Locale.ROOT, "second parse      %.2f ms%n",
+                second / 1e6);
+        Optional<Instant> processStart =
+                ProcessHandle.current().info().startInstant();
+        if (processStart.isPresent()) {
+            System.out.printf(Locale.ROOT, "since start       %d ms%n",
+                    Duration.between(processStart.get(), firstDone)
+                            .toMillis());
+        }
+        if (classLoading != null) {
+            System.out.printf(Locale.ROOT,
+                    "classes loaded    %d by the first parse, %d in total%n",
+                    classesAfter - classesBefore, classesAfter);
+        }
+    }
+
+    private static boolean isNativeImage() {
+        return System.getProperty("org.graalvm.nativeimage.imagecode")
+                != null;
+    }
+}
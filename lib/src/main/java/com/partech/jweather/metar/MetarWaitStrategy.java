@@ -0,0 +1,232 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides how a stage of a {@link MetarRingBuffer} waits for reports that
+ * have not been published yet. Strategies trade CPU use for latency: the
+ * busy spin strategy reacts fastest but keeps a core busy for every stage,
+ * while the blocking strategy uses no CPU while idle but costs a lock on
+ * every publish.
+ */
+public interface MetarWaitStrategy {
+
+    /**
+     * Wait until the given sequence is available to a stage.
+     *
+     * @param sequence the sequence the stage wants to read next
+     * @param barrier  the barrier of the stage, which tracks the producer
+     *                 cursor and the stages this stage runs after
+     * @return the highest sequence available, which may be greater than the
+     * one requested, or less than it if the barrier was alerted
+     * @throws InterruptedException if the waiting thread was interrupted
+     */
+    long waitFor(long sequence, MetarRingBuffer.SequenceBarrier barrier)
+            throws InterruptedException;
+
+    /**
+     * Wake any stages blocked in {@link #waitFor}. Called by the producer
+     * after every publish and when the ring is halted.
+     */
+    void signalAllWhenBlocking();
+
+    /**
+     * @return a strategy that spins on the sequence without ever giving up
+     * the CPU, for the lowest latency when every stage has a core to itself
+     */
+    static MetarWaitStrategy busySpin() {
+        return new BusySpin();
+    }
+
+    /**
+     * @return a strategy that spins briefly and then yields the CPU between
+     * checks
+     */
+    static MetarWaitStrategy yielding() {
+        return new Yielding();
+    }
+
+    /**
+     * @return a strategy that spins, then yields, then parks the thread for
+     * short periods, keeping CPU use low at the cost of some latency
+     */
+    static MetarWaitStrategy sleeping() {
+        return new Sleeping();
+    }
+
+    /**
+     * @return a strategy that blocks on a lock and condition until the
+     * producer publishes
+     */
+    static MetarWaitStrategy blocking() {
+        return new Blocking();
+    }
+
+    final class BusySpin implements MetarWaitStrategy {
+
+        private BusySpin() {
+        }
+
+        @Override
+        public long waitFor(long sequence,
+                            MetarRingBuffer.SequenceBarrier barrier) {
+            long available;
+            while ((available = barrier.getAvailable()) < sequence) {
+                if (barrier.isAlerted()) {
+                    return available;
+                }
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+
+    final class Yielding implements MetarWaitStrategy {
+
+        private static final int SPIN_TRIES = 100;
+
+        private Yielding() {
+        }
+
+        @Override
+        public long waitFor(long sequence,
+                            MetarRingBuffer.SequenceBarrier barrier) {
+            int counter = SPIN_TRIES;
+            long available;
+            while ((available = barrier.getAvailable()) < sequence) {
+                if (barrier.isAlerted()) {
+                    return available;
+                }
+                if (counter > 0) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+
+    final class Sleeping implements MetarWaitStrategy {
+
+        private static final int SPIN_TRIES = 100;
+        private static final int YIELD_TRIES = 100;
+        private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+        private Sleeping() {
+        }
+
+        @Override
+        public long waitFor(long sequence,
+                            MetarRingBuffer.SequenceBarrier barrier)
+                throws InterruptedException {
+            int counter = SPIN_TRIES + YIELD_TRIES;
+            long available;
+            while ((available = barrier.getAvailable()) < sequence) {
+                if (barrier.isAlerted()) {
+                    return available;
+                }
+                if (counter > YIELD_TRIES) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else if (counter > 0) {
+                    counter--;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+
+    final class Blocking implements MetarWaitStrategy {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+
+        private Blocking() {
+        }
+
+        @Override
+        public long waitFor(long sequence,
+                            MetarRingBuffer.SequenceBarrier barrier)
+                throws InterruptedException {
+            if (barrier.getCursor() < sequence) {
+                lock.lock();
+                try {
+                    while (barrier.getCursor() < sequence
+                            && !barrier.isAlerted()) {
+                        published.await();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            // the producer has published; stages this one runs after are
+            // busy working, so spin until they catch up
+            long available;
+            while ((available = barrier.getAvailable()) < sequence) {
+                if (barrier.isAlerted()) {
+                    return available;
+                }
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
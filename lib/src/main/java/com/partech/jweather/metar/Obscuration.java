@@ -24,8 +24,29 @@ This work has been modified by PAR Government (https://pargovernment.net/) as of
 
 package com.partech.jweather.metar;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 class Obscuration {
 
+    // the report codes, in the order of the amount and phenomena indexes
+    private static final String[] AMOUNT_CODES = {
+            MetarConstants.METAR_FEW,
+            MetarConstants.METAR_SCATTERED,
+            MetarConstants.METAR_BROKEN,
+            MetarConstants.METAR_OVERCAST
+    };
+    private static final String[] PHENOMENON_CODES = {
+            MetarConstants.METAR_MIST,
+            MetarConstants.METAR_FOG,
+            MetarConstants.METAR_SMOKE,
+            MetarConstants.METAR_VOLCANIC_ASH,
+            MetarConstants.METAR_WIDESPREAD_DUST,
+            MetarConstants.METAR_SAND,
+            MetarConstants.METAR_HAZE,
+            MetarConstants.METAR_SPRAY
+    };
+
     private int height = 0;
 
     // intensity flags
@@ -160,47 +181,144 @@ class Obscuration {
         this.height = height * 100; // for hundreds of feet
     }
 
+    /**
+     * @return the height of the obscuration in feet, 0 at ground level
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return 0 for slight, 1 for moderate, 2 for heavy, 3 for severe, or -1
+     * if no amount was reported
+     */
+    int getAmountIndex() {
+        if (isSlight) {
+            return 0;
+        } else if (isModerate) {
+            return 1;
+        } else if (isHeavy) {
+            return 2;
+        } else if (isSevere) {
+            return 3;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the phenomena, in the order mist, fog, smoke,
+     * volcanic ash, dust, sand, haze, spray, or -1 if it is none of those
+     */
+    int getPhenomenonIndex() {
+        if (isMist) {
+            return 0;
+        } else if (isFog) {
+            return 1;
+        } else if (isSmoke) {
+            return 2;
+        } else if (isVolcanicAsh) {
+            return 3;
+        } else if (isDust) {
+            return 4;
+        } else if (isSand) {
+            return 5;
+        } else if (isHaze) {
+            return 6;
+        } else if (isSpray) {
+            return 7;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the amount of the obscuration as reported (e.g. 'FEW'), or
+     * null if there is none
+     */
+    String getAmountCode() {
+        int amount = getAmountIndex();
+        return amount < 0 ? null : AMOUNT_CODES[amount];
+    }
+
+    /**
+     * @return the phenomena of the obscuration as reported (e.g. 'FG'), or
+     * null if there is none
+     */
+    String getPhenomenonCode() {
+        int phenomenon = getPhenomenonIndex();
+        return phenomenon < 0 ? null : PHENOMENON_CODES[phenomenon];
+    }
+
     /**
      *
      * @return a string that represents the obscuration in natural language
      */
     public String getNaturalLanguageString() {
-        String temp = "";
+        return appendNaturalLanguage(new StringBuilder(40)).toString();
+    }
 
+    /**
+     * Append the natural language form of this obscuration, as returned by
+     * {@link #getNaturalLanguageString()}.
+     *
+     * @param sb the builder to append to
+     * @return the builder
+     */
+    public StringBuilder appendNaturalLanguage(StringBuilder sb) {
+        try {
+            appendNaturalLanguage((Appendable) sb);
+        } catch (IOException e) {
+            // a StringBuilder does not throw
+            throw new UncheckedIOException(e);
+        }
+        return sb;
+    }
+
+    /**
+     * Append the natural language form of this obscuration, as returned by
+     * {@link #getNaturalLanguageString()}.
+     *
+     * @param out the destination
+     * @return the destination
+     * @throws IOException if the destination fails
+     */
+    public Appendable appendNaturalLanguage(Appendable out)
+            throws IOException {
         if (isSlight) {
-            temp += "Slight";
+            out.append("Slight");
         } else if (isModerate) {
-            temp += "Moderate";
+            out.append("Moderate");
         } else if (isHeavy) {
-            temp += "Heavy";
+            out.append("Heavy");
         } else if (isSevere) {
-            temp += "Severe";
+            out.append("Severe");
         }
 
         if (isMist) {
-            temp += " Mist";
+            out.append(" Mist");
         } else if (isFog) {
-            temp += " Fog";
+            out.append(" Fog");
         } else if (isSmoke) {
-            temp += " Smoke";
+            out.append(" Smoke");
         } else if (isVolcanicAsh) {
-            temp += " Volcanic Ash";
+            out.append(" Volcanic Ash");
         } else if (isDust) {
-            temp += " Dust";
+            out.append(" Dust");
         } else if (isSand) {
-            temp += " Sand";
+            out.append(" Sand");
         } else if (isHaze) {
-            temp += " Haze";
+            out.append(" Haze");
         } else if (isSpray) {
-            temp += " Spray";
+            out.append(" Spray");
         }
 
         if (height != 0) {
-            temp += " at " + height + " feet";
+            out.append(" at ");
+            MetarNumberFormat.append(out, height);
+            out.append(" feet");
         } else {
-            temp += " at ground level";
+            out.append(" at ground level");
         }
 
-        return temp;
+        return out;
     }
 }
@@ -0,0 +1,79 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+/**
+ * Describes a report that could not be parsed by
+ * {@link MetarParser#parseBatch}.
+ */
+public class ParseError {
+
+    private final int index;
+    private final String rawText;
+    private final MetarGroup group;
+    private final Exception cause;
+
+    ParseError(int index, String rawText, MetarGroup group, Exception cause) {
+        this.index = index;
+        this.rawText = rawText;
+        this.group = group;
+        this.cause = cause;
+    }
+
+    /**
+     * @return the index of the report in the input array
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the raw report, or null if the input element was null
+     */
+    public String getRawText() {
+        return rawText;
+    }
+
+    /**
+     * @return the group the parser was decoding when it failed, or null if
+     * it failed before reaching the first group
+     */
+    public MetarGroup getGroup() {
+        return group;
+    }
+
+    /**
+     * @return the exception thrown while parsing the report
+     */
+    public Exception getCause() {
+        return cause;
+    }
+
+    @Override
+    public String toString() {
+        return "report " + index + (group == null ? "" : " in " + group)
+                + ": " + cause.getMessage();
+    }
+}
@@ -24,6 +24,9 @@ This work has been modified by PAR Government (https://pargovernment.net/) as of
 
 package com.partech.jweather.metar;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 class RunwayVisualRange {
     private int runwayNumber = 0; // runway number
     private char approachDirection = ' '; // L/R/C
@@ -80,28 +83,95 @@ class RunwayVisualRange {
         this.highestReportable = highestReportable;
     }
 
+    /**
+     * @return the runway number
+     */
+    int getRunwayNumber() {
+        return runwayNumber;
+    }
+
+    /**
+     * @return the approach direction (L, R or C), or ' ' if there is none
+     */
+    char getApproachDirection() {
+        return approachDirection;
+    }
+
+    /**
+     * @return 'M' if the visual range is less than the lowest reportable
+     * value, 'P' if it is greater, or ' ' otherwise
+     */
+    char getReportableModifier() {
+        return reportableModifier;
+    }
+
+    /**
+     * @return the visual range (in feet), or the lower bound of a variable
+     * visual range
+     */
+    int getLowestReportable() {
+        return lowestReportable;
+    }
+
+    /**
+     * @return the upper bound of a variable visual range (in feet), or 0 if
+     * the visual range is not variable
+     */
+    int getHighestReportable() {
+        return highestReportable;
+    }
+
     /**
      *
      * @return a string that represents the runway visual range in natural language
      */
     public String getNaturalLanguageString() {
-        String temp = Integer.valueOf(runwayNumber).toString();
+        return appendNaturalLanguage(new StringBuilder(32)).toString();
+    }
+
+    /**
+     * Append the natural language form of this runway visual range, as
+     * returned by {@link #getNaturalLanguageString()}.
+     *
+     * @param sb the builder to append to
+     * @return the builder
+     */
+    public StringBuilder appendNaturalLanguage(StringBuilder sb) {
+        try {
+            appendNaturalLanguage((Appendable) sb);
+        } catch (IOException e) {
+            // a StringBuilder does not throw
+            throw new UncheckedIOException(e);
+        }
+        return sb;
+    }
+
+    /**
+     * Append the natural language form of this runway visual range, as
+     * returned by {@link #getNaturalLanguageString()}.
+     *
+     * @param out the destination
+     * @return the destination
+     * @throws IOException if the destination fails
+     */
+    public Appendable appendNaturalLanguage(Appendable out)
+            throws IOException {
+        MetarNumberFormat.append(out, runwayNumber);
 
-        temp += approachDirection;
+        out.append(approachDirection);
 
         if (reportableModifier == 'M') {
-            temp += " less than";
+            out.append(" less than");
         } else if (reportableModifier == 'P') {
-            temp += " greater than";
+            out.append(" greater than");
         }
 
+        out.append(' ');
+        MetarNumberFormat.append(out, lowestReportable);
         if (highestReportable > 0) {
-            temp += " " + lowestReportable;
-            temp += " to " + highestReportable + "feet.";
-        } else {
-            temp += " " + lowestReportable + "feet.";
+            out.append(" to ");
+            MetarNumberFormat.append(out, highestReportable);
         }
-
-        return temp;
+        return out.append("feet.");
     }
 }
@@ -24,6 +24,9 @@ This work has been modified by PAR Government (https://pargovernment.net/) as of
 
 package com.partech.jweather.metar;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 public class SkyCondition {
     private String contraction = "";
     private String modifier = "";
@@ -120,6 +123,14 @@ public class SkyCondition {
         return height; // in hundreds of feet
     }
 
+    /**
+     * @return the {@link MetarCodeTable} sky cover code of the contraction,
+     * or {@link MetarCodeTable#SKY_NONE} if it is not a known one
+     */
+    int getCover() {
+        return MetarCodeTable.skyCover(contraction);
+    }
+
     public boolean isVerticalVisibility() {
         return isVerticalVisibility;
     }
@@ -161,36 +172,68 @@ public class SkyCondition {
      * @return a string that represents the sky condition in natural language
      */
     public String getNaturalLanguageString() {
-        String temp = "";
+        return appendNaturalLanguage(new StringBuilder(48)).toString();
+    }
 
+    /**
+     * Append the natural language form of this sky condition, as returned by
+     * {@link #getNaturalLanguageString()}.
+     *
+     * @param sb the builder to append to
+     * @return the builder
+     */
+    public StringBuilder appendNaturalLanguage(StringBuilder sb) {
+        try {
+            appendNaturalLanguage((Appendable) sb);
+        } catch (IOException e) {
+            // a StringBuilder does not throw
+            throw new UncheckedIOException(e);
+        }
+        return sb;
+    }
+
+    /**
+     * Append the natural language form of this sky condition, as returned by
+     * {@link #getNaturalLanguageString()}.
+     *
+     * @param out the destination
+     * @return the destination
+     * @throws IOException if the destination fails
+     */
+    public Appendable appendNaturalLanguage(Appendable out)
+            throws IOException {
         if (isVerticalVisibility) {
-            return "Vertical Visibility of " + height + "feet";
+            out.append("Vertical Visibility of ");
+            MetarNumberFormat.append(out, height);
+            return out.append("feet");
         } else if (isClear) {
-            return "Clear skies";
+            return out.append("Clear skies");
         } else if (isFewClouds) {
-            temp += "Few clouds";
+            out.append("Few clouds");
         } else if (isScatteredClouds) {
-            temp += "Scattered clouds";
+            out.append("Scattered clouds");
         } else if (isBrokenClouds) {
-            temp += "Broken clouds";
+            out.append("Broken clouds");
         } else if (isOvercast) {
-            temp += "Overcast";
+            out.append("Overcast");
         } else if (isNoSignificantClouds) {
-            temp += "No Significant Clouds";
+            out.append("No Significant Clouds");
         } else {
-            temp += contraction;
+            out.append(contraction);
         }
 
-        temp += " at " + height + " feet";
+        out.append(" at ");
+        MetarNumberFormat.append(out, height);
+        out.append(" feet");
 
         if (isCumulonimbus) {
-            temp += " (cumulonimbus)";
+            out.append(" (cumulonimbus)");
         } else if (isToweringCumulus) {
-            temp += " (towering cumulus)";
+            out.append(" (towering cumulus)");
         } else if ((modifier != null) && !modifier.equals("")) {
-            temp += "(" + modifier + ")";
+            out.append('(').append(modifier).append(')');
         }
 
-        return temp;
+        return out;
     }
 }
@@ -0,0 +1,180 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A decoded terminal aerodrome forecast (TAF).
+ *
+ * The forecast is split into periods: the initial conditions, followed by
+ * each change group in the order they appear in the report.
+ *
+ * @see TafParser
+ */
+public class Taf {
+
+    private String rawText = "";
+    private String stationID = "";
+    private String reportModifier = "";
+    private Date issueDate = null;
+    private Date validFrom = null;
+    private Date validTo = null;
+    private boolean isNil = false;
+    private boolean isCancelled = false;
+    private final List<TafForecast> forecasts = new ArrayList<>();
+
+    void setRawText(String rawText) {
+        this.rawText = rawText;
+    }
+
+    /**
+     * @return the raw text of the forecast
+     */
+    public String getRawText() {
+        return rawText;
+    }
+
+    void setStationID(String value) {
+        this.stationID = value;
+    }
+
+    /**
+     * @return the station identifier
+     */
+    public String getStationID() {
+        return stationID;
+    }
+
+    void setReportModifier(String value) {
+        this.reportModifier = value;
+    }
+
+    /**
+     * @return AMD for an amended forecast, COR for a corrected one, or an
+     * empty string
+     */
+    public String getReportModifier() {
+        return reportModifier;
+    }
+
+    void setIssueDate(Date value) {
+        this.issueDate = value;
+    }
+
+    /**
+     * @return the time the forecast was issued
+     */
+    public Date getIssueDate() {
+        return issueDate;
+    }
+
+    void setValidFrom(Date value) {
+        this.validFrom = value;
+    }
+
+    /**
+     * @return the start of the period the forecast covers
+     */
+    public Date getValidFrom() {
+        return validFrom;
+    }
+
+    void setValidTo(Date value) {
+        this.validTo = value;
+    }
+
+    /**
+     * @return the end of the period the forecast covers
+     */
+    public Date getValidTo() {
+        return validTo;
+    }
+
+    void setIsNil(boolean value) {
+        this.isNil = value;
+    }
+
+    /**
+     * @return true for a NIL report, which has no forecast
+     */
+    public boolean getIsNil() {
+        return isNil;
+    }
+
+    void setIsCancelled(boolean value) {
+        this.isCancelled = value;
+    }
+
+    /**
+     * @return true if the report cancels (CNL) an earlier forecast
+     */
+    public boolean getIsCancelled() {
+        return isCancelled;
+    }
+
+    void addForecast(TafForecast forecast) {
+        forecasts.add(forecast);
+    }
+
+    /**
+     * @return the periods of the forecast, starting with the initial
+     * conditions
+     */
+    public List<TafForecast> getForecasts() {
+        return Collections.unmodifiableList(forecasts);
+    }
+
+    /**
+     * @param date a time within the forecast
+     * @return the initial or FM period in effect at the given time, ignoring
+     * BECMG, TEMPO and PROB periods, or null if the time is outside the
+     * forecast
+     */
+    public TafForecast getPrevailingForecast(Date date) {
+        TafForecast prevailing = null;
+        for (TafForecast forecast : forecasts) {
+            TafForecast.ChangeType type = forecast.getChangeType();
+            if (type != TafForecast.ChangeType.INITIAL
+                    && type != TafForecast.ChangeType.FROM) {
+                continue;
+            }
+            if (forecast.getFrom() != null
+                    && forecast.getFrom().after(date)) {
+                break;
+            }
+            prevailing = forecast;
+        }
+
+        if (prevailing != null && prevailing.getTo() != null
+                && !date.before(prevailing.getTo())) {
+            return null;
+        }
+        return prevailing;
+    }
+}
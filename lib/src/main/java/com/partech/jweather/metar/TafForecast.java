@@ -0,0 +1,168 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One period of a terminal aerodrome forecast: the initial conditions of
+ * the forecast, or a change group (FM, BECMG, TEMPO or PROB) that follows
+ * them.
+ *
+ * The forecast wind, visibility, weather and sky conditions have the same
+ * form as those of an observation, so they are held in a {@link Metar}
+ * returned by {@link #getConditions()}. Only the groups decoded from the
+ * period are set on it; the station, date and temperature are not.
+ */
+public class TafForecast {
+
+    /**
+     * The kind of period, from the change group indicator that starts it.
+     */
+    public enum ChangeType {
+        /** the initial conditions, which start at the beginning of the forecast */
+        INITIAL,
+        /** FMddhhmm, a rapid change to new conditions that last until the next FM period */
+        FROM,
+        /** BECMG, a gradual change to new conditions during the period */
+        BECOMING,
+        /** TEMPO, temporary fluctuations during the period */
+        TEMPORARY,
+        /** PROBnn, conditions with the given probability during the period */
+        PROBABILITY
+    }
+
+    private final ChangeType changeType;
+    private Integer probability = null;
+    private boolean temporary = false;
+    private Date from = null;
+    private Date to = null;
+    private boolean noSignificantWeather = false;
+    private final Metar conditions = new Metar();
+    private final List<String> otherGroups = new ArrayList<>();
+    private String rawText = "";
+
+    TafForecast(ChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    /**
+     * @return the kind of period
+     */
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    void setProbability(Integer value) {
+        this.probability = value;
+    }
+
+    /**
+     * @return the probability in percent of a PROB period, or null
+     */
+    public Integer getProbability() {
+        return probability;
+    }
+
+    void setTemporary(boolean value) {
+        this.temporary = value;
+    }
+
+    /**
+     * @return true for TEMPO periods, and for PROB periods written as
+     * PROBnn TEMPO
+     */
+    public boolean getIsTemporary() {
+        return temporary;
+    }
+
+    void setFrom(Date value) {
+        this.from = value;
+    }
+
+    /**
+     * @return the start of the period
+     */
+    public Date getFrom() {
+        return from;
+    }
+
+    void setTo(Date value) {
+        this.to = value;
+    }
+
+    /**
+     * @return the end of the period; for the initial conditions and FM
+     * periods this is the start of the next FM period or the end of the
+     * forecast
+     */
+    public Date getTo() {
+        return to;
+    }
+
+    void setNoSignificantWeather(boolean value) {
+        this.noSignificantWeather = value;
+    }
+
+    /**
+     * @return true if the period reports NSW, the end of significant weather
+     */
+    public boolean getIsNoSignificantWeather() {
+        return noSignificantWeather;
+    }
+
+    /**
+     * @return the forecast wind, visibility, weather and sky conditions
+     */
+    public Metar getConditions() {
+        return conditions;
+    }
+
+    void addOtherGroup(String group) {
+        otherGroups.add(group);
+    }
+
+    /**
+     * @return the groups of the period that follow the sky condition and are
+     * not decoded, such as wind shear (WS) or temperature (TX/TN) groups
+     */
+    public List<String> getOtherGroups() {
+        return Collections.unmodifiableList(otherGroups);
+    }
+
+    void setRawText(String rawText) {
+        this.rawText = rawText;
+    }
+
+    /**
+     * @return the text of the period, including its change group indicator
+     */
+    public String getRawText() {
+        return rawText;
+    }
+}
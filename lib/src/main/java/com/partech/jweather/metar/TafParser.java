@@ -0,0 +1,433 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/*
+ * examples:
+ *  TAF KCNO 121730Z 1218/1318 27010KT P6SM SCT040
+ *      FM130200 30008KT P6SM BKN015
+ *      TEMPO 1306/1310 3SM BR OVC008
+ *      FM131500 VRB04KT P6SM SKC=
+ *  TAF EGLL 121700Z 1218/1324 24012KT 9999 BKN035 PROB30 TEMPO 1300/1306 4000 RA
+ *      BECMG 1310/1312 30015G25KT NSW=
+ *
+ * Body of report:
+ *  (1)  Type of report - TAF, optionally followed by AMD/COR
+ *  (2)  Station Identifier - CCCC
+ *  (3)  Date and Time of Issue (UTC) - YYGGggZ
+ *  (4)  Valid Period - YYG1G1/YYG2G2 (older reports: YYG1G1G2G2)
+ *  (5)  Initial conditions - wind, visibility, weather and sky condition in
+ *       the same form as a METAR, optionally followed by other groups such
+ *       as wind shear (WS) or forecast temperatures (TX/TN)
+ *  (6)  Change groups, each followed by conditions in the same form:
+ *         FMYYGGgg         - from the given time
+ *         BECMG YYGG/YYGG  - becoming, gradually during the period
+ *         TEMPO YYGG/YYGG  - temporarily during the period
+ *         PROBnn YYGG/YYGG - with a probability of nn percent
+ *         PROBnn TEMPO YYGG/YYGG
+ */
+
+/**
+ * Parser for terminal aerodrome forecasts (TAF).
+ *
+ * The conditions of each forecast period are decoded by the same group
+ * decoders {@link MetarParser} uses for the body of a METAR, so the result
+ * for each period is a {@link Metar} holding the forecast wind, visibility,
+ * weather and sky condition.
+ *
+ * A TafParser may be reused for any number of reports, but must not be used
+ * by more than one thread at a time.
+ */
+public class TafParser {
+
+    private static final String TAF = "TAF";
+    private static final String AMENDED = "AMD";
+    private static final String CORRECTED = "COR";
+    private static final String NIL = "NIL";
+    private static final String CANCELLED = "CNL";
+    private static final String FROM = "FM";
+    private static final String BECOMING = "BECMG";
+    private static final String TEMPORARY = "TEMPO";
+    private static final String PROBABILITY = "PROB";
+    private static final String NO_SIGNIFICANT_WEATHER = "NSW";
+
+    private static final TimeZone gmtZone = TimeZone.getTimeZone("GMT");
+
+    private final MetarParser conditionsParser = new MetarParser();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<String> periodTokens = new ArrayList<>();
+
+    private Calendar issueCalendar = null;
+
+    public static Taf parse(String tafData) throws MetarParseException {
+        TafParser tp = new TafParser();
+        return tp.parseData(tafData);
+    }
+
+    /**
+     * Parse a single forecast.
+     *
+     * @param tafData the raw TAF report, which may span several lines
+     * @return the parsed Taf
+     * @throws MetarParseException if the report could not be parsed
+     */
+    public Taf parseData(String tafData) throws MetarParseException {
+        if (tafData == null) {
+            throw new MetarParseException("empty taf data");
+        }
+
+        split(tafData);
+        int numTokens = tokens.size();
+        int index = 0;
+
+        Taf taf = new Taf();
+        taf.setRawText(tafData);
+
+        if (index < numTokens && tokens.get(index).equals(TAF)) {
+            index++;
+        }
+        while (index < numTokens && (tokens.get(index).equals(AMENDED)
+                || tokens.get(index).equals(CORRECTED))) {
+            taf.setReportModifier(tokens.get(index++));
+        }
+
+        if (index >= numTokens) {
+            throw new MetarParseException("missing taf station identifier");
+        }
+        taf.setStationID(tokens.get(index++));
+
+        // date and time of issue
+        // format: YYGGggZ
+        if (index < numTokens && isIssueTime(tokens.get(index))) {
+            String token = tokens.get(index++);
+            issueCalendar = resolve(Calendar.getInstance(gmtZone),
+                    number(token, 0), number(token, 2), number(token, 4));
+            taf.setIssueDate(issueCalendar.getTime());
+        } else {
+            // without an issue time, resolve days against the current time
+            issueCalendar = Calendar.getInstance(gmtZone);
+        }
+
+        if (index < numTokens && tokens.get(index).equals(NIL)) {
+            taf.setIsNil(true);
+            return taf;
+        }
+
+        // valid period
+        // format: YYG1G1/YYG2G2 or YYG1G1G2G2
+        if (index < numTokens && tokens.get(index).length() != 4
+                && isPeriod(tokens.get(index))) {
+            Date[] period = period(tokens.get(index++), null);
+            taf.setValidFrom(period[0]);
+            taf.setValidTo(period[1]);
+        }
+
+        if (index < numTokens && tokens.get(index).equals(CANCELLED)) {
+            taf.setIsCancelled(true);
+            return taf;
+        }
+
+        TafForecast forecast = new TafForecast(
+                TafForecast.ChangeType.INITIAL);
+        forecast.setFrom(taf.getValidFrom());
+        forecast.setTo(taf.getValidTo());
+        TafForecast prevailing = forecast;
+        int periodStart = index;
+        int groupsStart = index;
+
+        while (index < numTokens) {
+            String token = tokens.get(index);
+            TafForecast.ChangeType type = changeType(token);
+            if (type == null) {
+                index++;
+                continue;
+            }
+
+            decodePeriod(taf, forecast, periodStart, groupsStart, index);
+
+            // the change group indicator and its period
+            periodStart = index;
+            forecast = new TafForecast(type);
+            index++;
+
+            if (type == TafForecast.ChangeType.FROM) {
+                Date from = resolve(issueCalendar, number(token, 2),
+                        number(token, 4), number(token, 6)).getTime();
+                forecast.setFrom(from);
+                forecast.setTo(taf.getValidTo());
+                prevailing.setTo(from);
+                prevailing = forecast;
+            } else {
+                if (type == TafForecast.ChangeType.PROBABILITY) {
+                    forecast.setProbability(number(token, 4));
+                    if (index < numTokens
+                            && tokens.get(index).equals(TEMPORARY)) {
+                        forecast.setTemporary(true);
+                        index++;
+                    }
+                } else if (type == TafForecast.ChangeType.TEMPORARY) {
+                    forecast.setTemporary(true);
+                }
+
+                if (index < numTokens && isPeriod(tokens.get(index))) {
+                    Date[] period = period(tokens.get(index++),
+                            taf.getValidFrom());
+                    forecast.setFrom(period[0]);
+                    forecast.setTo(period[1]);
+                }
+            }
+            groupsStart = index;
+        }
+
+        decodePeriod(taf, forecast, periodStart, groupsStart, numTokens);
+
+        return taf;
+    }
+
+    /**
+     * Decode the conditions of a forecast period and add it to the Taf.
+     *
+     * @param start       the index of the first token of the period,
+     *                    including its change group indicator
+     * @param groupsStart the index of the first condition group
+     * @param end         the index after the last token of the period
+     */
+    private void decodePeriod(Taf taf, TafForecast forecast, int start,
+                              int groupsStart, int end)
+            throws MetarParseException {
+        periodTokens.clear();
+        int supplementaryStart = end;
+        for (int i = groupsStart; i < end; i++) {
+            if (isSupplementaryGroup(tokens.get(i))) {
+                supplementaryStart = i;
+                break;
+            } else if (tokens.get(i).equals(NO_SIGNIFICANT_WEATHER)) {
+                // NSW stands in for the weather groups
+                forecast.setNoSignificantWeather(true);
+            } else {
+                periodTokens.add(tokens.get(i));
+            }
+        }
+
+        Metar conditions = forecast.getConditions();
+        conditions.setStationID(taf.getStationID());
+        conditions.setDate(forecast.getFrom());
+        conditions.setRawText(String.join(" ", periodTokens));
+
+        int decoded = conditionsParser.decodeConditions(periodTokens,
+                conditions);
+        for (int i = decoded; i < periodTokens.size(); i++) {
+            forecast.addOtherGroup(periodTokens.get(i));
+        }
+        for (int i = supplementaryStart; i < end; i++) {
+            forecast.addOtherGroup(tokens.get(i));
+        }
+
+        forecast.setRawText(String.join(" ", tokens.subList(start, end)));
+        taf.addForecast(forecast);
+    }
+
+    /**
+     * Split the report on whitespace, stopping at the '=' that ends it.
+     */
+    private void split(String tafData) {
+        tokens.clear();
+        int length = tafData.length();
+        int start = -1;
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? tafData.charAt(i) : ' ';
+            if (c == '=' || Character.isWhitespace(c)) {
+                if (start >= 0) {
+                    tokens.add(tafData.substring(start, i));
+                    start = -1;
+                }
+                if (c == '=') {
+                    break;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+    }
+
+    /**
+     * @return the kind of period the token starts, or null if it is not a
+     * change group indicator
+     */
+    private static TafForecast.ChangeType changeType(String token) {
+        if (token.length() == 8 && token.startsWith(FROM)
+                && isDigits(token, 2, 8)) {
+            return TafForecast.ChangeType.FROM;
+        } else if (token.equals(BECOMING)) {
+            return TafForecast.ChangeType.BECOMING;
+        } else if (token.equals(TEMPORARY)) {
+            return TafForecast.ChangeType.TEMPORARY;
+        } else if (token.length() == 6 && token.startsWith(PROBABILITY)
+                && isDigits(token, 4, 6)) {
+            return TafForecast.ChangeType.PROBABILITY;
+        }
+        return null;
+    }
+
+    /**
+     * @return true for the groups that may follow the sky condition of a
+     * period: wind shear (WShhh/dddffKT), maximum and minimum temperature
+     * (TXTT/YYGGZ, TNTT/YYGGZ) and forecast altimeter (QNHPPPPINS)
+     */
+    private static boolean isSupplementaryGroup(String token) {
+        if (token.length() < 3) {
+            return false;
+        }
+        char c = token.charAt(2);
+        boolean numeric = (c >= '0' && c <= '9') || c == 'M';
+        return (token.startsWith("WS") && numeric)
+                || (token.startsWith("TX") && numeric)
+                || (token.startsWith("TN") && numeric)
+                || token.startsWith("QNH");
+    }
+
+    private static boolean isIssueTime(String token) {
+        return token.length() == 7 && token.endsWith("Z")
+                && isDigits(token, 0, 6);
+    }
+
+    private static boolean isPeriod(String token) {
+        if (token.length() == 9) {
+            return token.charAt(4) == '/' && isDigits(token, 0, 4)
+                    && isDigits(token, 5, 9);
+        }
+        if (token.length() == 4) {
+            // GGGG, which must not be confused with a visibility in meters
+            return isDigits(token, 0, 4) && number(token, 0) <= 24
+                    && number(token, 2) <= 24;
+        }
+        return token.length() == 6 && isDigits(token, 0, 6);
+    }
+
+    /**
+     * @param token a period, YYGG/YYGG or YYGGGG, or GGGG in the change
+     *              groups of older reports
+     * @param start the start of the forecast, used to find the day of a
+     *              GGGG period
+     * @return the start and end of the period
+     */
+    private Date[] period(String token, Date start) {
+        if (token.length() == 4) {
+            Calendar from = Calendar.getInstance(gmtZone);
+            from.setTime(start == null ? issueCalendar.getTime() : start);
+            Calendar to = (Calendar) from.clone();
+            hourAfter(from, number(token, 0));
+            to.setTime(from.getTime());
+            hourAfter(to, number(token, 2));
+            return new Date[]{from.getTime(), to.getTime()};
+        }
+
+        int fromDay = number(token, 0);
+        int fromHour = number(token, 2);
+        int toDay;
+        int toHour;
+        if (token.length() == 9) {
+            toDay = number(token, 5);
+            toHour = number(token, 7);
+        } else {
+            toDay = fromDay;
+            toHour = number(token, 4);
+        }
+
+        Calendar from = resolve(issueCalendar, fromDay, fromHour, 0);
+        Calendar to = resolve(issueCalendar, toDay, toHour, 0);
+        if (token.length() == 6 && !to.after(from)) {
+            // an old style period that runs past midnight
+            to.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return new Date[]{from.getTime(), to.getTime()};
+    }
+
+    /**
+     * Move the calendar forward to the next time on the hour with the given
+     * hour of the day, which is the time itself if it is on that hour.
+     */
+    private static void hourAfter(Calendar calendar, int hour) {
+        Calendar start = (Calendar) calendar.clone();
+        calendar.set(Calendar.HOUR_OF_DAY, hour);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        if (calendar.before(start)) {
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    /**
+     * Find the time with the given day of the month closest to the anchor,
+     * which may be in the month before or after it. An hour of 24 is the
+     * midnight at the end of the day.
+     */
+    private static Calendar resolve(Calendar anchor, int day, int hour,
+                                    int minute) {
+        Calendar calendar = (Calendar) anchor.clone();
+        int anchorDay = anchor.get(Calendar.DAY_OF_MONTH);
+
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        if (day < anchorDay - 15) {
+            calendar.add(Calendar.MONTH, 1);
+        } else if (day > anchorDay + 15) {
+            calendar.add(Calendar.MONTH, -1);
+        }
+
+        calendar.set(Calendar.DAY_OF_MONTH, day);
+        calendar.set(Calendar.HOUR_OF_DAY, hour);
+        calendar.set(Calendar.MINUTE, minute);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        // read back so that an hour of 24 rolls over now
+        calendar.getTimeInMillis();
+        return calendar;
+    }
+
+    /**
+     * @return the two digit number at the position in the token
+     */
+    private static int number(String token, int pos) {
+        return (token.charAt(pos) - '0') * 10 + (token.charAt(pos + 1) - '0');
+    }
+
+    private static boolean isDigits(String token, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
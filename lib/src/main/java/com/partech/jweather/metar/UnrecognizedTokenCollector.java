@@ -0,0 +1,473 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the most frequent shapes of tokens the parser does not decode,
+ * so that missing grammar coverage can be found without logging every
+ * token. A token's shape is the token with every digit replaced by 'd', so
+ * "WS020/24045KT" and "WS010/18030KT" are counted together as
+ * "WSddd/dddddKT".
+ *
+ * Counting uses the Space-Saving algorithm: once the collector is full, a
+ * new shape replaces the least frequent one and inherits its count as an
+ * error bound. Any shape that occurs more often than (total / capacity) is
+ * guaranteed to be retained. The counters are kept in a stream summary,
+ * a list of buckets ordered by count, so counting a token and evicting the
+ * least frequent shape both take constant time, and counting a shape that
+ * is already tracked allocates nothing.
+ *
+ * This class is safe for use by multiple threads, so one collector may be
+ * registered with the parsers on every thread. Threads count into separate
+ * stripes, each with its own lock and its own set of counters, and the
+ * stripes are merged when the counts are read. Memory is bounded by the
+ * capacity times the number of stripes.
+ *
+ * @see MetarParser#setParseListener(MetarParseListener)
+ */
+public class UnrecognizedTokenCollector implements MetarParseListener {
+
+    /** Tokens longer than this are truncated before their shape is taken */
+    static final int MAX_SHAPE_LENGTH = 32;
+
+    private final Summary[] stripes;
+
+    /**
+     * @param capacity the maximum number of distinct token shapes to track
+     *                 in each stripe
+     */
+    public UnrecognizedTokenCollector(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param capacity    the maximum number of distinct token shapes to
+     *                    track in each stripe
+     * @param concurrency the number of threads expected to add tokens at
+     *                    the same time, which is rounded up to a power of
+     *                    two to give the number of stripes
+     */
+    public UnrecognizedTokenCollector(int capacity, int concurrency) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "capacity must be positive: " + capacity);
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException(
+                    "concurrency must be positive: " + concurrency);
+        }
+
+        int count = Integer.highestOneBit(
+                Math.min(concurrency, 1 << 16) * 2 - 1);
+        stripes = new Summary[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Summary(capacity);
+        }
+    }
+
+    @Override
+    public void onUnrecognizedToken(String token) {
+        add(token);
+    }
+
+    /**
+     * Count one occurrence of a token.
+     *
+     * @param token the unrecognized token
+     */
+    public void add(String token) {
+        int stripe = (int) Thread.currentThread().getId()
+                & (stripes.length - 1);
+        stripes[stripe].add(token);
+    }
+
+    /**
+     * @return the total number of unrecognized tokens counted
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (Summary summary : stripes) {
+            total += summary.getTotalCount();
+        }
+        return total;
+    }
+
+    /**
+     * Merge the stripes and return the most frequent shapes. A shape that a
+     * stripe does not track may still have occurred there up to that
+     * stripe's smallest count, so the merged count and error include that
+     * amount for every stripe the shape is missing from.
+     *
+     * @param n the maximum number of shapes to return
+     * @return the most frequent token shapes, most frequent first
+     */
+    public List<Entry> getTopShapes(int n) {
+        HashMap<String, long[]> merged = new HashMap<>();
+        List<Entry> stripeEntries = new ArrayList<>();
+        long missing = 0;
+
+        for (Summary summary : stripes) {
+            stripeEntries.clear();
+            long minimum = summary.snapshot(stripeEntries);
+            missing += minimum;
+            for (Entry entry : stripeEntries) {
+                long[] totals = merged.computeIfAbsent(entry.getShape(),
+                        shape -> new long[2]);
+                totals[0] += entry.getCount() - minimum;
+                totals[1] += entry.getError() - minimum;
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>(merged.size());
+        for (Map.Entry<String, long[]> e : merged.entrySet()) {
+            entries.add(new Entry(e.getKey(), e.getValue()[0] + missing,
+                    e.getValue()[1] + missing));
+        }
+        entries.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return (entries.size() > n)
+                ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    /**
+     * Forget all counted tokens.
+     */
+    public void clear() {
+        for (Summary summary : stripes) {
+            summary.clear();
+        }
+    }
+
+    /**
+     * One stripe: a Space-Saving stream summary over a fixed set of
+     * counters. Counters are found through a chained hash table that
+     * compares shapes character by character, and are grouped into buckets
+     * of equal count kept in ascending order, so the least frequent shape
+     * is always first in the first bucket. All counters and buckets are
+     * allocated up front.
+     */
+    private static final class Summary {
+        private final Counter[] counters;
+        private final Counter[] table;
+        private final char[] shape = new char[MAX_SHAPE_LENGTH];
+        private int size = 0;
+        private long totalCount = 0;
+
+        // the bucket with the smallest count, and the unused buckets
+        private Bucket smallest = null;
+        private Bucket freeBuckets = null;
+
+        Summary(int capacity) {
+            counters = new Counter[capacity];
+            for (int i = 0; i < capacity; i++) {
+                counters[i] = new Counter();
+                Bucket bucket = new Bucket();
+                bucket.next = freeBuckets;
+                freeBuckets = bucket;
+            }
+            table = new Counter[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        }
+
+        synchronized void add(String token) {
+            int length = Math.min(token.length(), MAX_SHAPE_LENGTH);
+            int hash = 0;
+            for (int i = 0; i < length; i++) {
+                char c = token.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    c = 'd';
+                }
+                shape[i] = c;
+                hash = 31 * hash + c;
+            }
+            hash ^= hash >>> 16;
+
+            totalCount++;
+
+            Counter counter = find(hash, length);
+            if (counter != null) {
+                increment(counter);
+                return;
+            }
+
+            if (size < counters.length) {
+                // a free counter starts in the bucket with a count of one
+                counter = counters[size++];
+                counter.set(shape, length, hash, 0);
+                insert(counter);
+                Bucket bucket = smallest;
+                if (bucket == null || bucket.count != 1) {
+                    bucket = newBucket(1);
+                    bucket.next = smallest;
+                    if (smallest != null) {
+                        smallest.previous = bucket;
+                    }
+                    smallest = bucket;
+                }
+                bucket.attach(counter);
+                return;
+            }
+
+            // replace the least frequent shape
+            counter = smallest.first;
+            remove(counter);
+            counter.set(shape, length, hash, smallest.count);
+            insert(counter);
+            increment(counter);
+        }
+
+        private Counter find(int hash, int length) {
+            Counter counter = table[hash & (table.length - 1)];
+            while (counter != null) {
+                if (counter.hash == hash && counter.matches(shape, length)) {
+                    return counter;
+                }
+                counter = counter.chain;
+            }
+            return null;
+        }
+
+        private void insert(Counter counter) {
+            int slot = counter.hash & (table.length - 1);
+            counter.chain = table[slot];
+            table[slot] = counter;
+        }
+
+        private void remove(Counter counter) {
+            int slot = counter.hash & (table.length - 1);
+            if (table[slot] == counter) {
+                table[slot] = counter.chain;
+            } else {
+                Counter c = table[slot];
+                while (c.chain != counter) {
+                    c = c.chain;
+                }
+                c.chain = counter.chain;
+            }
+            counter.chain = null;
+        }
+
+        /**
+         * Move a counter to the bucket one above its current count.
+         */
+        private void increment(Counter counter) {
+            Bucket bucket = counter.bucket;
+            long count = bucket.count + 1;
+            Bucket next = bucket.next;
+
+            if (bucket.first == counter && counter.next == null
+                    && (next == null || next.count != count)) {
+                // the counter is alone, so its bucket can move up with it
+                bucket.count = count;
+                return;
+            }
+
+            bucket.detach(counter);
+            if (next == null || next.count != count) {
+                Bucket created = newBucket(count);
+                created.previous = bucket;
+                created.next = next;
+                if (next != null) {
+                    next.previous = created;
+                }
+                bucket.next = created;
+                next = created;
+            }
+            next.attach(counter);
+
+            if (bucket.first == null) {
+                // unlink the emptied bucket
+                if (bucket.previous != null) {
+                    bucket.previous.next = bucket.next;
+                } else {
+                    smallest = bucket.next;
+                }
+                bucket.next.previous = bucket.previous;
+                bucket.previous = null;
+                bucket.next = freeBuckets;
+                freeBuckets = bucket;
+            }
+        }
+
+        private Bucket newBucket(long count) {
+            Bucket bucket = freeBuckets;
+            freeBuckets = bucket.next;
+            bucket.count = count;
+            bucket.next = null;
+            bucket.previous = null;
+            return bucket;
+        }
+
+        synchronized long getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * Add an entry for every tracked shape to a list.
+         *
+         * @return the count a shape missing from the list may have reached,
+         * which is the smallest count once every counter is in use and zero
+         * before then
+         */
+        synchronized long snapshot(List<Entry> entries) {
+            for (int i = 0; i < size; i++) {
+                Counter c = counters[i];
+                entries.add(new Entry(new String(c.shape, 0, c.length),
+                        c.bucket.count, c.error));
+            }
+            return (size == counters.length) ? smallest.count : 0;
+        }
+
+        synchronized void clear() {
+            for (int i = 0; i < size; i++) {
+                counters[i].chain = null;
+            }
+            Arrays.fill(table, null);
+            while (smallest != null) {
+                Bucket bucket = smallest;
+                smallest = bucket.next;
+                bucket.first = null;
+                bucket.previous = null;
+                bucket.next = freeBuckets;
+                freeBuckets = bucket;
+            }
+            size = 0;
+            totalCount = 0;
+        }
+    }
+
+    private static final class Counter {
+        private final char[] shape = new char[MAX_SHAPE_LENGTH];
+        private int length;
+        private int hash;
+        private long error;
+        private Bucket bucket;
+        private Counter previous;
+        private Counter next;
+        // the next counter in the same hash table slot
+        private Counter chain;
+
+        void set(char[] source, int length, int hash, long error) {
+            System.arraycopy(source, 0, shape, 0, length);
+            this.length = length;
+            this.hash = hash;
+            this.error = error;
+        }
+
+        boolean matches(char[] other, int otherLength) {
+            if (length != otherLength) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (shape[i] != other[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The counters that share a count, linked in both directions to the
+     * buckets with the next smaller and larger counts.
+     */
+    private static final class Bucket {
+        private long count;
+        private Counter first;
+        private Bucket previous;
+        private Bucket next;
+
+        void attach(Counter counter) {
+            counter.bucket = this;
+            counter.previous = null;
+            counter.next = first;
+            if (first != null) {
+                first.previous = counter;
+            }
+            first = counter;
+        }
+
+        void detach(Counter counter) {
+            if (counter.previous != null) {
+                counter.previous.next = counter.next;
+            } else {
+                first = counter.next;
+            }
+            if (counter.next != null) {
+                counter.next.previous = counter.previous;
+            }
+            counter.previous = null;
+            counter.next = null;
+            counter.bucket = null;
+        }
+    }
+
+    /**
+     * A token shape and its estimated number of occurrences.
+     */
+    public static class Entry {
+        private final String shape;
+        private final long count;
+        private final long error;
+
+        Entry(String shape, long count, long error) {
+            this.shape = shape;
+            this.count = count;
+            this.error = error;
+        }
+
+        /**
+         * @return the token shape, with digits replaced by 'd'
+         */
+        public String getShape() {
+            return shape;
+        }
+
+        /**
+         * @return the estimated number of occurrences; the true count lies
+         * between (count - error) and count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the maximum amount by which the count may overestimate the
+         * true number of occurrences
+         */
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return shape + "=" + count;
+        }
+    }
+}
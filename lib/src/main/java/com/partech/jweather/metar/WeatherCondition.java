@@ -24,8 +24,55 @@ This work has been modified by PAR Government (https://pargovernment.net/) as of
 
 package com.partech.jweather.metar;
 
+import java.io.IOException;
+
 public class WeatherCondition {
 
+    /** Intensity index of a light weather condition */
+    static final int LIGHT = 0;
+    /** Intensity index of a moderate weather condition */
+    static final int MODERATE = 1;
+    /** Intensity index of a heavy weather condition */
+    static final int HEAVY = 2;
+
+    /** The descriptors, in the order of {@link #getDescriptorIndex()} */
+    static final String[] DESCRIPTOR_CODES = {
+            MetarConstants.METAR_SHALLOW,
+            MetarConstants.METAR_PARTIAL,
+            MetarConstants.METAR_PATCHES,
+            MetarConstants.METAR_LOW_DRIFTING,
+            MetarConstants.METAR_BLOWING,
+            MetarConstants.METAR_SHOWERS,
+            MetarConstants.METAR_THUNDERSTORMS,
+            MetarConstants.METAR_FREEZING
+    };
+
+    /** The phenomena, in the order of {@link #getPhenomenonIndex()} */
+    static final String[] PHENOMENON_CODES = {
+            MetarConstants.METAR_DRIZZLE,
+            MetarConstants.METAR_RAIN,
+            MetarConstants.METAR_SNOW,
+            MetarConstants.METAR_SNOW_GRAINS,
+            MetarConstants.METAR_ICE_CRYSTALS,
+            MetarConstants.METAR_ICE_PELLETS,
+            MetarConstants.METAR_HAIL,
+            MetarConstants.METAR_SMALL_HAIL,
+            MetarConstants.METAR_UNKNOWN_PRECIPITATION,
+            MetarConstants.METAR_MIST,
+            MetarConstants.METAR_FOG,
+            MetarConstants.METAR_SMOKE,
+            MetarConstants.METAR_VOLCANIC_ASH,
+            MetarConstants.METAR_WIDESPREAD_DUST,
+            MetarConstants.METAR_SAND,
+            MetarConstants.METAR_HAZE,
+            MetarConstants.METAR_SPRAY,
+            MetarConstants.METAR_DUST_SAND_WHIRLS,
+            MetarConstants.METAR_SQUALLS,
+            MetarConstants.METAR_FUNNEL_CLOUD,
+            MetarConstants.METAR_SAND_STORM,
+            MetarConstants.METAR_DUST_STORM
+    };
+
     // intensity
     private boolean isLight = false;
     private boolean isHeavy = false;
@@ -596,88 +643,163 @@ public class WeatherCondition {
     }
 
     /**
-     * This method will return a string that represents this weather condition
-     * using natural language (as opposed to METAR)
-     *
-     * @return a string that represents the weather condition in natural language
+     * @return the intensity of the weather group: {@link #LIGHT},
+     * {@link #MODERATE} or {@link #HEAVY}
      */
-    public String getNaturalLanguageString() {
-        String temp = "";
-
+    int getIntensityIndex() {
         if (isLight) {
-            temp += "Light";
+            return LIGHT;
         } else if (isHeavy) {
-            temp += "Heavy";
-        } else {
-            temp += "Moderate";
+            return HEAVY;
         }
+        return MODERATE;
+    }
 
+    /**
+     * @return the index of the descriptor of the weather group in
+     * {@link #DESCRIPTOR_CODES}, or -1 if there is none
+     */
+    int getDescriptorIndex() {
         if (isShallow) {
-            temp += " Shallow";
+            return 0;
         } else if (isPartial) {
-            temp += " Partial";
+            return 1;
         } else if (isPatches) {
-            temp += " Patches";
+            return 2;
         } else if (isLowDrifting) {
-            temp += " Low Drifting";
+            return 3;
         } else if (isBlowing) {
-            temp += " Blowing";
+            return 4;
         } else if (isShowers) {
-            temp += " Showers";
+            return 5;
         } else if (isThunderstorms) {
-            temp += " Thunderstorms";
+            return 6;
         } else if (isFreezing) {
-            temp += " Freezing";
-        } else {
-            // shouldn't get here
+            return 7;
         }
+        return -1;
+    }
 
+    /**
+     * @return the index of the phenomena of the weather group in
+     * {@link #PHENOMENON_CODES}, or -1 if there is none
+     */
+    int getPhenomenonIndex() {
         if (isDrizzle) {
-            temp += " Drizzle";
+            return 0;
         } else if (isRain) {
-            temp += " Rain";
+            return 1;
         } else if (isSnow) {
-            temp += " Snow";
+            return 2;
         } else if (isSnowGrains) {
-            temp += " Snow Grains";
+            return 3;
         } else if (isIceCrystals) {
-            temp += " Ice Crystals";
+            return 4;
         } else if (isIcePellets) {
-            temp += " Ice Pellets";
+            return 5;
         } else if (isHail) {
-            temp += " Hail";
+            return 6;
         } else if (isSmallHail) {
-            temp += " Small Hail";
+            return 7;
         } else if (isUnknownPrecipitation) {
-            temp += " Unknown Precipitation";
+            return 8;
         } else if (isMist) {
-            temp += " Mist";
+            return 9;
         } else if (isFog) {
-            temp += " Fog";
+            return 10;
         } else if (isSmoke) {
-            temp += " Smoke";
+            return 11;
         } else if (isVolcanicAsh) {
-            temp += " Volcanic Ash";
+            return 12;
         } else if (isWidespreadDust) {
-            temp += " Widespread Dust";
+            return 13;
         } else if (isSand) {
-            temp += " Sand";
+            return 14;
         } else if (isHaze) {
-            temp += " Haze";
+            return 15;
         } else if (isSpray) {
-            temp += " Spray";
+            return 16;
         } else if (isDustSandWhirls) {
-            temp += " Well-developed Dust/Sand Whirls";
+            return 17;
         } else if (isSqualls) {
-            temp += " Squalls";
+            return 18;
         } else if (isFunnelCloud) {
-            temp += " Funnel Cloud/Tornado/Waterspout";
+            return 19;
         } else if (isSandstorm) {
-            temp += " Sandstorm";
+            return 20;
         } else if (isDuststorm) {
-            temp += " Duststorm";
+            return 21;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the intensity prefix of the weather group: '-' for light, '+'
+     * for heavy, or 0 for moderate
+     */
+    char getIntensityCode() {
+        if (isLight) {
+            return '-';
+        } else if (isHeavy) {
+            return '+';
         }
+        return 0;
+    }
+
+    /**
+     * @return the descriptor of the weather group (e.g. 'SH'), or null if
+     * there is none
+     */
+    String getDescriptorCode() {
+        int descriptor = getDescriptorIndex();
+        return descriptor < 0 ? null : DESCRIPTOR_CODES[descriptor];
+    }
+
+    /**
+     * @return the phenomena of the weather group (e.g. 'RA'), or null if
+     * there is none
+     */
+    String getPhenomenonCode() {
+        int phenomenon = getPhenomenonIndex();
+        return phenomenon < 0 ? null : PHENOMENON_CODES[phenomenon];
+    }
 
-        return temp;
+    /**
+     * This method will return a string that represents this weather condition
+     * using natural language (as opposed to METAR)
+     *
+     * @return a string that represents the weather condition in natural language
+     */
+    public String getNaturalLanguageString() {
+        int intensity = getIntensityIndex();
+        int descriptor = getDescriptorIndex();
+        int phenomenon = getPhenomenonIndex();
+
+        return MetarPhrases.ENGLISH.weather(intensity, descriptor,
+                phenomenon);
+    }
+
+    /**
+     * Append the natural language form of this weather condition, as
+     * returned by {@link #getNaturalLanguageString()}.
+     *
+     * @param sb the builder to append to
+     * @return the builder
+     */
+    public StringBuilder appendNaturalLanguage(StringBuilder sb) {
+        return sb.append(getNaturalLanguageString());
+    }
+
+    /**
+     * Append the natural language form of this weather condition, as
+     * returned by {@link #getNaturalLanguageString()}.
+     *
+     * @param out the destination
+     * @return the destination
+     * @throws IOException if the destination fails
+     */
+    public Appendable appendNaturalLanguage(Appendable out)
+            throws IOException {
+        return out.append(getNaturalLanguageString());
     }
 }
@@ -0,0 +1,123 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class FlightCategoryTest {
+
+    private static final Integer[] CEILINGS = {
+            499, 500, 999, 1000, 3000, 3001, null
+    };
+    private static final Float[] VISIBILITIES = {
+            0.99f, 1f, 2.99f, 3f, 5f, 5.01f, null
+    };
+
+    // the category for each ceiling (rows) and visibility (columns) above,
+    // with - for none
+    private static final String[] CATEGORIES = {
+            "LIFR LIFR LIFR LIFR LIFR LIFR LIFR",
+            "LIFR IFR  IFR  IFR  IFR  IFR  IFR",
+            "LIFR IFR  IFR  IFR  IFR  IFR  IFR",
+            "LIFR IFR  IFR  MVFR MVFR MVFR MVFR",
+            "LIFR IFR  IFR  MVFR MVFR MVFR MVFR",
+            "LIFR IFR  IFR  MVFR MVFR VFR  VFR",
+            "LIFR IFR  IFR  MVFR MVFR VFR  -"
+    };
+
+    @Test
+    public void theMoreRestrictiveOfCeilingAndVisibilityWins() {
+        for (int c = 0; c < CEILINGS.length; c++) {
+            String[] row = CATEGORIES[c].split(" +");
+            for (int v = 0; v < VISIBILITIES.length; v++) {
+                FlightCategory expected = row[v].equals("-")
+                        ? null : FlightCategory.valueOf(row[v]);
+                assertEquals(CEILINGS[c] + " ft, " + VISIBILITIES[v] + " SM",
+                        expected, FlightCategory.of(CEILINGS[c],
+                                VISIBILITIES[v]));
+            }
+        }
+    }
+
+    @Test
+    public void fromStringIgnoresCaseAndSurroundingSpace() {
+        for (FlightCategory category : FlightCategory.values()) {
+            assertEquals(category, FlightCategory.fromString(category.name()));
+        }
+        assertEquals(FlightCategory.MVFR, FlightCategory.fromString("mvfr"));
+        assertEquals(FlightCategory.IFR, FlightCategory.fromString(" Ifr "));
+        assertEquals(FlightCategory.LIFR,
+                FlightCategory.fromString("LIFR\n"));
+        assertNull(FlightCategory.fromString(null));
+        assertNull(FlightCategory.fromString(""));
+        assertNull(FlightCategory.fromString("VF"));
+        assertNull(FlightCategory.fromString("VFRX"));
+        assertNull(FlightCategory.fromString("V FR"));
+    }
+
+    @Test
+    public void countSkipsObservationsWithoutACategory() {
+        FlightCategory[] categories = {
+                FlightCategory.IFR, null, FlightCategory.VFR,
+                FlightCategory.IFR, FlightCategory.LIFR, null,
+                FlightCategory.IFR
+        };
+        List<Metar> metars = new ArrayList<>();
+        for (FlightCategory category : categories) {
+            Metar metar = new Metar();
+            metar.setFlightCategoryType(category);
+            metars.add(metar);
+        }
+
+        assertArrayEquals(new int[] {1, 0, 3, 1},
+                FlightCategory.count(metars));
+        assertArrayEquals(new int[4],
+                FlightCategory.count(Collections.<Metar>emptyList()));
+    }
+
+    @Test
+    public void parsedReportsAreCounted() throws MetarParseException {
+        List<Metar> metars = new ArrayList<>();
+        metars.add(MetarParser.parse(
+                "KJFK 121651Z 31015KT 10SM BKN035 12/08 A2992"));
+        metars.add(MetarParser.parse(
+                "KJFK 121751Z 31015KT 10SM OVC030 12/08 A2992"));
+        metars.add(MetarParser.parse(
+                "KJFK 121851Z 31015KT 1/2SM FG VV002 12/12 A2992"));
+        metars.add(MetarParser.parse(
+                "KJFK 121951Z 31015KT 3SM BR BKN008 12/11 A2992"));
+
+        assertArrayEquals(new int[] {1, 1, 1, 1},
+                FlightCategory.count(metars));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MetarBulletinSplitterTest {
+
+    private static final String BULLETINS = "\u0001\r\r\n"
+            + "123\r\r\n"
+            + "SAUS70 KWBC 061200\r\r\n"
+            + "METAR\r\r\n"
+            + "KCNO 060653Z 32004KT 10SM BKN043 13/11 A2993 RMK AO2 SLP133\r\r\n"
+            + "     T01280106=\r\r\n"
+            // no terminator, ended by the blank line
+            + "KRAL 060653Z 27006KT 10SM CLR 14/09 A2992\r\r\n"
+            + "\r\r\n"
+            + "SPECI KONT 060701Z 00000KT 2SM BR OVC004 12/12 A2993=\r\r\n"
+            + "=\r\r\n"
+            + "\u0003"
+            + "\u0001\r\r\n"
+            + "124\r\r\n"
+            + "SAUK31 EGRR 061200 RRA\r\r\n"
+            + "METAR EGLL 061150Z 24008KT 9999 NSC 18/10 Q1015=\r\r\n"
+            // no terminator, ended by the end of the input
+            + "METAR EGKK 061150Z 23006KT CAVOK 17/09 Q1016";
+
+    private static final List<String> EXPECTED = Arrays.asList(
+            "METAR|SAUS70 KWBC 061200|KCNO 060653Z 32004KT 10SM BKN043 "
+                    + "13/11 A2993 RMK AO2 SLP133 T01280106",
+            "METAR|SAUS70 KWBC 061200|KRAL 060653Z 27006KT 10SM CLR 14/09 "
+                    + "A2992",
+            "SPECI|SAUS70 KWBC 061200|KONT 060701Z 00000KT 2SM BR OVC004 "
+                    + "12/12 A2993",
+            "METAR|SAUK31 EGRR 061200 RRA|EGLL 061150Z 24008KT 9999 NSC "
+                    + "18/10 Q1015",
+            "METAR|SAUK31 EGRR 061200 RRA|EGKK 061150Z 23006KT CAVOK "
+                    + "17/09 Q1016");
+
+    @Test
+    public void splitsWholeBulletins() {
+        MetarBulletinSplitter splitter = new MetarBulletinSplitter(
+                ByteBuffer.wrap(bytes(BULLETINS)));
+        List<String> reports = new ArrayList<>();
+        while (splitter.next()) {
+            reports.add(describe(splitter));
+        }
+        assertEquals(EXPECTED, reports);
+        assertFalse(splitter.next());
+    }
+
+    @Test
+    public void splitsTheSameReportsWhateverTheReadSize() {
+        byte[] data = bytes(BULLETINS);
+        for (int chunk = 1; chunk <= data.length; chunk++) {
+            assertEquals("chunks of " + chunk, EXPECTED,
+                    splitInChunks(data, chunk));
+        }
+    }
+
+    @Test
+    public void keepsAnUnterminatedReportUntilTheEndOfInput() {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes(BULLETINS));
+        MetarBulletinSplitter splitter = new MetarBulletinSplitter();
+        splitter.setInput(buffer, false);
+        List<String> reports = new ArrayList<>();
+        while (splitter.next()) {
+            reports.add(describe(splitter));
+        }
+        assertEquals(EXPECTED.subList(0, 4), reports);
+        assertTrue(buffer.hasRemaining());
+
+        splitter.setInput(buffer, true);
+        assertTrue(splitter.next());
+        assertEquals(EXPECTED.get(4), describe(splitter));
+        assertFalse(splitter.next());
+    }
+
+    @Test
+    public void reportViewKeepsLineBreaks() {
+        MetarBulletinSplitter splitter = new MetarBulletinSplitter(
+                ByteBuffer.wrap(bytes(BULLETINS)));
+        assertTrue(splitter.next());
+
+        ByteBuffer report = splitter.getReport();
+        byte[] raw = new byte[report.remaining()];
+        report.duplicate().get(raw);
+        assertEquals("KCNO 060653Z 32004KT 10SM BKN043 13/11 A2993 RMK AO2 "
+                        + "SLP133\r\r\n     T01280106",
+                new String(raw, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void reportsWithoutABulletinHaveNoHeading() {
+        MetarBulletinSplitter splitter = new MetarBulletinSplitter(
+                ByteBuffer.wrap(bytes("KRAL 060653Z 27006KT 10SM CLR "
+                        + "14/09 A2992=KONT 060701Z 00000KT 2SM BR OVC004 "
+                        + "12/12 A2993=")));
+        assertTrue(splitter.next());
+        assertEquals("null|null|KRAL 060653Z 27006KT 10SM CLR 14/09 A2992",
+                describe(splitter));
+        assertTrue(splitter.next());
+        assertEquals("null|null|KONT 060701Z 00000KT 2SM BR OVC004 "
+                + "12/12 A2993", describe(splitter));
+        assertFalse(splitter.next());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void nextWithoutInputIsAnError() {
+        new MetarBulletinSplitter().next();
+    }
+
+    /**
+     * Split the data as it would be read from a stream, a chunk at a time,
+     * following the read, flip, split and compact cycle in the class
+     * documentation.
+     */
+    private static List<String> splitInChunks(byte[] data, int chunkSize) {
+        ByteBuffer buffer = ByteBuffer.allocate(data.length);
+        MetarBulletinSplitter splitter = new MetarBulletinSplitter();
+        List<String> reports = new ArrayList<>();
+        for (int offset = 0; offset < data.length; offset += chunkSize) {
+            int length = Math.min(chunkSize, data.length - offset);
+            buffer.put(data, offset, length);
+            buffer.flip();
+            splitter.setInput(buffer, offset + length == data.length);
+            while (splitter.next()) {
+                reports.add(describe(splitter));
+            }
+            buffer.compact();
+        }
+        return reports;
+    }
+
+    private static String describe(MetarBulletinSplitter splitter) {
+        return splitter.getReportType() + "|" + splitter.getHeading() + "|"
+                + splitter.getReportText();
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
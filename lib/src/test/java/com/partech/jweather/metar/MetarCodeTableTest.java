@@ -0,0 +1,208 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static com.partech.jweather.metar.MetarCodeTable.DESCRIPTOR;
+import static com.partech.jweather.metar.MetarCodeTable.OBSCURATION;
+import static com.partech.jweather.metar.MetarCodeTable.PHENOMENON;
+import static com.partech.jweather.metar.MetarCodeTable.VICINITY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class MetarCodeTableTest {
+
+    private static final Map<String, Integer> WEATHER = new HashMap<>();
+
+    static {
+        WEATHER.put(MetarConstants.METAR_IN_THE_VICINITY, VICINITY);
+
+        WEATHER.put(MetarConstants.METAR_SHALLOW, DESCRIPTOR);
+        WEATHER.put(MetarConstants.METAR_PARTIAL, DESCRIPTOR);
+        WEATHER.put(MetarConstants.METAR_PATCHES, DESCRIPTOR);
+        WEATHER.put(MetarConstants.METAR_LOW_DRIFTING, DESCRIPTOR);
+        WEATHER.put(MetarConstants.METAR_BLOWING, DESCRIPTOR);
+        WEATHER.put(MetarConstants.METAR_SHOWERS, DESCRIPTOR);
+        WEATHER.put(MetarConstants.METAR_THUNDERSTORMS, DESCRIPTOR);
+        WEATHER.put(MetarConstants.METAR_FREEZING, DESCRIPTOR);
+
+        WEATHER.put(MetarConstants.METAR_DRIZZLE, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_RAIN, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_SNOW, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_SNOW_GRAINS, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_ICE_CRYSTALS, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_ICE_PELLETS, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_HAIL, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_SMALL_HAIL, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_UNKNOWN_PRECIPITATION, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_DUST_SAND_WHIRLS, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_SQUALLS, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_FUNNEL_CLOUD, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_SAND_STORM, PHENOMENON);
+        WEATHER.put(MetarConstants.METAR_DUST_STORM, PHENOMENON);
+
+        int obscuration = PHENOMENON | OBSCURATION;
+        WEATHER.put(MetarConstants.METAR_MIST, obscuration);
+        WEATHER.put(MetarConstants.METAR_FOG, obscuration);
+        WEATHER.put(MetarConstants.METAR_SMOKE, obscuration);
+        WEATHER.put(MetarConstants.METAR_VOLCANIC_ASH, obscuration);
+        WEATHER.put(MetarConstants.METAR_WIDESPREAD_DUST, obscuration);
+        WEATHER.put(MetarConstants.METAR_SAND, obscuration);
+        WEATHER.put(MetarConstants.METAR_HAZE, obscuration);
+        WEATHER.put(MetarConstants.METAR_SPRAY, obscuration);
+    }
+
+    @Test
+    public void classifiesEveryWeatherCode() {
+        assertEquals(31, WEATHER.size());
+        for (Map.Entry<String, Integer> entry : WEATHER.entrySet()) {
+            String code = entry.getKey();
+            int flags = entry.getValue();
+            assertEquals(code, flags, MetarCodeTable.weatherClass(
+                    code.charAt(0), code.charAt(1)));
+            assertEquals(code, flags, MetarCodeTable.weatherClass(code, 0));
+            assertEquals(code, flags,
+                    MetarCodeTable.weatherClass("-SH" + code, 3));
+            assertSame(code, code, MetarCodeTable.weatherCode(code, 0));
+            assertSame(code, code,
+                    MetarCodeTable.weatherCode("+FZ" + code + "X", 3));
+        }
+    }
+
+    @Test
+    public void noOtherAsciiPairIsAWeatherCode() {
+        for (char first = 0; first < 0x80; first++) {
+            for (char second = 0; second < 0x80; second++) {
+                String pair = new String(new char[] {first, second});
+                if (!WEATHER.containsKey(pair)) {
+                    assertEquals(pair, 0,
+                            MetarCodeTable.weatherClass(first, second));
+                    assertNull(pair, MetarCodeTable.weatherCode(pair, 0));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nonAsciiCharactersAreNotCodes() {
+        // each of these would alias an ASCII code if only the low seven
+        // bits of the characters were used
+        String[] tokens = {
+                "\u00d2A", "R\u00c1", "\u0152A", "\u00d2\u00c1",
+                "\uff32\uff21", "\u0142\u0141", "\uffffA", "R\uffff"
+        };
+        for (String token : tokens) {
+            assertEquals(token, 0,
+                    MetarCodeTable.weatherClass(token.charAt(0),
+                            token.charAt(1)));
+            assertEquals(token, 0, MetarCodeTable.weatherClass(token, 0));
+            assertNull(token, MetarCodeTable.weatherCode(token, 0));
+            assertEquals(token, MetarCodeTable.SKY_NONE,
+                    MetarCodeTable.skyCover(token + "T"));
+        }
+        assertEquals(MetarCodeTable.SKY_NONE,
+                MetarCodeTable.skyCover("\u00d3CT025"));
+        assertEquals(MetarCodeTable.SKY_NONE,
+                MetarCodeTable.skyCover("SC\u00d4025"));
+        assertEquals(MetarCodeTable.SKY_NONE,
+                MetarCodeTable.skyCover("\u0156V003"));
+    }
+
+    @Test
+    public void positionsOutsideTheTokenAreNotCodes() {
+        assertEquals(0, MetarCodeTable.weatherClass("RA", -1));
+        assertEquals(0, MetarCodeTable.weatherClass("RA", 1));
+        assertEquals(0, MetarCodeTable.weatherClass("RA", 2));
+        assertEquals(0, MetarCodeTable.weatherClass("", 0));
+        assertNull(MetarCodeTable.weatherCode("RA", -1));
+        assertNull(MetarCodeTable.weatherCode("+R", 1));
+        assertNull(MetarCodeTable.weatherCode("", 0));
+        assertEquals(PHENOMENON, MetarCodeTable.weatherClass("-RA", 1));
+    }
+
+    @Test
+    public void classifiesEverySkyCover() {
+        assertSkyCover(MetarCodeTable.SKY_VERTICAL_VISIBILITY,
+                MetarConstants.METAR_VERTICAL_VISIBILITY);
+        assertSkyCover(MetarCodeTable.SKY_SKY_CLEAR,
+                MetarConstants.METAR_SKY_CLEAR);
+        assertSkyCover(MetarCodeTable.SKY_CLEAR, MetarConstants.METAR_CLEAR);
+        assertSkyCover(MetarCodeTable.SKY_FEW, MetarConstants.METAR_FEW);
+        assertSkyCover(MetarCodeTable.SKY_SCATTERED,
+                MetarConstants.METAR_SCATTERED);
+        assertSkyCover(MetarCodeTable.SKY_BROKEN, MetarConstants.METAR_BROKEN);
+        assertSkyCover(MetarCodeTable.SKY_OVERCAST,
+                MetarConstants.METAR_OVERCAST);
+        assertSkyCover(MetarCodeTable.SKY_NO_SIGNIFICANT_CLOUDS,
+                MetarConstants.METAR_NO_SIGNIFICANT_CLOUDS);
+
+        assertEquals(MetarCodeTable.SKY_BROKEN,
+                MetarCodeTable.skyCover("BKN025CB"));
+        assertEquals(MetarCodeTable.SKY_VERTICAL_VISIBILITY,
+                MetarCodeTable.skyCover("VV///"));
+        assertNull(MetarCodeTable.skyCode(MetarCodeTable.SKY_NONE));
+    }
+
+    @Test
+    public void skyCoverChecksTheThirdCharacter() {
+        String[] tokens = {
+                "SCX", "SCX025", "SC", "FE", "FEX", "BK", "BKM030", "OV",
+                "OVX010", "SK", "SKX", "CL", "CLX", "NS", "NSX", "Sct", "fEW",
+                "S", "V", "", "RA"
+        };
+        for (String token : tokens) {
+            assertEquals(token, MetarCodeTable.SKY_NONE,
+                    MetarCodeTable.skyCover(token));
+        }
+    }
+
+    @Test
+    public void onlyLayerAmountsAreLayers() {
+        assertTrue(MetarCodeTable.isLayer(MetarCodeTable.SKY_FEW));
+        assertTrue(MetarCodeTable.isLayer(MetarCodeTable.SKY_SCATTERED));
+        assertTrue(MetarCodeTable.isLayer(MetarCodeTable.SKY_BROKEN));
+        assertTrue(MetarCodeTable.isLayer(MetarCodeTable.SKY_OVERCAST));
+        assertFalse(MetarCodeTable.isLayer(MetarCodeTable.SKY_NONE));
+        assertFalse(MetarCodeTable.isLayer(
+                MetarCodeTable.SKY_VERTICAL_VISIBILITY));
+        assertFalse(MetarCodeTable.isLayer(MetarCodeTable.SKY_SKY_CLEAR));
+        assertFalse(MetarCodeTable.isLayer(MetarCodeTable.SKY_CLEAR));
+        assertFalse(MetarCodeTable.isLayer(
+                MetarCodeTable.SKY_NO_SIGNIFICANT_CLOUDS));
+    }
+
+    private static void assertSkyCover(int cover, String code) {
+        assertEquals(code, cover, MetarCodeTable.skyCover(code));
+        assertEquals(code, cover, MetarCodeTable.skyCover(code + "020"));
+        assertSame(code, code, MetarCodeTable.skyCode(cover));
+    }
+}
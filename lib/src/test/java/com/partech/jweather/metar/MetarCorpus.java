@@ -0,0 +1,247 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates realistic METAR reports for the tests and benchmarks. Reports
+ * follow the group order and the mix of North American and international
+ * conventions seen on real feeds: statute miles and altimeter settings
+ * with an AO2 remarks section for North American stations, meters, CAVOK
+ * and QNH with an optional NOSIG for the others. The same seed always
+ * gives the same reports.
+ */
+final class MetarCorpus {
+
+    private static final String[] NORTH_AMERICAN = {
+            "KJFK", "KLAX", "KORD", "KDEN", "KSFO", "KSEA", "KCNO", "KBOS",
+            "KATL", "KMSP", "PANC", "PHNL", "CYYZ", "CYVR"
+    };
+    private static final String[] INTERNATIONAL = {
+            "EGLL", "LFPG", "EDDF", "EHAM", "LEMD", "RJTT", "YSSY", "ZBAA",
+            "SBGR", "FAOR"
+    };
+    private static final String[] STATUTE_MILES = {
+            "10SM", "10SM", "10SM", "7SM", "6SM", "5SM", "4SM", "3SM", "2SM",
+            "1 1/2SM", "1 1/4SM", "1SM", "3/4SM", "1/2SM", "1/4SM", "M1/4SM"
+    };
+    private static final String[] METERS = {
+            "9999", "9999", "9999", "8000", "6000", "4000", "3000", "1500",
+            "0800", "0400", "0150"
+    };
+    private static final String[] WEATHER = {
+            "-RA", "RA", "+RA", "-SN", "SN", "BR", "FG", "HZ", "-DZ", "FZFG",
+            "-SHRA", "SHRA", "TSRA", "+TSRA", "-FZDZ", "BLSN", "MIFG", "-SHSN",
+            "FU", "-FZRA", "+SHRA", "BCFG", "DZ", "-SG", "GR"
+    };
+    private static final String[] COVER = {"FEW", "SCT", "BKN", "OVC"};
+
+    private MetarCorpus() {
+    }
+
+    /**
+     * @param count the number of reports
+     * @param seed  the seed of the generator
+     * @return the reports
+     */
+    static List<String> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> reports = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reports.add(report(random));
+        }
+        return reports;
+    }
+
+    /**
+     * @param random the source of randomness
+     * @return one report
+     */
+    static String report(Random random) {
+        boolean northAmerican = random.nextInt(3) != 0;
+        StringBuilder sb = new StringBuilder(128);
+
+        sb.append(pick(random, northAmerican ? NORTH_AMERICAN : INTERNATIONAL));
+        sb.append(String.format(Locale.ROOT, " %02d%02d%02dZ",
+                1 + random.nextInt(28), random.nextInt(24),
+                random.nextInt(2) == 0 ? 53 : random.nextInt(60)));
+        int modifier = random.nextInt(30);
+        if (modifier < 6) {
+            sb.append(" AUTO");
+        } else if (modifier == 6) {
+            sb.append(" COR");
+        }
+
+        appendWind(random, sb, northAmerican);
+
+        boolean cavok = !northAmerican && random.nextInt(5) == 0;
+        int visibility;
+        if (cavok) {
+            sb.append(" CAVOK");
+            visibility = 0;
+        } else if (northAmerican) {
+            visibility = skewedIndex(random, STATUTE_MILES.length);
+            sb.append(' ').append(STATUTE_MILES[visibility]);
+        } else {
+            visibility = skewedIndex(random, METERS.length);
+            sb.append(' ').append(METERS[visibility]);
+        }
+
+        boolean poor = visibility > (northAmerican ? 10 : 7);
+        if (!cavok && poor && random.nextInt(3) == 0) {
+            sb.append(String.format(Locale.ROOT, " R%02d%s/%04dFT",
+                    1 + random.nextInt(36), pick(random, "", "L", "R", "C"),
+                    (6 + random.nextInt(40)) * 100));
+            if (random.nextBoolean()) {
+                sb.append(String.format(Locale.ROOT, " R%02d/%04dV%04dFT",
+                        1 + random.nextInt(36), (2 + random.nextInt(10)) * 100,
+                        (15 + random.nextInt(45)) * 100));
+            }
+        }
+
+        if (!cavok) {
+            int weather = (poor || random.nextInt(4) == 0)
+                    ? 1 + random.nextInt(2) : 0;
+            for (int i = 0; i < weather; i++) {
+                sb.append(' ').append(pick(random, WEATHER));
+            }
+            appendSky(random, sb, northAmerican, poor);
+        }
+
+        int temperature = random.nextInt(56) - 20;
+        int dewPoint = temperature - random.nextInt(15);
+        sb.append(' ').append(signed(temperature)).append('/')
+                .append(signed(dewPoint));
+
+        if (northAmerican) {
+            sb.append(String.format(Locale.ROOT, " A%04d",
+                    2900 + random.nextInt(200)));
+            sb.append(" RMK ").append(random.nextInt(4) == 0 ? "AO1" : "AO2");
+            sb.append(String.format(Locale.ROOT, " SLP%03d",
+                    random.nextInt(1000)));
+            if (random.nextInt(20) == 0) {
+                sb.append(' ').append(pick(random, "FG", "BR", "HZ"))
+                        .append(' ').append(pick(random, COVER))
+                        .append(String.format(Locale.ROOT, "%03d",
+                                random.nextInt(20)));
+            }
+            if (random.nextInt(5) != 0) {
+                sb.append(' ').append(preciseTemperatures(random,
+                        temperature, dewPoint));
+            }
+        } else {
+            sb.append(String.format(Locale.ROOT, " Q%04d",
+                    980 + random.nextInt(60)));
+            if (random.nextInt(3) == 0) {
+                sb.append(" NOSIG");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendWind(Random random, StringBuilder sb,
+                                   boolean northAmerican) {
+        String unit = (!northAmerican && random.nextInt(4) == 0)
+                ? "MPS" : "KT";
+        int kind = random.nextInt(10);
+        if (kind == 0) {
+            sb.append(" 00000").append(unit);
+            return;
+        }
+        if (kind == 1) {
+            sb.append(String.format(Locale.ROOT, " VRB%02d%s",
+                    1 + random.nextInt(6), unit));
+            return;
+        }
+
+        int direction = 10 * (1 + random.nextInt(36));
+        int speed = 3 + random.nextInt(unit.equals("KT") ? 30 : 15);
+        sb.append(String.format(Locale.ROOT, " %03d%02d", direction, speed));
+        if (random.nextInt(6) == 0) {
+            sb.append(String.format(Locale.ROOT, "G%02d",
+                    speed + 5 + random.nextInt(20)));
+        }
+        sb.append(unit);
+        if (speed > 6 && random.nextInt(8) == 0) {
+            int from = (direction + 300) % 360;
+            sb.append(String.format(Locale.ROOT, " %03dV%03d", from,
+                    (from + 60 + 10 * random.nextInt(6)) % 360));
+        }
+    }
+
+    private static void appendSky(Random random, StringBuilder sb,
+                                  boolean northAmerican, boolean poor) {
+        if (poor && random.nextInt(4) == 0) {
+            sb.append(String.format(Locale.ROOT, " VV%03d",
+                    1 + random.nextInt(8)));
+            return;
+        }
+        int layers = random.nextInt(5);
+        if (layers == 0) {
+            sb.append(northAmerican ? pick(random, " CLR", " SKC")
+                    : " NSC");
+            return;
+        }
+        int height = poor ? 1 + random.nextInt(6) : 5 + random.nextInt(40);
+        int cover = random.nextInt(2);
+        for (int i = 0; i < Math.min(layers, 3); i++) {
+            sb.append(' ').append(COVER[cover]);
+            sb.append(String.format(Locale.ROOT, "%03d", height));
+            if (random.nextInt(15) == 0) {
+                sb.append(pick(random, "CB", "TCU"));
+            }
+            height += 5 + random.nextInt(60);
+            cover = Math.min(3, cover + random.nextInt(3));
+        }
+    }
+
+    private static String preciseTemperatures(Random random, int temperature,
+                                              int dewPoint) {
+        // tenths that round to the whole degrees of the temperature group
+        int t = temperature * 10 + random.nextInt(9) - 4;
+        int d = Math.min(t, dewPoint * 10 + random.nextInt(9) - 4);
+        return String.format(Locale.ROOT, "T%d%03d%d%03d", t < 0 ? 1 : 0,
+                Math.abs(t), d < 0 ? 1 : 0, Math.abs(d));
+    }
+
+    private static String signed(int degrees) {
+        return String.format(Locale.ROOT, "%s%02d", degrees < 0 ? "M" : "",
+                Math.abs(degrees));
+    }
+
+    // favours the first entries, which are the good conditions
+    private static int skewedIndex(Random random, int length) {
+        double x = random.nextDouble();
+        return Math.min(length - 1, (int) (x * x * x * length));
+    }
+
+    private static String pick(Random random, String... values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,194 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+import org.junit.Test;
+
+public class MetarCsvWriterTest {
+
+    private static final DateTimeFormatter ISO_MINUTE =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm'Z'")
+                    .withZone(ZoneOffset.UTC);
+
+    @Test
+    public void formatsTheEpochAndTheMinuteBeforeIt() {
+        assertEquals("1970-01-01T00:00Z", formatDate(0));
+        assertEquals("1969-12-31T23:59Z", formatDate(-1));
+        assertEquals("1970-01-01T00:01Z", formatDate(1));
+        assertEquals("1969-12-31T00:00Z", formatDate(-1440));
+    }
+
+    @Test
+    public void formatsLeapDaysAndCenturies() {
+        for (String date : new String[]{
+                "2000-02-29T12:00Z", "2000-03-01T00:00Z",
+                "2024-02-29T23:59Z", "2023-02-28T23:59Z", "2023-03-01T00:00Z",
+                "2100-02-28T23:59Z", "2100-03-01T00:00Z",
+                "1900-02-28T23:59Z", "1900-03-01T00:00Z",
+                "1600-02-29T00:00Z", "2400-02-29T00:00Z",
+                "1999-12-31T23:59Z", "2000-01-01T00:00Z",
+                "0000-03-01T00:00Z", "9999-12-31T23:59Z"}) {
+            assertEquals(date, formatDate(minuteOf(date)));
+        }
+    }
+
+    @Test
+    public void agreesWithJavaTimeOverFourCenturies() {
+        long first = minuteOf("1600-01-01T00:00Z") / 1440;
+        long last = minuteOf("2400-12-31T00:00Z") / 1440;
+        for (long day = first; day <= last; day++) {
+            // a different time of day for each day
+            long minute = day * 1440 + Math.floorMod(day * 7919, 1440);
+            assertEquals(ISO_MINUTE.format(Instant.ofEpochSecond(
+                    minute * 60)), formatDate(minute));
+        }
+    }
+
+    @Test
+    public void writesTheSelectedColumns() throws Exception {
+        Metar metar = MetarParser.parse("KCNO 060653Z 32004KT 10SM "
+                + "BKN043 13/11 A2993 RMK AO2 SLP133 T01280106");
+        StringWriter out = new StringWriter();
+        try (MetarCsvWriter csv = new MetarCsvWriter(out,
+                MetarCsvWriter.Column.STATION_ID,
+                MetarCsvWriter.Column.DATE,
+                MetarCsvWriter.Column.WIND_DIRECTION,
+                MetarCsvWriter.Column.WIND_SPEED_KNOTS,
+                MetarCsvWriter.Column.WIND_GUSTS_KNOTS,
+                MetarCsvWriter.Column.VISIBILITY_MILES,
+                MetarCsvWriter.Column.TEMPERATURE_CELSIUS,
+                MetarCsvWriter.Column.PRESSURE,
+                MetarCsvWriter.Column.FLIGHT_CATEGORY,
+                MetarCsvWriter.Column.WEATHER,
+                MetarCsvWriter.Column.SKY)) {
+            csv.writeHeader();
+            csv.write(metar);
+        }
+
+        assertEquals("station_id,date,wind_direction,wind_speed_kt,"
+                + "wind_gusts_kt,visibility_sm,temperature_c,pressure_inhg,"
+                + "flight_category,weather,sky\n"
+                + "KCNO," + iso(metar.getDate())
+                + ",320,4.0,,10.00,12.8,29.93,VFR,,BKN043\n", out.toString());
+    }
+
+    @Test
+    public void quotesCellsHoldingTheSeparator() throws Exception {
+        Metar metar = MetarParser.parse("KONT 060701Z 00000KT 2SM "
+                + "-SHRA BR OVC004 12/12 A2993");
+        StringWriter out = new StringWriter();
+        try (MetarCsvWriter csv = new MetarCsvWriter(out, ' ',
+                MetarCsvWriter.Column.STATION_ID,
+                MetarCsvWriter.Column.WEATHER,
+                MetarCsvWriter.Column.RAW_TEXT)) {
+            csv.write(metar);
+        }
+
+        assertEquals("KONT -SHRA BR \"KONT 060701Z 00000KT 2SM -SHRA BR "
+                + "OVC004 12/12 A2993\"\n", out.toString());
+    }
+
+    @Test
+    public void reusesTheDateOnlyWithinTheSameMinute() throws Exception {
+        StringWriter out = new StringWriter();
+        Metar[] metars = {
+                MetarParser.parse("KRAL 060653Z 27006KT 10SM CLR 14/09 A2992"),
+                MetarParser.parse("KONT 060653Z 00000KT 2SM BR OVC004 12/12 A2993"),
+                MetarParser.parse("KONT 060654Z 00000KT 2SM BR OVC004 12/12 A2993"),
+                MetarParser.parse("KRAL 060653Z 27006KT 10SM CLR 14/09 A2992")
+        };
+        try (MetarCsvWriter csv = new MetarCsvWriter(out,
+                MetarCsvWriter.Column.DATE)) {
+            for (Metar metar : metars) {
+                csv.write(metar);
+            }
+        }
+
+        StringBuilder expected = new StringBuilder();
+        for (Metar metar : metars) {
+            expected.append(iso(metar.getDate())).append('\n');
+        }
+        assertEquals(expected.toString(), out.toString());
+    }
+
+    @Test
+    public void leavesMissingValuesEmpty() throws IOException {
+        StringWriter out = new StringWriter();
+        try (MetarCsvWriter csv = new MetarCsvWriter(out,
+                MetarCsvWriter.Column.STATION_ID,
+                MetarCsvWriter.Column.DATE,
+                MetarCsvWriter.Column.TEMPERATURE_CELSIUS,
+                MetarCsvWriter.Column.CEILING,
+                MetarCsvWriter.Column.FLIGHT_CATEGORY)) {
+            csv.write(new Metar());
+        }
+        assertEquals(",,,,\n", out.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void writingAfterCloseIsAnError() throws IOException {
+        MetarCsvWriter csv = new MetarCsvWriter(new StringWriter(),
+                MetarCsvWriter.Column.STATION_ID);
+        csv.close();
+        csv.write(new Metar());
+    }
+
+    @Test
+    public void getColumnsReturnsACopy() {
+        MetarCsvWriter csv = new MetarCsvWriter(new StringWriter(),
+                MetarCsvWriter.Column.STATION_ID,
+                MetarCsvWriter.Column.DATE);
+        csv.getColumns()[0] = MetarCsvWriter.Column.RAW_TEXT;
+        assertArrayEquals(new MetarCsvWriter.Column[]{
+                MetarCsvWriter.Column.STATION_ID,
+                MetarCsvWriter.Column.DATE}, csv.getColumns());
+    }
+
+    private static String formatDate(long minute) {
+        char[] to = new char[17];
+        MetarCsvWriter.formatDate(minute, to);
+        return new String(to);
+    }
+
+    private static long minuteOf(String date) {
+        return LocalDateTime.parse(date.substring(0, 16))
+                .toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static String iso(Date date) {
+        return ISO_MINUTE.format(date.toInstant());
+    }
+}
@@ -0,0 +1,255 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MetarDecodeToolTest {
+
+    private static final String GOOD =
+            "KJFK 121651Z 31015G25KT 1 3/4SM BKN015 12/M05 A2992 "
+                    + "RMK T01221050";
+    private static final String BAD = "KJFK 1216Z 31015KT 10SM";
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+    @Test
+    public void writesCsv() throws IOException, MetarParseException {
+        assertEquals(0, run(GOOD + "\n\n" + BAD + "\n" + GOOD + "\n",
+                "-q"));
+
+        StringWriter expected = new StringWriter();
+        MetarCsvWriter csv = new MetarCsvWriter(expected,
+                MetarDecodeTool.COLUMNS);
+        csv.writeHeader();
+        csv.write(MetarParser.parse(GOOD));
+        csv.write(MetarParser.parse(GOOD));
+        csv.flush();
+        assertEquals(expected.toString(), output());
+        assertEquals("", stderr.toString());
+    }
+
+    @Test
+    public void writesJsonLines() throws IOException, MetarParseException {
+        assertEquals(0, run(GOOD + "\n" + BAD + "\n"
+                + "LFPG 121630Z 05008MPS CAVOK 15/03 Q1025 NOSIG\n",
+                "-q", "--format", "json"));
+
+        String date = date(GOOD);
+        assertEquals("{\"station_id\":\"KJFK\",\"date\":\"" + date + "\","
+                + "\"report_modifier\":\"\",\"wind_direction\":310,"
+                + "\"wind_speed_kt\":15.0,\"wind_gusts_kt\":25.0,"
+                + "\"visibility_sm\":1.75,\"ceiling_ft\":1500,"
+                + "\"temperature_c\":12.2,\"dew_point_c\":-5.0,"
+                + "\"pressure_inhg\":29.92,\"flight_category\":\"IFR\","
+                + "\"raw_text\":\"" + GOOD + "\"}\n"
+                + "{\"station_id\":\"LFPG\",\"date\":\""
+                + date("LFPG 121630Z 05008MPS CAVOK 15/03 Q1025 NOSIG")
+                + "\",\"report_modifier\":\"\","
+                + "\"wind_direction\":50,\"wind_speed_kt\":15.5,"
+                + "\"wind_gusts_kt\":null,\"visibility_sm\":6.21,"
+                + "\"ceiling_ft\":null,\"temperature_c\":15.0,"
+                + "\"dew_point_c\":3.0,\"pressure_inhg\":null,"
+                + "\"flight_category\":\"VFR\",\"raw_text\":"
+                + "\"LFPG 121630Z 05008MPS CAVOK 15/03 Q1025 NOSIG\"}\n",
+                output());
+    }
+
+    @Test
+    public void writesNormalizedMetar() throws IOException,
+            MetarParseException {
+        assertEquals(0, run(BAD + "\n" + GOOD + "\n", "-q", "-f", "METAR"));
+        assertEquals(new MetarEncoder().encode(MetarParser.parse(GOOD))
+                + "\n", output());
+    }
+
+    @Test
+    public void writesBinaryBlocks() throws IOException, MetarParseException {
+        List<String> lines = MetarCorpus.generate(
+                MetarDecodeTool.BATCH_SIZE + 10, 43);
+        lines.set(5, BAD);
+        lines.set(MetarDecodeTool.BATCH_SIZE + 3, BAD);
+        assertEquals(0, run(String.join("\n", lines), "-q", "-t", "2",
+                "-f", "binary"));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                stdout.toByteArray()));
+        byte[] magic = new byte[4];
+        in.readFully(magic);
+        assertArrayEquals("JWMC".getBytes(StandardCharsets.US_ASCII), magic);
+        assertEquals(1, in.readInt());
+
+        int[] blockSizes = {MetarDecodeTool.BATCH_SIZE - 1, 9};
+        int first = 0;
+        for (int rows : blockSizes) {
+            assertEquals(rows, in.readInt());
+            List<Metar> metars = new ArrayList<>();
+            for (int i = first; metars.size() < rows; i++) {
+                if (!lines.get(i).equals(BAD)) {
+                    metars.add(MetarParser.parse(lines.get(i)));
+                }
+                first = i + 1;
+            }
+            readBlock(in, metars);
+        }
+        assertEquals(0, in.readInt());
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void keepsTheInputOrderAcrossThreads() throws IOException,
+            MetarParseException {
+        List<String> lines = MetarCorpus.generate(
+                MetarDecodeTool.BATCH_SIZE * 5 + 7, 44);
+        StringBuilder expected = new StringBuilder();
+        MetarEncoder encoder = new MetarEncoder();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i % 100 == 0) {
+                lines.set(i, BAD);
+            } else {
+                encoder.encode(MetarParser.parse(lines.get(i)), expected)
+                        .append('\n');
+            }
+        }
+
+        assertEquals(0, run(String.join("\n", lines), "-t", "4", "-f",
+                "metar"));
+        assertEquals(expected.toString(), output());
+
+        int failed = (lines.size() + 99) / 100;
+        String summary = stderr.toString().trim();
+        assertTrue(summary, summary.startsWith("decoded "
+                + (lines.size() - failed) + " reports (" + failed
+                + " failed) in "));
+    }
+
+    @Test
+    public void badArgumentsExitWithStatusTwo() throws IOException {
+        String[][] cases = {
+                {"-t", "0"}, {"--threads", "x"}, {"-t"}, {"-f", "xml"},
+                {"--bogus"}
+        };
+        for (String[] args : cases) {
+            stderr.reset();
+            assertEquals(String.join(" ", args), 2, run(GOOD, args));
+            assertTrue(stderr.toString(), stderr.toString()
+                    .contains("usage: metar"));
+        }
+        assertEquals(0, stdout.size());
+
+        stderr.reset();
+        assertEquals(0, run("", "--help"));
+        assertTrue(stderr.toString().startsWith("usage: metar"));
+    }
+
+    private int run(String input, String... args) throws IOException {
+        return MetarDecodeTool.run(args, new ByteArrayInputStream(
+                        input.getBytes(StandardCharsets.ISO_8859_1)), stdout,
+                new PrintStream(stderr, true, "UTF-8"));
+    }
+
+    private static String date(String report) throws MetarParseException {
+        char[] date = new char[17];
+        MetarCsvWriter.formatDate(MetarParser.parse(report).getDate()
+                .getTime() / 60_000L, date);
+        return new String(date);
+    }
+
+    private String output() {
+        return new String(stdout.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read one block of the binary format and check it against the
+     * reports, column by column.
+     */
+    private static void readBlock(DataInputStream in, List<Metar> metars)
+            throws IOException {
+        for (Metar m : metars) {
+            assertEquals(m.getStationID(), in.readUTF());
+        }
+        for (Metar m : metars) {
+            assertEquals(m.getDate().getTime(), in.readLong());
+        }
+        for (Metar m : metars) {
+            String modifier = m.getReportModifier();
+            assertEquals(modifier == null ? "" : modifier, in.readUTF());
+        }
+        for (Metar m : metars) {
+            Integer direction = m.getWindDirection();
+            assertEquals(direction == null ? Integer.MIN_VALUE
+                    : direction.intValue(), in.readInt());
+        }
+        for (Metar m : metars) {
+            assertEquals(m.windSpeedInKnots(), in.readFloat(), 0);
+        }
+        for (Metar m : metars) {
+            assertEquals(m.windGustsInKnots(), in.readFloat(), 0);
+        }
+        for (Metar m : metars) {
+            assertEquals(m.visibilityInMiles(), in.readFloat(), 0);
+        }
+        for (Metar m : metars) {
+            Integer ceiling = m.getCeiling();
+            assertEquals(ceiling == null ? Integer.MIN_VALUE
+                    : ceiling.intValue(), in.readInt());
+        }
+        for (Metar m : metars) {
+            assertEquals(m.temperatureMostPreciseInCelsius(),
+                    in.readFloat(), 0);
+        }
+        for (Metar m : metars) {
+            assertEquals(m.dewPointMostPreciseInCelsius(), in.readFloat(),
+                    0);
+        }
+        for (Metar m : metars) {
+            assertEquals(m.pressureInInches(), in.readFloat(), 0);
+        }
+        for (Metar m : metars) {
+            FlightCategory category = m.getFlightCategoryType();
+            assertEquals(category == null ? -1 : category.ordinal(),
+                    in.readByte());
+        }
+        for (Metar m : metars) {
+            assertEquals(m.getRawText(), in.readUTF());
+        }
+    }
+}
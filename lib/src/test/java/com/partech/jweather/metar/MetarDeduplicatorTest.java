@@ -0,0 +1,177 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MetarDeduplicatorTest {
+
+    private static final long WINDOW = 60000;
+
+    private static final String REPORT =
+            "KJFK 121651Z 31015KT 10SM FEW250 12/08 A2992";
+
+    private final List<String> delivered = new ArrayList<>();
+
+    private final MetarDeduplicator deduplicator = new MetarDeduplicator(
+            WINDOW, new MetarDeduplicator.Listener() {
+                @Override
+                public void onObservation(Metar metar) {
+                    delivered.add(metar.getRawText());
+                }
+
+                @Override
+                public void onCorrection(Metar original, Metar correction) {
+                    delivered.add(original.getRawText() + " -> "
+                            + correction.getRawText());
+                }
+            });
+
+    @Test
+    public void exactDuplicateIsDropped() throws MetarParseException {
+        assertTrue(deduplicator.accept(REPORT, 0));
+        assertFalse(deduplicator.accept(REPORT, 1));
+
+        assertEquals(List.of(REPORT), delivered);
+        assertEquals(1, deduplicator.getDuplicateCount());
+        assertEquals(0, deduplicator.getCorrectionCount());
+    }
+
+    @Test
+    public void whitespaceAndTerminatorVariantsAreDuplicates()
+            throws MetarParseException {
+        assertTrue(deduplicator.accept(" " + REPORT + "=\n", 0));
+        assertFalse(deduplicator.accept(REPORT, 1));
+        assertFalse(deduplicator.accept(
+                REPORT.replace(" ", "  \t") + " = ", 2));
+        assertFalse(deduplicator.accept("\r\n" + REPORT.replace(" 10SM ",
+                "\r\n10SM ") + "==", 3));
+
+        assertEquals(List.of(REPORT), delivered);
+        assertEquals(3, deduplicator.getDuplicateCount());
+    }
+
+    @Test
+    public void correctionReplacesTheObservation()
+            throws MetarParseException {
+        String correction = "KJFK 121651Z COR 31018KT 10SM FEW250 12/08 "
+                + "A2992";
+        String second = "KJFK 121651Z COR 31018KT 10SM FEW250 12/07 A2992";
+
+        assertTrue(deduplicator.accept(REPORT, 0));
+        assertTrue(deduplicator.accept(correction, 1));
+        assertFalse(deduplicator.accept(correction + "=", 2));
+        assertTrue(deduplicator.accept(second, 3));
+
+        assertEquals(List.of(REPORT, REPORT + " -> " + correction,
+                correction + " -> " + second), delivered);
+        assertEquals(1, deduplicator.getDuplicateCount());
+        assertEquals(2, deduplicator.getCorrectionCount());
+    }
+
+    @Test
+    public void otherReportForTheSameObservationIsDropped()
+            throws MetarParseException {
+        assertTrue(deduplicator.accept(REPORT, 0));
+        assertFalse(deduplicator.accept(
+                "KJFK 121651Z 31018KT 10SM FEW250 12/08 A2992", 1));
+        // a different time or station is a new observation
+        assertTrue(deduplicator.accept(
+                "KJFK 121751Z 31015KT 10SM FEW250 12/08 A2992", 2));
+        assertTrue(deduplicator.accept(
+                "KLGA 121651Z 31015KT 10SM FEW250 12/08 A2992", 3));
+
+        assertEquals(3, delivered.size());
+        assertEquals(1, deduplicator.getDuplicateCount());
+        assertEquals(0, deduplicator.getCorrectionCount());
+    }
+
+    @Test
+    public void reportsAreForgottenAfterTheWindow()
+            throws MetarParseException {
+        assertTrue(deduplicator.accept(REPORT, 1000));
+        assertFalse(deduplicator.accept(REPORT, 1000 + WINDOW));
+        assertTrue(deduplicator.accept(REPORT, 1001 + WINDOW));
+
+        assertEquals(List.of(REPORT, REPORT), delivered);
+        assertEquals(1, deduplicator.getDuplicateCount());
+    }
+
+    @Test
+    public void earlierTimesAreTakenAsTheLatest()
+            throws MetarParseException {
+        String other = "KLGA 121651Z 31015KT 10SM FEW250 12/08 A2992";
+        assertTrue(deduplicator.accept(REPORT, 5000));
+        // received at 0, but remembered from 5000
+        assertTrue(deduplicator.accept(other, 0));
+        assertFalse(deduplicator.accept(other, 5000 + WINDOW));
+
+        // both are forgotten together
+        assertTrue(deduplicator.accept(other, 5001 + WINDOW));
+        assertTrue(deduplicator.accept(REPORT, 5001 + WINDOW));
+        assertEquals(4, delivered.size());
+    }
+
+    @Test
+    public void failedReportIsNotRemembered() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                deduplicator.accept("KJFK 1216Z 31015KT", i);
+            } catch (MetarParseException expected) {
+            }
+        }
+        assertEquals(0, deduplicator.getDuplicateCount());
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void canonicalFormsAgree() {
+        String[] reports = {REPORT, " " + REPORT + " =", "A  B\tC==",
+                "=", "", "A B", "AB", "A  B C", "A B C ="};
+        for (String a : reports) {
+            String canonical = MetarDeduplicator.canonicalize(a);
+            assertTrue(a, MetarDeduplicator.canonicalEquals(a, canonical));
+            for (String b : reports) {
+                boolean same = canonical.equals(
+                        MetarDeduplicator.canonicalize(b));
+                assertEquals(a + " / " + b, same,
+                        MetarDeduplicator.canonicalEquals(b, canonical));
+                if (same) {
+                    assertEquals(MetarDeduplicator.canonicalHash(a),
+                            MetarDeduplicator.canonicalHash(b));
+                }
+            }
+        }
+        assertEquals(0, MetarDeduplicator.canonicalize(" \n= ").length());
+    }
+}
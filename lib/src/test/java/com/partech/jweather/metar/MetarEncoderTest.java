@@ -0,0 +1,189 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class MetarEncoderTest {
+
+    @Test
+    public void writesGroupsInTheStandardOrder() throws MetarParseException {
+        assertEquals("KJFK 121651Z 31015G25KT 280V340 1/2SM R04R/2000V4000FT "
+                        + "+TSRA BR FG VV004 M02/M05 A2992 RMK T10221050",
+                encode("KJFK 121651Z 31015G25KT 280V340 1/2SM "
+                        + "R04R/2000V4000FT +TSRA BR FG VV004 M02/M05 A2992 "
+                        + "RMK AO2 T10221050"));
+        assertEquals("KCNO 231653Z VRB04KT 1 3/4SM HZ BKN010 18/15 A2997 RMK "
+                        + "T01780150 HZ FEW000",
+                encode("KCNO 231653Z VRB04KT 1 3/4SM HZ BKN010 18/15 A2997 "
+                        + "RMK AO2 SLP145 HZ FEW000 T01780150"));
+        assertEquals("LFPG 121630Z 05008MPS CAVOK 15/03 NOSIG",
+                encode("LFPG 121630Z 05008MPS CAVOK 15/03 Q1025 NOSIG"));
+    }
+
+    @Test
+    public void writesNosigInTheRemarksWhenNothingComesBeforeIt()
+            throws MetarParseException {
+        // otherwise it would be read back as a weather group
+        assertEquals("LFPG 121630Z 05008MPS 9999 -RA RMK NOSIG",
+                encode("LFPG 121630Z 05008MPS 9999 -RA NOSIG"));
+        assertEquals("KCNO 231653Z VRB04KT 1 3/4SM HZ BKN010 NOSIG RMK "
+                        + "FG FEW000",
+                encode("KCNO 231653Z VRB04KT 1 3/4SM HZ BKN010 RMK FG FEW000 "
+                        + "NOSIG"));
+    }
+
+    /**
+     * Parsing the encoded text of a report gives back every value decoded
+     * from the original, and encoding that again gives the same text. This
+     * holds for reports with a date and a visibility (or CAVOK): the parser
+     * finds groups by their position, so without them the groups that
+     * follow are read differently.
+     */
+    @Test
+    public void roundTripsTheGeneratedCorpus() throws MetarParseException {
+        MetarParser parser = new MetarParser();
+        MetarEncoder encoder = new MetarEncoder();
+        for (String report : MetarCorpus.generate(20000, 48)) {
+            Metar original = parser.parseData(report);
+            String expected = describe(original);
+            String encoded = encoder.encode(original).toString();
+
+            Metar decoded = parser.parseData(encoded);
+            assertEquals(report + " -> " + encoded, expected,
+                    describe(decoded));
+            assertEquals(report, encoded,
+                    encoder.encode(decoded).toString());
+        }
+    }
+
+    @Test
+    public void everyOutputGetsTheSameText() throws MetarParseException {
+        MetarEncoder encoder = new MetarEncoder();
+        for (String report : MetarCorpus.generate(500, 49)) {
+            Metar metar = MetarParser.parse(report);
+            String text = encoder.encode(metar).toString();
+
+            StringBuilder sb = new StringBuilder(">");
+            encoder.encode(metar, sb);
+            assertEquals(">" + text, sb.toString());
+
+            CharBuffer chars = CharBuffer.allocate(text.length());
+            encoder.encode(metar, chars);
+            chars.flip();
+            assertEquals(text, chars.toString());
+
+            ByteBuffer bytes = ByteBuffer.allocate(text.length());
+            encoder.encode(metar, bytes);
+            bytes.flip();
+            assertEquals(text, StandardCharsets.US_ASCII.decode(bytes)
+                    .toString());
+        }
+    }
+
+    @Test
+    public void fullBuffersAreLeftUntouched() throws MetarParseException {
+        Metar metar = MetarParser.parse("EGLL 121650Z 24012KT 9999 NSC "
+                + "12/08 Q1012");
+        int length = new MetarEncoder().encode(metar).length();
+        MetarEncoder encoder = new MetarEncoder();
+
+        CharBuffer chars = CharBuffer.allocate(length - 1);
+        try {
+            encoder.encode(metar, chars);
+            fail("encoded into a short CharBuffer");
+        } catch (BufferOverflowException expected) {
+        }
+        assertEquals(0, chars.position());
+
+        ByteBuffer bytes = ByteBuffer.allocate(length - 1);
+        try {
+            encoder.encode(metar, bytes);
+            fail("encoded into a short ByteBuffer");
+        } catch (BufferOverflowException expected) {
+        }
+        assertEquals(0, bytes.position());
+    }
+
+    private static String encode(String report) throws MetarParseException {
+        return new MetarEncoder().encode(MetarParser.parse(report))
+                .toString();
+    }
+
+    /**
+     * @return every value the parser decodes from a report
+     */
+    static String describe(Metar metar) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(metar.getStationID()).append('|')
+                .append(metar.getDate()).append('|')
+                .append(metar.getReportModifier()).append('|')
+                .append(metar.getWindDirection()).append('|')
+                .append(metar.getWindDirectionIsVariable()).append('|')
+                .append(metar.getWindDirectionMin()).append('-')
+                .append(metar.getWindDirectionMax()).append('|')
+                .append(metar.getWindSpeedInKnots()).append('|')
+                .append(metar.getWindSpeedInMPS()).append('|')
+                .append(metar.getWindGustsInKnots()).append('|')
+                .append(metar.getIsCavok()).append('|')
+                .append(metar.getVisibility()).append('|')
+                .append(metar.getVisibilityInMeters()).append('|')
+                .append(metar.getVisibilityLessThan()).append('|')
+                .append(metar.getVisibilityGreaterThan()).append('|')
+                .append(metar.getTemperatureInCelsius()).append('|')
+                .append(metar.getDewPointInCelsius()).append('|')
+                .append(metar.getTemperaturePreciseInCelsius()).append('|')
+                .append(metar.getDewPointPreciseInCelsius()).append('|')
+                .append(metar.getPressure()).append('|')
+                .append(metar.getIsNoSignificantChange()).append('|')
+                .append(metar.getCeiling()).append('|')
+                .append(metar.getFlightCategoryType());
+        sb.append("|weather=");
+        for (WeatherCondition wc : metar.getWeatherConditions()) {
+            sb.append(wc.getNaturalLanguageString()).append(';');
+        }
+        sb.append("|sky=");
+        for (SkyCondition sc : metar.getSkyConditions()) {
+            sb.append(sc.getNaturalLanguageString()).append(';');
+        }
+        sb.append("|rvr=");
+        for (RunwayVisualRange rvr : metar.getRunwayVisualRanges()) {
+            sb.append(rvr.getNaturalLanguageString()).append(';');
+        }
+        sb.append("|obscurations=");
+        for (Obscuration o : metar.getObscurations()) {
+            sb.append(o.getNaturalLanguageString()).append(';');
+        }
+        return sb.toString();
+    }
+}
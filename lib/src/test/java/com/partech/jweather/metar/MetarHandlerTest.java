@@ -0,0 +1,311 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MetarHandlerTest {
+
+    @Test
+    public void reportsEveryGroupInOrder() throws MetarParseException {
+        String report = "KJFK 121651Z COR 31015G25KT 280V340 1 1/2SM "
+                + "R04R/2000V4000FT R22L/P6000FT -TSRA BR FEW008 BKN015CB "
+                + "12/M05 A2992 RMK AO2 FG SCT005 T01221050 NOSIG";
+
+        // remarks are decoded before the end of the report even when the
+        // parser defers them for parseData
+        MetarParser parser = new MetarParser();
+        parser.setLazyRemarks(true);
+        Recorder recorder = new Recorder();
+        parser.parseEvents(report, recorder);
+
+        assertEquals(Arrays.asList(
+                "start " + report,
+                "station KJFK",
+                "time 12 16 51",
+                "modifier COR",
+                "wind 310 15.0 25.0 false",
+                "variation 280 340",
+                "visibility 1.5 STATUTE_MILES false false",
+                "rvr 4 R _ 2000 4000",
+                "rvr 22 L P 6000 -1",
+                "weather - TS RA",
+                "weather _ null BR",
+                "sky FEW 800 null",
+                "sky BKN 1500 CB",
+                "temperature 12.0 -5.0",
+                "altimeter 29.92",
+                "remark AO2",
+                "obscuration FG SCT 500",
+                "precise 12.2 -5.0",
+                "nosig",
+                "end"), recorder.events);
+    }
+
+    @Test
+    public void reportsVisibilityInItsOwnUnit() throws MetarParseException {
+        assertEquals(Arrays.asList("wind -1 3.0 NaN true", "cavok"),
+                groups("LFPG 121630Z VRB03KT CAVOK 12/08 Q1012 NOSIG",
+                        "wind", "cavok", "visibility"));
+        assertEquals(Arrays.asList("wind 0 0.0 NaN false",
+                        "visibility 4000.0 METERS false false"),
+                groups("EGLL 121650Z 00000KT 4000 +SHRA NSC 12/08 Q1012",
+                        "wind", "visibility"));
+        assertEquals(Arrays.asList(
+                        "visibility 10.0 KILOMETERS false false"),
+                groups("UUEE 121650Z 05008MPS 10KM OVC040 M02/M05 Q1012",
+                        "visibility"));
+        assertEquals(Arrays.asList(
+                        "visibility 0.25 STATUTE_MILES true false"),
+                groups("KCNO 231653Z 29009KT M1/4SM FG VV002 M02/M03 A2991",
+                        "visibility"));
+    }
+
+    /**
+     * A Metar built from the callbacks holds the same values as the one
+     * parseData decodes.
+     */
+    @Test
+    public void callbacksAgreeWithParseData() throws MetarParseException {
+        MetarParser parser = new MetarParser();
+        parser.setLazyRemarks(true);
+        List<String> reports = new ArrayList<>(
+                MetarCorpus.generate(5000, 50));
+        reports.add("KJFK 121651Z COR 31015G25KT 280V340 1 1/2SM "
+                + "R04R/2000V4000FT -TSRA BR BKN015CB 12/M05 A2992 "
+                + "RMK FG SCT005 T01221050 NOSIG");
+        reports.add("KCNO 231653Z 29009KT M1/4SM FG VV002 M02/M03 A2991");
+
+        for (String report : reports) {
+            Metar parsed = parser.parseData(report);
+            String expected = MetarEncoderTest.describe(parsed);
+
+            Recorder recorder = new Recorder();
+            parser.parseEvents(report, recorder);
+            assertEquals(1, count(recorder.events, "start"));
+            assertEquals(0, recorder.events.get(0).indexOf("start "));
+            assertEquals(1, count(recorder.events, "end"));
+            assertEquals("end",
+                    recorder.events.get(recorder.events.size() - 1));
+
+            // parseEvents derives no flight category
+            recorder.metar.setFlightCategoryType(
+                    parsed.getFlightCategoryType());
+            assertEquals(report, expected,
+                    MetarEncoderTest.describe(recorder.metar));
+        }
+    }
+
+    @Test
+    public void failedReportHasNoEnd() {
+        Recorder recorder = new Recorder();
+        try {
+            new MetarParser().parseEvents(
+                    "KJFK 121651Z 31015KT 10SM CLR 12/ A2992", recorder);
+            fail("parsed a temperature with no dew point");
+        } catch (MetarParseException expected) {
+        }
+        assertEquals(Arrays.asList(
+                "start KJFK 121651Z 31015KT 10SM CLR 12/ A2992",
+                "station KJFK",
+                "time 12 16 51",
+                "wind 310 15.0 NaN false",
+                "visibility 10.0 STATUTE_MILES false false",
+                "sky CLR 0 null"), recorder.events);
+    }
+
+    private static List<String> groups(String report, String... names)
+            throws MetarParseException {
+        Recorder recorder = new Recorder();
+        new MetarParser().parseEvents(report, recorder);
+        List<String> groups = new ArrayList<>();
+        for (String event : recorder.events) {
+            for (String name : names) {
+                if (event.equals(name) || event.startsWith(name + " ")) {
+                    groups.add(event);
+                }
+            }
+        }
+        return groups;
+    }
+
+    private static int count(List<String> events, String name) {
+        int count = 0;
+        for (String event : events) {
+            if (event.equals(name) || event.startsWith(name + " ")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Records every callback as text, and builds a Metar from them as
+     * parseData does.
+     */
+    private static final class Recorder implements MetarHandler {
+
+        final List<String> events = new ArrayList<>();
+        final Metar metar = new Metar();
+        private final MetarBuilder builder = new MetarBuilder();
+
+        Recorder() {
+            builder.start(metar);
+        }
+
+        @Override
+        public void onReportStart(String metarData) {
+            events.add("start " + metarData);
+            metar.setRawText(metarData);
+        }
+
+        @Override
+        public void onStation(String stationID) {
+            events.add("station " + stationID);
+            builder.onStation(stationID);
+        }
+
+        @Override
+        public void onTime(int day, int hour, int minute) {
+            events.add("time " + day + " " + hour + " " + minute);
+            builder.onTime(day, hour, minute);
+        }
+
+        @Override
+        public void onModifier(String modifier) {
+            events.add("modifier " + modifier);
+            builder.onModifier(modifier);
+        }
+
+        @Override
+        public void onWind(int direction, float speed, float gusts,
+                           boolean variable) {
+            events.add("wind " + direction + " " + speed + " " + gusts
+                    + " " + variable);
+            builder.onWind(direction, speed, gusts, variable);
+        }
+
+        @Override
+        public void onWindVariation(int minimum, int maximum) {
+            events.add("variation " + minimum + " " + maximum);
+            builder.onWindVariation(minimum, maximum);
+        }
+
+        @Override
+        public void onCavok() {
+            events.add("cavok");
+            builder.onCavok();
+        }
+
+        @Override
+        public void onVisibility(float distance, DistanceUnit unit,
+                                 boolean lessThan, boolean greaterThan) {
+            events.add("visibility " + distance + " " + unit + " "
+                    + lessThan + " " + greaterThan);
+            builder.onVisibility(distance, unit, lessThan, greaterThan);
+        }
+
+        @Override
+        public void onRunwayVisualRange(int runway, char approach,
+                                        char modifier, int lowest,
+                                        int highest) {
+            events.add("rvr " + runway + " " + symbol(approach) + " "
+                    + symbol(modifier) + " " + lowest + " " + highest);
+            builder.onRunwayVisualRange(runway, approach, modifier, lowest,
+                    highest);
+        }
+
+        @Override
+        public void onWeather(char intensity, String descriptor,
+                              String phenomenon) {
+            events.add("weather " + symbol(intensity) + " " + descriptor
+                    + " " + phenomenon);
+            builder.onWeather(intensity, descriptor, phenomenon);
+        }
+
+        @Override
+        public void onSky(String cover, int height, String modifier) {
+            events.add("sky " + cover + " " + height + " " + modifier);
+            builder.onSky(cover, height, modifier);
+        }
+
+        @Override
+        public void onTemperature(float temperature, float dewPoint) {
+            events.add("temperature " + temperature + " " + dewPoint);
+            builder.onTemperature(temperature, dewPoint);
+        }
+
+        @Override
+        public void onAltimeter(float pressure) {
+            events.add("altimeter " + pressure);
+            builder.onAltimeter(pressure);
+        }
+
+        @Override
+        public void onPreciseTemperature(float temperature, float dewPoint) {
+            events.add("precise " + temperature + " " + dewPoint);
+            builder.onPreciseTemperature(temperature, dewPoint);
+        }
+
+        @Override
+        public void onObscuration(String phenomenon, String amount,
+                                  int height) {
+            events.add("obscuration " + phenomenon + " " + amount + " "
+                    + height);
+            builder.onObscuration(phenomenon, amount, height);
+        }
+
+        @Override
+        public void onNoSignificantChange() {
+            events.add("nosig");
+            builder.onNoSignificantChange();
+        }
+
+        @Override
+        public void onRemark(String token) {
+            events.add("remark " + token);
+        }
+
+        @Override
+        public void onReportEnd() {
+            events.add("end");
+        }
+
+        /**
+         * @return the character, or "_" for none
+         */
+        private static String symbol(char c) {
+            return c == 0 ? "_" : String.valueOf(c);
+        }
+    }
+}
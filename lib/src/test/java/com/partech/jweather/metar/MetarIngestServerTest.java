@@ -0,0 +1,194 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class MetarIngestServerTest {
+
+    private static final String REPORT =
+            "KCNO 060653Z 32004KT 10SM BKN043 13/11 A2993 RMK AO2";
+
+    private final ConcurrentLinkedQueue<Metar> received =
+            new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> failures =
+            new ConcurrentLinkedQueue<>();
+    private final List<SocketChannel> clients = new ArrayList<>();
+    private MetarIngestServer server;
+
+    @After
+    public void close() throws IOException {
+        for (SocketChannel client : clients) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void splitsLinesAcrossReads() throws Exception {
+        start();
+        SocketChannel client = connect();
+        write(client, "\r\n  \n" + REPORT.substring(0, 20));
+        write(client, REPORT.substring(20) + "\r\n" + REPORT + "\n");
+        write(client, "NOT A METAR\n" + REPORT);
+        client.close();
+
+        await(() -> received.size() + failures.size(), 4);
+        assertEquals(3, received.size());
+        for (Metar metar : received) {
+            assertEquals("KCNO", metar.getStationID());
+            assertEquals(REPORT, metar.getRawText());
+        }
+        assertEquals("NOT A METAR", failures.peek());
+    }
+
+    @Test
+    public void discardsOverlongLines() throws Exception {
+        start();
+        SocketChannel client = connect();
+        StringBuilder longLine = new StringBuilder();
+        while (longLine.length() <= MetarIngestServer.MAX_LINE_LENGTH) {
+            longLine.append(REPORT).append(' ');
+        }
+        write(client, longLine + "\n" + REPORT + "\n");
+
+        await(() -> received.size() + failures.size(), 2);
+        assertEquals(1, received.size());
+        assertEquals(1, server.getFailureCount());
+        // the sink is given no line when it was too long to keep
+        assertEquals("", failures.peek());
+    }
+
+    /**
+     * Holds many loopback connections open at once and sends one report on
+     * each. The default suite opens a few hundred; set the
+     * metar.ingest.connections system property (for example with
+     * ./gradlew test -Pmetar.ingest.connections=10000) to try ten thousand.
+     * The test is skipped when the process may not open a file descriptor
+     * for both ends of every connection.
+     */
+    @Test
+    public void servesManySimultaneousConnections() throws Exception {
+        int count = Integer.getInteger("metar.ingest.connections", 200);
+        OperatingSystemMXBean os =
+                ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.UnixOperatingSystemMXBean) {
+            long limit = ((com.sun.management.UnixOperatingSystemMXBean) os)
+                    .getMaxFileDescriptorCount();
+            Assume.assumeTrue("needs " + (2L * count + 1024)
+                            + " file descriptors, limit is " + limit,
+                    limit >= 2L * count + 1024);
+        }
+
+        start();
+        for (int i = 0; i < count; i++) {
+            connect();
+        }
+        await(server::getOpenConnectionCount, count);
+
+        byte[] line = (REPORT + "\n").getBytes(StandardCharsets.US_ASCII);
+        for (SocketChannel client : clients) {
+            client.write(ByteBuffer.wrap(line));
+        }
+        await(server::getReportCount, count);
+
+        // every connection is still open after its report was read
+        assertEquals(count, server.getOpenConnectionCount());
+        assertEquals(count, server.getConnectionCount());
+        assertEquals(0, server.getFailureCount());
+        assertEquals(count, received.size());
+
+        for (SocketChannel client : clients) {
+            client.close();
+        }
+        clients.clear();
+        await(server::getOpenConnectionCount, 0);
+    }
+
+    private void start() throws IOException {
+        server = new MetarIngestServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                new MetarIngestServer.Sink() {
+                    @Override
+                    public void accept(Metar metar) {
+                        received.add(metar);
+                    }
+
+                    @Override
+                    public void onFailure(String line, Exception cause) {
+                        failures.add(line == null ? "" : line);
+                    }
+                });
+        server.start();
+    }
+
+    private SocketChannel connect() throws IOException {
+        SocketChannel client = SocketChannel.open(server.getLocalAddress());
+        clients.add(client);
+        return client;
+    }
+
+    private static void write(SocketChannel client, String text)
+            throws IOException, InterruptedException {
+        ByteBuffer buffer =
+                ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        while (buffer.hasRemaining()) {
+            client.write(buffer);
+        }
+        // give the server a chance to read each write separately
+        Thread.sleep(20);
+    }
+
+    private static void await(LongSupplier value, long expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (value.getAsLong() != expected) {
+            assertTrue("expected " + expected + " but was "
+                    + value.getAsLong(), System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
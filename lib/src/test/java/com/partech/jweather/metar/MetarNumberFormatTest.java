@@ -0,0 +1,213 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MetarNumberFormatTest {
+
+    @Test
+    public void roundsHalfUpFromTheExactValueOfTheFloat() {
+        // 2.675f is 2.67499995..., so it rounds down
+        assertEquals("2.67", format(2.675f, 2));
+        assertEquals("1.00", format(1.005f, 2));
+        // these are exact halves
+        assertEquals("0.13", format(0.125f, 2));
+        assertEquals("3", format(2.5f, 0));
+        assertEquals("1", format(0.5f, 0));
+        assertEquals("29.92", format(29.92f, 2));
+        assertEquals("10.0", format(9.96f, 1));
+    }
+
+    @Test
+    public void negativesThatRoundToZeroHaveNoSign() {
+        assertEquals("0.00", format(-0.004f, 2));
+        assertEquals("0", format(-0.4f, 0));
+        assertEquals("0.0", format(-0.0f, 1));
+        assertEquals("0.000000000", format(-1e-10f, 9));
+        // halves round away from zero
+        assertEquals("-1", format(-0.5f, 0));
+        assertEquals("-0.38", format(-0.375f, 2));
+        assertEquals("-2.67", format(-2.675f, 2));
+    }
+
+    @Test
+    public void missingValuesAreWrittenAsNothing() {
+        assertEquals("", format(Float.NaN, 1));
+        assertEquals("", format(Float.POSITIVE_INFINITY, 1));
+        assertEquals("", format(Float.NEGATIVE_INFINITY, 0));
+    }
+
+    @Test
+    public void largeValuesAreWrittenWithoutAnExponent() {
+        assertEquals("100000002004087734272.00", format(1e20f, 2));
+        assertEquals("1000000000", format(1e9f, 0));
+        assertEquals("1000000000.000000000", format(1e9f, 9));
+
+        String max = format(-Float.MAX_VALUE, MetarNumberFormat.MAX_DECIMALS);
+        assertEquals(new BigDecimal(-Float.MAX_VALUE).setScale(
+                MetarNumberFormat.MAX_DECIMALS).toPlainString(), max);
+        assertEquals(MetarNumberFormat.MAX_LENGTH, max.length());
+    }
+
+    @Test
+    public void everyFormMatchesBigDecimal() {
+        Random random = new Random(45);
+        for (int i = 0; i < 50000; i++) {
+            float value;
+            switch (i % 4) {
+                case 0:
+                    // a value with a few decimals, as in reports
+                    value = (random.nextInt(2000000) - 1000000) / 1000f;
+                    break;
+                case 1:
+                    value = (float) random.nextGaussian() * 100;
+                    break;
+                case 2:
+                    value = Float.intBitsToFloat(random.nextInt());
+                    break;
+                default:
+                    value = random.nextInt(20000) / 8f - 1250;
+                    break;
+            }
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                continue;
+            }
+            int decimals = random.nextInt(MetarNumberFormat.MAX_DECIMALS + 1);
+            assertEquals(value + " with " + decimals + " decimals",
+                    new BigDecimal(value).setScale(decimals,
+                            RoundingMode.HALF_UP).toPlainString(),
+                    format(value, decimals));
+        }
+    }
+
+    @Test
+    public void formatsIntegers() throws Exception {
+        for (long value : new long[]{0, 7, -7, 10, 999, -1000,
+                Integer.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            String expected = Long.toString(value);
+
+            assertEquals(expected, MetarNumberFormat.append(
+                    new StringBuilder(), value).toString());
+            assertEquals(expected, MetarNumberFormat.append(
+                    (Appendable) new StringBuilder(), value).toString());
+
+            char[] chars = new char[MetarNumberFormat.MAX_LENGTH + 1];
+            int end = MetarNumberFormat.format(value, chars, 1);
+            assertEquals(expected, new String(chars, 1, end - 1));
+
+            byte[] bytes = new byte[MetarNumberFormat.MAX_LENGTH + 1];
+            end = MetarNumberFormat.format(value, bytes, 1);
+            assertEquals(expected, new String(bytes, 1, end - 1,
+                    StandardCharsets.US_ASCII));
+
+            for (CharBuffer buffer : buffers()) {
+                MetarNumberFormat.put(buffer, value);
+                buffer.flip();
+                assertEquals(expected, buffer.toString());
+            }
+        }
+    }
+
+    @Test
+    public void putNeedsRoomForTheLongestValue() {
+        for (CharBuffer buffer : new CharBuffer[]{
+                CharBuffer.allocate(MetarNumberFormat.MAX_LENGTH - 1),
+                ByteBuffer.allocateDirect(
+                        2 * (MetarNumberFormat.MAX_LENGTH - 1))
+                        .asCharBuffer()}) {
+            try {
+                MetarNumberFormat.put(buffer, 1.5f, 1);
+                fail("float written to a short buffer");
+            } catch (BufferOverflowException expected) {
+            }
+            try {
+                MetarNumberFormat.put(buffer, 15);
+                fail("integer written to a short buffer");
+            } catch (BufferOverflowException expected) {
+            }
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyDecimalsIsAnError() {
+        MetarNumberFormat.append(new StringBuilder(), 1f,
+                MetarNumberFormat.MAX_DECIMALS + 1);
+    }
+
+    /**
+     * Format a value in each of the forms, check that they agree and return
+     * the text.
+     */
+    private static String format(float value, int decimals) {
+        String text = MetarNumberFormat.append(new StringBuilder(), value,
+                decimals).toString();
+        assertFalse(text, text.contains("E"));
+
+        char[] chars = new char[MetarNumberFormat.MAX_LENGTH + 2];
+        int end = MetarNumberFormat.format(value, decimals, chars, 2);
+        assertEquals(text, new String(chars, 2, end - 2));
+
+        byte[] bytes = new byte[MetarNumberFormat.MAX_LENGTH + 2];
+        end = MetarNumberFormat.format(value, decimals, bytes, 2);
+        assertEquals(text, new String(bytes, 2, end - 2,
+                StandardCharsets.US_ASCII));
+
+        for (CharBuffer buffer : buffers()) {
+            MetarNumberFormat.put(buffer, value, decimals);
+            buffer.flip();
+            assertEquals(text, buffer.toString());
+        }
+        return text;
+    }
+
+    /**
+     * @return an array backed buffer, one that is a slice of a larger array,
+     * and one without an accessible array
+     */
+    private static CharBuffer[] buffers() {
+        int length = MetarNumberFormat.MAX_LENGTH;
+        CharBuffer sliced = CharBuffer.allocate(length + 3);
+        sliced.position(3);
+        return new CharBuffer[]{
+                CharBuffer.allocate(length),
+                sliced.slice(),
+                ByteBuffer.allocateDirect(2 * length).asCharBuffer()
+        };
+    }
+}
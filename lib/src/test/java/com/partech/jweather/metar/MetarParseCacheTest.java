@@ -0,0 +1,129 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class MetarParseCacheTest {
+
+    private static final String A =
+            "KJFK 121651Z 31015KT 10SM FEW250 12/08 A2992";
+    private static final String B =
+            "KLGA 121651Z 31012KT 10SM FEW250 12/07 A2992";
+    private static final String C =
+            "KEWR 121651Z 30010KT 10SM CLR 13/07 A2993";
+
+    @Test
+    public void hitReturnsTheSameFrozenInstance() throws MetarParseException {
+        MetarParseCache cache = new MetarParseCache(4);
+        Metar first = cache.parse(A);
+        assertTrue(first.isFrozen());
+        assertEquals("KJFK", first.getStationID());
+
+        assertSame(first, cache.parse(A));
+        assertSame(first, cache.getIfPresent(A));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsed() throws MetarParseException {
+        MetarParseCache cache = new MetarParseCache(2);
+        Metar a = cache.parse(A);
+        cache.parse(B);
+        // A is now more recently used than B
+        assertSame(a, cache.parse(A));
+        cache.parse(C);
+
+        assertEquals(2, cache.size());
+        assertSame(a, cache.getIfPresent(A));
+        assertNull(cache.getIfPresent(B));
+        assertNotNull(cache.getIfPresent(C));
+        assertEquals(1, cache.getEvictionCount());
+
+        // getIfPresent counts as a use too
+        cache.getIfPresent(A);
+        cache.parse(B);
+        assertNull(cache.getIfPresent(C));
+        assertSame(a, cache.getIfPresent(A));
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void countsHitsMissesAndEvictions() throws MetarParseException {
+        MetarParseCache cache = new MetarParseCache(1);
+        cache.parse(A);
+        cache.parse(A);
+        cache.parse(B);
+        cache.parse(A);
+        cache.parse(A);
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(2, cache.getEvictionCount());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.getIfPresent(A));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void failedParseIsNotCached() {
+        MetarParseCache cache = new MetarParseCache(4);
+        String bad = "KJFK 1216Z 31015KT 10SM";
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.parse(bad);
+                fail("parsed " + bad);
+            } catch (MetarParseException expected) {
+            }
+        }
+        assertNull(cache.getIfPresent(bad));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test(expected = MetarParseException.class)
+    public void nullReportIsAnError() throws MetarParseException {
+        new MetarParseCache(1).parse(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeMustBePositive() {
+        new MetarParseCache(0);
+    }
+}
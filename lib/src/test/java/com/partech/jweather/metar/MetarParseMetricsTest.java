@@ -0,0 +1,161 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MetarParseMetricsTest {
+
+    @Test
+    public void smallValuesHaveTheirOwnBuckets() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, MetarParseMetrics.bucketIndex(value));
+            assertEquals(value, MetarParseMetrics.bucketUpperBound(value));
+        }
+        // from 16 on, eight buckets for each power of two
+        assertEquals(16, MetarParseMetrics.bucketIndex(16));
+        assertEquals(16, MetarParseMetrics.bucketIndex(17));
+        assertEquals(17, MetarParseMetrics.bucketIndex(18));
+        assertEquals(23, MetarParseMetrics.bucketIndex(31));
+        assertEquals(24, MetarParseMetrics.bucketIndex(32));
+        assertEquals(17, MetarParseMetrics.bucketUpperBound(16));
+        assertEquals(31, MetarParseMetrics.bucketUpperBound(23));
+        assertEquals(35, MetarParseMetrics.bucketUpperBound(24));
+    }
+
+    @Test
+    public void bucketsCoverEveryValueOnce() {
+        int last = MetarParseMetrics.bucketIndex(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, MetarParseMetrics.bucketUpperBound(last));
+
+        long lowest = 0;
+        for (int i = 0; i <= last; i++) {
+            long highest = MetarParseMetrics.bucketUpperBound(i);
+            assertTrue(highest >= lowest);
+            assertEquals(i, MetarParseMetrics.bucketIndex(lowest));
+            assertEquals(i, MetarParseMetrics.bucketIndex(highest));
+            // within 12.5% of any value in the bucket
+            assertTrue(i + ": " + lowest + ".." + highest,
+                    highest - lowest <= lowest / 8);
+            lowest = highest + 1;
+        }
+    }
+
+    @Test
+    public void percentilesAreMonotonic() {
+        MetarParseMetrics metrics = new MetarParseMetrics();
+        Random random = new Random(31);
+        long max = 0;
+        for (int i = 0; i < 100000; i++) {
+            // a long-tailed distribution, as parse times are
+            long nanos = (long) (1000 * Math.exp(random.nextGaussian() * 2));
+            max = Math.max(max, nanos);
+            metrics.onParseCompleted(null, nanos);
+        }
+        MetarParseMetrics.Snapshot snapshot = metrics.snapshot();
+
+        long previous = snapshot.getLatencyPercentileNanos(0);
+        for (double p = 0.5; p <= 100; p += 0.5) {
+            long value = snapshot.getLatencyPercentileNanos(p);
+            assertTrue(p + ": " + value + " < " + previous,
+                    value >= previous);
+            previous = value;
+        }
+        assertEquals(snapshot.getMaxLatencyNanos(),
+                snapshot.getLatencyPercentileNanos(100));
+        assertEquals(MetarParseMetrics.bucketUpperBound(
+                MetarParseMetrics.bucketIndex(max)),
+                snapshot.getMaxLatencyNanos());
+        long median = snapshot.getLatencyPercentileNanos(50);
+        assertTrue(String.valueOf(median), median >= 1000 && median <= 1125);
+    }
+
+    @Test
+    public void reportsMaxAndMean() {
+        MetarParseMetrics metrics = new MetarParseMetrics();
+        MetarParseMetrics.Snapshot empty = metrics.snapshot();
+        assertEquals(0, empty.getMaxLatencyNanos());
+        assertEquals(0, empty.getLatencyPercentileNanos(50));
+        assertEquals(0, empty.getMeanLatencyNanos(), 0);
+
+        metrics.onParseCompleted(null, 100);
+        metrics.onParseCompleted(null, 300);
+        metrics.onParseFailed("x", null, new MetarParseException("x"), 1000);
+        // a clock that went backwards counts as zero
+        metrics.onParseCompleted(null, -50);
+
+        MetarParseMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1400 / 4.0, snapshot.getMeanLatencyNanos(), 0);
+        assertEquals(1023, snapshot.getMaxLatencyNanos());
+        assertEquals(0, snapshot.getLatencyPercentileNanos(25));
+        assertEquals(3, snapshot.getParseCount());
+        assertEquals(1, snapshot.getFailureCount());
+    }
+
+    @Test
+    public void countsFailuresByGroup() {
+        MetarParser parser = new MetarParser();
+        MetarParseMetrics metrics = new MetarParseMetrics();
+        parser.setParseListener(metrics);
+        String[] reports = {
+                "KJFK 121651Z 31015KT 10SM CLR 12/08 A2992",
+                "KJFK 1216Z 31015KT 10SM CLR 12/08 A2992",
+                "KJFK 121651Z 31015KT 1/SM CLR 12/08 A2992",
+                "KJFK 121651Z 31015KT 10SM CLR 12/ A2992",
+                "KJFK 121651Z 31015KT 10SM CLR M1/05 A2992 RMK AO2 XYZ"
+        };
+        int failed = 0;
+        for (String report : reports) {
+            try {
+                parser.parseData(report);
+            } catch (MetarParseException e) {
+                failed++;
+            }
+        }
+        try {
+            parser.parseData(null);
+            fail("parsed null");
+        } catch (MetarParseException expected) {
+            failed++;
+        }
+
+        MetarParseMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getParseCount());
+        assertEquals(failed, snapshot.getFailureCount());
+        assertEquals(2, snapshot.getHeaderFailureCount());
+        assertEquals(1, snapshot.getFailureCount(MetarGroup.VISIBILITY));
+        assertEquals(2, snapshot.getFailureCount(MetarGroup.TEMPERATURE));
+        assertEquals(0, snapshot.getFailureCount(MetarGroup.WIND));
+        assertEquals(4, snapshot.getGroupCount(MetarGroup.WIND));
+        assertEquals(1, snapshot.getGroupCount(MetarGroup.ALTIMETER));
+    }
+}
@@ -0,0 +1,210 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Measures the cost of parsing the reports of {@link MetarCorpus} with one
+ * reused parser, in nanoseconds per report. Each mode sets the parser up
+ * differently:
+ *
+ * <ul>
+ * <li>none: no parse listener, the default</li>
+ * <li>listener: a listener that ignores every callback</li>
+ * <li>metrics: a {@link MetarParseMetrics} listener</li>
+ * <li>body: a projection of every group but the remarks</li>
+ * <li>wind: a projection of the wind group alone</li>
+ * <li>weather: no parse listener, over only the reports of the corpus
+ * that have a weather group</li>
+ * </ul>
+ *
+ * The modes are measured in turn for several rounds, after a warm-up, and
+ * the best and median round of each is reported. The none and weather
+ * modes only call {@link MetarParser#parseData(String)}, so they can also
+ * be run with the classes of an earlier build first on the class path to
+ * compare the cost of a change.
+ *
+ * <pre>
+ * java -cp lib/build/classes/java/main:lib/build/classes/java/test \
+ *     com.partech.jweather.metar.MetarParserBenchmark [reports] [mode ...]
+ * </pre>
+ */
+public class MetarParserBenchmark {
+
+    private static final int ROUNDS = 7;
+
+    private static final String[] MODES = {
+            "none", "listener", "metrics", "body", "wind", "weather"
+    };
+
+    // the modes that decode every group
+    private static final String[] FULL_MODES = {"none", "listener",
+            "metrics", "weather"};
+
+    // keeps the parsed values alive so the parsing is not optimized away
+    private static int sink;
+
+    public static void main(String[] args) throws Exception {
+        int reports = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+        String[] modes = (args.length > 1)
+                ? Arrays.copyOfRange(args, 1, args.length) : MODES;
+
+        List<String> corpus = MetarCorpus.generate(10000, 1);
+        List<String> weather = weatherReports(corpus.size());
+        MetarParser[] parsers = new MetarParser[modes.length];
+        List<List<String>> corpora = new ArrayList<>();
+        for (int m = 0; m < modes.length; m++) {
+            parsers[m] = parser(modes[m]);
+            corpora.add(modes[m].equals("weather") ? weather : corpus);
+            measure(parsers[m], corpora.get(m), reports);
+        }
+
+        double[][] rounds = new double[modes.length][ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int m = 0; m < modes.length; m++) {
+                rounds[m][r] = measure(parsers[m], corpora.get(m), reports);
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%d reports per round, %d rounds%n",
+                reports, ROUNDS);
+        for (int m = 0; m < modes.length; m++) {
+            Arrays.sort(rounds[m]);
+            System.out.printf(Locale.ROOT,
+                    "%-10s best %8.1f ns/report, median %8.1f ns/report%n",
+                    modes[m], rounds[m][0], rounds[m][ROUNDS / 2]);
+        }
+    }
+
+    @Test
+    public void everyModeParsesTheSameValues() throws Exception {
+        List<String> corpus = MetarCorpus.generate(500, 3);
+        List<String> expected = describe(parser("none"), corpus);
+        for (String mode : FULL_MODES) {
+            assertEquals(mode, expected, describe(parser(mode), corpus));
+        }
+    }
+
+    @Test
+    public void weatherReportsAllHaveWeather() throws Exception {
+        List<String> reports = weatherReports(200);
+        assertEquals(200, reports.size());
+        MetarParser parser = new MetarParser();
+        for (String report : reports) {
+            assertFalse(report,
+                    parser.parseData(report).getWeatherConditions().isEmpty());
+        }
+    }
+
+    /**
+     * @return a parser set up for the given mode
+     */
+    static MetarParser parser(String mode) {
+        MetarParser parser = new MetarParser();
+        switch (mode) {
+            case "none":
+            case "weather":
+                break;
+            case "listener":
+                parser.setParseListener(new MetarParseListener() {
+                });
+                break;
+            case "metrics":
+                parser.setParseListener(new MetarParseMetrics());
+                break;
+            case "body":
+                parser.setProjection(EnumSet.complementOf(
+                        EnumSet.of(MetarGroup.REMARKS)));
+                break;
+            case "wind":
+                parser.setProjection(EnumSet.of(MetarGroup.WIND));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown mode: " + mode);
+        }
+        return parser;
+    }
+
+    /**
+     * Parse reports from the corpus, repeating it as needed.
+     *
+     * @return the time taken per report, in nanoseconds
+     */
+    static double measure(MetarParser parser, List<String> corpus,
+                          int reports) throws MetarParseException {
+        int size = corpus.size();
+        int values = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < reports; i++) {
+            Metar metar = parser.parseData(corpus.get(i % size));
+            values += metar.getSkyConditions().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += values;
+        return (double) elapsed / reports;
+    }
+
+    /**
+     * @param count the number of reports
+     * @return the first reports of {@link MetarCorpus} that have at least
+     * one weather group, which are the ones the weather code table is used
+     * for
+     */
+    static List<String> weatherReports(int count)
+            throws MetarParseException {
+        MetarParser parser = new MetarParser();
+        Random random = new Random(1);
+        List<String> reports = new ArrayList<>(count);
+        while (reports.size() < count) {
+            String report = MetarCorpus.report(random);
+            if (!parser.parseData(report).getWeatherConditions().isEmpty()) {
+                reports.add(report);
+            }
+        }
+        return reports;
+    }
+
+    private static List<String> describe(MetarParser parser,
+                                         List<String> corpus)
+            throws MetarParseException {
+        List<String> values = new ArrayList<>();
+        for (String report : corpus) {
+            values.add(MetarEncoderTest.describe(parser.parseData(report)));
+        }
+        return values;
+    }
+}
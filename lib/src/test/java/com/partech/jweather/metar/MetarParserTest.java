@@ -0,0 +1,376 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MetarParserTest {
+
+    @Test
+    public void reportEndingInARunwayVisualRangeHasNoTemperature()
+            throws MetarParseException {
+        Metar metar = MetarParser.parse(
+                "KJFK 121651Z 31015KT 1/2SM R04R/2000V4000FT");
+
+        assertEquals(0.5f, metar.getVisibility(), 0);
+        assertEquals(1, metar.getRunwayVisualRanges().size());
+        assertEquals(2000, metar.getRunwayVisualRanges().get(0)
+                .getLowestReportable());
+        assertEquals(4000, metar.getRunwayVisualRanges().get(0)
+                .getHighestReportable());
+        assertNull(metar.getTemperatureInCelsius());
+        assertNull(metar.getDewPointInCelsius());
+        assertNull(metar.getPressure());
+    }
+
+    @Test
+    public void reportEndingInAFractionalVisibilityHasNoTemperature()
+            throws MetarParseException {
+        Metar metar = MetarParser.parse("KJFK 121651Z 31015KT 1/2SM");
+        assertEquals(0.5f, metar.getVisibility(), 0);
+        assertNull(metar.getTemperatureInCelsius());
+
+        metar = MetarParser.parse("KJFK 121651Z 31015KT 1 1/2SM");
+        assertEquals(1.5f, metar.getVisibility(), 0);
+        assertNull(metar.getTemperatureInCelsius());
+        assertNull(metar.getPressure());
+    }
+
+    @Test
+    public void obscurationLayerDoesNotSkipTheNextRemark()
+            throws MetarParseException {
+        String report = "KCNO 231653Z VRB04KT 1 3/4SM HZ BKN010 18/15 A2997 "
+                + "RMK AO2 FG FEW000 BR SCT005 T01780150";
+        for (boolean lazy : new boolean[]{false, true}) {
+            MetarParser parser = new MetarParser();
+            parser.setLazyRemarks(lazy);
+            Metar metar = parser.parseData(report);
+
+            List<Obscuration> obscurations = metar.getObscurations();
+            assertEquals(2, obscurations.size());
+            assertEquals("FG", obscurations.get(0).getPhenomenonCode());
+            assertEquals("FEW", obscurations.get(0).getAmountCode());
+            assertEquals(0, obscurations.get(0).getHeight());
+            assertEquals("BR", obscurations.get(1).getPhenomenonCode());
+            assertEquals("SCT", obscurations.get(1).getAmountCode());
+            assertEquals(500, obscurations.get(1).getHeight());
+            assertEquals(17.8f, metar.getTemperaturePreciseInCelsius(), 0);
+            assertEquals(15.0f, metar.getDewPointPreciseInCelsius(), 0);
+        }
+    }
+
+    @Test
+    public void obscurationLayerDoesNotSkipAFollowingNosig()
+            throws MetarParseException {
+        Metar metar = MetarParser.parse("KCNO 231653Z VRB04KT 1 3/4SM HZ "
+                + "BKN010 RMK FG FEW000 NOSIG");
+
+        assertEquals(1, metar.getObscurations().size());
+        assertTrue(metar.getIsNoSignificantChange());
+    }
+
+    @Test
+    public void malformedGroupsAreParseErrors() {
+        String[][] cases = {
+                {"KJFK 1216Z 31015KT 10SM CLR 12/08 A2992",
+                        "date/time group too short: 1216Z"},
+                {"KJFK 121651Z 31015KT 1/SM CLR 12/08 A2992",
+                        "visibility fraction missing denominator: 1/SM"},
+                {"KJFK 121651Z 31015KT /SM CLR 12/08 A2992",
+                        "visibility fraction is empty: /SM"},
+                {"KJFK 121651Z 31015KT 10SM CLR // A2992",
+                        "temperature group has no temperature: //"},
+                {"KJFK 121651Z 31015KT 10SM CLR 12/ A2992",
+                        "temperature group missing dew point: 12/"},
+                {"KJFK 121651Z 31015KT 10SM CLR M1/05 A2992",
+                        "sub-zero temperature too short: M1/05"},
+        };
+        for (String[] c : cases) {
+            try {
+                MetarParser.parse(c[0]);
+                fail("parsed " + c[0]);
+            } catch (MetarParseException e) {
+                assertEquals(c[1], e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void projectionDecodesOnlyTheChosenGroups()
+            throws MetarParseException {
+        List<String> reports = MetarCorpus.generate(2000, 30);
+        MetarParser full = new MetarParser();
+        MetarParseMetrics fullGroups = new MetarParseMetrics();
+        full.setParseListener(fullGroups);
+        Metar empty = new Metar();
+
+        for (MetarGroup group : MetarGroup.values()) {
+            MetarParser projected = new MetarParser();
+            projected.setProjection(EnumSet.of(group));
+            MetarParseMetrics projectedGroups = new MetarParseMetrics();
+            projected.setParseListener(projectedGroups);
+
+            for (String report : reports) {
+                Metar expected = full.parseData(report);
+                Metar metar = projected.parseData(report);
+
+                assertEquals(expected.getStationID(), metar.getStationID());
+                assertEquals(expected.getDate(), metar.getDate());
+                assertNull(metar.getFlightCategoryType());
+                for (MetarGroup other : MetarGroup.values()) {
+                    assertEquals(group + " " + other + ": " + report,
+                            values(other == group ? expected : empty, other),
+                            values(metar, other));
+                }
+            }
+
+            // skipped groups are still recognized
+            for (MetarGroup other : MetarGroup.values()) {
+                assertEquals(fullGroups.snapshot().getGroupCount(other),
+                        projectedGroups.snapshot().getGroupCount(other));
+            }
+            fullGroups = new MetarParseMetrics();
+            full.setParseListener(fullGroups);
+        }
+    }
+
+    @Test
+    public void projectionWithoutRemarksDecodesTheBody()
+            throws MetarParseException {
+        MetarParser full = new MetarParser();
+        EnumSet<MetarGroup> body = EnumSet.complementOf(
+                EnumSet.of(MetarGroup.REMARKS));
+        Metar empty = new Metar();
+        for (boolean lazy : new boolean[]{false, true}) {
+            MetarParser projected = new MetarParser();
+            projected.setProjection(body);
+            projected.setLazyRemarks(lazy);
+
+            for (String report : MetarCorpus.generate(2000, 31)) {
+                Metar expected = full.parseData(report);
+                Metar metar = projected.parseData(report);
+                for (MetarGroup group : body) {
+                    assertEquals(report, values(expected, group),
+                            values(metar, group));
+                }
+                assertEquals(report, values(empty, MetarGroup.REMARKS),
+                        values(metar, MetarGroup.REMARKS));
+                assertEquals(expected.getFlightCategoryType(),
+                        metar.getFlightCategoryType());
+            }
+        }
+    }
+
+    @Test
+    public void emptyProjectionDecodesOnlyTheHeading()
+            throws MetarParseException {
+        MetarParser parser = new MetarParser();
+        parser.setProjection(EnumSet.noneOf(MetarGroup.class));
+        assertTrue(parser.getProjection().isEmpty());
+        Metar metar = parser.parseData("KJFK 121651Z COR 31015KT 10SM "
+                + "-RA BKN015 12/08 A2992 RMK T01221050");
+        assertEquals("KJFK", metar.getStationID());
+        assertEquals("COR", metar.getReportModifier());
+        for (MetarGroup group : MetarGroup.values()) {
+            assertEquals(values(new Metar(), group), values(metar, group));
+        }
+
+        parser.setProjection(null);
+        assertEquals(EnumSet.allOf(MetarGroup.class),
+                parser.getProjection());
+    }
+
+    /**
+     * @return the values of a Metar that belong to a group
+     */
+    private static List<Object> values(Metar metar, MetarGroup group) {
+        switch (group) {
+            case WIND:
+                return Arrays.asList(metar.getWindDirection(),
+                        metar.getWindSpeedInKnots(),
+                        metar.getWindGustsInKnots(),
+                        metar.getWindDirectionIsVariable(),
+                        metar.getWindDirectionMin(),
+                        metar.getWindDirectionMax());
+            case VISIBILITY:
+                return Arrays.asList(metar.getVisibility(),
+                        metar.getVisibilityInMeters(),
+                        metar.getVisibilityLessThan(),
+                        metar.getVisibilityGreaterThan(),
+                        metar.getIsCavok());
+            case RUNWAY_VISUAL_RANGE:
+                return strings(metar.getRunwayVisualRanges());
+            case WEATHER:
+                return strings(metar.getWeatherConditions());
+            case SKY:
+                List<Object> sky = strings(metar.getSkyConditions());
+                sky.add(metar.getCeiling());
+                return sky;
+            case TEMPERATURE:
+                return Arrays.asList(metar.getTemperatureInCelsius(),
+                        metar.getDewPointInCelsius());
+            case ALTIMETER:
+                return Arrays.asList(metar.getPressure());
+            case REMARKS:
+                List<Object> remarks = strings(metar.getObscurations());
+                remarks.add(metar.getTemperaturePreciseInCelsius());
+                remarks.add(metar.getDewPointPreciseInCelsius());
+                remarks.add(metar.getIsNoSignificantChange());
+                return remarks;
+            default:
+                throw new IllegalArgumentException(group.name());
+        }
+    }
+
+    private static List<Object> strings(List<?> conditions) {
+        List<Object> strings = new ArrayList<>();
+        for (Object condition : conditions) {
+            if (condition instanceof WeatherCondition) {
+                strings.add(((WeatherCondition) condition)
+                        .getNaturalLanguageString());
+            } else if (condition instanceof SkyCondition) {
+                strings.add(((SkyCondition) condition)
+                        .getNaturalLanguageString());
+            } else if (condition instanceof RunwayVisualRange) {
+                strings.add(((RunwayVisualRange) condition)
+                        .getNaturalLanguageString());
+            } else {
+                strings.add(((Obscuration) condition)
+                        .getNaturalLanguageString());
+            }
+        }
+        return strings;
+    }
+
+    @Test
+    public void parseBatchReusesMetarsAndFillsNullSlots()
+            throws MetarParseException {
+        List<String> corpus = MetarCorpus.generate(4, 7);
+        CharSequence[] in = corpus.toArray(new CharSequence[0]);
+        in[3] = new StringBuilder(corpus.get(3));
+        Metar reused = MetarParser.parse(corpus.get(2));
+        Metar frozen = MetarParser.parse(corpus.get(0)).freeze();
+        Metar[] out = {null, frozen, reused, new Metar()};
+        Metar last = out[3];
+
+        assertEquals(4, new MetarParser().parseBatch(in, 0, 4, out, null));
+        assertNotNull(out[0]);
+        assertNotSame(frozen, out[1]);
+        assertSame(reused, out[2]);
+        assertSame(last, out[3]);
+        for (int i = 0; i < in.length; i++) {
+            assertEquals(MetarEncoderTest.describe(
+                    MetarParser.parse(corpus.get(i))),
+                    MetarEncoderTest.describe(out[i]));
+        }
+    }
+
+    @Test
+    public void parseBatchSetsAndClearsErrors() {
+        String good = "KJFK 121651Z 31015KT 10SM CLR 12/08 A2992";
+        String bad = "KJFK 121651Z 31015KT 10SM CLR M1/05 A2992";
+        CharSequence[] in = {good, bad, null, good, bad};
+        Metar[] out = new Metar[in.length];
+        ParseError stale = new ParseError(0, bad, null,
+                new MetarParseException("stale"));
+        ParseError[] errors = {stale, null, null, stale, stale};
+        MetarParser parser = new MetarParser();
+
+        assertEquals(2, parser.parseBatch(in, 0, 4, out, errors));
+        assertNull(errors[0]);
+        assertEquals(1, errors[1].getIndex());
+        assertEquals(bad, errors[1].getRawText());
+        assertEquals(MetarGroup.TEMPERATURE, errors[1].getGroup());
+        assertTrue(errors[1].getCause() instanceof MetarParseException);
+        assertEquals("sub-zero temperature too short: M1/05",
+                errors[1].getCause().getMessage());
+        assertEquals(2, errors[2].getIndex());
+        assertNull(errors[2].getRawText());
+        assertNull(errors[2].getGroup());
+        assertNull(errors[3]);
+        // outside the range
+        assertSame(stale, errors[4]);
+        assertNull(out[4]);
+
+        in[1] = good;
+        in[2] = good;
+        assertEquals(3, parser.parseBatch(in, 1, 4, out, errors));
+        assertNull(errors[1]);
+        assertNull(errors[2]);
+        assertEquals(MetarEncoderTest.describe(out[0]),
+                MetarEncoderTest.describe(out[2]));
+
+        // without an errors array, failures are only counted
+        assertEquals(1, parser.parseBatch(in, 3, 5, out, null));
+        assertEquals(0, parser.parseBatch(in, 2, 2, out, errors));
+    }
+
+    @Test
+    public void parseBatchChecksTheRange() {
+        CharSequence[] in = new CharSequence[3];
+        int[][] ranges = {{-1, 2}, {2, 1}, {0, 4}, {4, 4}};
+        for (int[] range : ranges) {
+            assertBatchOutOfBounds(in, range[0], range[1], new Metar[3],
+                    new ParseError[3]);
+        }
+        assertBatchOutOfBounds(in, 0, 3, new Metar[2], null);
+        assertBatchOutOfBounds(in, 0, 3, new Metar[3], new ParseError[2]);
+        assertBatchOutOfBounds(in, 1, 3, new Metar[2], new ParseError[3]);
+        assertEquals(0, new MetarParser().parseBatch(in, 3, 3, new Metar[3],
+                null));
+    }
+
+    private static void assertBatchOutOfBounds(CharSequence[] in, int from,
+                                               int to, Metar[] out,
+                                               ParseError[] errors) {
+        try {
+            new MetarParser().parseBatch(in, from, to, out, errors);
+            fail("parsed " + from + ".." + to);
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        for (Metar metar : out) {
+            assertNull(metar);
+        }
+    }
+
+    @Test(expected = MetarParseException.class)
+    public void nullReportIsAnError() throws MetarParseException {
+        MetarParser.parse(null);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class MetarProcessorTest {
+
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void deliversEverythingOnOneThreadToAOneAtATimeSubscriber()
+            throws InterruptedException {
+        List<String> reports = reports(200);
+        MetarProcessor processor = new MetarProcessor(executor, 4,
+                (report, e) -> { });
+        Source source = new Source(reports);
+        OneAtATime subscriber = new OneAtATime(source);
+
+        processor.subscribe(subscriber);
+        source.subscribe(processor);
+
+        assertTrue("timed out after " + subscriber.received.size()
+                        + " reports",
+                subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(200, subscriber.received.size());
+        for (int i = 0; i < reports.size(); i++) {
+            assertEquals(reports.get(i),
+                    subscriber.received.get(i).getRawText());
+        }
+        // upstream never ran ahead of what the subscriber had room for
+        assertTrue("upstream ran " + subscriber.maximumAhead + " ahead",
+                subscriber.maximumAhead <= 4);
+    }
+
+    @Test
+    public void holdsReportsUntilSomeoneSubscribes()
+            throws InterruptedException {
+        MetarProcessor processor = new MetarProcessor(executor, 4,
+                (report, e) -> { });
+        Source source = new Source(reports(10));
+        source.subscribe(processor);
+        idle();
+        assertEquals(0, source.requested.get());
+
+        OneAtATime subscriber = new OneAtATime(null);
+        processor.subscribe(subscriber);
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(10, subscriber.received.size());
+    }
+
+    @Test
+    public void reportsFailuresAndCarriesOn() throws InterruptedException {
+        List<String> reports = reports(20);
+        reports.set(5, "");
+        reports.set(12, "");
+        List<CharSequence> failed = new CopyOnWriteArrayList<>();
+        MetarProcessor processor = new MetarProcessor(executor, 4,
+                (report, e) -> failed.add(report));
+        OneAtATime subscriber = new OneAtATime(null);
+        processor.subscribe(subscriber);
+        new Source(reports).subscribe(processor);
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(18, subscriber.received.size());
+        assertEquals(2, failed.size());
+    }
+
+    @Test
+    public void completesLateSubscribers() throws InterruptedException {
+        MetarProcessor processor = new MetarProcessor(executor, 4,
+                (report, e) -> { });
+        OneAtATime first = new OneAtATime(null);
+        processor.subscribe(first);
+        new Source(reports(3)).subscribe(processor);
+        assertTrue(first.completed.await(10, TimeUnit.SECONDS));
+
+        OneAtATime late = new OneAtATime(null);
+        processor.subscribe(late);
+        assertTrue(late.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(0, late.received.size());
+    }
+
+    private void idle() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(latch::countDown);
+        latch.await(10, TimeUnit.SECONDS);
+    }
+
+    private static List<String> reports(int count) {
+        List<String> reports = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reports.add(String.format("KCNO %02d%02d53Z 32004KT 10SM BKN043 "
+                    + "13/11 A2993 RMK AO2", 1 + i % 28, i % 24));
+        }
+        return reports;
+    }
+
+    /**
+     * Emits reports from a list as they are requested.
+     */
+    private static final class Source implements Flow.Publisher<CharSequence> {
+        private final List<String> reports;
+        private final AtomicLong requested = new AtomicLong();
+        private int next = 0;
+
+        Source(List<String> reports) {
+            this.reports = reports;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super CharSequence> s) {
+            s.onSubscribe(new Flow.Subscription() {
+                private boolean emitting;
+
+                @Override
+                public synchronized void request(long n) {
+                    requested.addAndGet(n);
+                    if (emitting) {
+                        return;
+                    }
+                    emitting = true;
+                    while (next < requested.get() && next < reports.size()) {
+                        s.onNext(reports.get(next++));
+                    }
+                    if (next == reports.size()) {
+                        next++;
+                        s.onComplete();
+                    }
+                    emitting = false;
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+        }
+    }
+
+    /**
+     * Requests one report at a time, checking how far upstream demand has
+     * got ahead of what it has received.
+     */
+    private static final class OneAtATime implements Flow.Subscriber<Metar> {
+        private final List<Metar> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final Source source;
+        private Flow.Subscription subscription;
+        private volatile long maximumAhead = 0;
+
+        OneAtATime(Source source) {
+            this.source = source;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(Metar item) {
+            received.add(item);
+            if (source != null) {
+                maximumAhead = Math.max(maximumAhead,
+                        source.requested.get() - received.size());
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class MetarRendererTest {
+
+    /**
+     * Metric visibility with no significant clouds; CAVOK with a variable
+     * wind; a calm wind with statute visibility, RVR, weather, obscurations
+     * and decimals; and a variable gusting wind with visibility in meters
+     * and a vertical visibility.
+     */
+    private static final String[] REPORTS = {
+            "EGLL 181750Z 24008KT 9999 NSC 18/10 Q1015",
+            "LFPG 121630Z VRB03KT CAVOK 12/08 Q1012 NOSIG",
+            "KJFK 121651Z COR 00000KT 1 1/2SM R04R/2000V4000FT -TSRA BR "
+                    + "FEW008 BKN015CB 12/M05 A2992 "
+                    + "RMK AO2 FG SCT005 T01221050",
+            "EDDF 121650Z AUTO 27012G25KT 240V300 0800 R25L/M0600FT FG VV002 "
+                    + "M02/M03 Q1012"
+    };
+
+    // 2020-06-12 22:13 UTC, so that the briefings do not depend on today
+    private static final Date DATE = new Date(1592000000000L);
+
+    @Test
+    public void rendersEnglishBriefings() throws MetarParseException {
+        assertBriefings(Locale.ENGLISH,
+                "EGLL, 2020-06-12 22:13 UTC\n"
+                        + "Wind from 240 degrees at 8 knots\n"
+                        + "Visibility 10 kilometers\n"
+                        + "Sky: No Significant Clouds\n"
+                        + "Temperature 18.0 C (64.4 F), dew point 10.0 C "
+                        + "(50.0 F)\n"
+                        + "Flight category VFR\n",
+                "LFPG, 2020-06-12 22:13 UTC\n"
+                        + "Wind variable at 3 knots\n"
+                        + "Ceiling and visibility OK\n"
+                        + "Temperature 12.0 C (53.6 F), dew point 8.0 C (46.4 "
+                        + "F)\n"
+                        + "Flight category VFR\n"
+                        + "No significant change expected\n",
+                "KJFK, 2020-06-12 22:13 UTC (corrected)\n"
+                        + "Wind calm\n"
+                        + "Visibility 1.5 statute miles\n"
+                        + "Runway visual range: runway 4R 2000 to 4000 feet\n"
+                        + "Weather: Light Thunderstorms Rain; Moderate Mist\n"
+                        + "Obscurations: Moderate Fog at 500 feet\n"
+                        + "Sky: Few clouds at 800 feet; Broken clouds at 1500 "
+                        + "feet (cumulonimbus)\n"
+                        + "Ceiling 1500 feet\n"
+                        + "Temperature 12.2 C (54.0 F), dew point -5.0 C "
+                        + "(23.0 F)\n"
+                        + "Altimeter 29.92 inHg\n"
+                        + "Flight category IFR\n",
+                "EDDF, 2020-06-12 22:13 UTC (automated)\n"
+                        + "Wind variable at 12 knots, gusting to 25 knots, "
+                        + "varying between 240 and 300 degrees\n"
+                        + "Visibility 800 meters\n"
+                        + "Runway visual range: runway 25L less than 600 "
+                        + "feet\n"
+                        + "Weather: Moderate Fog\n"
+                        + "Sky: Vertical Visibility of 200 feet\n"
+                        + "Ceiling 200 feet\n"
+                        + "Temperature -2.0 C (28.4 F), dew point -3.0 C "
+                        + "(26.6 F)\n"
+                        + "Flight category LIFR\n");
+    }
+
+    @Test
+    public void rendersFrenchBriefings() throws MetarParseException {
+        assertBriefings(Locale.FRENCH,
+                "EGLL, 2020-06-12 22:13 UTC\n"
+                        + "Vent du 240 degr\u00e9s \u00e0 8 n\u0153uds\n"
+                        + "Visibilit\u00e9 10 kilom\u00e8tres\n"
+                        + "Ciel : Pas de nuages significatifs\n"
+                        + "Temp\u00e9rature 18,0 C (64,4 F), point de "
+                        + "ros\u00e9e 10,0 C (50,0 F)\n"
+                        + "Cat\u00e9gorie de vol VFR\n",
+                "LFPG, 2020-06-12 22:13 UTC\n"
+                        + "Vent variable \u00e0 3 n\u0153uds\n"
+                        + "Plafond et visibilit\u00e9 OK\n"
+                        + "Temp\u00e9rature 12,0 C (53,6 F), point de "
+                        + "ros\u00e9e 8,0 C (46,4 F)\n"
+                        + "Cat\u00e9gorie de vol VFR\n"
+                        + "Pas de changement significatif pr\u00e9vu\n",
+                "KJFK, 2020-06-12 22:13 UTC (corrig\u00e9)\n"
+                        + "Vent calme\n"
+                        + "Visibilit\u00e9 1,5 milles terrestres\n"
+                        + "Port\u00e9e visuelle de piste : piste 4R 2000 "
+                        + "\u00e0 4000 pieds\n"
+                        + "Temps pr\u00e9sent : Pluie avec orage "
+                        + "d'intensit\u00e9 faible ; Brume d'intensit\u00e9 "
+                        + "mod\u00e9r\u00e9e\n"
+                        + "Obscurcissements : Brouillard d'\u00e9tendue "
+                        + "mod\u00e9r\u00e9e \u00e0 500 pieds\n"
+                        + "Ciel : Quelques nuages \u00e0 800 pieds ; Nuages "
+                        + "fragment\u00e9s \u00e0 1500 pieds (cumulonimbus)\n"
+                        + "Plafond 1500 pieds\n"
+                        + "Temp\u00e9rature 12,2 C (54,0 F), point de "
+                        + "ros\u00e9e -5,0 C (23,0 F)\n"
+                        + "Calage altim\u00e9trique 29,92 inHg\n"
+                        + "Cat\u00e9gorie de vol IFR\n",
+                "EDDF, 2020-06-12 22:13 UTC (automatique)\n"
+                        + "Vent variable \u00e0 12 n\u0153uds, rafales \u00e0 "
+                        + "25 n\u0153uds, variant entre 240 et 300 "
+                        + "degr\u00e9s\n"
+                        + "Visibilit\u00e9 800 m\u00e8tres\n"
+                        + "Port\u00e9e visuelle de piste : piste 25L "
+                        + "inf\u00e9rieure \u00e0 600 pieds\n"
+                        + "Temps pr\u00e9sent : Brouillard d'intensit\u00e9 "
+                        + "mod\u00e9r\u00e9e\n"
+                        + "Ciel : Visibilit\u00e9 verticale de 200 pieds\n"
+                        + "Plafond 200 pieds\n"
+                        + "Temp\u00e9rature -2,0 C (28,4 F), point de "
+                        + "ros\u00e9e -3,0 C (26,6 F)\n"
+                        + "Cat\u00e9gorie de vol LIFR\n");
+    }
+
+    @Test
+    public void rendersSpanishBriefings() throws MetarParseException {
+        assertBriefings(new Locale("es"),
+                "EGLL, 2020-06-12 22:13 UTC\n"
+                        + "Viento de los 240 grados a 8 nudos\n"
+                        + "Visibilidad 10 kil\u00f3metros\n"
+                        + "Cielo: Sin nubes significativas\n"
+                        + "Temperatura 18,0 C (64,4 F), punto de roc\u00edo "
+                        + "10,0 C (50,0 F)\n"
+                        + "Categor\u00eda de vuelo VFR\n",
+                "LFPG, 2020-06-12 22:13 UTC\n"
+                        + "Viento variable a 3 nudos\n"
+                        + "Techo y visibilidad OK\n"
+                        + "Temperatura 12,0 C (53,6 F), punto de roc\u00edo "
+                        + "8,0 C (46,4 F)\n"
+                        + "Categor\u00eda de vuelo VFR\n"
+                        + "Sin cambios significativos previstos\n",
+                "KJFK, 2020-06-12 22:13 UTC (corregido)\n"
+                        + "Viento en calma\n"
+                        + "Visibilidad 1,5 millas terrestres\n"
+                        + "Alcance visual en pista: pista 4R 2000 a 4000 "
+                        + "pies\n"
+                        + "Tiempo presente: Lluvia con tormenta de intensidad "
+                        + "d\u00e9bil; Neblina de intensidad moderada\n"
+                        + "Oscurecimientos: Niebla de extensi\u00f3n moderada "
+                        + "a 500 pies\n"
+                        + "Cielo: Pocas nubes a 800 pies; Nubes fragmentadas "
+                        + "a 1500 pies (cumulonimbos)\n"
+                        + "Techo 1500 pies\n"
+                        + "Temperatura 12,2 C (54,0 F), punto de roc\u00edo "
+                        + "-5,0 C (23,0 F)\n"
+                        + "Alt\u00edmetro 29,92 inHg\n"
+                        + "Categor\u00eda de vuelo IFR\n",
+                "EDDF, 2020-06-12 22:13 UTC (autom\u00e1tico)\n"
+                        + "Viento variable a 12 nudos, rachas de 25 nudos, "
+                        + "variando entre 240 y 300 grados\n"
+                        + "Visibilidad 800 metros\n"
+                        + "Alcance visual en pista: pista 25L inferior a 600 "
+                        + "pies\n"
+                        + "Tiempo presente: Niebla de intensidad moderada\n"
+                        + "Cielo: Visibilidad vertical de 200 pies\n"
+                        + "Techo 200 pies\n"
+                        + "Temperatura -2,0 C (28,4 F), punto de roc\u00edo "
+                        + "-3,0 C (26,6 F)\n"
+                        + "Categor\u00eda de vuelo LIFR\n");
+    }
+
+    @Test
+    public void noSignificantCloudsHasNoHeight() throws MetarParseException {
+        Metar metar = MetarParser.parse(REPORTS[0]);
+        for (Locale locale : new Locale[]{Locale.ENGLISH, Locale.FRENCH,
+                new Locale("es")}) {
+            String briefing = new MetarRenderer(locale).render(metar)
+                    .toString();
+            assertFalse(briefing, briefing.contains(" 0 "));
+        }
+    }
+
+    @Test
+    public void rendersToAnyAppendable() throws MetarParseException,
+            IOException {
+        MetarRenderer renderer = new MetarRenderer(Locale.FRENCH);
+        for (String report : MetarCorpus.generate(200, 47)) {
+            Metar metar = MetarParser.parse(report);
+            String briefing = renderer.render(metar).toString();
+            StringBuilder sb = new StringBuilder(">");
+            renderer.render(metar, (Appendable) sb);
+            assertEquals(">" + briefing, sb.toString());
+        }
+    }
+
+    @Test
+    public void choosesPhrasesByLanguage() {
+        assertSame(MetarPhrases.ENGLISH,
+                MetarPhrases.forLocale(Locale.GERMAN));
+        assertSame(MetarPhrases.forLocale(Locale.FRENCH),
+                MetarPhrases.forLocale(Locale.CANADA_FRENCH));
+        assertSame(MetarPhrases.forLocale(new Locale("es")),
+                MetarPhrases.forLocale(new Locale("es", "MX")));
+
+        assertEquals('.', MetarPhrases.ENGLISH.getDecimalSeparator());
+        assertEquals(',', MetarPhrases.forLocale(Locale.FRENCH)
+                .getDecimalSeparator());
+        assertEquals(',', MetarPhrases.forLocale(new Locale("es"))
+                .getDecimalSeparator());
+        assertEquals(Locale.ENGLISH,
+                new MetarRenderer(Locale.JAPANESE).getLocale());
+    }
+
+    @Test
+    public void everyPhraseIsDefined() {
+        for (Locale locale : new Locale[]{Locale.ENGLISH, Locale.FRENCH,
+                new Locale("es")}) {
+            MetarPhrases phrases = MetarPhrases.forLocale(locale);
+            for (MetarPhrases.Word word : MetarPhrases.Word.values()) {
+                assertTrue(locale + " " + word,
+                        phrases.word(word) != null);
+            }
+            for (int cover = MetarCodeTable.SKY_FEW;
+                 cover <= MetarCodeTable.SKY_NO_SIGNIFICANT_CLOUDS; cover++) {
+                assertTrue(locale + " " + cover,
+                        !phrases.skyCover(cover).isEmpty());
+            }
+            for (int i = 0; i < 3; i++) {
+                for (int d = -1;
+                     d < WeatherCondition.DESCRIPTOR_CODES.length; d++) {
+                    for (int p = -1;
+                         p < WeatherCondition.PHENOMENON_CODES.length; p++) {
+                        String phrase = phrases.weather(i, d, p);
+                        assertTrue(phrase, Character.isUpperCase(
+                                phrase.charAt(0)));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertBriefings(Locale locale, String... expected)
+            throws MetarParseException {
+        MetarRenderer renderer = new MetarRenderer(locale);
+        for (int i = 0; i < REPORTS.length; i++) {
+            Metar metar = MetarParser.parse(REPORTS[i]);
+            metar.setDate(DATE);
+            assertEquals(REPORTS[i], expected[i],
+                    renderer.render(metar).toString());
+        }
+    }
+}
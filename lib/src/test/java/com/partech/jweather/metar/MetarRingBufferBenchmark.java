@@ -0,0 +1,183 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.Test;
+
+/**
+ * Measures the end-to-end latency of a {@link MetarRingBuffer}: from the
+ * moment a report is due to be published until the last stage has handled
+ * it. The pipeline is the one in the class documentation of the ring: a
+ * store stage, an alert stage beside it and an archive stage after the
+ * store, with a final stage after all three recording each latency into a
+ * {@link MetarParseMetrics} histogram.
+ *
+ * Reports come from {@link MetarCorpus} and are published at a steady
+ * rate. Latency is taken from when a report was due rather than from when
+ * the producer got to it, so a stall in the producer or a full ring counts
+ * against every report it delays.
+ *
+ * <pre>
+ * java -cp lib/build/classes/java/main:lib/build/classes/java/test \
+ *     com.partech.jweather.metar.MetarRingBufferBenchmark \
+ *     [reports] [reports-per-second] [ring-size] [busySpin|yielding|sleeping|blocking]
+ * </pre>
+ */
+public class MetarRingBufferBenchmark {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public static void main(String[] args) throws Exception {
+        int reports = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+        int rate = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+        int size = (args.length > 2) ? Integer.parseInt(args[2]) : 1024;
+        String strategy = (args.length > 3) ? args[3] : "yielding";
+
+        List<String> corpus = MetarCorpus.generate(10000, 1);
+        // warm up the parser and the stages before measuring
+        run(corpus, Math.min(reports, 200000), rate, size,
+                waitStrategy(strategy));
+        MetarParseMetrics.Snapshot snapshot = run(corpus, reports, rate,
+                size, waitStrategy(strategy)).snapshot();
+
+        System.out.printf(Locale.ROOT,
+                "%d reports at %d/s, %d slots, %s wait strategy%n",
+                snapshot.getParseCount(), rate, size, strategy);
+        for (double percentile : PERCENTILES) {
+            System.out.printf(Locale.ROOT, "p%-5s %10.1f us%n",
+                    percentile == (long) percentile
+                            ? Long.toString((long) percentile)
+                            : Double.toString(percentile),
+                    snapshot.getLatencyPercentileNanos(percentile) / 1e3);
+        }
+        System.out.printf(Locale.ROOT, "max    %10.1f us%n",
+                snapshot.getMaxLatencyNanos() / 1e3);
+        System.out.printf(Locale.ROOT, "mean   %10.1f us%n",
+                snapshot.getMeanLatencyNanos() / 1e3);
+    }
+
+    @Test(timeout = 60000)
+    public void recordsTheLatencyOfEveryReport() throws Exception {
+        List<String> corpus = MetarCorpus.generate(1000, 2);
+        MetarParseMetrics.Snapshot snapshot = run(corpus, 20000, 20000, 256,
+                MetarWaitStrategy.blocking()).snapshot();
+
+        assertEquals(20000, snapshot.getParseCount());
+        assertEquals(0, snapshot.getFailureCount());
+        long median = snapshot.getLatencyPercentileNanos(50);
+        assertTrue(median > 0);
+        assertTrue(median <= snapshot.getLatencyPercentileNanos(99));
+        assertTrue(snapshot.getLatencyPercentileNanos(99)
+                <= snapshot.getMaxLatencyNanos());
+    }
+
+    /**
+     * Publish reports through a store, alert and archive pipeline.
+     *
+     * @param corpus  the reports to publish, repeated as needed
+     * @param reports the number of reports to publish
+     * @param rate    the reports to publish per second
+     * @param size    the number of slots in the ring
+     * @param wait    how the stages wait for reports
+     * @return the end-to-end latencies
+     * @throws Exception if a report could not be parsed or the pipeline
+     *                   was interrupted
+     */
+    static MetarParseMetrics run(List<String> corpus, int reports, int rate,
+                                 int size, MetarWaitStrategy wait)
+            throws Exception {
+        MetarRingBuffer ring = new MetarRingBuffer(size, wait);
+        int mask = ring.getSize() - 1;
+        // written by the producer before the slot is published
+        long[] due = new long[ring.getSize()];
+        MetarParseMetrics metrics = new MetarParseMetrics();
+
+        float[] stored = new float[ring.getSize()];
+        long[] alerts = new long[1];
+        StringBuilder archive = new StringBuilder(256);
+        MetarEncoder encoder = new MetarEncoder();
+
+        MetarRingBuffer.Stage store = ring.addStage((metar, sequence,
+                endOfBatch) -> stored[(int) (sequence & mask)] =
+                metar.temperatureMostPreciseInCelsius());
+        MetarRingBuffer.Stage alert = ring.addStage((metar, sequence,
+                endOfBatch) -> {
+            FlightCategory category = metar.getFlightCategoryType();
+            if (category == FlightCategory.IFR
+                    || category == FlightCategory.LIFR) {
+                alerts[0]++;
+            }
+        });
+        MetarRingBuffer.Stage archived = ring.addStage((metar, sequence,
+                endOfBatch) -> {
+            archive.setLength(0);
+            encoder.encode(metar, archive);
+        }, store);
+        ring.addStage((metar, sequence, endOfBatch) ->
+                metrics.onParseCompleted(metar,
+                        System.nanoTime() - due[(int) (sequence & mask)]),
+                alert, archived);
+        ring.start();
+
+        MetarParser parser = new MetarParser();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        for (int i = 0; i < reports; i++) {
+            long dueAt = start + i * interval;
+            while (System.nanoTime() < dueAt) {
+                LockSupport.parkNanos(Math.min(50000,
+                        dueAt - System.nanoTime()));
+            }
+            due[(int) ((ring.getCursor() + 1) & mask)] = dueAt;
+            ring.publish(parser, corpus.get(i % corpus.size()));
+        }
+        ring.drainAndHalt();
+        return metrics;
+    }
+
+    private static MetarWaitStrategy waitStrategy(String name) {
+        switch (name) {
+            case "busySpin":
+                return MetarWaitStrategy.busySpin();
+            case "sleeping":
+                return MetarWaitStrategy.sleeping();
+            case "blocking":
+                return MetarWaitStrategy.blocking();
+            case "yielding":
+                return MetarWaitStrategy.yielding();
+            default:
+                throw new IllegalArgumentException(
+                        "unknown wait strategy: " + name);
+        }
+    }
+}
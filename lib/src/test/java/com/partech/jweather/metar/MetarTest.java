@@ -0,0 +1,344 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+public class MetarTest {
+
+    private static final String LAZY_REPORT = "KCNO 231653Z VRB04KT "
+            + "1 3/4SM HZ BKN010 18/15 A2997 RMK AO2 HZ FEW000 T01780150";
+
+    @Test
+    public void gettersConvertUnits() throws MetarParseException {
+        Metar metar = MetarParser.parse("KDEN 181753Z 27020G30KT 3/4SM "
+                + "BR OVC004 M02/M04 A2992 RMK AO2 T10171044");
+
+        assertEquals(20f, metar.getWindSpeedInKnots(), 0);
+        assertEquals(20 * 0.5148f, metar.getWindSpeedInMPS(), 0);
+        assertEquals(23f, metar.getWindSpeedInMPH(), 0);
+        assertEquals(30f, metar.getWindGustsInKnots(), 0);
+        assertEquals(30 * 0.5148f, metar.getWindGustsInMPS(), 0);
+        assertEquals(35f, metar.getWindGustsInMPH(), 0);
+        assertEquals(0.75f, metar.getVisibility(), 0);
+        assertEquals(0.75f * 1.609344f, metar.getVisibilityInKilometers(), 0);
+        assertNull(metar.getVisibilityInMeters());
+        assertEquals(29.92f, metar.getPressure(), 0);
+        assertEquals(-1.7f, metar.getTemperatureMostPreciseInCelsius(), 0);
+        assertEquals(28.9f, metar.getTemperatureMostPreciseInFahrenheit(), 0);
+        assertEquals(-4.4f, metar.getDewPointMostPreciseInCelsius(), 0);
+        assertEquals(24.1f, metar.getDewPointMostPreciseInFahrenheit(), 0);
+    }
+
+    @Test
+    public void gettersAgreeWithThePrimitiveForms()
+            throws MetarParseException {
+        MetarParser parser = new MetarParser();
+        for (String report : MetarCorpus.generate(2000, 3)) {
+            Metar metar = parser.parseData(report);
+            assertBoxed(metar.windSpeedInKnots(), metar.getWindSpeedInKnots());
+            assertBoxed(metar.windSpeedInMPS(), metar.getWindSpeedInMPS());
+            assertBoxed(metar.windSpeedInMPH(), metar.getWindSpeedInMPH());
+            assertBoxed(metar.windGustsInKnots(), metar.getWindGustsInKnots());
+            assertBoxed(metar.windGustsInMPS(), metar.getWindGustsInMPS());
+            assertBoxed(metar.windGustsInMPH(), metar.getWindGustsInMPH());
+            assertBoxed(metar.visibilityInMiles(), metar.getVisibility());
+            assertBoxed(metar.visibilityInKilometers(),
+                    metar.getVisibilityInKilometers());
+            assertBoxed(metar.visibilityInMeters(),
+                    metar.getVisibilityInMeters());
+            assertBoxed(metar.pressureInInches(), metar.getPressure());
+            assertBoxed(metar.temperatureMostPreciseInCelsius(),
+                    metar.getTemperatureMostPreciseInCelsius());
+            assertBoxed(metar.temperatureMostPreciseInFahrenheit(),
+                    metar.getTemperatureMostPreciseInFahrenheit());
+            assertBoxed(metar.dewPointMostPreciseInCelsius(),
+                    metar.getDewPointMostPreciseInCelsius());
+            assertBoxed(metar.dewPointMostPreciseInFahrenheit(),
+                    metar.getDewPointMostPreciseInFahrenheit());
+        }
+    }
+
+    @Test
+    public void missingValuesAreNull() {
+        Metar metar = new Metar();
+
+        assertNull(metar.getDate());
+        assertNull(metar.getWindSpeedInKnots());
+        assertNull(metar.getWindSpeedInMPS());
+        assertNull(metar.getWindSpeedInMPH());
+        assertNull(metar.getWindGustsInKnots());
+        assertNull(metar.getWindGustsInMPS());
+        assertNull(metar.getWindGustsInMPH());
+        assertNull(metar.getVisibility());
+        assertNull(metar.getVisibilityInKilometers());
+        assertNull(metar.getVisibilityInMeters());
+        assertNull(metar.getPressure());
+        assertNull(metar.getTemperatureMostPreciseInCelsius());
+        assertNull(metar.getTemperatureMostPreciseInFahrenheit());
+        assertNull(metar.getDewPointMostPreciseInCelsius());
+        assertNull(metar.getDewPointMostPreciseInFahrenheit());
+    }
+
+    @Test
+    public void freezeCopiesEveryValue() throws MetarParseException {
+        MetarParser parser = new MetarParser();
+        parser.setLazyRemarks(true);
+        Metar metar = parser.parseData("KCNO 231653Z VRB04KT 1 3/4SM HZ "
+                + "BKN010 18/15 A2997 RMK AO2 HZ FEW000 T01780150");
+        metar.setLatitude(33.97f);
+
+        Metar frozen = metar.freeze();
+        assertTrue(frozen.isFrozen());
+        assertFalse(metar.isFrozen());
+        assertSame(frozen, frozen.freeze());
+
+        assertEquals("KCNO", frozen.getStationID());
+        assertEquals(metar.getDate(), frozen.getDate());
+        assertEquals(4f, frozen.getWindSpeedInKnots(), 0);
+        assertTrue(frozen.getWindDirectionIsVariable());
+        assertEquals(1.75f, frozen.getVisibility(), 0);
+        assertEquals(17.8f, frozen.getTemperaturePreciseInCelsius(), 0);
+        assertEquals(1, frozen.getObscurations().size());
+        assertEquals(1000, (int) frozen.getCeiling());
+        assertEquals(FlightCategory.IFR, frozen.getFlightCategoryType());
+        assertEquals(33.97f, frozen.getLatitude(), 0);
+        assertEquals(metar.getRawText(), frozen.getRawText());
+
+        // the parser may go on to reuse the original
+        parser.parseData("EGLL 121650Z 24012KT 9999 NSC 12/08 Q1012",
+                metar);
+        assertEquals("EGLL", metar.getStationID());
+        assertEquals("KCNO", frozen.getStationID());
+        assertEquals(1, frozen.getObscurations().size());
+    }
+
+    @Test
+    public void frozenDateIsCopiedOnEveryCall() throws MetarParseException {
+        Metar frozen = MetarParser.parse("KCNO 231653Z VRB04KT 10SM CLR "
+                + "18/15 A2997").freeze();
+        Date date = frozen.getDate();
+        assertNotSame(date, frozen.getDate());
+        date.setTime(0);
+        assertFalse(frozen.getDate().getTime() == 0);
+    }
+
+    @Test
+    public void frozenMetarCannotBeChanged() throws MetarParseException {
+        Metar frozen = MetarParser.parse("KJFK 121651Z 31015G25KT 1/2SM "
+                + "R04R/2000V4000FT +TSRA BR VV004 M02/M05 A2992").freeze();
+
+        Runnable[] mutators = {
+                () -> frozen.setStationID("KLGA"),
+                () -> frozen.setRawText(""),
+                () -> frozen.setRawDate(""),
+                () -> frozen.setReportModifier("COR"),
+                () -> frozen.setFlightCategory("VFR"),
+                () -> frozen.setFlightCategoryType(FlightCategory.VFR),
+                () -> frozen.setCeiling(null),
+                () -> frozen.setDate(null),
+                () -> frozen.setWindDirection(0),
+                () -> frozen.setWindDirectionMin(0),
+                () -> frozen.setWindDirectionMax(0),
+                () -> frozen.setWindSpeed(1f),
+                () -> frozen.setVisibility(1f),
+                () -> frozen.setTemperature(1f),
+                () -> frozen.setLatitude(1f),
+                () -> frozen.setDeferredRemarks(0),
+                () -> frozen.addSkyCondition(new SkyCondition()),
+                () -> frozen.getWeatherConditions().clear(),
+                () -> frozen.getRunwayVisualRanges().clear(),
+                () -> frozen.reset()
+        };
+        for (int i = 0; i < mutators.length; i++) {
+            try {
+                mutators[i].run();
+                fail("mutator " + i + " changed a frozen Metar");
+            } catch (UnsupportedOperationException expected) {
+            }
+        }
+
+        assertEquals("KJFK", frozen.getStationID());
+        assertEquals(310, (int) frozen.getWindDirection());
+        assertEquals(400, (int) frozen.getCeiling());
+        assertEquals(2, frozen.getWeatherConditions().size());
+        assertEquals(1, frozen.getRunwayVisualRanges().size());
+    }
+
+    @Test
+    public void remarksAreDecodedOnFirstAccess() throws MetarParseException {
+        MetarParser parser = new MetarParser();
+        parser.setLazyRemarks(true);
+        Metar metar = parser.parseData(LAZY_REPORT);
+        assertTrue(metar.hasDeferredRemarks());
+
+        // values from the body do not need the remarks
+        assertEquals("KCNO", metar.getStationID());
+        assertEquals(4f, metar.getWindSpeedInKnots(), 0);
+        assertEquals(1.75f, metar.getVisibility(), 0);
+        assertEquals(1, metar.getWeatherConditions().size());
+        assertEquals(1, metar.getSkyConditions().size());
+        assertEquals(1000, (int) metar.getCeiling());
+        assertEquals(FlightCategory.IFR, metar.getFlightCategoryType());
+        assertEquals(LAZY_REPORT, metar.getRawText());
+        assertTrue(metar.hasDeferredRemarks());
+
+        assertEquals(1, metar.getObscurations().size());
+        assertFalse(metar.hasDeferredRemarks());
+        assertEquals(17.8f, metar.getTemperaturePreciseInCelsius(), 0);
+        assertEquals(1, metar.getObscurations().size());
+
+        // every value from the remarks decodes them
+        List<Consumer<Metar>> getters = Arrays.asList(
+                Metar::getTemperaturePreciseInCelsius,
+                Metar::getTemperaturePreciseInFahrenheit,
+                Metar::getDewPointPreciseInCelsius,
+                Metar::getDewPointPreciseInFahrenheit,
+                Metar::getIsNoSignificantChange,
+                m -> m.getObscuration(0),
+                Metar::getObscurations,
+                Metar::temperatureMostPreciseInCelsius,
+                Metar::dewPointMostPreciseInCelsius,
+                Metar::freeze);
+        for (Consumer<Metar> getter : getters) {
+            metar = parser.parseData(LAZY_REPORT, metar);
+            assertTrue(metar.hasDeferredRemarks());
+            getter.accept(metar);
+            assertFalse(metar.hasDeferredRemarks());
+            assertEquals(1, metar.getObscurations().size());
+        }
+    }
+
+    @Test
+    public void remarksAreDecodedOnceUnderConcurrentAccess()
+            throws Exception {
+        MetarParser parser = new MetarParser();
+        parser.setLazyRemarks(true);
+        Metar metar = parser.parseData(LAZY_REPORT);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[8];
+
+        // holding the lock the remarks are decoded under makes every reader
+        // wait inside the decoding, so that they all go on to race for it
+        synchronized (metar) {
+            for (int t = 0; t < readers.length; t++) {
+                readers[t] = new Thread(() -> {
+                    try {
+                        assertEquals(1, metar.getObscurations().size());
+                        assertEquals(17.8f,
+                                metar.getTemperaturePreciseInCelsius(), 0);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                readers[t].start();
+            }
+            long deadline = System.currentTimeMillis() + 10000;
+            for (Thread reader : readers) {
+                while (reader.getState() != Thread.State.BLOCKED) {
+                    assertTrue("reader did not wait for the remarks",
+                            System.currentTimeMillis() < deadline);
+                    Thread.sleep(1);
+                }
+            }
+            assertTrue(metar.hasDeferredRemarks());
+        }
+
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        // a second decoding would have added the obscuration again
+        assertEquals(1, metar.getObscurations().size());
+        assertFalse(metar.hasDeferredRemarks());
+    }
+
+    @Test
+    public void reuseClearsDeferredRemarks() throws MetarParseException {
+        MetarParser lazy = new MetarParser();
+        lazy.setLazyRemarks(true);
+
+        Metar metar = lazy.parseData(LAZY_REPORT);
+        assertTrue(metar.hasDeferredRemarks());
+        metar.reset();
+        assertFalse(metar.hasDeferredRemarks());
+        assertTrue(metar.getObscurations().isEmpty());
+        assertNull(metar.getTemperaturePreciseInCelsius());
+
+        // the remarks decoded are those of the new report, at its own offset
+        metar = lazy.parseData(LAZY_REPORT, metar);
+        String shorter = "KCNO 231753Z 00000KT 10SM CLR 18/15 A2997 RMK "
+                + "T01830150";
+        assertSame(metar, lazy.parseData(shorter, metar));
+        assertTrue(metar.hasDeferredRemarks());
+        assertEquals(18.3f, metar.getTemperaturePreciseInCelsius(), 0);
+        assertTrue(metar.getObscurations().isEmpty());
+
+        // a report ending at RMK has nothing to defer
+        metar = lazy.parseData(LAZY_REPORT, metar);
+        assertSame(metar, lazy.parseData(
+                "KCNO 231853Z 00000KT 10SM CLR 18/15 A2997 RMK", metar));
+        assertFalse(metar.hasDeferredRemarks());
+        assertTrue(metar.getObscurations().isEmpty());
+        assertNull(metar.getTemperaturePreciseInCelsius());
+
+        // nor does an eager parser
+        metar = lazy.parseData(LAZY_REPORT, metar);
+        assertSame(metar, new MetarParser().parseData(
+                "KCNO 231953Z VRB04KT 10SM CLR 18/15 A2997 RMK AO2",
+                metar));
+        assertFalse(metar.hasDeferredRemarks());
+        assertTrue(metar.getObscurations().isEmpty());
+        assertNull(metar.getTemperaturePreciseInCelsius());
+    }
+
+    /**
+     * Check that a getter returns the value of its primitive form, or null
+     * where the primitive form returns NaN.
+     */
+    private static void assertBoxed(float primitive, Float boxed) {
+        if (Float.isNaN(primitive)) {
+            assertNull(boxed);
+        } else {
+            assertEquals(primitive, boxed, 0);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks the natural language forms of the weather, sky, runway visual
+ * range and obscuration groups.
+ */
+public class NaturalLanguageTest {
+
+    private static final String REPORT = "KJFK 121651Z 31015G25KT 1/2SM "
+            + "R04R/2000V4000FT R22L/P6000FT R13/M0600FT R31C/1200FT "
+            + "+TSRA -SHSN MIFG BCFG PRFG DRSN BLSN FZRA FZDZ DZ SG IC PL GR "
+            + "GS UP BR FU VA DU SA HZ PY PO SQ FC SS DS +FC SCT008TCU "
+            + "BKN015CB OVC020 FEW030 VV004 12/M05 A2992 RMK FG SCT005 "
+            + "BR FEW010 HZ BKN020 FU OVC030";
+
+    /**
+     * The strings written before getNaturalLanguageString was built on
+     * appendNaturalLanguage, including the missing spaces.
+     */
+    @Test
+    public void stringsAreUnchanged() throws MetarParseException {
+        Metar metar = MetarParser.parse(REPORT);
+
+        assertEquals(Arrays.asList(
+                "Heavy Thunderstorms Rain", "Light Showers Snow",
+                "Moderate Shallow Fog", "Moderate Patches Fog",
+                "Moderate Partial Fog", "Moderate Low Drifting Snow",
+                "Moderate Blowing Snow", "Moderate Freezing Rain",
+                "Moderate Freezing Drizzle", "Moderate Drizzle",
+                "Moderate Snow Grains", "Moderate Ice Crystals",
+                "Moderate Ice Pellets", "Moderate Hail", "Moderate Small Hail",
+                "Moderate Unknown Precipitation", "Moderate Mist",
+                "Moderate Smoke", "Moderate Volcanic Ash",
+                "Moderate Widespread Dust", "Moderate Sand", "Moderate Haze",
+                "Moderate Spray", "Moderate Well-developed Dust/Sand Whirls",
+                "Moderate Squalls", "Moderate Funnel Cloud/Tornado/Waterspout",
+                "Moderate Sandstorm", "Moderate Duststorm",
+                "Heavy Funnel Cloud/Tornado/Waterspout"),
+                strings(metar.getWeatherConditions()));
+        assertEquals(Arrays.asList(
+                "Scattered clouds at 800 feet (towering cumulus)",
+                "Broken clouds at 1500 feet (cumulonimbus)",
+                "Overcast at 2000 feet", "Few clouds at 3000 feet",
+                "Vertical Visibility of 400feet"),
+                strings(metar.getSkyConditions()));
+        assertEquals(Arrays.asList(
+                "4R 2000 to 4000feet.", "22L greater than 6000feet.",
+                "13  less than 600feet.", "31C 1200feet."),
+                strings(metar.getRunwayVisualRanges()));
+        assertEquals(Arrays.asList(
+                "Moderate Fog at 500 feet", "Slight Mist at 1000 feet",
+                "Heavy Haze at 2000 feet", "Severe Smoke at 3000 feet"),
+                strings(metar.getObscurations()));
+
+        assertEquals(Arrays.asList("No Significant Clouds at 0 feet",
+                "Clear skies", "Clear skies"),
+                strings(MetarParser.parse("EGLL 121650Z 24012KT 9999 NSC "
+                        + "SKC CLR 12/08 Q1012").getSkyConditions()));
+    }
+
+    @Test
+    public void everyFormWritesTheSameText() throws MetarParseException,
+            IOException {
+        List<String> reports = new ArrayList<>(
+                MetarCorpus.generate(2000, 46));
+        reports.add(REPORT);
+        for (String report : reports) {
+            Metar metar = MetarParser.parse(report);
+            for (WeatherCondition wc : metar.getWeatherConditions()) {
+                assertForms(wc.getNaturalLanguageString(),
+                        wc.appendNaturalLanguage(new StringBuilder(">")),
+                        wc.appendNaturalLanguage(writer()));
+            }
+            for (SkyCondition sc : metar.getSkyConditions()) {
+                assertForms(sc.getNaturalLanguageString(),
+                        sc.appendNaturalLanguage(new StringBuilder(">")),
+                        sc.appendNaturalLanguage(writer()));
+            }
+            for (RunwayVisualRange rvr : metar.getRunwayVisualRanges()) {
+                assertForms(rvr.getNaturalLanguageString(),
+                        rvr.appendNaturalLanguage(new StringBuilder(">")),
+                        rvr.appendNaturalLanguage(writer()));
+            }
+            for (Obscuration o : metar.getObscurations()) {
+                assertForms(o.getNaturalLanguageString(),
+                        o.appendNaturalLanguage(new StringBuilder(">")),
+                        o.appendNaturalLanguage(writer()));
+            }
+        }
+    }
+
+    /**
+     * The English briefing words weather and obscurations as the
+     * natural language strings do.
+     */
+    @Test
+    public void englishBriefingUsesTheSameWords() throws MetarParseException {
+        MetarRenderer renderer = new MetarRenderer();
+        List<String> reports = new ArrayList<>(
+                MetarCorpus.generate(2000, 46));
+        reports.add(REPORT);
+        for (String report : reports) {
+            Metar metar = MetarParser.parse(report);
+            List<String> lines = Arrays.asList(
+                    renderer.render(metar).toString().split("\n"));
+
+            if (!metar.getWeatherConditions().isEmpty()) {
+                assertContains(lines, "Weather: " + String.join("; ",
+                        strings(metar.getWeatherConditions())));
+            }
+            if (!metar.getObscurations().isEmpty()) {
+                assertContains(lines, "Obscurations: " + String.join("; ",
+                        strings(metar.getObscurations())));
+            }
+        }
+    }
+
+    private static List<String> strings(List<?> conditions) {
+        List<String> strings = new ArrayList<>();
+        for (Object condition : conditions) {
+            if (condition instanceof WeatherCondition) {
+                strings.add(((WeatherCondition) condition)
+                        .getNaturalLanguageString());
+            } else if (condition instanceof SkyCondition) {
+                strings.add(((SkyCondition) condition)
+                        .getNaturalLanguageString());
+            } else if (condition instanceof RunwayVisualRange) {
+                strings.add(((RunwayVisualRange) condition)
+                        .getNaturalLanguageString());
+            } else {
+                strings.add(((Obscuration) condition)
+                        .getNaturalLanguageString());
+            }
+        }
+        return strings;
+    }
+
+    /**
+     * @return a destination that is not a StringBuilder
+     */
+    private static Appendable writer() {
+        return new StringWriter().append('>');
+    }
+
+    private static void assertForms(String string, StringBuilder sb,
+                                    Appendable out) {
+        assertEquals(">" + string, sb.toString());
+        assertEquals(">" + string, out.toString());
+    }
+
+    private static void assertContains(List<String> lines, String line) {
+        assertTrue(lines.toString(), lines.contains(line));
+    }
+}
@@ -0,0 +1,229 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TafParserTest {
+
+    private static final String KCNO = "TAF KCNO 121730Z 1218/1318 27010KT P6SM SCT040\n"
+            + "     FM130200 30008KT P6SM BKN015\n"
+            + "     TEMPO 1306/1310 3SM BR OVC008\n"
+            + "     FM131500 VRB04KT P6SM SKC=";
+
+    private static final String EGLL = "TAF EGLL 121700Z 1218/1324 24012KT 9999 BKN035 "
+            + "PROB30 TEMPO 1300/1306 4000 RA\n"
+            + "     BECMG 1310/1312 30015G25KT NSW=";
+
+    @Test
+    public void fromGroupsEndThePrevailingPeriod()
+            throws MetarParseException {
+        Taf taf = TafParser.parse(KCNO);
+
+        assertEquals("KCNO", taf.getStationID());
+        assertEquals("121730", dayTime(taf.getIssueDate()));
+        assertEquals("121800", dayTime(taf.getValidFrom()));
+        assertEquals("131800", dayTime(taf.getValidTo()));
+
+        List<TafForecast> forecasts = taf.getForecasts();
+        assertEquals(4, forecasts.size());
+
+        TafForecast initial = forecasts.get(0);
+        assertEquals(TafForecast.ChangeType.INITIAL, initial.getChangeType());
+        assertEquals("121800", dayTime(initial.getFrom()));
+        assertEquals("130200", dayTime(initial.getTo()));
+        assertEquals(270, (int) initial.getConditions().getWindDirection());
+        assertEquals(10f, initial.getConditions().getWindSpeedInKnots(), 0);
+
+        TafForecast from = forecasts.get(1);
+        assertEquals(TafForecast.ChangeType.FROM, from.getChangeType());
+        assertEquals("FM130200 30008KT P6SM BKN015", from.getRawText());
+        assertEquals("130200", dayTime(from.getFrom()));
+        assertEquals("131500", dayTime(from.getTo()));
+        assertFalse(from.getIsTemporary());
+        assertEquals("BKN", from.getConditions().getSkyConditions().get(0)
+                .getContraction());
+        assertEquals(1500, from.getConditions().getSkyConditions().get(0)
+                .getHeight());
+
+        TafForecast last = forecasts.get(3);
+        assertEquals(TafForecast.ChangeType.FROM, last.getChangeType());
+        assertEquals("131500", dayTime(last.getFrom()));
+        assertEquals("131800", dayTime(last.getTo()));
+        assertTrue(last.getConditions().getWindDirectionIsVariable());
+    }
+
+    @Test
+    public void tempoPeriodsDoNotChangeThePrevailingForecast()
+            throws MetarParseException {
+        Taf taf = TafParser.parse(KCNO);
+
+        TafForecast tempo = taf.getForecasts().get(2);
+        assertEquals(TafForecast.ChangeType.TEMPORARY, tempo.getChangeType());
+        assertTrue(tempo.getIsTemporary());
+        assertNull(tempo.getProbability());
+        assertEquals("130600", dayTime(tempo.getFrom()));
+        assertEquals("131000", dayTime(tempo.getTo()));
+        Metar conditions = tempo.getConditions();
+        assertEquals(3f, conditions.getVisibility(), 0);
+        assertEquals(1, conditions.getWeatherConditions().size());
+        assertTrue(conditions.getWeatherConditions().get(0).isMist());
+        assertEquals("OVC", conditions.getSkyConditions().get(0)
+                .getContraction());
+        assertEquals(800, conditions.getSkyConditions().get(0).getHeight());
+
+        Date during = hoursAfter(tempo.getFrom(), 1);
+        assertSame(taf.getForecasts().get(1),
+                taf.getPrevailingForecast(during));
+        assertNull(taf.getPrevailingForecast(taf.getValidTo()));
+    }
+
+    @Test
+    public void probabilityTempoIsTemporaryWithItsProbability()
+            throws MetarParseException {
+        Taf taf = TafParser.parse(EGLL);
+
+        assertEquals(3, taf.getForecasts().size());
+        TafForecast prob = taf.getForecasts().get(1);
+        assertEquals(TafForecast.ChangeType.PROBABILITY, prob.getChangeType());
+        assertEquals(30, (int) prob.getProbability());
+        assertTrue(prob.getIsTemporary());
+        assertEquals("PROB30 TEMPO 1300/1306 4000 RA", prob.getRawText());
+        assertEquals("130000", dayTime(prob.getFrom()));
+        assertEquals("130600", dayTime(prob.getTo()));
+        assertEquals(4000f, prob.getConditions().getVisibilityInMeters(), 0);
+        assertTrue(prob.getConditions().getWeatherConditions().get(0)
+                .isRain());
+    }
+
+    @Test
+    public void probabilityWithoutTempoIsNotTemporary()
+            throws MetarParseException {
+        Taf taf = TafParser.parse("TAF KDEN 121720Z 1218/1324 20010KT P6SM "
+                + "FEW080 PROB40 1300/1304 2SM TSRA BKN030CB");
+
+        TafForecast prob = taf.getForecasts().get(1);
+        assertEquals(TafForecast.ChangeType.PROBABILITY, prob.getChangeType());
+        assertEquals(40, (int) prob.getProbability());
+        assertFalse(prob.getIsTemporary());
+        assertTrue(prob.getConditions().getWeatherConditions().get(0)
+                .isThunderstorms());
+    }
+
+    @Test
+    public void becomingWithNoSignificantWeather()
+            throws MetarParseException {
+        Taf taf = TafParser.parse(EGLL);
+
+        TafForecast becoming = taf.getForecasts().get(2);
+        assertEquals(TafForecast.ChangeType.BECOMING,
+                becoming.getChangeType());
+        assertFalse(becoming.getIsTemporary());
+        assertEquals("131000", dayTime(becoming.getFrom()));
+        assertEquals("131200", dayTime(becoming.getTo()));
+        assertTrue(becoming.getIsNoSignificantWeather());
+        assertTrue(becoming.getOtherGroups().isEmpty());
+
+        Metar conditions = becoming.getConditions();
+        assertEquals(300, (int) conditions.getWindDirection());
+        assertEquals(15f, conditions.getWindSpeedInKnots(), 0);
+        assertEquals(25f, conditions.getWindGustsInKnots(), 0);
+        assertTrue(conditions.getWeatherConditions().isEmpty());
+
+        // the periods before it report their weather as usual
+        assertFalse(taf.getForecasts().get(1).getIsNoSignificantWeather());
+    }
+
+    @Test
+    public void supplementaryGroupsAreKeptUndecoded()
+            throws MetarParseException {
+        Taf taf = TafParser.parse("TAF KBOS 121730Z 1218/1324 31015KT P6SM "
+                + "SCT250 WS020/27045KT TX21/1219Z TN08/1310Z");
+
+        assertEquals(1, taf.getForecasts().size());
+        assertEquals(
+                List.of("WS020/27045KT", "TX21/1219Z", "TN08/1310Z"),
+                taf.getForecasts().get(0).getOtherGroups());
+    }
+
+    @Test
+    public void nilReportHasNoForecasts() throws MetarParseException {
+        Taf taf = TafParser.parse("TAF AMD KXYZ 121730Z NIL=");
+
+        assertTrue(taf.getIsNil());
+        assertFalse(taf.getIsCancelled());
+        assertEquals("KXYZ", taf.getStationID());
+        assertEquals("AMD", taf.getReportModifier());
+        assertEquals("121730", dayTime(taf.getIssueDate()));
+        assertNull(taf.getValidFrom());
+        assertTrue(taf.getForecasts().isEmpty());
+    }
+
+    @Test
+    public void cancelledReportHasNoForecasts() throws MetarParseException {
+        Taf taf = TafParser.parse("TAF AMD KXYZ 121730Z 1218/1318 CNL=");
+
+        assertTrue(taf.getIsCancelled());
+        assertFalse(taf.getIsNil());
+        assertEquals("121800", dayTime(taf.getValidFrom()));
+        assertTrue(taf.getForecasts().isEmpty());
+    }
+
+    @Test(expected = MetarParseException.class)
+    public void missingStationIsAnError() throws MetarParseException {
+        TafParser.parse("TAF AMD");
+    }
+
+    /**
+     * @return the day of the month, hour and minute in UTC, as in a report;
+     * days are resolved against the current date, so the month varies
+     */
+    private static String dayTime(Date date) {
+        Calendar calendar = Calendar.getInstance(
+                TimeZone.getTimeZone("GMT"));
+        calendar.setTime(date);
+        return String.format(Locale.ROOT, "%02d%02d%02d",
+                calendar.get(Calendar.DAY_OF_MONTH),
+                calendar.get(Calendar.HOUR_OF_DAY),
+                calendar.get(Calendar.MINUTE));
+    }
+
+    private static Date hoursAfter(Date date, int hours) {
+        return new Date(date.getTime() + TimeUnit.HOURS.toMillis(hours));
+    }
+}
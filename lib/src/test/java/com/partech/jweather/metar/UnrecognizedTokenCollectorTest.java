@@ -0,0 +1,159 @@
+/*
+jWeather(TM) is a Java library for parsing raw weather data
+Copyright (C) 2004 David Castro
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 2.1 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+You should have received a copy of the GNU Lesser General Public
+License along with this library; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+For more information, please email arimus@users.sourceforge.net
+
+******** NOTICE OF MODIFICATIONS ********
+This work has been modified by PAR Government (https://pargovernment.net/) as of July 2021.
+*/
+
+package com.partech.jweather.metar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class UnrecognizedTokenCollectorTest {
+
+    @Test
+    public void countsShapesExactlyBelowCapacity() {
+        UnrecognizedTokenCollector collector =
+                new UnrecognizedTokenCollector(16, 1);
+        collector.add("WS020/24045KT");
+        collector.add("WS010/18030KT");
+        collector.add("PK");
+        collector.add("WS999/99999KT");
+
+        List<UnrecognizedTokenCollector.Entry> top =
+                collector.getTopShapes(10);
+        assertEquals(2, top.size());
+        assertEquals("WSddd/dddddKT", top.get(0).getShape());
+        assertEquals(3, top.get(0).getCount());
+        assertEquals(0, top.get(0).getError());
+        assertEquals("PK", top.get(1).getShape());
+        assertEquals(1, top.get(1).getCount());
+        assertEquals(4, collector.getTotalCount());
+    }
+
+    @Test
+    public void truncatesLongTokens() {
+        UnrecognizedTokenCollector collector =
+                new UnrecognizedTokenCollector(4, 1);
+        collector.add("ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789");
+        collector.add("ABCDEFGHIJKLMNOPQRSTUVWXYZ012345XX");
+
+        List<UnrecognizedTokenCollector.Entry> top =
+                collector.getTopShapes(10);
+        assertEquals(1, top.size());
+        assertEquals("ABCDEFGHIJKLMNOPQRSTUVWXYZdddddd", top.get(0).getShape());
+        assertEquals(2, top.get(0).getCount());
+    }
+
+    @Test
+    public void boundsHoldWhenFull() {
+        UnrecognizedTokenCollector collector =
+                new UnrecognizedTokenCollector(8, 1);
+        Map<String, Long> actual = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            // a few frequent shapes and a long tail of rare ones
+            String shape = random.nextInt(3) == 0
+                    ? "HOT" + (char) ('A' + random.nextInt(3))
+                    : "RARE" + (char) ('A' + random.nextInt(26))
+                    + (char) ('A' + random.nextInt(26));
+            collector.add(shape);
+            actual.merge(shape, 1L, Long::sum);
+        }
+
+        List<UnrecognizedTokenCollector.Entry> top =
+                collector.getTopShapes(8);
+        assertEquals(8, top.size());
+        long sum = 0;
+        for (UnrecognizedTokenCollector.Entry entry : top) {
+            long count = actual.get(entry.getShape());
+            assertTrue(entry.toString(), count <= entry.getCount());
+            assertTrue(entry.toString(),
+                    count >= entry.getCount() - entry.getError());
+            sum += entry.getCount();
+        }
+        // Space-Saving counters always add up to the number of tokens
+        assertEquals(20000, sum);
+
+        // every shape above total / capacity is kept
+        for (int i = 0; i < 3; i++) {
+            String hot = "HOT" + (char) ('A' + i);
+            assertTrue(hot, top.stream()
+                    .anyMatch(e -> e.getShape().equals(hot)));
+        }
+    }
+
+    @Test
+    public void mergesStripesFromManyThreads() throws InterruptedException {
+        UnrecognizedTokenCollector collector =
+                new UnrecognizedTokenCollector(4, 8);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 10000; i++) {
+                    collector.add(i % 2 == 0 ? "WS020/24045KT"
+                            : "X" + random.nextInt(100));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80000, collector.getTotalCount());
+        UnrecognizedTokenCollector.Entry first =
+                collector.getTopShapes(1).get(0);
+        assertEquals("WSddd/dddddKT", first.getShape());
+        assertTrue(first.toString(), first.getCount() >= 40000);
+        assertTrue(first.toString(),
+                first.getCount() - first.getError() <= 40000);
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        UnrecognizedTokenCollector collector =
+                new UnrecognizedTokenCollector(2, 1);
+        for (int i = 0; i < 100; i++) {
+            collector.add("A" + (char) ('A' + i % 5));
+        }
+        collector.clear();
+        assertEquals(0, collector.getTotalCount());
+        assertEquals(0, collector.getTopShapes(10).size());
+
+        collector.add("PK");
+        assertEquals(1, collector.getTopShapes(10).get(0).getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroCapacity() {
+        new UnrecognizedTokenCollector(0);
+    }
+}